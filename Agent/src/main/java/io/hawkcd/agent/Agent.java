@@ -25,6 +25,7 @@ import com.sun.jersey.api.client.ClientResponse;
 import com.sun.jersey.api.client.WebResource;
 import io.hawkcd.agent.components.jobexecutor.IJobExecutor;
 import io.hawkcd.agent.components.jobexecutor.JobExecutor;
+import io.hawkcd.agent.constants.ConfigConstants;
 import io.hawkcd.agent.constants.MessageConstants;
 import io.hawkcd.agent.enums.JobStatus;
 import io.hawkcd.agent.interfaces.IAgent;
@@ -32,10 +33,15 @@ import io.hawkcd.agent.models.TaskDefinition;
 import io.hawkcd.agent.models.payload.WorkInfo;
 import io.hawkcd.agent.utilities.deserializers.MaterialDefinitionAdapter;
 import io.hawkcd.agent.utilities.deserializers.TaskDefinitionAdapter;
+import io.hawkcd.agent.models.Job;
 import io.hawkcd.agent.models.MaterialDefinition;
+import io.hawkcd.agent.utilities.HeartbeatState;
+import io.hawkcd.agent.utilities.JobLogCursor;
+import io.hawkcd.agent.utilities.ReportExclusionStrategy;
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response.Status;
 import java.util.Timer;
 import java.util.TimerTask;
@@ -50,11 +56,13 @@ public class Agent implements IAgent {
 
     private final Logger logger = LogManager.getLogger(this.getClass());
     private Timer checkForWorkTimer;
-    private Timer reportTimer;
-    private Timer reportAgentTimer;
+    private Timer heartbeatTimer;
     private IJobExecutor jobExecutor;
     private Client restClient;
     private Gson jsonConverter;
+    private Gson jobConverter;
+    private JobLogCursor jobLogCursor;
+    private HeartbeatState heartbeatState;
 
     public Agent() {
         AgentConfiguration.configure();
@@ -63,6 +71,14 @@ public class Agent implements IAgent {
                 .registerTypeAdapter(TaskDefinition.class, new TaskDefinitionAdapter())
                 .registerTypeAdapter(MaterialDefinition.class, new MaterialDefinitionAdapter())
                 .create();
+        // the report is uploaded separately by uploadJobLog, only the part the server does not have yet
+        this.jobConverter = new GsonBuilder()
+                .registerTypeAdapter(TaskDefinition.class, new TaskDefinitionAdapter())
+                .registerTypeAdapter(MaterialDefinition.class, new MaterialDefinitionAdapter())
+                .setExclusionStrategies(new ReportExclusionStrategy())
+                .create();
+        this.jobLogCursor = new JobLogCursor();
+        this.heartbeatState = new HeartbeatState(this.jobConverter);
         this.restClient = Client.create();
 
         ObjectMapper mapper = new ObjectMapper();
@@ -77,10 +93,11 @@ public class Agent implements IAgent {
     @Override
     public void reportJobToServer() {
         //String report = prepareReportForServer();
+        boolean isLogUploaded = this.uploadJobLog(this.jobExecutor.getCurrentJob());
         WebResource webResource = this.restClient.resource(AgentConfiguration.getInstallInfo().getReportJobApiAddress());
         ClientResponse response = null;
         try {
-            String jobAsString = this.jsonConverter.toJson(this.jobExecutor.getCurrentJob());
+            String jobAsString = this.jobConverter.toJson(this.jobExecutor.getCurrentJob());
             response = webResource.type("application/json").put(ClientResponse.class, jobAsString);
         } catch (Exception e) {
 //            this.logger.info(MessageConstants.AGENT_COULD_NOT_CONNECT);
@@ -89,17 +106,18 @@ public class Agent implements IAgent {
         if ((response != null) && (response.getStatus() == Status.OK.getStatusCode())) {
 //            this.logger.info(MessageConstants.JOB_REPORT_SENT);
 
-            if ((this.jobExecutor.getCurrentJob() != null) && ((this.jobExecutor.getCurrentJob().getStatus() == JobStatus.PASSED) || (this.jobExecutor.getCurrentJob().getStatus() == JobStatus.FAILED))) {
+            // a finished job is let go only after the server has stored all of its output
+            if (isLogUploaded && (this.jobExecutor.getCurrentJob() != null) && ((this.jobExecutor.getCurrentJob().getStatus() == JobStatus.PASSED) || (this.jobExecutor.getCurrentJob().getStatus() == JobStatus.FAILED))) {
                 try {
                     //report = prepareReportForServer();
-                    String jobAsString = this.jsonConverter.toJson(this.jobExecutor.getCurrentJob());
+                    String jobAsString = this.jobConverter.toJson(this.jobExecutor.getCurrentJob());
                     response = webResource.type("application/json").put(ClientResponse.class, jobAsString);
                 } catch (Exception e) {
 //                    this.logger.info(MessageConstants.AGENT_COULD_NOT_CONNECT);
                 }
 
                 if ((response != null) && (response.getStatus() == Status.OK.getStatusCode())) {
-                    String jobAsString = this.jsonConverter.toJson(this.jobExecutor.getCurrentJob());
+                    String jobAsString = this.jobConverter.toJson(this.jobExecutor.getCurrentJob());
                     webResource.type("application/json").put(ClientResponse.class, jobAsString);
                     this.logger.info(MessageConstants.JOB_REPORT_SENT);
                     AgentConfiguration.getAgentInfo().setRunning(false);
@@ -109,6 +127,39 @@ public class Agent implements IAgent {
         }
     }
 
+    // Sends the output appended to the job report since the last acknowledged upload, starting at the byte offset
+    // the server has stored. Returns true when the server has the whole report.
+    private boolean uploadJobLog(Job job) {
+        if (job == null) {
+            return true;
+        }
+
+        byte[] chunk = this.jobLogCursor.nextChunk(job);
+        if (chunk.length == 0) {
+            return true;
+        }
+
+        String address = String.format(AgentConfiguration.getInstallInfo().getReportJobLogApiAddress(), job.getId());
+        WebResource webResource = this.restClient.resource(address).queryParam("offset", String.valueOf(this.jobLogCursor.getOffset()));
+        ClientResponse response;
+        try {
+            response = webResource.type(MediaType.APPLICATION_OCTET_STREAM).put(ClientResponse.class, chunk);
+        } catch (Exception e) {
+            return false;
+        }
+
+        if (response.getStatus() == Status.OK.getStatusCode()) {
+            this.jobLogCursor.acknowledge(Long.parseLong(response.getEntity(String.class)));
+            return true;
+        }
+
+        if (response.getStatus() == Status.CONFLICT.getStatusCode()) {
+            this.jobLogCursor.reset();
+        }
+
+        return false;
+    }
+
     @Override
     public void reportAgentToServer() {
         WebResource webResource = this.restClient.resource(AgentConfiguration.getInstallInfo().getReportAgentApiAddress());
@@ -123,6 +174,45 @@ public class Agent implements IAgent {
         }
     }
 
+    // Sends the agent info and the current Job in one request, each only when it changed since the last acknowledged heartbeat.
+    @Override
+    public void reportHeartbeatToServer() {
+        Job currentJob = this.jobExecutor.getCurrentJob();
+        boolean isJobFinished = (currentJob != null) && ((currentJob.getStatus() == JobStatus.PASSED) || (currentJob.getStatus() == JobStatus.FAILED));
+        boolean isLogUploaded = this.uploadJobLog(currentJob);
+        WebResource webResource = this.restClient.resource(AgentConfiguration.getInstallInfo().getReportHeartbeatApiAddress());
+        ClientResponse response;
+        try {
+            String heartbeat = this.heartbeatState.nextHeartbeat(AgentConfiguration.getAgentInfo(), currentJob);
+            response = webResource.type("application/json").put(ClientResponse.class, heartbeat);
+        } catch (Exception e) {
+//            this.logger.info(MessageConstants.AGENT_COULD_NOT_CONNECT);
+            this.heartbeatState.reset();
+            return;
+        }
+
+        if (response.getStatus() == Status.NOT_FOUND.getStatusCode()) {
+            // the server does not take heartbeats yet, so the agent and the job are reported in full
+            this.reportAgentToServer();
+            this.reportJobToServer();
+            return;
+        }
+
+        if (response.getStatus() != Status.OK.getStatusCode()) {
+            this.heartbeatState.reset();
+            return;
+        }
+
+        this.heartbeatState.acknowledge();
+
+        // a finished job is let go only after the server has stored all of its output
+        if (isJobFinished && isLogUploaded) {
+            this.logger.info(MessageConstants.JOB_REPORT_SENT);
+            AgentConfiguration.getAgentInfo().setRunning(false);
+            this.jobExecutor.setCurrentJob(null);
+        }
+    }
+
     @Override
     public void checkForWork() {
 //        this.logger.info(MessageConstants.AGENT_CHECKING_FOR_WORK);
@@ -132,7 +222,11 @@ public class Agent implements IAgent {
             ClientResponse response = null;
 
             try {
-                response = webResource.accept("application/json").get(ClientResponse.class);
+                // the server holds the request until a job is assigned to the agent or the wait runs out
+                response = webResource
+                        .queryParam("wait", String.valueOf(ConfigConstants.CHECK_FOR_WORK_WAIT))
+                        .accept("application/json")
+                        .get(ClientResponse.class);
             } catch (Exception e) {
 //                this.logger.info(MessageConstants.AGENT_COULD_NOT_CONNECT);
             }
@@ -157,65 +251,63 @@ public class Agent implements IAgent {
 
     @Override
     public void start() {
-        this.startReportJobTimer();
-        this.startReportAgentTimer();
+        this.startHeartbeatTimer();
         this.startCheckForWorkTimer();
         this.logger.info(MessageConstants.AGENT_STARTED);
     }
 
     @Override
     public void stop() {
-        this.stopReportJobTimer();
-        this.stopReportAgentTimer();
+        this.stopHeartbeatTimer();
         this.stopCheckForWorkTimer();
         this.logger.info(MessageConstants.AGENT_STOPPED);
     }
 
-    private void startReportJobTimer() {
+    private void startHeartbeatTimer() {
 
-        TimerTask reportTask = new TimerTask() {
+        TimerTask heartbeatTask = new TimerTask() {
             @Override
             public void run() {
-                Agent.this.reportJobToServer();
+                Agent.this.reportHeartbeatToServer();
             }
         };
-        this.reportTimer = new Timer();
-        this.reportTimer.schedule(reportTask, 0, 4000);
+        this.heartbeatTimer = new Timer();
+        this.heartbeatTimer.schedule(heartbeatTask, 0, 4000);
     }
 
-    private void startReportAgentTimer() {
+    private void startCheckForWorkTimer() {
 
-        TimerTask reportAgentTask = new TimerTask() {
-            @Override
-            public void run() {
-                Agent.this.reportAgentToServer();
-            }
-        };
-        this.reportAgentTimer = new Timer();
-        this.reportAgentTimer.schedule(reportAgentTask, 0, 4000);
+        this.checkForWorkTimer = new Timer();
+        this.scheduleCheckForWork(2000);
     }
 
-    private void startCheckForWorkTimer() {
+    // A check that the server held for the whole interval is followed right away by the next one, while a quick answer,
+    // e.g. from a server that does not wait for work, is followed by the next check only once the interval has passed.
+    private void scheduleCheckForWork(long delay) {
 
         TimerTask checkForWorkTask = new TimerTask() {
             @Override
             public void run() {
-                Agent.this.checkForWork();
+                long startTime = System.currentTimeMillis();
+                try {
+                    Agent.this.checkForWork();
+                } finally {
+                    long elapsedTime = System.currentTimeMillis() - startTime;
+                    Agent.this.scheduleCheckForWork(Math.max(0, ConfigConstants.CHECK_FOR_WORK_INTERVAL - elapsedTime));
+                }
             }
         };
 
-        this.checkForWorkTimer = new Timer();
-        this.checkForWorkTimer.schedule(checkForWorkTask, 2000, 4000);
-    }
-
-    private void stopReportJobTimer() {
-
-        this.reportTimer.cancel();
+        try {
+            this.checkForWorkTimer.schedule(checkForWorkTask, delay);
+        } catch (IllegalStateException e) {
+            // the agent was stopped while checking for work
+        }
     }
 
-    private void stopReportAgentTimer() {
+    private void stopHeartbeatTimer() {
 
-        this.reportAgentTimer.cancel();
+        this.heartbeatTimer.cancel();
     }
 
     private void stopCheckForWorkTimer() {
@@ -93,8 +93,12 @@ public final class AgentConfiguration {
 
         installInfo.setReportJobApiAddress(String.format("%s/%s", installInfo.getServerAddress(), String.format(ConfigConstants.SERVER_REPORT_JOB_API_ADDRESS, getAgentInfo().getId())));
 
+        installInfo.setReportJobLogApiAddress(String.format("%s/%s", installInfo.getServerAddress(), ConfigConstants.SERVER_REPORT_JOB_LOG_API_ADDRESS));
+
         installInfo.setReportAgentApiAddress(String.format("%s/%s/%s/%s", installInfo.getServerAddress(), ConfigConstants.SERVER_REPORT_AGENT_API_ADDRESS, getAgentInfo().getId(), "report"));
 
+        installInfo.setReportHeartbeatApiAddress(String.format("%s/%s", installInfo.getServerAddress(), String.format(ConfigConstants.SERVER_REPORT_HEARTBEAT_API_ADDRESS, getAgentInfo().getId())));
+
         installInfo.setCheckForWorkApiAddress(String.format("%s/%s", installInfo.getServerAddress(), String.format(ConfigConstants.SERVER_CHECK_FOR_WORK_API_ADDRESS, getAgentInfo().getId())));
 
         installInfo.setCreateArtifactApiAddress(String.format("%s/%s", installInfo.getServerAddress(), ConfigConstants.SERVER_CREATE_ARTIFACT_API_ADDRESS));
@@ -106,6 +110,11 @@ public final class AgentConfiguration {
         installInfo.setAgentTempDirectoryPath(Paths.get(ConfigConstants.AGENT_SANDBOX, ConfigConstants.AGENT_TEMP_DIR).toString());
 
         installInfo.setAgentArtifactsDirectoryPath(Paths.get(ConfigConstants.AGENT_SANDBOX, ConfigConstants.ARTIFACTS_DIRECTORY).toString());
+
+        installInfo.setAgentMirrorsDirectoryPath(Paths.get(ConfigConstants.AGENT_SANDBOX, ConfigConstants.AGENT_MIRRORS_DIR).toString());
+
+        String gitMirrorCacheSize = configFileProperties.getProperty("gitMirrorCacheSize");
+        installInfo.setGitMirrorCacheSize((gitMirrorCacheSize != null && !gitMirrorCacheSize.isEmpty()) ? Integer.parseInt(gitMirrorCacheSize) : ConfigConstants.GIT_MIRROR_CACHE_SIZE);
     }
 
     private static void configureEnvironmentInfo() {
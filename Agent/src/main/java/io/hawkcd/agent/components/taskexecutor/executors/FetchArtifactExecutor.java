@@ -17,6 +17,7 @@
 package io.hawkcd.agent.components.taskexecutor.executors;
 
 import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientHandlerException;
 import com.sun.jersey.api.client.ClientResponse;
 import com.sun.jersey.api.client.WebResource;
 import io.hawkcd.agent.AgentConfiguration;
@@ -29,13 +30,22 @@ import io.hawkcd.agent.models.payload.WorkInfo;
 import io.hawkcd.agent.services.FileManagementService;
 import io.hawkcd.agent.services.interfaces.IFileManagementService;
 import io.hawkcd.agent.utilities.ReportAppender;
+import org.apache.commons.io.IOUtils;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 public class FetchArtifactExecutor extends TaskExecutor {
+    private static final String PART_FILE_EXTENSION = ".part";
 
     private Client restClient;
     private IFileManagementService fileManagementService;
@@ -71,6 +81,27 @@ public class FetchArtifactExecutor extends TaskExecutor {
         LOGGER.debug(fetchingMessage);
         ReportAppender.appendInfoMessage(fetchingMessage, report);
 
+        String destination;
+        if (taskDefinition.getDestination() != null) {
+            destination = String.valueOf(Paths.get(AgentConfiguration.getInstallInfo().getAgentPipelinesDir() + File.separator + taskDefinition.getDesignatedPipelineDefinitionName(), taskDefinition.getDestination()));
+        } else {
+            destination = String.valueOf(Paths.get(AgentConfiguration.getInstallInfo().getAgentPipelinesDir() + File.separator + taskDefinition.getDesignatedPipelineDefinitionName()));
+        }
+
+        String artifactSource = taskDefinition.getSource();
+        if (artifactSource != null && !artifactSource.isEmpty() && !artifactSource.contains("*") && !artifactSource.endsWith("/") && !artifactSource.endsWith("\\")) {
+            String artifactFolderPath = String.format(ConfigConstants.SERVER_CREATE_ARTIFACT_API_ADDRESS, taskDefinition.getDesignatedPipelineDefinitionName(), taskDefinition.getDesignatedPipelineExecutionId());
+            String fileAddress = String.format("%s/%s/%s", AgentConfiguration.getInstallInfo().getServerAddress(), artifactFolderPath, this.encodePath(artifactSource));
+            File file = new File(destination, Paths.get(artifactSource).getFileName().toString());
+            try {
+                if (this.downloadFile(fileAddress, file)) {
+                    return this.completeFetch(task, report, destination);
+                }
+            } catch (IOException e) {
+                return this.nullProcessing(report, task, String.format("Error occurred in downloading %s: %s", artifactSource, e.getMessage()));
+            }
+        }
+
         String folderPath = String.format(ConfigConstants.SERVER_CREATE_ARTIFACT_API_ADDRESS, workInfo.getPipelineDefinitionName(), workInfo.getPipelineExecutionID());
         AgentConfiguration.getInstallInfo().setCreateArtifactApiAddress(String.format("%s/%s", AgentConfiguration.getInstallInfo().getServerAddress(), folderPath));
 
@@ -88,33 +119,18 @@ public class FetchArtifactExecutor extends TaskExecutor {
             return this.nullProcessing(report, task, "Could not get resource. Input stream is null");
         }
 
-        String filePath = Paths.get(AgentConfiguration.getInstallInfo().getAgentTempDirectoryPath(), UUID.randomUUID() + ".zip").toString();
-        File fetchArtifactDir = new File(filePath);
-        this.fileManagementService.generateDirectory(fetchArtifactDir);
-
-        String errorMessage;
-        errorMessage = this.fileManagementService.initiateFile(fetchArtifactDir, response.getEntityInputStream(), filePath);
-        if (errorMessage != null) {
-            return this.nullProcessing(report, task, "Error occurred in creating the artifact!");
-        }
-        String destination;
-        if (taskDefinition.getDestination() != null) {
-            destination = String.valueOf(Paths.get(AgentConfiguration.getInstallInfo().getAgentPipelinesDir() + File.separator + taskDefinition.getDesignatedPipelineDefinitionName(), taskDefinition.getDestination()));
-        } else {
-            destination = String.valueOf(Paths.get(AgentConfiguration.getInstallInfo().getAgentPipelinesDir() + File.separator + taskDefinition.getDesignatedPipelineDefinitionName()));
-        }
-        errorMessage = this.fileManagementService.unzipFile(filePath, destination);
-        filePath = Paths.get(AgentConfiguration.getInstallInfo().getAgentTempDirectoryPath()).toString();
-        String deleteMessage = this.fileManagementService.deleteFilesInDirectory(filePath);
+        // the entries are extracted as the response body arrives instead of saving the archive to the Temp directory first
+        String errorMessage = this.fileManagementService.unzipStream(response.getEntityInputStream(), destination);
+        response.close();
 
         if (errorMessage != null) {
             return this.nullProcessing(report, task, "Error occurred in unzipping files!");
         }
 
-        if (deleteMessage != null) {
-            return this.nullProcessing(report, task, "Error occurred in deleting files!");
-        }
+        return this.completeFetch(task, report, destination);
+    }
 
+    private Task completeFetch(Task task, StringBuilder report, String destination) {
         super.updateTask(task, TaskStatus.PASSED, null, LocalDateTime.now());
 
         String fetchedMessage = String.format("Saved artifact to %s after verifying the integrity of its contents.", destination);
@@ -123,4 +139,73 @@ public class FetchArtifactExecutor extends TaskExecutor {
 
         return task;
     }
+
+    // Downloads a single artifact file into a .part file next to it. After an interrupted transfer the download is resumed
+    // from the bytes already received, for as long as the server still has the same version of the file (If-Range).
+    // Returns false when the source is not a single file on the server, so it has to be fetched as an archive.
+    private boolean downloadFile(String address, File file) throws IOException {
+        File partFile = new File(file.getPath() + PART_FILE_EXTENSION);
+        Files.deleteIfExists(partFile.toPath());
+
+        String entityTag = null;
+        IOException lastException = null;
+        for (int attempt = 0; attempt < ConfigConstants.ARTIFACT_DOWNLOAD_ATTEMPTS; attempt++) {
+            long offset = entityTag != null && partFile.exists() ? partFile.length() : 0;
+            WebResource.Builder request = this.restClient.resource(address).getRequestBuilder();
+            if (offset > 0) {
+                LOGGER.debug(String.format("Resuming the download of %s from byte %d", address, offset));
+                request = request.header("Range", "bytes=" + offset + "-").header("If-Range", entityTag);
+            }
+
+            ClientResponse response;
+            try {
+                response = request.get(ClientResponse.class);
+            } catch (ClientHandlerException e) {
+                lastException = new IOException(e.getMessage(), e);
+                continue;
+            }
+
+            if (response.getStatus() == 404) {
+                response.close();
+                return false;
+            }
+
+            if (response.getStatus() != 200 && response.getStatus() != 206) {
+                response.close();
+                throw new IOException(String.format("Returned status code %s", response.getStatus()));
+            }
+
+            entityTag = response.getHeaders().getFirst("ETag");
+            Files.createDirectories(partFile.getAbsoluteFile().getParentFile().toPath());
+            try (InputStream inputStream = response.getEntityInputStream();
+                 OutputStream outputStream = new FileOutputStream(partFile, response.getStatus() == 206)) {
+                IOUtils.copy(inputStream, outputStream);
+            } catch (IOException e) {
+                lastException = e;
+                continue;
+            }
+
+            Files.move(partFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        }
+
+        throw lastException;
+    }
+
+    private String encodePath(String path) {
+        StringBuilder encodedPath = new StringBuilder();
+        for (String segment : path.replace('\\', '/').split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+
+            try {
+                encodedPath.append(encodedPath.length() == 0 ? "" : "/").append(URLEncoder.encode(segment, "UTF-8").replace("+", "%20"));
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        return encodedPath.toString();
+    }
 }
\ No newline at end of file
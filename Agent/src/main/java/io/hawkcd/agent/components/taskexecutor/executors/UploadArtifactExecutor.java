@@ -18,7 +18,9 @@ package io.hawkcd.agent.components.taskexecutor.executors;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
 import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientHandlerException;
 import com.sun.jersey.api.client.ClientResponse;
 import com.sun.jersey.api.client.WebResource;
 import io.hawkcd.agent.AgentConfiguration;
@@ -28,22 +30,25 @@ import io.hawkcd.agent.enums.TaskStatus;
 import io.hawkcd.agent.models.Task;
 import io.hawkcd.agent.models.TaskDefinition;
 import io.hawkcd.agent.models.UploadArtifactTask;
-import io.hawkcd.agent.models.payload.UploadArtifactInfo;
+import io.hawkcd.agent.models.payload.ArtifactManifestEntry;
 import io.hawkcd.agent.models.payload.WorkInfo;
 import io.hawkcd.agent.services.FileManagementService;
 import io.hawkcd.agent.services.interfaces.IFileManagementService;
 import io.hawkcd.agent.utilities.ReportAppender;
 import io.hawkcd.agent.utilities.deserializers.TaskDefinitionAdapter;
-import org.apache.commons.io.FileUtils;
 
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class UploadArtifactExecutor extends TaskExecutor {
     private Client restClient;
@@ -53,6 +58,7 @@ public class UploadArtifactExecutor extends TaskExecutor {
 
     public UploadArtifactExecutor() {
         this.restClient = Client.create();
+        this.restClient.setChunkedEncodingSize(ConfigConstants.ARTIFACT_CHUNK_SIZE);
         this.fileManagementService = new FileManagementService();
         this.jsonConverter = new GsonBuilder()
                 .registerTypeAdapter(TaskDefinition.class, new TaskDefinitionAdapter())
@@ -61,6 +67,7 @@ public class UploadArtifactExecutor extends TaskExecutor {
 
     public UploadArtifactExecutor(Client client, IFileManagementService fileManagementService) {
         this.restClient = client.create();
+        this.restClient.setChunkedEncodingSize(ConfigConstants.ARTIFACT_CHUNK_SIZE);
         this.fileManagementService = fileManagementService;
         this.jsonConverter = new GsonBuilder()
                 .registerTypeAdapter(TaskDefinition.class, new TaskDefinitionAdapter())
@@ -96,17 +103,7 @@ public class UploadArtifactExecutor extends TaskExecutor {
             return this.nullProcessing(report, task, String.format("Error in getting files in %s", fullPath));
         }
 
-        File zipFile = this.fileManagementService.generateUniqueFile(AgentConfiguration.getInstallInfo().getAgentTempDirectoryPath(), "zip");
-
-        String errorMessage = this.fileManagementService.zipFiles(zipFile.getPath(), files, rootPath, true);
-
-        if (errorMessage != null) {
-            zipFile.delete();
-            return this.nullProcessing(report, task, "Error occurred in zipping files!");
-        }
-
         String executionFolder = String.valueOf(workInfo.getPipelineExecutionID());
-        UploadArtifactInfo uploadArtifactInfo = new UploadArtifactInfo(zipFile, taskDefinition.getDestination());
         String folderPath = String.format(ConfigConstants.SERVER_CREATE_ARTIFACT_API_ADDRESS, workInfo.getPipelineDefinitionName(), executionFolder);
         AgentConfiguration.getInstallInfo().setCreateArtifactApiAddress(String.format("%s/%s", AgentConfiguration.getInstallInfo().getServerAddress(), folderPath));
 
@@ -118,28 +115,126 @@ public class UploadArtifactExecutor extends TaskExecutor {
 
         }
 
-        String requestSource = this.fileManagementService.urlCombine(AgentConfiguration.getInstallInfo().getCreateArtifactApiAddress()) + "/upload-artifact" + "?destination=" + destination;
+        String artifactAddress = this.fileManagementService.urlCombine(AgentConfiguration.getInstallInfo().getCreateArtifactApiAddress());
+        Map<String, File> entries = this.fileManagementService.getArchiveEntries(files, rootPath, true);
+        if (entries != null && !entries.isEmpty()) {
+            String errorMessage;
+            try {
+                errorMessage = this.uploadBlobs(artifactAddress, destination, entries, report);
+            } catch (ClientHandlerException e) {
+                errorMessage = e.getMessage();
+            }
+
+            if (errorMessage == null) {
+                this.updateTask(task, TaskStatus.PASSED, null, LocalDateTime.now());
+                return task;
+            }
+
+            // e.g. a server that does not store blobs yet, so the artifact is sent the way it was before
+            String fallbackMessage = String.format("Could not upload the changed files only: %s. Uploading the whole artifact.", errorMessage);
+            LOGGER.debug(fallbackMessage);
+            ReportAppender.appendInfoMessage(fallbackMessage, report);
+        }
+
+        String requestSource = artifactAddress + "/upload-artifact" + "?destination=" + destination;
         WebResource webResource = this.restClient.resource(requestSource);
-        InputStream targetStream = null;
+
+        // the archive is written straight into the chunked request body, so nothing is staged in the Temp directory
+        AtomicReference<String> zipErrorMessage = new AtomicReference<>();
+        StreamingOutput zipStream = outputStream -> {
+            zipErrorMessage.set(this.fileManagementService.zipFilesToStream(outputStream, files, rootPath, true));
+            if (zipErrorMessage.get() != null) {
+                throw new IOException(zipErrorMessage.get());
+            }
+        };
+
+        ClientResponse response;
         try {
-            targetStream = FileUtils.openInputStream(zipFile);
-        } catch (IOException e) {
-            e.printStackTrace();
+            response = webResource
+                    .type(MediaType.MULTIPART_FORM_DATA_TYPE)
+                    .post(ClientResponse.class, zipStream);
+        } catch (ClientHandlerException e) {
+            if (zipErrorMessage.get() != null) {
+                return this.nullProcessing(report, task, "Error occurred in zipping files!");
+            }
+
+            return this.nullProcessing(report, task, String.format("Error occurred in uploading the artifact! %s", e.getMessage()));
         }
 
-        ClientResponse response = webResource
-                .type(MediaType.MULTIPART_FORM_DATA_TYPE)
-                .post(ClientResponse.class, targetStream);
-
         if (response.getStatus() != 200) {
-            zipFile.delete();
             return this.nullProcessing(report, task, String.format("Error occurred in server response! Returned status code: %s", response.getStatus()));
         }
 
-        zipFile.delete();
-
         this.updateTask(task, TaskStatus.PASSED, null, LocalDateTime.now());
 
         return task;
     }
+
+    // Sends the manifest of the artifact after uploading only the blobs, identified by the SHA-256 of their content,
+    // that the server does not have from an earlier upload.
+    private String uploadBlobs(String artifactAddress, String destination, Map<String, File> entries, StringBuilder report) {
+        List<ArtifactManifestEntry> manifest = new ArrayList<>();
+        Map<String, File> blobs = new LinkedHashMap<>();
+        for (Map.Entry<String, File> entry : entries.entrySet()) {
+            File file = entry.getValue();
+            if (file.isDirectory()) {
+                manifest.add(new ArtifactManifestEntry(entry.getKey(), null, 0));
+                continue;
+            }
+
+            String hash = this.fileManagementService.getFileHash(file);
+            if (hash == null) {
+                return String.format("could not read %s", file.getPath());
+            }
+
+            manifest.add(new ArtifactManifestEntry(entry.getKey(), hash, file.length()));
+            blobs.put(hash, file);
+        }
+
+        ClientResponse response = this.restClient.resource(artifactAddress + "/missing-blobs")
+                .type(MediaType.APPLICATION_JSON_TYPE)
+                .post(ClientResponse.class, this.jsonConverter.toJson(new ArrayList<>(blobs.keySet())));
+        if (response.getStatus() != 200) {
+            return String.format("server returned status code %s", response.getStatus());
+        }
+
+        List<String> missingHashes = this.jsonConverter.fromJson(response.getEntity(String.class), new TypeToken<List<String>>() {
+        }.getType());
+        Map<String, File> missingBlobs = new LinkedHashMap<>();
+        for (String hash : missingHashes) {
+            if (blobs.containsKey(hash)) {
+                missingBlobs.put(hash, blobs.get(hash));
+            }
+        }
+
+        if (!missingBlobs.isEmpty()) {
+            AtomicReference<String> zipErrorMessage = new AtomicReference<>();
+            StreamingOutput blobStream = outputStream -> {
+                zipErrorMessage.set(this.fileManagementService.zipEntriesToStream(outputStream, missingBlobs));
+                if (zipErrorMessage.get() != null) {
+                    throw new IOException(zipErrorMessage.get());
+                }
+            };
+
+            response = this.restClient.resource(artifactAddress + "/upload-blobs")
+                    .type(MediaType.APPLICATION_OCTET_STREAM_TYPE)
+                    .post(ClientResponse.class, blobStream);
+            if (response.getStatus() != 200) {
+                return String.format("server returned status code %s", response.getStatus());
+            }
+        }
+
+        response = this.restClient.resource(artifactAddress + "/manifest" + "?destination=" + destination)
+                .type(MediaType.APPLICATION_JSON_TYPE)
+                .post(ClientResponse.class, this.jsonConverter.toJson(manifest));
+        if (response.getStatus() != 200) {
+            return String.format("server returned status code %s", response.getStatus());
+        }
+
+        String uploadedMessage = String.format("Uploaded %d of %d files, the others are already stored on the server.", missingBlobs.size(), blobs.size());
+        LOGGER.debug(uploadedMessage);
+        ReportAppender.appendInfoMessage(uploadedMessage, report);
+
+        return null;
+    }
 }
@@ -27,12 +27,20 @@ public final class ConfigConstants {
     public static final String AGENT_LOG_DIR = "Log";
     public static final String AGENT_PIPELINES_DIR = "Pipelines";
     public static final String AGENT_TEMP_DIR = "Temp";
+    public static final String AGENT_MIRRORS_DIR = "Mirrors";
+    public static final int GIT_MIRROR_CACHE_SIZE = 10;
     public static final String SERVER_NAME = "localhost";
     public static final int SERVER_PORT = 8080;
     public static final String SERVER_REPORT_AGENT_API_ADDRESS = "agents";
     public static final String SERVER_REPORT_JOB_API_ADDRESS = "agents/work";
+    public static final String SERVER_REPORT_JOB_LOG_API_ADDRESS = "agents/work/%s/log";
+    public static final String SERVER_REPORT_HEARTBEAT_API_ADDRESS = "agents/%s/heartbeat";
     public static final String SERVER_CHECK_FOR_WORK_API_ADDRESS = "agents/%s/work";
+    public static final int CHECK_FOR_WORK_INTERVAL = 4000;
+    public static final int CHECK_FOR_WORK_WAIT = 30;
     public static final String SERVER_CREATE_ARTIFACT_API_ADDRESS = "Artifacts/%s/%s";
+    public static final int ARTIFACT_CHUNK_SIZE = 64 * 1024;
+    public static final int ARTIFACT_DOWNLOAD_ATTEMPTS = 5;
     public static final String SERVER_FETCH_ARTIFACT_API_ADDRESS = "pipeline-definitions";
     public static final String ARTIFACTS_DIRECTORY = "Artifacts";
 }
@@ -22,6 +22,8 @@ public interface IAgent {
 
     void reportAgentToServer();
 
+    void reportHeartbeatToServer();
+
     void checkForWork();
 
     void start();
@@ -22,10 +22,14 @@ public class InstallInfo {
     private String agentSandbox;
     private String agentTempDirectoryPath;
     private String agentArtifactsDirectoryPath;
+    private String agentMirrorsDirectoryPath;
+    private int gitMirrorCacheSize;
     private String agentPipelinesDir;
     private String serverAddress;
     private String reportJobApiAddress;
+    private String reportJobLogApiAddress;
     private String reportAgentApiAddress;
+    private String reportHeartbeatApiAddress;
     private String checkForWorkApiAddress;
     private String createArtifactApiAddress;
     private String fetchArtifactApiAddress;
@@ -70,6 +74,14 @@ public class InstallInfo {
         this.serverAddress = serverAddress;
     }
 
+    public String getReportJobLogApiAddress() {
+        return reportJobLogApiAddress;
+    }
+
+    public void setReportJobLogApiAddress(String reportJobLogApiAddress) {
+        this.reportJobLogApiAddress = reportJobLogApiAddress;
+    }
+
     public String getReportJobApiAddress() {
         return reportJobApiAddress;
     }
@@ -86,6 +98,14 @@ public class InstallInfo {
         this.reportAgentApiAddress = reportAgentApiAddress;
     }
 
+    public String getReportHeartbeatApiAddress() {
+        return this.reportHeartbeatApiAddress;
+    }
+
+    public void setReportHeartbeatApiAddress(String reportHeartbeatApiAddress) {
+        this.reportHeartbeatApiAddress = reportHeartbeatApiAddress;
+    }
+
     public String getCheckForWorkApiAddress() {
         return checkForWorkApiAddress;
     }
@@ -102,6 +122,22 @@ public class InstallInfo {
         this.agentArtifactsDirectoryPath = agentArtifactsDirectoryPath;
     }
 
+    public String getAgentMirrorsDirectoryPath() {
+        return agentMirrorsDirectoryPath;
+    }
+
+    public void setAgentMirrorsDirectoryPath(String agentMirrorsDirectoryPath) {
+        this.agentMirrorsDirectoryPath = agentMirrorsDirectoryPath;
+    }
+
+    public int getGitMirrorCacheSize() {
+        return gitMirrorCacheSize;
+    }
+
+    public void setGitMirrorCacheSize(int gitMirrorCacheSize) {
+        this.gitMirrorCacheSize = gitMirrorCacheSize;
+    }
+
     public String getCreateArtifactApiAddress() {
         return createArtifactApiAddress;
     }
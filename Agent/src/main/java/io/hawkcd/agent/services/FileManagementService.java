@@ -28,13 +28,28 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.tools.ant.DirectoryScanner;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
 public class FileManagementService implements IFileManagementService {
 
@@ -102,6 +117,137 @@ public class FileManagementService implements IFileManagementService {
         return errorMessage;
     }
 
+    @Override
+    public String zipFilesToStream(OutputStream outputStream, List<File> files, String filesRootPath, boolean includeRootPath) {
+
+        Map<String, File> entries = this.getArchiveEntries(files, filesRootPath, includeRootPath);
+        if (entries == null) {
+            return String.format("Could not list the files in %s", filesRootPath);
+        }
+
+        return this.zipEntriesToStream(outputStream, entries);
+    }
+
+    @Override
+    public Map<String, File> getArchiveEntries(List<File> files, String filesRootPath, boolean includeRootPath) {
+
+        Map<String, File> entries = new LinkedHashMap<>();
+        try {
+            for (File file : files) {
+                if (file.isFile()) {
+                    Path entryRoot = filesRootPath == null || filesRootPath.isEmpty() ? file.getAbsoluteFile().getParentFile().toPath() : Paths.get(filesRootPath).toAbsolutePath();
+                    this.addArchiveEntry(entries, entryRoot, file.getAbsoluteFile().toPath());
+                }
+                if (file.isDirectory()) {
+                    File directory = file.getAbsoluteFile();
+                    Path entryRoot = includeRootPath && directory.getParentFile() != null ? directory.getParentFile().toPath() : directory.toPath();
+                    try (Stream<Path> paths = Files.walk(directory.toPath())) {
+                        for (Path path : (Iterable<Path>) paths::iterator) {
+                            this.addArchiveEntry(entries, entryRoot, path);
+                        }
+                    }
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            return null;
+        }
+
+        return entries;
+    }
+
+    // Directories are written as entries ending with a slash, files as their content.
+    @Override
+    public String zipEntriesToStream(OutputStream outputStream, Map<String, File> entries) {
+
+        String errorMessage = null;
+        try {
+            ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream);
+            zipOutputStream.setLevel(Deflater.BEST_SPEED);
+            for (Map.Entry<String, File> entry : entries.entrySet()) {
+                if (entry.getValue().isDirectory()) {
+                    zipOutputStream.putNextEntry(new ZipEntry(entry.getKey() + "/"));
+                    zipOutputStream.closeEntry();
+                } else {
+                    zipOutputStream.putNextEntry(new ZipEntry(entry.getKey()));
+                    Files.copy(entry.getValue().toPath(), zipOutputStream);
+                    zipOutputStream.closeEntry();
+                }
+            }
+
+            zipOutputStream.finish();
+            zipOutputStream.flush();
+        } catch (IOException e) {
+            errorMessage = e.getMessage();
+        }
+
+        return errorMessage;
+    }
+
+    @Override
+    public String getFileHash(File file) {
+
+        try (InputStream stream = new FileInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+
+            StringBuilder hash = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hash.append(String.format("%02x", b));
+            }
+
+            return hash.toString();
+        } catch (IOException e) {
+            return null;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public String unzipStream(InputStream stream, String destination) {
+
+        String errorMessage = null;
+        Path destinationPath = Paths.get(destination).toAbsolutePath().normalize();
+        try {
+            ZipInputStream zipInputStream = new ZipInputStream(stream);
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                Path entryPath = destinationPath.resolve(entry.getName()).normalize();
+                if (!entryPath.startsWith(destinationPath)) {
+                    return String.format("Zip entry %s is outside of %s", entry.getName(), destination);
+                }
+
+                if (entry.isDirectory()) {
+                    Files.createDirectories(entryPath);
+                } else {
+                    Files.createDirectories(entryPath.getParent());
+                    Files.copy(zipInputStream, entryPath, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        } catch (IOException e) {
+            errorMessage = e.getMessage();
+        }
+
+        return errorMessage;
+    }
+
+    private void addArchiveEntry(Map<String, File> entries, Path entryRoot, Path path) {
+        if (path.equals(entryRoot)) {
+            return;
+        }
+
+        String entryName = this.normalizePath(entryRoot.relativize(path).toString());
+        if (entryName.startsWith("..")) {
+            entryName = path.getFileName().toString();
+        }
+
+        entries.put(entryName, path.toFile());
+    }
+
     @Override
     public String initiateFile(File file, InputStream stream, String filePath) {
         String errorMessage = null;
@@ -19,38 +19,162 @@ package io.hawkcd.agent.services;
 import io.hawkcd.agent.AgentConfiguration;
 import io.hawkcd.agent.models.FetchMaterialTask;
 import io.hawkcd.agent.models.GitMaterial;
-import org.eclipse.jgit.api.CloneCommand;
+import org.apache.commons.io.FileUtils;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.api.errors.JGitInternalException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.transport.RefSpec;
 import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
 
+/*
+* Fetches Git materials through a bare mirror per repository, so a job only fetches the commits added since the
+* previous one. The material directory borrows the objects of the mirror through objects/info/alternates instead of
+* copying them. The least recently used mirrors are deleted once there are more than the configured cache size.
+*/
 public class GitMaterialService extends MaterialService {
+    private static final String MIRROR_REFSPEC = "+refs/heads/*:refs/heads/*";
+    private static final String REMOTE_NAME = "origin";
+
+    private String mirrorsDirectoryPath;
+    private int mirrorCacheSize;
+
+    public GitMaterialService() {
+        this(AgentConfiguration.getInstallInfo().getAgentMirrorsDirectoryPath(), AgentConfiguration.getInstallInfo().getGitMirrorCacheSize());
+    }
+
+    public GitMaterialService(String mirrorsDirectoryPath, int mirrorCacheSize) {
+        this.mirrorsDirectoryPath = mirrorsDirectoryPath;
+        this.mirrorCacheSize = mirrorCacheSize;
+    }
 
     @Override
     public String fetchMaterial(FetchMaterialTask task) {
         String errorMessage = null;
         String materialPath = Paths.get(AgentConfiguration.getInstallInfo().getAgentPipelinesDir(), task.getPipelineName(), task.getDestination()).toString();
         GitMaterial definition = (GitMaterial) task.getMaterialDefinition();
-        CloneCommand clone = Git.cloneRepository();
-        clone.setURI(definition.getRepositoryUrl());
-        clone.setBranch(definition.getBranch());
-        clone.setDirectory(new File(materialPath));
-        clone.setCloneSubmodules(true);
         UsernamePasswordCredentialsProvider credentials = this.handleCredentials(definition);
-        clone.setCredentialsProvider(credentials);
         try {
-            Git git = clone.call();
-            git.close();
-        } catch (GitAPIException e) {
+            File mirror = this.updateMirror(definition, credentials);
+            this.checkoutFromMirror(mirror, new File(materialPath), definition, credentials);
+            this.evictMirrors(mirror);
+        } catch (GitAPIException | IOException e) {
             errorMessage = e.getMessage();
         }
 
         return errorMessage;
     }
 
+    private File updateMirror(GitMaterial definition, UsernamePasswordCredentialsProvider credentials) throws GitAPIException, IOException {
+        File mirror = new File(this.mirrorsDirectoryPath, this.getMirrorName(definition.getRepositoryUrl()));
+        if (mirror.isDirectory()) {
+            try (Git git = Git.open(mirror)) {
+                git.fetch()
+                        .setRemote(REMOTE_NAME)
+                        .setRefSpecs(new RefSpec(MIRROR_REFSPEC))
+                        .setRemoveDeletedRefs(true)
+                        .setCredentialsProvider(credentials)
+                        .call();
+            } catch (IOException | JGitInternalException e) {
+                // a mirror left broken by an interrupted fetch is cloned again instead of failing every following job,
+                // while transport errors fail the fetch and keep the mirror for the next one
+                FileUtils.deleteDirectory(mirror);
+            }
+        }
+
+        if (!mirror.isDirectory()) {
+            // the clone is moved into place only when complete, so an interrupted clone never looks like a mirror
+            File partialMirror = new File(this.mirrorsDirectoryPath, mirror.getName() + ".tmp");
+            FileUtils.deleteDirectory(partialMirror);
+            Git.cloneRepository()
+                    .setURI(definition.getRepositoryUrl())
+                    .setDirectory(partialMirror)
+                    .setBare(true)
+                    .setCloneAllBranches(true)
+                    .setCredentialsProvider(credentials)
+                    .call()
+                    .close();
+            Files.move(partialMirror.toPath(), mirror.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        mirror.setLastModified(System.currentTimeMillis());
+
+        return mirror;
+    }
+
+    private void checkoutFromMirror(File mirror, File materialDirectory, GitMaterial definition, UsernamePasswordCredentialsProvider credentials) throws GitAPIException, IOException {
+        ObjectId commitId;
+        String branch;
+        try (Git mirrorGit = Git.open(mirror)) {
+            Repository mirrorRepository = mirrorGit.getRepository();
+            branch = definition.getBranch() != null ? definition.getBranch() : mirrorRepository.getBranch();
+            String revision = definition.getCommitId() != null ? definition.getCommitId() : Constants.R_HEADS + branch;
+            commitId = mirrorRepository.resolve(revision + "^{commit}");
+            if (commitId == null) {
+                throw new IOException(String.format("Could not find %s in %s", revision, definition.getRepositoryUrl()));
+            }
+        }
+
+        Git.init().setDirectory(materialDirectory).call().close();
+        File alternates = new File(materialDirectory, Constants.DOT_GIT + "/objects/info/alternates");
+        FileUtils.writeStringToFile(alternates, new File(mirror, "objects").getAbsolutePath() + "\n", StandardCharsets.UTF_8);
+
+        try (Git git = Git.open(materialDirectory)) {
+            StoredConfig config = git.getRepository().getConfig();
+            config.setString("remote", REMOTE_NAME, "url", definition.getRepositoryUrl());
+            config.setString("remote", REMOTE_NAME, "fetch", "+refs/heads/*:refs/remotes/" + REMOTE_NAME + "/*");
+            config.save();
+
+            RefUpdate remoteBranch = git.getRepository().updateRef(Constants.R_REMOTES + REMOTE_NAME + "/" + branch);
+            remoteBranch.setNewObjectId(commitId);
+            remoteBranch.forceUpdate();
+
+            git.checkout()
+                    .setCreateBranch(true)
+                    .setName(branch)
+                    .setStartPoint(commitId.name())
+                    .call();
+
+            git.submoduleInit().call();
+            git.submoduleUpdate().setCredentialsProvider(credentials).call();
+        }
+    }
+
+    // Mirrors are touched whenever they are used, so the oldest modification times belong to the least recently used.
+    private void evictMirrors(File mirrorInUse) throws IOException {
+        File[] mirrors = new File(this.mirrorsDirectoryPath).listFiles(File::isDirectory);
+        if (mirrors == null || mirrors.length <= this.mirrorCacheSize) {
+            return;
+        }
+
+        Arrays.sort(mirrors, Comparator.comparingLong(File::lastModified));
+        for (int i = 0; i < mirrors.length - this.mirrorCacheSize; i++) {
+            if (!mirrors[i].equals(mirrorInUse)) {
+                FileUtils.deleteDirectory(mirrors[i]);
+            }
+        }
+    }
+
+    // The name is a hash of the URL, which keeps credentials embedded in the URL out of the file system.
+    private String getMirrorName(String repositoryUrl) {
+        byte[] hash = Constants.newMessageDigest().digest(repositoryUrl.getBytes(StandardCharsets.UTF_8));
+
+        return ObjectId.fromRaw(hash).name();
+    }
+
     private UsernamePasswordCredentialsProvider handleCredentials(GitMaterial definition) {
         UsernamePasswordCredentialsProvider credentials = null;
         if (definition.getUsername() != null && definition.getPassword() != null) {
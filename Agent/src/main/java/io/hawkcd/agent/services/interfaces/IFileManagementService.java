@@ -18,7 +18,9 @@ package io.hawkcd.agent.services.interfaces;
 
 import java.io.File;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
 
 public interface IFileManagementService {
 
@@ -32,6 +34,16 @@ public interface IFileManagementService {
 
     String zipFiles(String zipFilePath, List<File> files, String filesRootPath, boolean includeRootPath);
 
+    String zipFilesToStream(OutputStream outputStream, List<File> files, String filesRootPath, boolean includeRootPath);
+
+    Map<String, File> getArchiveEntries(List<File> files, String filesRootPath, boolean includeRootPath);
+
+    String zipEntriesToStream(OutputStream outputStream, Map<String, File> entries);
+
+    String getFileHash(File file);
+
+    String unzipStream(InputStream stream, String destination);
+
     File generateUniqueFile(String filePath, String fileExtension);
 
     String deleteFile(String filePath);
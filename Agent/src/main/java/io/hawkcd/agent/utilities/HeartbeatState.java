@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.agent.utilities;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import io.hawkcd.agent.models.Job;
+import io.hawkcd.agent.models.payload.AgentInfo;
+
+/*
+* Builds the heartbeats of the agent, which carry the agent info and the current Job only when they changed
+* since the last heartbeat the server acknowledged. A heartbeat that was not acknowledged is sent again in full.
+*/
+public class HeartbeatState {
+    private Gson jsonConverter;
+    private JsonElement acknowledgedAgentInfo;
+    private JsonElement acknowledgedJob;
+    private JsonElement pendingAgentInfo;
+    private JsonElement pendingJob;
+
+    public HeartbeatState(Gson jsonConverter) {
+        this.jsonConverter = jsonConverter;
+    }
+
+    public String nextHeartbeat(AgentInfo agentInfo, Job job) {
+        this.pendingAgentInfo = this.jsonConverter.toJsonTree(agentInfo);
+        this.pendingJob = job == null ? null : this.jsonConverter.toJsonTree(job);
+
+        JsonObject heartbeat = new JsonObject();
+        if (!this.pendingAgentInfo.equals(this.acknowledgedAgentInfo)) {
+            heartbeat.add("agent", this.pendingAgentInfo);
+        }
+
+        if ((this.pendingJob != null) && !this.pendingJob.equals(this.acknowledgedJob)) {
+            heartbeat.add("job", this.pendingJob);
+        }
+
+        return this.jsonConverter.toJson(heartbeat);
+    }
+
+    public void acknowledge() {
+        this.acknowledgedAgentInfo = this.pendingAgentInfo;
+        this.acknowledgedJob = this.pendingJob;
+    }
+
+    public void reset() {
+        this.acknowledgedAgentInfo = null;
+        this.acknowledgedJob = null;
+    }
+}
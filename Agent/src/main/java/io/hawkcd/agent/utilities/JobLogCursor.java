@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.agent.utilities;
+
+import io.hawkcd.agent.models.Job;
+
+import java.nio.charset.StandardCharsets;
+
+/*
+* Tracks how much of the current Job report the server has stored, so that each report sends only the output
+* appended since the previous one. Offsets sent to the server are in UTF-8 bytes.
+*/
+public class JobLogCursor {
+    private String jobId;
+    private int sentCharacters;
+    private long sentBytes;
+    private int pendingCharacters;
+
+    public byte[] nextChunk(Job job) {
+        if (!job.getId().equals(this.jobId)) {
+            this.jobId = job.getId();
+            this.reset();
+        }
+
+        StringBuilder report = job.getReport();
+        if (report == null) {
+            return new byte[0];
+        }
+
+        String chunk;
+        synchronized (report) {
+            chunk = report.substring(this.sentCharacters);
+        }
+
+        this.pendingCharacters = chunk.length();
+
+        return chunk.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public long getOffset() {
+        return this.sentBytes;
+    }
+
+    public void acknowledge(long storedLength) {
+        this.sentCharacters += this.pendingCharacters;
+        this.sentBytes = storedLength;
+        this.pendingCharacters = 0;
+    }
+
+    // The server is missing output that was sent before, so the whole report is sent again.
+    public void reset() {
+        this.sentCharacters = 0;
+        this.sentBytes = 0;
+        this.pendingCharacters = 0;
+    }
+}
@@ -25,10 +25,13 @@ import org.apache.commons.lang3.StringEscapeUtils;
 
 import java.time.LocalDateTime;
 
+/*
+* Appends to a Job report while holding its monitor, so that JobLogCursor can take a consistent chunk of it
+* from the reporting thread.
+*/
 public class ReportAppender {
     public static StringBuilder appendStartedMessage(String message, StringBuilder report, Class classType) {
         message = MessageConstants.CONSOLE_YELLOW + message;
-        report.append(message).append(System.lineSeparator());
         String line;
         if (classType == Job.class) {
             line = MessageConstants.CONSOLE_WHITE + MessageConstants.CONSOLE_THICK_LINE;
@@ -36,7 +39,10 @@ public class ReportAppender {
             line = MessageConstants.CONSOLE_WHITE + MessageConstants.CONSOLE_THIN_LINE;
         }
 
-        report.append(line).append(System.lineSeparator());
+        synchronized (report) {
+            report.append(message).append(System.lineSeparator());
+            report.append(line).append(System.lineSeparator());
+        }
 
         return report;
     }
@@ -48,7 +54,9 @@ public class ReportAppender {
             message = MessageConstants.CONSOLE_RED + message;
         }
 
-        report.append(message).append(System.lineSeparator());
+        synchronized (report) {
+            report.append(message).append(System.lineSeparator());
+        }
 
         return report;
     }
@@ -60,7 +68,9 @@ public class ReportAppender {
             message = MessageConstants.CONSOLE_RED + message;
         }
 
-        report.append(message).append(System.lineSeparator());
+        synchronized (report) {
+            report.append(message).append(System.lineSeparator());
+        }
 
         return report;
     }
@@ -74,9 +84,13 @@ public class ReportAppender {
 
             System.out.println(StringEscapeUtils.unescapeJava(formattedMessage));
 
-            report.append(formattedMessage).append(System.lineSeparator());
+            synchronized (report) {
+                report.append(formattedMessage).append(System.lineSeparator());
+            }
         }else {
-            report.append(message).append(System.lineSeparator());
+            synchronized (report) {
+                report.append(message).append(System.lineSeparator());
+            }
         }
         return report;
     }
@@ -19,6 +19,7 @@ package io.hawkcd.agent.components.taskexecutor.executors;
 import com.sun.jersey.api.client.Client;
 import com.sun.jersey.api.client.ClientResponse;
 import com.sun.jersey.api.client.WebResource;
+import com.sun.jersey.core.header.InBoundHeaders;
 import junit.framework.Assert;
 import io.hawkcd.agent.AgentConfiguration;
 import io.hawkcd.agent.base.TestBase;
@@ -30,6 +31,7 @@ import io.hawkcd.agent.models.Task;
 import io.hawkcd.agent.models.payload.WorkInfo;
 import io.hawkcd.agent.services.FileManagementService;
 import io.hawkcd.agent.services.interfaces.IFileManagementService;
+import org.apache.commons.io.FileUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -38,8 +40,14 @@ import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 @RunWith(PowerMockRunner.class)
 @PrepareForTest({Client.class, WebResource.Builder.class})
@@ -59,6 +67,7 @@ public class FetchArtifactExecutorTest extends TestBase {
     private InputStream mockedInputStream;
     private Job fetchArtifactJob;
     private String source;
+    private WebResource.Builder mockedDownloadBuilder;
 
     @Before
     public void setUp() {
@@ -82,6 +91,15 @@ public class FetchArtifactExecutorTest extends TestBase {
         this.fetchArtifactExecutor = new FetchArtifactExecutor(this.mockedClient, this.mockedFileManagementService);
         this.report = new StringBuilder();
         setupData();
+
+        this.mockedDownloadBuilder = Mockito.mock(WebResource.Builder.class);
+        WebResource mockedDownloadResource = Mockito.mock(WebResource.class);
+        ClientResponse notFoundResponse = Mockito.mock(ClientResponse.class);
+        Mockito.when(this.mockedClient.resource(Mockito.endsWith("/Artifacts/pipeline/pipeline/correctSource"))).thenReturn(mockedDownloadResource);
+        Mockito.when(mockedDownloadResource.getRequestBuilder()).thenReturn(this.mockedDownloadBuilder);
+        Mockito.when(this.mockedDownloadBuilder.header(Mockito.anyString(), Mockito.any())).thenReturn(this.mockedDownloadBuilder);
+        Mockito.when(this.mockedDownloadBuilder.get(ClientResponse.class)).thenReturn(notFoundResponse);
+        Mockito.when(notFoundResponse.getStatus()).thenReturn(404);
     }
 
     private void setupData() {
@@ -118,8 +136,7 @@ public class FetchArtifactExecutorTest extends TestBase {
     @Test
     public void executeTask_artifactFetchedSuccessfully_taskPassed() {
         //Arrange
-        Mockito.when(this.mockedFileManagementService.unzipFile(Mockito.anyString(), Mockito.anyString())).thenReturn(null);
-        Mockito.when(this.mockedFileManagementService.initiateFile(Mockito.any(File.class), Mockito.any(InputStream.class), Mockito.anyString())).thenReturn(null);
+        Mockito.when(this.mockedFileManagementService.unzipStream(Mockito.any(InputStream.class), Mockito.anyString())).thenReturn(null);
         Mockito.when(this.mockedFileManagementService.urlCombine(Mockito.anyString())).thenReturn("sourceForAPI");
         Mockito.when(this.mockedClient.resource("sourceForAPI/fetch-artifact")).thenReturn(this.mockedResource);
         Mockito.when(this.mockedResource.type(Mockito.anyString())).thenReturn(this.mockedBuilder);
@@ -132,8 +149,8 @@ public class FetchArtifactExecutorTest extends TestBase {
         Task resultTask = this.fetchArtifactExecutor.executeTask(this.correctFetchArtifactTask, this.report, this.workInfo);
 
         //Assert
-        Mockito.verify(this.mockedFileManagementService, Mockito.times(1)).unzipFile(Mockito.anyString(), Mockito.anyString());
-        Mockito.verify(this.mockedFileManagementService, Mockito.times(1)).initiateFile(Mockito.any(File.class), Mockito.any(InputStream.class), Mockito.anyString());
+        Mockito.verify(this.mockedFileManagementService, Mockito.times(1)).unzipStream(Mockito.eq(this.mockedInputStream), Mockito.anyString());
+        Mockito.verify(this.mockedFileManagementService, Mockito.never()).initiateFile(Mockito.any(File.class), Mockito.any(InputStream.class), Mockito.anyString());
         Mockito.verify(this.mockedFileManagementService, Mockito.times(1)).urlCombine(Mockito.anyString());
         Mockito.verify(this.mockedResponse, Mockito.times(1)).getStatus();
         Assert.assertEquals(TaskStatus.PASSED, resultTask.getStatus());
@@ -141,10 +158,8 @@ public class FetchArtifactExecutorTest extends TestBase {
     }
 
     @Test
-    public void executeTask_failedToDeleteFiles_taskFailed() {
+    public void executeTask_failedToUnzipFiles_taskFailed() {
         //Arrange
-        Mockito.when(this.mockedFileManagementService.unzipFile(Mockito.anyString(), Mockito.anyString())).thenReturn(null);
-        Mockito.when(this.mockedFileManagementService.initiateFile(Mockito.any(File.class), Mockito.any(InputStream.class), Mockito.anyString())).thenReturn(null);
         Mockito.when(this.mockedFileManagementService.urlCombine(Mockito.anyString())).thenReturn("sourceForAPI");
         Mockito.when(this.mockedClient.resource("sourceForAPI/fetch-artifact")).thenReturn(this.mockedResource);
         Mockito.when(this.mockedResource.type(Mockito.anyString())).thenReturn(this.mockedBuilder);
@@ -152,64 +167,63 @@ public class FetchArtifactExecutorTest extends TestBase {
         Mockito.when(this.mockedResource.type("application/json").post(ClientResponse.class, this.source)).thenReturn(this.mockedResponse);
         Mockito.when(this.mockedResponse.getStatus()).thenReturn(200);
         Mockito.when(this.mockedResponse.getEntityInputStream()).thenReturn(this.mockedInputStream);
-        Mockito.when(this.mockedFileManagementService.deleteFilesInDirectory(Mockito.anyString())).thenReturn("Error");
+        Mockito.when(this.mockedFileManagementService.unzipStream(Mockito.any(InputStream.class), Mockito.anyString())).thenReturn("Error");
 
         //Act
         Task resultTask = this.fetchArtifactExecutor.executeTask(this.correctFetchArtifactTask, this.report, this.workInfo);
 
         //Assert
-        Mockito.verify(this.mockedFileManagementService, Mockito.times(1)).unzipFile(Mockito.anyString(), Mockito.anyString());
-        Mockito.verify(this.mockedFileManagementService, Mockito.times(1)).initiateFile(Mockito.any(File.class), Mockito.any(InputStream.class), Mockito.anyString());
+        Mockito.verify(this.mockedFileManagementService, Mockito.times(1)).unzipStream(Mockito.any(InputStream.class), Mockito.anyString());
         Mockito.verify(this.mockedFileManagementService, Mockito.times(1)).urlCombine(Mockito.anyString());
-        Mockito.verify(this.mockedFileManagementService, Mockito.times(1)).deleteFilesInDirectory(Mockito.anyString());
+        Mockito.verify(this.mockedResponse, Mockito.times(1)).close();
         Assert.assertEquals(TaskStatus.FAILED, resultTask.getStatus());
         Assert.assertEquals(this.fetchArtifactTaskDefinition.getName(), resultTask.getTaskDefinition().getName());
     }
 
     @Test
-    public void executeTask_failedToUnzipFiles_taskFailed() {
+    public void executeTask_singleFileArtifact_downloadedWithoutArchive() throws IOException {
         //Arrange
-        Mockito.when(this.mockedFileManagementService.initiateFile(Mockito.any(File.class), Mockito.any(InputStream.class), Mockito.anyString())).thenReturn(null);
-        Mockito.when(this.mockedFileManagementService.urlCombine(Mockito.anyString())).thenReturn("sourceForAPI");
-        Mockito.when(this.mockedClient.resource("sourceForAPI/fetch-artifact")).thenReturn(this.mockedResource);
-        Mockito.when(this.mockedResource.type(Mockito.anyString())).thenReturn(this.mockedBuilder);
-        Mockito.when(this.mockedResource.accept(Mockito.anyString())).thenReturn(this.mockedBuilder);
-        Mockito.when(this.mockedResource.type("application/json").post(ClientResponse.class, this.source)).thenReturn(this.mockedResponse);
-        Mockito.when(this.mockedResponse.getStatus()).thenReturn(200);
-        Mockito.when(this.mockedResponse.getEntityInputStream()).thenReturn(this.mockedInputStream);
-        Mockito.when(this.mockedFileManagementService.unzipFile(Mockito.anyString(), Mockito.anyString())).thenReturn("Error");
+        Path pipelinesDirectory = Files.createTempDirectory("pipelines");
+        AgentConfiguration.getInstallInfo().setAgentPipelinesDir(pipelinesDirectory.toString());
+        ClientResponse fileResponse = this.mockDownloadResponse(200, new ByteArrayInputStream("0123456789".getBytes(StandardCharsets.UTF_8)));
+        Mockito.when(this.mockedDownloadBuilder.get(ClientResponse.class)).thenReturn(fileResponse);
 
         //Act
         Task resultTask = this.fetchArtifactExecutor.executeTask(this.correctFetchArtifactTask, this.report, this.workInfo);
 
         //Assert
-        Mockito.verify(this.mockedFileManagementService, Mockito.times(1)).unzipFile(Mockito.anyString(), Mockito.anyString());
-        Mockito.verify(this.mockedFileManagementService, Mockito.times(1)).initiateFile(Mockito.any(File.class), Mockito.any(InputStream.class), Mockito.anyString());
-        Mockito.verify(this.mockedFileManagementService, Mockito.times(1)).urlCombine(Mockito.anyString());
-        Assert.assertEquals(TaskStatus.FAILED, resultTask.getStatus());
-        Assert.assertEquals(this.fetchArtifactTaskDefinition.getName(), resultTask.getTaskDefinition().getName());
+        Path downloadedFile = pipelinesDirectory.resolve("pipeline/correctDestination/correctSource");
+        Assert.assertEquals(TaskStatus.PASSED, resultTask.getStatus());
+        Assert.assertEquals("0123456789", new String(Files.readAllBytes(downloadedFile), StandardCharsets.UTF_8));
+        Mockito.verify(this.mockedClient, Mockito.never()).resource("sourceForAPI/fetch-artifact");
+        FileUtils.deleteDirectory(pipelinesDirectory.toFile());
     }
 
     @Test
-    public void executeTask_failedToCreateFiles_taskFailed() {
+    public void executeTask_downloadInterrupted_resumedFromReceivedBytes() throws IOException {
         //Arrange
-        Mockito.when(this.mockedFileManagementService.initiateFile(Mockito.any(File.class), Mockito.any(InputStream.class), Mockito.anyString())).thenReturn("Error");
-        Mockito.when(this.mockedFileManagementService.urlCombine(Mockito.anyString())).thenReturn("sourceForAPI");
-        Mockito.when(this.mockedClient.resource("sourceForAPI/fetch-artifact")).thenReturn(this.mockedResource);
-        Mockito.when(this.mockedResource.type(Mockito.anyString())).thenReturn(this.mockedBuilder);
-        Mockito.when(this.mockedResource.accept(Mockito.anyString())).thenReturn(this.mockedBuilder);
-        Mockito.when(this.mockedResource.type("application/json").post(ClientResponse.class, this.source)).thenReturn(this.mockedResponse);
-        Mockito.when(this.mockedResponse.getStatus()).thenReturn(200);
-        Mockito.when(this.mockedResponse.getEntityInputStream()).thenReturn(this.mockedInputStream);
+        Path pipelinesDirectory = Files.createTempDirectory("pipelines");
+        AgentConfiguration.getInstallInfo().setAgentPipelinesDir(pipelinesDirectory.toString());
+        InputStream interruptedStream = new SequenceInputStream(new ByteArrayInputStream("0123".getBytes(StandardCharsets.UTF_8)), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        });
+        ClientResponse interruptedResponse = this.mockDownloadResponse(200, interruptedStream);
+        ClientResponse resumedResponse = this.mockDownloadResponse(206, new ByteArrayInputStream("456789".getBytes(StandardCharsets.UTF_8)));
+        Mockito.when(this.mockedDownloadBuilder.get(ClientResponse.class)).thenReturn(interruptedResponse, resumedResponse);
 
         //Act
         Task resultTask = this.fetchArtifactExecutor.executeTask(this.correctFetchArtifactTask, this.report, this.workInfo);
 
         //Assert
-        Mockito.verify(this.mockedFileManagementService, Mockito.times(1)).initiateFile(Mockito.any(File.class), Mockito.any(InputStream.class), Mockito.anyString());
-        Mockito.verify(this.mockedFileManagementService, Mockito.times(1)).urlCombine(Mockito.anyString());
-        Assert.assertEquals(TaskStatus.FAILED, resultTask.getStatus());
-        Assert.assertEquals(this.fetchArtifactTaskDefinition.getName(), resultTask.getTaskDefinition().getName());
+        Path downloadedFile = pipelinesDirectory.resolve("pipeline/correctDestination/correctSource");
+        Mockito.verify(this.mockedDownloadBuilder, Mockito.times(1)).header("Range", "bytes=4-");
+        Mockito.verify(this.mockedDownloadBuilder, Mockito.times(1)).header("If-Range", "\"a-1\"");
+        Assert.assertEquals(TaskStatus.PASSED, resultTask.getStatus());
+        Assert.assertEquals("0123456789", new String(Files.readAllBytes(downloadedFile), StandardCharsets.UTF_8));
+        FileUtils.deleteDirectory(pipelinesDirectory.toFile());
     }
 
     @Test
@@ -253,4 +267,15 @@ public class FetchArtifactExecutorTest extends TestBase {
         Assert.assertEquals(TaskStatus.FAILED, resultTask.getStatus());
         Assert.assertEquals(this.fetchArtifactTaskDefinition.getName(), resultTask.getTaskDefinition().getName());
     }
-}
\ No newline at end of file
+
+    private ClientResponse mockDownloadResponse(int status, InputStream content) {
+        ClientResponse response = Mockito.mock(ClientResponse.class);
+        InBoundHeaders headers = new InBoundHeaders();
+        headers.putSingle("ETag", "\"a-1\"");
+        Mockito.when(response.getStatus()).thenReturn(status);
+        Mockito.when(response.getHeaders()).thenReturn(headers);
+        Mockito.when(response.getEntityInputStream()).thenReturn(content);
+
+        return response;
+    }
+}
@@ -19,6 +19,7 @@ package io.hawkcd.agent.components.taskexecutor.executors;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientHandlerException;
 import com.sun.jersey.api.client.ClientResponse;
 import com.sun.jersey.api.client.WebResource;
 import junit.framework.Assert;
@@ -40,13 +41,22 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RunWith(PowerMockRunner.class)
 @PrepareForTest({Client.class, WebResource.class})
@@ -117,62 +127,117 @@ public class UploadArtifactExecutorTest extends TestBase {
         Assert.assertNotNull(executor);
     }
 
-    @Ignore
     @Test
-    public void executeTask_artifactUploadedSuccessfully_taskPassed() {
+    public void executeTask_artifactUploadedSuccessfully_taskPassed() throws IOException {
         //Arrange
         Mockito.when(this.mockedFileManagementService.pathCombine(Mockito.anyString())).thenReturn("");
         Mockito.when(this.mockedFileManagementService.getRootPath(Mockito.anyString())).thenReturn("rootPath");
         Mockito.when(this.mockedFileManagementService.getPattern(Mockito.anyString(), Mockito.anyString())).thenReturn("");
         Mockito.when(this.mockedFileManagementService.getFiles(Mockito.anyString(), Mockito.anyString())).thenReturn(this.mockedFileList);
-        Mockito.when(this.mockedFileManagementService.generateUniqueFile(Mockito.anyString(), Mockito.anyString())).thenReturn(this.mockedFile);
-        Mockito.when(this.mockedFileManagementService.zipFiles("pathToFile", this.mockedFileList, "rootPath", false)).thenReturn(null);
+        Mockito.when(this.mockedFileManagementService.zipFilesToStream(Mockito.any(OutputStream.class), Mockito.eq(this.mockedFileList), Mockito.eq("rootPath"), Mockito.eq(true))).thenReturn(null);
         Mockito.when(this.mockedFileManagementService.urlCombine(Mockito.anyString())).thenReturn("my/path");
 
-        UploadArtifactInfo uploadArtifactInfo = new UploadArtifactInfo(this.mockedFile, this.uploadArtifactTaskDefinition.getDestination());
-        String uploadArtifactInfoAsString = this.jsonConverter.toJson(uploadArtifactInfo);
+        Mockito.when(this.mockedClient.resource(Mockito.startsWith("my/path/upload-artifact"))).thenReturn(this.mockedResource);
+        Mockito.when(this.mockedResource.type(Mockito.any(MediaType.class))).thenReturn(this.mockedBuilder);
+        Mockito.when(this.mockedBuilder.post(Mockito.eq(ClientResponse.class), Mockito.any(StreamingOutput.class))).thenAnswer(this::writeRequestBody);
+        Mockito.when(this.mockedResponse.getStatus()).thenReturn(200);
 
-        Mockito.when(this.mockedClient.resource("my/path/upload-artifact")).thenReturn(this.mockedResource);
-        Mockito.when(this.mockedResource.type(Mockito.anyString())).thenReturn(this.mockedBuilder);
-        Mockito.when(this.mockedResource.accept(Mockito.anyString())).thenReturn(this.mockedBuilder);
-        Mockito.when(this.mockedResource.type("multipart/form-data").post(ClientResponse.class, uploadArtifactInfoAsString)).thenReturn(this.mockedResponse);
+        //Act
+        Task resultTask = this.uploadArtifactExecutor.executeTask(this.correctUploadArtifactTask, this.report, this.workInfo);
+
+        //Assert
+        Mockito.verify(this.mockedFileManagementService, Mockito.times(1)).zipFilesToStream(Mockito.any(OutputStream.class), Mockito.eq(this.mockedFileList), Mockito.eq("rootPath"), Mockito.eq(true));
+        Mockito.verify(this.mockedFileManagementService, Mockito.never()).generateUniqueFile(Mockito.anyString(), Mockito.anyString());
+        Mockito.verify(this.mockedClient, Mockito.atLeastOnce()).setChunkedEncodingSize(Mockito.anyInt());
+        Assert.assertEquals(TaskStatus.PASSED, resultTask.getStatus());
+    }
+
+    @Test
+    public void executeTask_someBlobsStored_onlyMissingBlobsUploaded() throws IOException {
+        //Arrange
+        File storedFile = new File("stored.txt");
+        File changedFile = new File("changed.txt");
+        Map<String, File> entries = new LinkedHashMap<>();
+        entries.put("stored.txt", storedFile);
+        entries.put("changed.txt", changedFile);
+        Mockito.when(this.mockedFileManagementService.pathCombine(Mockito.anyString())).thenReturn("");
+        Mockito.when(this.mockedFileManagementService.getRootPath(Mockito.anyString())).thenReturn("rootPath");
+        Mockito.when(this.mockedFileManagementService.getPattern(Mockito.anyString(), Mockito.anyString())).thenReturn("");
+        Mockito.when(this.mockedFileManagementService.getFiles(Mockito.anyString(), Mockito.anyString())).thenReturn(this.mockedFileList);
+        Mockito.when(this.mockedFileManagementService.getArchiveEntries(this.mockedFileList, "rootPath", true)).thenReturn(entries);
+        Mockito.when(this.mockedFileManagementService.getFileHash(storedFile)).thenReturn("storedHash");
+        Mockito.when(this.mockedFileManagementService.getFileHash(changedFile)).thenReturn("changedHash");
+        Mockito.when(this.mockedFileManagementService.urlCombine(Mockito.anyString())).thenReturn("my/path");
+
+        ClientResponse missingBlobsResponse = this.mockResource("my/path/missing-blobs");
+        Mockito.when(missingBlobsResponse.getStatus()).thenReturn(200);
+        Mockito.when(missingBlobsResponse.getEntity(String.class)).thenReturn("[\"changedHash\"]");
+        WebResource.Builder uploadBlobsBuilder = Mockito.mock(WebResource.Builder.class);
+        WebResource uploadBlobsResource = Mockito.mock(WebResource.class);
+        Mockito.when(this.mockedClient.resource("my/path/upload-blobs")).thenReturn(uploadBlobsResource);
+        Mockito.when(uploadBlobsResource.type(Mockito.any(MediaType.class))).thenReturn(uploadBlobsBuilder);
+        Mockito.when(uploadBlobsBuilder.post(Mockito.eq(ClientResponse.class), Mockito.any(StreamingOutput.class))).thenAnswer(this::writeRequestBody);
         Mockito.when(this.mockedResponse.getStatus()).thenReturn(200);
+        ClientResponse manifestResponse = this.mockResource("my/path/manifest?destination=correctDestination");
+        Mockito.when(manifestResponse.getStatus()).thenReturn(200);
 
         //Act
         Task resultTask = this.uploadArtifactExecutor.executeTask(this.correctUploadArtifactTask, this.report, this.workInfo);
 
         //Assert
-        Mockito.verify(this.mockedFileManagementService, Mockito.times(1)).zipFiles(Mockito.anyObject(), Mockito.any(this.mockedFileList.getClass()), Mockito.anyString(), Mockito.anyBoolean());
-        Mockito.verify(this.mockedFileManagementService, Mockito.times(1)).getFiles(Mockito.anyString(), Mockito.anyString());
+        Mockito.verify(this.mockedFileManagementService, Mockito.times(1)).zipEntriesToStream(Mockito.any(OutputStream.class), Mockito.eq(Collections.singletonMap("changedHash", changedFile)));
+        Mockito.verify(this.mockedFileManagementService, Mockito.never()).zipFilesToStream(Mockito.any(OutputStream.class), Mockito.anyListOf(File.class), Mockito.anyString(), Mockito.anyBoolean());
         Assert.assertEquals(TaskStatus.PASSED, resultTask.getStatus());
     }
 
     @Test
-    public void executeTask_failedToZipFiles_taskFailed() {
+    public void executeTask_blobsNotSupportedByServer_wholeArtifactUploaded() throws IOException {
         //Arrange
+        File file = new File("file.txt");
         Mockito.when(this.mockedFileManagementService.pathCombine(Mockito.anyString())).thenReturn("");
         Mockito.when(this.mockedFileManagementService.getRootPath(Mockito.anyString())).thenReturn("rootPath");
         Mockito.when(this.mockedFileManagementService.getPattern(Mockito.anyString(), Mockito.anyString())).thenReturn("");
         Mockito.when(this.mockedFileManagementService.getFiles(Mockito.anyString(), Mockito.anyString())).thenReturn(this.mockedFileList);
-        Mockito.when(this.mockedFileManagementService.generateUniqueFile(Mockito.anyString(), Mockito.anyString())).thenReturn(this.mockedFile);
-        Mockito.when(this.mockedFileManagementService.zipFiles("pathToFile", this.mockedFileList, "rootPath", true)).thenReturn("Error in zipFiles method!");
+        Mockito.when(this.mockedFileManagementService.getArchiveEntries(this.mockedFileList, "rootPath", true)).thenReturn(Collections.singletonMap("file.txt", file));
+        Mockito.when(this.mockedFileManagementService.getFileHash(file)).thenReturn("hash");
         Mockito.when(this.mockedFileManagementService.urlCombine(Mockito.anyString())).thenReturn("my/path");
 
-        Mockito.when(this.mockedClient.resource("my/path/upload-artifact")).thenReturn(this.mockedResource);
-        Mockito.when(this.mockedResource.type(Mockito.anyString())).thenReturn(this.mockedBuilder);
-        Mockito.when(this.mockedResource.accept(Mockito.anyString())).thenReturn(this.mockedBuilder);
+        ClientResponse missingBlobsResponse = this.mockResource("my/path/missing-blobs");
+        Mockito.when(missingBlobsResponse.getStatus()).thenReturn(404);
+        Mockito.when(this.mockedClient.resource(Mockito.startsWith("my/path/upload-artifact"))).thenReturn(this.mockedResource);
+        Mockito.when(this.mockedResource.type(Mockito.any(MediaType.class))).thenReturn(this.mockedBuilder);
+        Mockito.when(this.mockedBuilder.post(Mockito.eq(ClientResponse.class), Mockito.any(StreamingOutput.class))).thenAnswer(this::writeRequestBody);
+        Mockito.when(this.mockedResponse.getStatus()).thenReturn(200);
 
-        UploadArtifactInfo uploadArtifactInfo = new UploadArtifactInfo(this.mockedFile, this.uploadArtifactTaskDefinition.getDestination());
-        String uploadArtifactInfoAsString = this.jsonConverter.toJson(uploadArtifactInfo);
+        //Act
+        Task resultTask = this.uploadArtifactExecutor.executeTask(this.correctUploadArtifactTask, this.report, this.workInfo);
+
+        //Assert
+        Mockito.verify(this.mockedFileManagementService, Mockito.times(1)).zipFilesToStream(Mockito.any(OutputStream.class), Mockito.eq(this.mockedFileList), Mockito.eq("rootPath"), Mockito.eq(true));
+        Mockito.verify(this.mockedClient, Mockito.never()).resource("my/path/upload-blobs");
+        Assert.assertEquals(TaskStatus.PASSED, resultTask.getStatus());
+    }
 
-        Mockito.when(this.mockedResource.type("multipart/form-data").post(ClientResponse.class, uploadArtifactInfoAsString)).thenReturn(this.mockedResponse);
+    @Test
+    public void executeTask_failedToZipFiles_taskFailed() throws IOException {
+        //Arrange
+        Mockito.when(this.mockedFileManagementService.pathCombine(Mockito.anyString())).thenReturn("");
+        Mockito.when(this.mockedFileManagementService.getRootPath(Mockito.anyString())).thenReturn("rootPath");
+        Mockito.when(this.mockedFileManagementService.getPattern(Mockito.anyString(), Mockito.anyString())).thenReturn("");
+        Mockito.when(this.mockedFileManagementService.getFiles(Mockito.anyString(), Mockito.anyString())).thenReturn(this.mockedFileList);
+        Mockito.when(this.mockedFileManagementService.zipFilesToStream(Mockito.any(OutputStream.class), Mockito.eq(this.mockedFileList), Mockito.eq("rootPath"), Mockito.eq(true))).thenReturn("Error in zipFilesToStream method!");
+        Mockito.when(this.mockedFileManagementService.urlCombine(Mockito.anyString())).thenReturn("my/path");
+
+        Mockito.when(this.mockedClient.resource(Mockito.startsWith("my/path/upload-artifact"))).thenReturn(this.mockedResource);
+        Mockito.when(this.mockedResource.type(Mockito.any(MediaType.class))).thenReturn(this.mockedBuilder);
+        Mockito.when(this.mockedBuilder.post(Mockito.eq(ClientResponse.class), Mockito.any(StreamingOutput.class))).thenAnswer(this::writeRequestBody);
         Mockito.when(this.mockedResponse.getStatus()).thenReturn(200);
 
         //Act
         Task resultTask = this.uploadArtifactExecutor.executeTask(this.correctUploadArtifactTask, this.report, this.workInfo);
 
         //Assert
-        Mockito.verify(this.mockedFileManagementService, Mockito.times(1)).zipFiles(Mockito.anyObject(), Mockito.any(this.mockedFileList.getClass()), Mockito.anyString(), Mockito.anyBoolean());
+        Mockito.verify(this.mockedFileManagementService, Mockito.times(1)).zipFilesToStream(Mockito.any(OutputStream.class), Mockito.any(this.mockedFileList.getClass()), Mockito.anyString(), Mockito.anyBoolean());
         Assert.assertEquals(TaskStatus.FAILED, resultTask.getStatus());
         Assert.assertEquals(this.correctUploadArtifactTask.getTaskDefinition(), resultTask.getTaskDefinition());
         Assert.assertEquals(this.correctUploadArtifactTask.getTaskDefinition().getType(), resultTask.getTaskDefinition().getType());
@@ -260,4 +325,26 @@ public class UploadArtifactExecutorTest extends TestBase {
         Assert.assertEquals(this.correctUploadArtifactTask.getTaskDefinition(), resultTask.getTaskDefinition());
         Assert.assertEquals(this.correctUploadArtifactTask.getTaskDefinition().getType(), resultTask.getTaskDefinition().getType());
     }
-}
\ No newline at end of file
+
+    private ClientResponse writeRequestBody(InvocationOnMock invocation) {
+        StreamingOutput requestBody = (StreamingOutput) invocation.getArguments()[1];
+        try {
+            requestBody.write(new ByteArrayOutputStream());
+        } catch (IOException e) {
+            throw new ClientHandlerException(e);
+        }
+
+        return this.mockedResponse;
+    }
+
+    private ClientResponse mockResource(String address) {
+        WebResource resource = Mockito.mock(WebResource.class);
+        WebResource.Builder builder = Mockito.mock(WebResource.Builder.class);
+        ClientResponse response = Mockito.mock(ClientResponse.class);
+        Mockito.when(this.mockedClient.resource(address)).thenReturn(resource);
+        Mockito.when(resource.type(Mockito.any(MediaType.class))).thenReturn(builder);
+        Mockito.when(builder.post(Mockito.eq(ClientResponse.class), Mockito.any())).thenReturn(response);
+
+        return response;
+    }
+}
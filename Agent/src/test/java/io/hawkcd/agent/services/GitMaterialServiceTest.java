@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.agent.services;
+
+import io.hawkcd.agent.AgentConfiguration;
+import io.hawkcd.agent.models.FetchMaterialTask;
+import io.hawkcd.agent.models.GitMaterial;
+import io.hawkcd.agent.services.interfaces.IMaterialService;
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class GitMaterialServiceTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private IMaterialService gitMaterialService;
+    private File mirrorsDirectory;
+    private File pipelinesDirectory;
+    private Git origin;
+
+    @Before
+    public void setUp() throws IOException, GitAPIException {
+        AgentConfiguration.configure();
+        this.pipelinesDirectory = this.temporaryFolder.newFolder("Pipelines");
+        AgentConfiguration.getInstallInfo().setAgentPipelinesDir(this.pipelinesDirectory.getPath());
+        this.mirrorsDirectory = this.temporaryFolder.newFolder("Mirrors");
+        this.gitMaterialService = new GitMaterialService(this.mirrorsDirectory.getPath(), 2);
+        this.origin = Git.init().setDirectory(this.temporaryFolder.newFolder("origin")).call();
+    }
+
+    @After
+    public void tearDown() {
+        this.origin.close();
+    }
+
+    @Test
+    public void fetchMaterial_commitId_commitCheckedOutWithMirrorObjects() throws IOException, GitAPIException {
+        //Arrange
+        RevCommit firstCommit = this.commit(this.origin, "first");
+        this.commit(this.origin, "second");
+
+        //Act
+        String actualResult = this.gitMaterialService.fetchMaterial(this.createTask(this.origin, firstCommit.name()));
+
+        //Assert
+        File materialDirectory = new File(this.pipelinesDirectory, "pipeline/material");
+        Assert.assertNull(actualResult);
+        Assert.assertEquals("first", FileUtils.readFileToString(new File(materialDirectory, "content.txt"), StandardCharsets.UTF_8));
+        Assert.assertTrue(new File(materialDirectory, ".git/objects/info/alternates").exists());
+        Assert.assertEquals(1, this.mirrorsDirectory.listFiles().length);
+    }
+
+    @Test
+    public void fetchMaterial_newCommitInExistingMirror_newCommitFetched() throws IOException, GitAPIException {
+        //Arrange
+        RevCommit firstCommit = this.commit(this.origin, "first");
+        this.gitMaterialService.fetchMaterial(this.createTask(this.origin, firstCommit.name()));
+        File[] mirrors = this.mirrorsDirectory.listFiles();
+        RevCommit secondCommit = this.commit(this.origin, "second");
+        FileUtils.deleteDirectory(new File(this.pipelinesDirectory, "pipeline/material"));
+
+        //Act
+        String actualResult = this.gitMaterialService.fetchMaterial(this.createTask(this.origin, secondCommit.name()));
+
+        //Assert
+        Assert.assertNull(actualResult);
+        Assert.assertEquals("second", FileUtils.readFileToString(new File(this.pipelinesDirectory, "pipeline/material/content.txt"), StandardCharsets.UTF_8));
+        Assert.assertArrayEquals(mirrors, this.mirrorsDirectory.listFiles());
+    }
+
+    @Test
+    public void fetchMaterial_originUnreachable_mirrorKept() throws IOException, GitAPIException {
+        //Arrange
+        RevCommit firstCommit = this.commit(this.origin, "first");
+        this.gitMaterialService.fetchMaterial(this.createTask(this.origin, firstCommit.name()));
+        File[] mirrors = this.mirrorsDirectory.listFiles();
+        FileUtils.deleteDirectory(new File(this.pipelinesDirectory, "pipeline/material"));
+        FetchMaterialTask task = this.createTask(this.origin, firstCommit.name());
+        File originDirectory = this.origin.getRepository().getWorkTree();
+        FileUtils.moveDirectory(originDirectory, new File(originDirectory.getParentFile(), "movedOrigin"));
+
+        //Act
+        String actualResult = this.gitMaterialService.fetchMaterial(task);
+
+        //Assert
+        Assert.assertNotNull(actualResult);
+        Assert.assertArrayEquals(mirrors, this.mirrorsDirectory.listFiles());
+        Assert.assertTrue(new File(mirrors[0], "HEAD").exists());
+    }
+
+    @Test
+    public void fetchMaterial_corruptMirror_mirrorClonedAgain() throws IOException, GitAPIException {
+        //Arrange
+        RevCommit firstCommit = this.commit(this.origin, "first");
+        this.gitMaterialService.fetchMaterial(this.createTask(this.origin, firstCommit.name()));
+        File mirror = this.mirrorsDirectory.listFiles()[0];
+        FileUtils.cleanDirectory(mirror);
+        FileUtils.deleteDirectory(new File(this.pipelinesDirectory, "pipeline/material"));
+
+        //Act
+        String actualResult = this.gitMaterialService.fetchMaterial(this.createTask(this.origin, firstCommit.name()));
+
+        //Assert
+        Assert.assertNull(actualResult);
+        Assert.assertEquals("first", FileUtils.readFileToString(new File(this.pipelinesDirectory, "pipeline/material/content.txt"), StandardCharsets.UTF_8));
+        Assert.assertTrue(new File(mirror, "HEAD").exists());
+    }
+
+    @Test
+    public void fetchMaterial_moreRepositoriesThanCacheSize_leastRecentlyUsedMirrorDeleted() throws IOException, GitAPIException {
+        //Arrange
+        Git secondOrigin = Git.init().setDirectory(this.temporaryFolder.newFolder("secondOrigin")).call();
+        Git thirdOrigin = Git.init().setDirectory(this.temporaryFolder.newFolder("thirdOrigin")).call();
+        this.gitMaterialService.fetchMaterial(this.createTask(this.origin, this.commit(this.origin, "first").name()));
+        File firstMirror = this.mirrorsDirectory.listFiles()[0];
+        firstMirror.setLastModified(System.currentTimeMillis() - 60 * 60 * 1000);
+        FileUtils.deleteDirectory(new File(this.pipelinesDirectory, "pipeline/material"));
+        this.gitMaterialService.fetchMaterial(this.createTask(secondOrigin, this.commit(secondOrigin, "second").name()));
+        FileUtils.deleteDirectory(new File(this.pipelinesDirectory, "pipeline/material"));
+
+        //Act
+        String actualResult = this.gitMaterialService.fetchMaterial(this.createTask(thirdOrigin, this.commit(thirdOrigin, "third").name()));
+
+        //Assert
+        Assert.assertNull(actualResult);
+        Assert.assertEquals(2, this.mirrorsDirectory.listFiles().length);
+        Assert.assertFalse(firstMirror.exists());
+        secondOrigin.close();
+        thirdOrigin.close();
+    }
+
+    @Test
+    public void fetchMaterial_unknownCommitId_errorMessage() throws IOException, GitAPIException {
+        //Arrange
+        this.commit(this.origin, "first");
+
+        //Act
+        String actualResult = this.gitMaterialService.fetchMaterial(this.createTask(this.origin, "0123456789012345678901234567890123456789"));
+
+        //Assert
+        Assert.assertNotNull(actualResult);
+    }
+
+    private RevCommit commit(Git repository, String content) throws IOException, GitAPIException {
+        FileUtils.writeStringToFile(new File(repository.getRepository().getWorkTree(), "content.txt"), content, StandardCharsets.UTF_8);
+        repository.add().addFilepattern("content.txt").call();
+
+        return repository.commit().setMessage(content).call();
+    }
+
+    private FetchMaterialTask createTask(Git repository, String commitId) {
+        GitMaterial definition = new GitMaterial();
+        definition.setRepositoryUrl(repository.getRepository().getDirectory().toURI().toString());
+        definition.setBranch("master");
+        definition.setCommitId(commitId);
+
+        FetchMaterialTask task = new FetchMaterialTask();
+        task.setPipelineName("pipeline");
+        task.setDestination("material");
+        task.setMaterialDefinition(definition);
+
+        return task;
+    }
+}
@@ -0,0 +1,101 @@
+package io.hawkcd.agent.utilities;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import io.hawkcd.agent.models.Job;
+import io.hawkcd.agent.models.payload.AgentInfo;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.UUID;
+
+public class HeartbeatStateTest {
+    private Gson jsonConverter;
+    private HeartbeatState heartbeatState;
+    private AgentInfo agentInfo;
+    private Job job;
+
+    @Before
+    public void setUp() {
+        this.jsonConverter = new Gson();
+        this.heartbeatState = new HeartbeatState(this.jsonConverter);
+        this.agentInfo = new AgentInfo();
+        this.agentInfo.setId(UUID.randomUUID().toString());
+        this.agentInfo.setName("agent");
+        this.job = new Job();
+        this.job.setId(UUID.randomUUID().toString());
+    }
+
+    @Test
+    public void nextHeartbeat_firstHeartbeat_agentAndJob() {
+        // Act
+        JsonObject actualResult = this.parse(this.heartbeatState.nextHeartbeat(this.agentInfo, this.job));
+
+        // Assert
+        Assert.assertTrue(actualResult.has("agent"));
+        Assert.assertTrue(actualResult.has("job"));
+    }
+
+    @Test
+    public void nextHeartbeat_nothingChangedSinceAcknowledged_empty() {
+        // Arrange
+        this.heartbeatState.nextHeartbeat(this.agentInfo, this.job);
+        this.heartbeatState.acknowledge();
+
+        // Act
+        JsonObject actualResult = this.parse(this.heartbeatState.nextHeartbeat(this.agentInfo, this.job));
+
+        // Assert
+        Assert.assertTrue(actualResult.entrySet().isEmpty());
+    }
+
+    @Test
+    public void nextHeartbeat_agentChanged_onlyAgent() {
+        // Arrange
+        this.heartbeatState.nextHeartbeat(this.agentInfo, this.job);
+        this.heartbeatState.acknowledge();
+        this.agentInfo.setRunning(true);
+
+        // Act
+        JsonObject actualResult = this.parse(this.heartbeatState.nextHeartbeat(this.agentInfo, this.job));
+
+        // Assert
+        Assert.assertTrue(actualResult.has("agent"));
+        Assert.assertFalse(actualResult.has("job"));
+    }
+
+    @Test
+    public void nextHeartbeat_notAcknowledged_sentAgain() {
+        // Arrange
+        this.heartbeatState.nextHeartbeat(this.agentInfo, this.job);
+        this.heartbeatState.acknowledge();
+        this.agentInfo.setRunning(true);
+        this.heartbeatState.nextHeartbeat(this.agentInfo, this.job);
+
+        // Act
+        JsonObject actualResult = this.parse(this.heartbeatState.nextHeartbeat(this.agentInfo, this.job));
+
+        // Assert
+        Assert.assertTrue(actualResult.has("agent"));
+    }
+
+    @Test
+    public void nextHeartbeat_reset_agentAndJob() {
+        // Arrange
+        this.heartbeatState.nextHeartbeat(this.agentInfo, this.job);
+        this.heartbeatState.acknowledge();
+        this.heartbeatState.reset();
+
+        // Act
+        JsonObject actualResult = this.parse(this.heartbeatState.nextHeartbeat(this.agentInfo, this.job));
+
+        // Assert
+        Assert.assertTrue(actualResult.has("agent"));
+        Assert.assertTrue(actualResult.has("job"));
+    }
+
+    private JsonObject parse(String heartbeat) {
+        return this.jsonConverter.fromJson(heartbeat, JsonObject.class);
+    }
+}
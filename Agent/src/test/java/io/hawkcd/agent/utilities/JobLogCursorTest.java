@@ -0,0 +1,84 @@
+package io.hawkcd.agent.utilities;
+
+import io.hawkcd.agent.models.Job;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+public class JobLogCursorTest {
+    private JobLogCursor jobLogCursor;
+    private Job job;
+
+    @Before
+    public void setUp() {
+        this.jobLogCursor = new JobLogCursor();
+        this.job = new Job();
+        this.job.setId(UUID.randomUUID().toString());
+        this.job.setReport(new StringBuilder());
+    }
+
+    @Test
+    public void nextChunk_acknowledgedChunk_onlyNewOutput() {
+        // Arrange
+        this.job.getReport().append("first");
+        byte[] firstChunk = this.jobLogCursor.nextChunk(this.job);
+        this.jobLogCursor.acknowledge(firstChunk.length);
+        this.job.getReport().append("second");
+
+        // Act
+        byte[] actualResult = this.jobLogCursor.nextChunk(this.job);
+
+        // Assert
+        Assert.assertEquals("second", new String(actualResult, StandardCharsets.UTF_8));
+        Assert.assertEquals(5, this.jobLogCursor.getOffset());
+    }
+
+    @Test
+    public void nextChunk_notAcknowledgedChunk_sentAgain() {
+        // Arrange
+        this.job.getReport().append("first");
+        this.jobLogCursor.nextChunk(this.job);
+        this.job.getReport().append("second");
+
+        // Act
+        byte[] actualResult = this.jobLogCursor.nextChunk(this.job);
+
+        // Assert
+        Assert.assertEquals("firstsecond", new String(actualResult, StandardCharsets.UTF_8));
+        Assert.assertEquals(0, this.jobLogCursor.getOffset());
+    }
+
+    @Test
+    public void acknowledge_multiByteCharacters_offsetInBytes() {
+        // Arrange
+        this.job.getReport().append("жаба");
+        byte[] chunk = this.jobLogCursor.nextChunk(this.job);
+
+        // Act
+        this.jobLogCursor.acknowledge(chunk.length);
+
+        // Assert
+        Assert.assertEquals(8, this.jobLogCursor.getOffset());
+        Assert.assertEquals(0, this.jobLogCursor.nextChunk(this.job).length);
+    }
+
+    @Test
+    public void nextChunk_newJob_startsFromBeginning() {
+        // Arrange
+        this.job.getReport().append("first");
+        this.jobLogCursor.acknowledge(this.jobLogCursor.nextChunk(this.job).length);
+        Job nextJob = new Job();
+        nextJob.setId(UUID.randomUUID().toString());
+        nextJob.setReport(new StringBuilder("next"));
+
+        // Act
+        byte[] actualResult = this.jobLogCursor.nextChunk(nextJob);
+
+        // Assert
+        Assert.assertEquals("next", new String(actualResult, StandardCharsets.UTF_8));
+        Assert.assertEquals(0, this.jobLogCursor.getOffset());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.benchmarks;
+
+import io.hawkcd.model.Agent;
+import io.hawkcd.model.Job;
+import io.hawkcd.model.Pipeline;
+import io.hawkcd.model.Stage;
+import io.hawkcd.model.enums.StageStatus;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+* The BenchmarkData @class creates Pipelines and Agents shaped like the ones the scheduler works with
+*/
+public final class BenchmarkData {
+    public static final int STAGES_PER_PIPELINE = 2;
+    public static final int JOBS_PER_STAGE = 2;
+    public static final int PIPELINE_DEFINITIONS = 50;
+
+    private BenchmarkData() {
+    }
+
+    public static List<Pipeline> createPipelines(int count) {
+        List<Pipeline> pipelines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            pipelines.add(createPipeline(i));
+        }
+
+        return pipelines;
+    }
+
+    public static Pipeline createPipeline(int executionId) {
+        Pipeline pipeline = new Pipeline();
+        pipeline.setPipelineDefinitionId("definition-" + (executionId % PIPELINE_DEFINITIONS));
+        pipeline.setPipelineDefinitionName("Pipeline " + (executionId % PIPELINE_DEFINITIONS));
+        pipeline.setExecutionId(executionId);
+        pipeline.setMaterialsUpdated(true);
+        pipeline.setPrepared(true);
+        pipeline.setTriggerReason("benchmark");
+
+        List<Stage> stages = new ArrayList<>();
+        for (int i = 0; i < STAGES_PER_PIPELINE; i++) {
+            Stage stage = new Stage();
+            stage.setPipelineId(pipeline.getId());
+            stage.setStageDefinitionName("Stage " + i);
+            stage.setExecutionId(executionId);
+            stage.setStatus(i == 0 ? StageStatus.IN_PROGRESS : StageStatus.NOT_RUN);
+
+            List<Job> jobs = new ArrayList<>();
+            for (int j = 0; j < JOBS_PER_STAGE; j++) {
+                Job job = new Job();
+                job.setPipelineId(pipeline.getId());
+                job.setStageId(stage.getId());
+                job.setJobDefinitionName("Job " + j);
+                job.setExecutionId(executionId);
+                jobs.add(job);
+            }
+
+            stage.setJobs(jobs);
+            stages.add(stage);
+        }
+
+        pipeline.setStages(stages);
+
+        return pipeline;
+    }
+
+    public static List<Agent> createAgents(int count) {
+        List<Agent> agents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Agent agent = new Agent();
+            agent.setName("agent-" + i);
+            agent.setHostName("agent-" + i);
+            agent.setConnected(true);
+            agent.setEnabled(true);
+            agent.setLastReportedTime(LocalDateTime.now(ZoneOffset.UTC));
+            agents.add(agent);
+        }
+
+        return agents;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.benchmarks;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+/*
+* The EmbeddedRedis @class runs a local Redis server on a free port for the duration of a benchmark trial
+*/
+public class EmbeddedRedis {
+    private RedisServer redisServer;
+    private JedisPool jedisPool;
+
+    public JedisPool start() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        this.redisServer = new RedisServer(port);
+        this.redisServer.start();
+
+        JedisPoolConfig poolConfig = new JedisPoolConfig();
+        poolConfig.setMaxTotal(100);
+        this.jedisPool = new JedisPool(poolConfig, "localhost", port);
+
+        return this.jedisPool;
+    }
+
+    public void flush() {
+        try (Jedis jedis = this.jedisPool.getResource()) {
+            jedis.flushDB();
+        }
+    }
+
+    public void stop() {
+        this.jedisPool.destroy();
+        this.redisServer.stop();
+    }
+}
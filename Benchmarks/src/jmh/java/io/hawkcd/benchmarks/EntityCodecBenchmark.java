@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.mongodb.util.JSON;
+import io.hawkcd.db.mongodb.EntityCodec;
+import io.hawkcd.model.Job;
+import io.hawkcd.model.MaterialDefinition;
+import io.hawkcd.model.Pipeline;
+import io.hawkcd.model.Stage;
+import io.hawkcd.model.TaskDefinition;
+import io.hawkcd.utilities.deserializers.MaterialDefinitionAdapter;
+import io.hawkcd.utilities.deserializers.TaskDefinitionAdapter;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/*
+* The EntityCodecBenchmark @class compares the EntityCodec with the Document -> JSON -> Gson conversion
+* MongoDbRepository used before, for a Pipeline whose jobs carry reports of the given size.
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EntityCodecBenchmark {
+    @Param({"1024", "65536"})
+    public int reportSize;
+
+    private Gson jsonConverter;
+    private EntityCodec<Pipeline> entityCodec;
+    private DocumentCodec documentCodec;
+    private Pipeline pipeline;
+    private byte[] encodedPipeline;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        this.jsonConverter = new GsonBuilder()
+                .registerTypeAdapter(TaskDefinition.class, new TaskDefinitionAdapter())
+                .registerTypeAdapter(MaterialDefinition.class, new MaterialDefinitionAdapter())
+                .create();
+        this.entityCodec = new EntityCodec<>(Pipeline.class, this.jsonConverter);
+        this.documentCodec = new DocumentCodec();
+
+        this.pipeline = BenchmarkData.createPipeline(1);
+        StringBuilder report = new StringBuilder();
+        while (report.length() < this.reportSize) {
+            report.append("[INFO] Executing task ").append(report.length()).append(System.lineSeparator());
+        }
+
+        for (Stage stage : this.pipeline.getStages()) {
+            for (Job job : stage.getJobs()) {
+                job.setReport(new StringBuilder(report));
+            }
+        }
+
+        this.encodedPipeline = this.encodeWithCodec();
+    }
+
+    @Benchmark
+    public byte[] encodeWithCodec() {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        this.entityCodec.encode(new BsonBinaryWriter(buffer), this.pipeline, EncoderContext.builder().build());
+
+        return buffer.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encodeWithJson() {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        Document document = Document.parse(this.jsonConverter.toJson(this.pipeline));
+        this.documentCodec.encode(new BsonBinaryWriter(buffer), document, EncoderContext.builder().build());
+
+        return buffer.toByteArray();
+    }
+
+    @Benchmark
+    public Pipeline decodeWithCodec() {
+        BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(this.encodedPipeline));
+
+        return this.entityCodec.decode(reader, DecoderContext.builder().build());
+    }
+
+    @Benchmark
+    public Pipeline decodeWithJson() {
+        BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(this.encodedPipeline));
+        Document document = this.documentCodec.decode(reader, DecoderContext.builder().build());
+
+        return this.jsonConverter.fromJson(JSON.serialize(document), Pipeline.class);
+    }
+}
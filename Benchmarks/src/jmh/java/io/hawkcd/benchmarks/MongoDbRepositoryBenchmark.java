@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.benchmarks;
+
+import com.github.fakemongo.Fongo;
+import com.mongodb.client.MongoCollection;
+import io.hawkcd.db.IDbRepository;
+import io.hawkcd.db.mongodb.MongoDbRepository;
+import io.hawkcd.model.Pipeline;
+
+/*
+* Runs against the in-memory Fongo server, so the numbers show the cost of the repository's queries and
+* (de)serialization rather than the latency of a real MongoDB instance.
+*/
+public class MongoDbRepositoryBenchmark extends RepositoryBenchmark {
+    private Fongo fongo;
+
+    @Override
+    protected IDbRepository<Pipeline> createRepository() {
+        this.fongo = new Fongo("benchmarks");
+        MongoCollection collection = this.fongo.getMongo().getDatabase("hawkcd").getCollection(Pipeline.class.getTypeName());
+
+        return new MongoDbRepository(Pipeline.class, collection);
+    }
+
+    @Override
+    protected void destroyRepository() {
+        this.fongo.getMongo().close();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.benchmarks;
+
+import io.hawkcd.db.IDbRepository;
+import io.hawkcd.model.Pipeline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+* The RepositoryBenchmark @class measures the IDbRepository operations the services rely on against a store
+* seeded with the given number of Pipelines. Subclasses provide the repository implementation.
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public abstract class RepositoryBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int pipelineCount;
+
+    private IDbRepository<Pipeline> repository;
+    private List<Pipeline> pipelines;
+    private List<String> addedIds;
+
+    protected abstract IDbRepository<Pipeline> createRepository() throws Exception;
+
+    protected abstract void destroyRepository();
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws Exception {
+        this.repository = this.createRepository();
+        this.pipelines = BenchmarkData.createPipelines(this.pipelineCount);
+        for (Pipeline pipeline : this.pipelines) {
+            this.repository.add(pipeline);
+        }
+
+        this.addedIds = new ArrayList<>();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() {
+        // Keeps the store at pipelineCount entries so that every iteration measures the same data set
+        for (String id : this.addedIds) {
+            this.repository.delete(id);
+        }
+
+        this.addedIds.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() {
+        this.destroyRepository();
+    }
+
+    @Benchmark
+    public Pipeline getById() {
+        return this.repository.getById(this.randomPipeline().getId());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Pipeline> getAll() {
+        return this.repository.getAll();
+    }
+
+    @Benchmark
+    public Pipeline add() {
+        Pipeline pipeline = BenchmarkData.createPipeline(this.pipelineCount);
+        this.addedIds.add(pipeline.getId());
+
+        return this.repository.add(pipeline);
+    }
+
+    @Benchmark
+    public Pipeline update() {
+        return this.repository.update(this.randomPipeline());
+    }
+
+    private Pipeline randomPipeline() {
+        return this.pipelines.get(ThreadLocalRandom.current().nextInt(this.pipelines.size()));
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.benchmarks;
+
+import io.hawkcd.core.config.Config;
+import io.hawkcd.db.IDbRepository;
+import io.hawkcd.db.redis.RedisRepository;
+import io.hawkcd.model.Agent;
+import io.hawkcd.model.MaterialDefinition;
+import io.hawkcd.model.Pipeline;
+import io.hawkcd.model.PipelineDefinition;
+import io.hawkcd.scheduler.JobAssignerService;
+import io.hawkcd.scheduler.StatusUpdaterService;
+import io.hawkcd.services.AgentService;
+import io.hawkcd.services.JobService;
+import io.hawkcd.services.MaterialDefinitionService;
+import io.hawkcd.services.PipelineDefinitionService;
+import io.hawkcd.services.PipelineService;
+import io.hawkcd.services.StageService;
+import io.hawkcd.services.interfaces.IAgentService;
+import io.hawkcd.services.interfaces.IMaterialDefinitionService;
+import io.hawkcd.services.interfaces.IPipelineDefinitionService;
+import io.hawkcd.services.interfaces.IPipelineService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import redis.clients.jedis.JedisPool;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+* The SchedulerBenchmark @class measures one pass of the scheduler loop (updating statuses and assigning jobs)
+* against an embedded Redis seeded with prepared Pipelines in progress and connected Agents.
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SchedulerBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int pipelineCount;
+
+    @Param({"10"})
+    public int agentCount;
+
+    private EmbeddedRedis embeddedRedis;
+    private IDbRepository<Pipeline> pipelineRepository;
+    private IDbRepository<Agent> agentRepository;
+    private IPipelineService pipelineService;
+    private IAgentService agentService;
+    private StatusUpdaterService statusUpdaterService;
+    private JobAssignerService jobAssignerService;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws Exception {
+        Config.configure();
+
+        this.embeddedRedis = new EmbeddedRedis();
+        JedisPool jedisPool = this.embeddedRedis.start();
+
+        this.pipelineRepository = new RedisRepository<>(Pipeline.class, jedisPool);
+        this.agentRepository = new RedisRepository<>(Agent.class, jedisPool);
+        IDbRepository pipelineDefinitionRepository = new RedisRepository(PipelineDefinition.class, jedisPool);
+        IDbRepository materialDefinitionRepository = new RedisRepository(MaterialDefinition.class, jedisPool);
+
+        IPipelineDefinitionService pipelineDefinitionService = new PipelineDefinitionService(pipelineDefinitionRepository);
+        IMaterialDefinitionService materialDefinitionService = new MaterialDefinitionService(materialDefinitionRepository, pipelineDefinitionService);
+        this.pipelineService = new PipelineService(this.pipelineRepository, pipelineDefinitionService, materialDefinitionService);
+        this.agentService = new AgentService(this.agentRepository, this.pipelineService);
+
+        this.statusUpdaterService = new StatusUpdaterService(this.agentService, this.pipelineService);
+        JobService jobService = new JobService(new StageService(this.pipelineService));
+        this.jobAssignerService = new JobAssignerService(this.agentService, this.pipelineService, jobService);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        // Every pass assigns jobs and changes statuses, so each one starts from a freshly seeded store
+        this.embeddedRedis.flush();
+        for (Pipeline pipeline : BenchmarkData.createPipelines(this.pipelineCount)) {
+            this.pipelineRepository.add(pipeline);
+        }
+
+        for (Agent agent : BenchmarkData.createAgents(this.agentCount)) {
+            this.agentRepository.add(agent);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() {
+        this.embeddedRedis.stop();
+    }
+
+    @Benchmark
+    public void updateStatusesAndAssignJobs() {
+        this.statusUpdaterService.updateStatuses();
+        List<Agent> agents = (List<Agent>) this.agentService.getAll().getEntity();
+        this.jobAssignerService.assignJobs(agents);
+    }
+}
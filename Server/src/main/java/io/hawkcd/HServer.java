@@ -20,7 +20,9 @@ import io.hawkcd.core.config.Config;
 import io.hawkcd.http.PipelineController;
 import io.hawkcd.materials.MaterialTracker;
 import io.hawkcd.core.subscriber.SubscriberComponent;
+import io.hawkcd.scheduler.ArtifactBlobCleaner;
 import io.hawkcd.scheduler.JobAssigner;
+import io.hawkcd.scheduler.JobLogCleaner;
 import io.hawkcd.scheduler.PipelinePreparer;
 import io.hawkcd.utilities.Initializer;
 import io.hawkcd.db.redis.RedisManager;
@@ -43,6 +45,8 @@ public class HServer {
     private Thread pipelinePreparer;
     private Thread jobAssigner;
     private Thread materialTracker;
+    private Thread jobLogCleaner;
+    private Thread artifactBlobCleaner;
     private Thread subsciber;
     private Initializer initializer;
 
@@ -57,6 +61,8 @@ public class HServer {
         this.pipelinePreparer = new Thread(new PipelinePreparer(), "PipelineScheduler");
         this.jobAssigner = new Thread(new JobAssigner(), "JobAssigner");
         this.materialTracker = new Thread(new MaterialTracker(), "MaterialTracker");
+        this.jobLogCleaner = new Thread(new JobLogCleaner(), "JobLogCleaner");
+        this.artifactBlobCleaner = new Thread(new ArtifactBlobCleaner(), "ArtifactBlobCleaner");
         this.subsciber = new Thread(new SubscriberComponent(), "SubscriberComponent");
         this.initializer = new Initializer();
     }
@@ -125,6 +131,8 @@ public class HServer {
         resourceConfig.packages(PipelineController.class.getPackage().getName(), ApiListingResource.class.getPackage().getName());
         ServletContainer servletContainer = new ServletContainer(resourceConfig);
         ServletHolder servletHolder = new ServletHolder(servletContainer);
+        // agents wait for work in suspended requests, which must not hold on to the server threads
+        servletHolder.setAsyncSupported(true);
         ServletContextHandler appRootHandler = new ServletContextHandler(ServletContextHandler.SESSIONS);
         appRootHandler.setContextPath("/");
         appRootHandler.addServlet(servletHolder, "/*");
@@ -150,6 +158,8 @@ public class HServer {
         this.pipelinePreparer.start();
         this.jobAssigner.start();
         this.materialTracker.start();
+        this.jobLogCleaner.start();
+        this.artifactBlobCleaner.start();
         if (!Config.getConfiguration().getIsSingleNode()) {
             this.subsciber.start();
         }
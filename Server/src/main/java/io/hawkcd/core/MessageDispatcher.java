@@ -4,13 +4,15 @@ import io.hawkcd.core.config.Config;
 import io.hawkcd.core.publisher.PublisherFactory;
 import io.hawkcd.core.session.ISessionManager;
 import io.hawkcd.core.session.SessionFactory;
-import io.hawkcd.model.Entity;
+import io.hawkcd.core.session.Topics;
 import io.hawkcd.model.dto.WsContractDto;
 import io.hawkcd.model.enums.PermissionType;
 import io.hawkcd.ws.WSSocket;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 public class MessageDispatcher {
 
@@ -23,14 +25,31 @@ public class MessageDispatcher {
                 SessionFactory.getSessionManager().updateSessionLoggedUser(ids.toArray(new String[ids.size()]));
             } else {
                 contractDto = MessageConverter.convert(message);
-                SessionFactory.getSessionManager().sendToAllSessions(contractDto);
+                SessionFactory.getSessionManager().sendToSubscribers(contractDto);
             }
         } else {
-            PublisherFactory.createPublisher().publish("global", message);
+            List<String> topics = message.isTargetOwner() || message.isUserUpdate() ? Collections.emptyList() : Topics.of(message.getEnvelope());
+            if (topics.isEmpty()) {
+                PublisherFactory.createPublisher().publish("global", message);
+            } else {
+                List<String> channels = topics.stream().map(Topics::toChannel).collect(Collectors.toList());
+                PublisherFactory.createPublisher().publish(channels, message);
+            }
         }
     }
 
     public static void dispatchOutgoingMessage(Message message) {
+        dispatchOutgoingMessage(message, null);
+    }
+
+    /**
+     * Sends a message received from another node to the sessions of this node.
+     * Broadcasts received for a topic go only to the sessions subscribed to it.
+     *
+     * @param message
+     * @param topic the topic the message was received for, or null when it was not published for a topic
+     */
+    public static void dispatchOutgoingMessage(Message message, String topic) {
         ISessionManager sessionManager = SessionFactory.getSessionManager();
 
         if (message.isTargetOwner()) { // when is list and targets the user executed the request
@@ -45,13 +64,7 @@ public class MessageDispatcher {
             Map<String, PermissionType> permissionTypeByUser = message.getPermissionTypeByUser();
             WsContractDto contract = MessageConverter.convert(message);
 
-            for (Map.Entry<String, PermissionType> entry : permissionTypeByUser.entrySet()) {
-                WSSocket session = sessionManager.getSessionByUserId(entry.getKey());
-                if (session != null) {
-                    ((Entity) contract.getResult()).setPermissionType(entry.getValue());
-                    sessionManager.send(session, contract);
-                }
-            }
+            sessionManager.sendToUsers(contract, permissionTypeByUser, topic);
         }
     }
 }
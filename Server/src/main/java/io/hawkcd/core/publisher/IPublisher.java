@@ -20,6 +20,8 @@ package io.hawkcd.core.publisher;
 
 import io.hawkcd.core.Message;
 
+import java.util.List;
+
 /**
  * Created by Rado on 11.11.16.
  *
@@ -28,5 +30,7 @@ import io.hawkcd.core.Message;
 public interface IPublisher {
 
     void publish(String channel, Message message);
+
+    void publish(List<String> channels, Message message);
 }
 
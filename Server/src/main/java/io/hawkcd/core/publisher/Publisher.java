@@ -29,6 +29,8 @@ import io.hawkcd.utilities.deserializers.TaskDefinitionAdapter;
 import org.apache.log4j.Logger;
 import redis.clients.jedis.Jedis;
 
+import java.util.List;
+
 /**
  * The class is used to publish messages across the system.
  */
@@ -61,4 +63,18 @@ public class Publisher implements IPublisher {
         String messageAsString = this.jsonConverter.toJson(message);
         this.jedisPublisher.publish(channel, messageAsString);
     }
+
+    /**
+     * Publishes the message on each of the channels, serializing it once
+     *
+     * @param channels
+     * @param message
+     */
+    public void publish(List<String> channels, Message message) {
+        LOGGER.debug(message);
+        String messageAsString = this.jsonConverter.toJson(message);
+        for (String channel : channels) {
+            this.jedisPublisher.publish(channel, messageAsString);
+        }
+    }
 }
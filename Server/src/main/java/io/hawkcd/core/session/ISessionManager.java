@@ -20,9 +20,11 @@ package io.hawkcd.core.session;
 
 import io.hawkcd.model.SessionDetails;
 import io.hawkcd.model.dto.WsContractDto;
+import io.hawkcd.model.enums.PermissionType;
 import io.hawkcd.ws.WSSocket;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Created by rado on 11.11.16.
@@ -35,6 +37,12 @@ public interface ISessionManager {
 
     void sendToAllSessions(WsContractDto contractDto);
 
+    void sendToSubscribers(WsContractDto contractDto);
+
+    void sendToUsers(WsContractDto contractDto, Map<String, PermissionType> permissionTypeByUser);
+
+    void sendToUsers(WsContractDto contractDto, Map<String, PermissionType> permissionTypeByUser, String topic);
+
     void openSession(WSSocket session);
 
     boolean isUserInSession(WSSocket session, String email);
@@ -47,6 +55,10 @@ public interface ISessionManager {
 
     void sendToAllAuthorizedSession(WsContractDto contractDto);
 
+    void subscribe(WSSocket session, List<String> topics);
+
+    void resyncPipeline(WSSocket session, String pipelineId);
+
     WSSocket getSessionByUserId(String id);
 
     void updateSessionLoggedUser(String... userIds);
@@ -18,6 +18,7 @@
 
 package io.hawkcd.core.session;
 
+import io.hawkcd.model.User;
 import io.hawkcd.ws.WSSocket;
 
 import java.util.Set;
@@ -29,12 +30,16 @@ public interface ISessionsPool  {
 
     Set<WSSocket> getSessions();
 
+    TopicSubscriptions getTopicSubscriptions();
+
     WSSocket getSessionByID(String id);
 
     void addSession(WSSocket session);
 
     void removeSession(WSSocket session);
 
+    void updateLoggedUser(WSSocket session, User user);
+
     boolean contains(WSSocket session);
 
     WSSocket getSessionByUserEmail(String email);
@@ -0,0 +1,195 @@
+/*
+ *   Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ *
+ */
+
+package io.hawkcd.core.session;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import io.hawkcd.model.Pipeline;
+import io.hawkcd.model.dto.WsContractDto;
+import io.hawkcd.model.enums.NotificationType;
+import io.hawkcd.model.enums.PermissionType;
+import io.hawkcd.model.payload.EntityPatch;
+import io.hawkcd.utilities.JsonPatch;
+import io.hawkcd.ws.WSSocket;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The @PipelineUpdateChannels class sends pipeline updates as JSON patches against the last version sent on the same
+ * channel, a pipeline seen with a given permission type, instead of the whole pipeline.
+ * The first update on a channel, and any update whose patch is not smaller than the last whole document sent on it,
+ * replaces the whole document.
+ * Versions are unique across channels, so a client that does not hold the base version of a patch asks for a resync and
+ * gets the last document of its channel.
+ * An update received once for each of its topics advances the channel once, and the same patch reaches the sessions of
+ * every topic that were not sent that version yet.
+ */
+public class PipelineUpdateChannels {
+    public static final String PATCH_METHOD = "patch";
+    public static final String RESYNC_METHOD = "resync";
+    private static final String PIPELINE_SERVICE = "PipelineService";
+    private static final String PIPELINE_SERVICE_PACKAGE = "io.hawkcd.services";
+    private static final String UPDATE_METHOD = "update";
+    private static final int MAX_PIPELINES = 1024;
+
+    private final Gson jsonConverter;
+    private final Map<String, Map<PermissionType, Channel>> channelsByPipeline;
+    private final AtomicLong versions;
+
+    public PipelineUpdateChannels(Gson jsonConverter) {
+        this.jsonConverter = jsonConverter;
+        this.channelsByPipeline = new LinkedHashMap<String, Map<PermissionType, Channel>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<PermissionType, Channel>> eldest) {
+                return this.size() > MAX_PIPELINES;
+            }
+        };
+        this.versions = new AtomicLong();
+    }
+
+    public boolean isPipelineUpdate(WsContractDto contract) {
+        return PIPELINE_SERVICE.equals(contract.getClassName())
+                && UPDATE_METHOD.equals(contract.getMethodName())
+                && contract.getNotificationType() == NotificationType.SUCCESS
+                && contract.getResult() instanceof Pipeline;
+    }
+
+    /**
+     * Sends the pipeline of the contract to the sessions as a patch against the last version sent on its channel.
+     * When the pipeline has not changed since then, the last patch is sent only to the sessions that did not get it.
+     * The recipients are the users allowed to ask for a resync of the channel, also those whose sessions were not sent to.
+     *
+     * @param contract
+     * @param sessions
+     * @param recipientUserIds
+     */
+    public void send(WsContractDto contract, Collection<WSSocket> sessions, Collection<String> recipientUserIds) {
+        Pipeline pipeline = (Pipeline) contract.getResult();
+        JsonElement document = this.jsonConverter.toJsonTree(pipeline);
+        Channel channel = this.getChannel(pipeline.getId(), pipeline.getPermissionType());
+        synchronized (channel) {
+            if (this.advance(channel, contract.getPackageName(), pipeline.getId(), document)) {
+                channel.recipients.clear();
+            }
+
+            channel.recipients.addAll(recipientUserIds);
+
+            for (WSSocket session : sessions) {
+                if (session != null && channel.sessionIds.add(session.getId())) {
+                    this.sendPatch(session, contract.getPackageName(), channel.patch, channel.patchJson);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the last pipeline document of a channel the session received updates on, with the version of that document.
+     *
+     * @param session
+     * @param pipelineId
+     */
+    public void resync(WSSocket session, String pipelineId) {
+        Map<PermissionType, Channel> channels;
+        synchronized (this.channelsByPipeline) {
+            channels = this.channelsByPipeline.get(pipelineId);
+            if (channels == null) {
+                return;
+            }
+
+            channels = new HashMap<>(channels);
+        }
+
+        String userId = session.getLoggedUser().getId();
+        for (Channel channel : channels.values()) {
+            synchronized (channel) {
+                if (channel.document != null && channel.recipients.contains(userId)) {
+                    EntityPatch patch = new EntityPatch(pipelineId, 0, channel.version, JsonPatch.replaceDocument(channel.document));
+                    this.sendPatch(session, PIPELINE_SERVICE_PACKAGE, patch, this.encode(PIPELINE_SERVICE_PACKAGE, patch));
+                    return;
+                }
+            }
+        }
+    }
+
+    // Makes the document the next version of the channel, or returns false when it is the document of the current one.
+    private boolean advance(Channel channel, String packageName, String pipelineId, JsonElement document) {
+        JsonArray operations = null;
+        if (channel.document != null) {
+            operations = JsonPatch.diff(channel.document, document);
+            if (operations.size() == 0) {
+                return false;
+            }
+
+            // measured against the size of the last whole document sent, so the pipeline is not serialized again
+            if (operations.toString().length() >= channel.documentLength) {
+                operations = null;
+            }
+        }
+
+        long baseVersion = operations == null ? 0 : channel.version;
+        channel.version = this.versions.incrementAndGet();
+        channel.document = document;
+        channel.patch = new EntityPatch(pipelineId, baseVersion, channel.version, operations == null ? JsonPatch.replaceDocument(document) : operations);
+        channel.patchJson = this.encode(packageName, channel.patch);
+        channel.sessionIds.clear();
+        if (operations == null) {
+            channel.documentLength = channel.patchJson.length();
+        }
+
+        return true;
+    }
+
+    private Channel getChannel(String pipelineId, PermissionType permissionType) {
+        synchronized (this.channelsByPipeline) {
+            return this.channelsByPipeline
+                    .computeIfAbsent(pipelineId, id -> new HashMap<>())
+                    .computeIfAbsent(permissionType, p -> new Channel());
+        }
+    }
+
+    private void sendPatch(WSSocket session, String packageName, EntityPatch patch, String jsonResult) {
+        if (session != null && session.isConnected()) {
+            session.getOutbox().sendPatch(patch, jsonResult, p -> this.encode(packageName, p));
+        }
+    }
+
+    private String encode(String packageName, EntityPatch patch) {
+        return this.jsonConverter.toJson(new WsContractDto(PIPELINE_SERVICE, packageName, PATCH_METHOD, patch, NotificationType.SUCCESS, null));
+    }
+
+    private static class Channel {
+        private long version;
+        private JsonElement document;
+        private int documentLength;
+        private EntityPatch patch;
+        private String patchJson;
+        // the sessions the current version was sent to
+        private Set<String> sessionIds = new HashSet<>();
+        private Set<String> recipients = new HashSet<>();
+    }
+}
@@ -4,11 +4,16 @@ package io.hawkcd.core.session;
  * Created by rado on 13.11.16.
  */
 public class SessionFactory {
+    private static ISessionManager sessionManager;
 
     /*
-    * Returns a new instance of the SessionManager object
+    * Returns the SessionManager shared by the application, which keeps the state of the pipeline updates sent to sessions
     */
     public static synchronized ISessionManager getSessionManager() {
-        return new SessionManager();
+        if (sessionManager == null) {
+            sessionManager = new SessionManager();
+        }
+
+        return sessionManager;
     }
 }
@@ -20,20 +20,27 @@ package io.hawkcd.core.session;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import io.hawkcd.model.Entity;
 import io.hawkcd.model.MaterialDefinition;
 import io.hawkcd.model.SessionDetails;
 import io.hawkcd.model.TaskDefinition;
 import io.hawkcd.model.User;
 import io.hawkcd.model.dto.WsContractDto;
 import io.hawkcd.model.enums.NotificationType;
+import io.hawkcd.model.enums.PermissionType;
 import io.hawkcd.services.UserService;
 import io.hawkcd.utilities.deserializers.MaterialDefinitionAdapter;
 import io.hawkcd.utilities.deserializers.TaskDefinitionAdapter;
 import io.hawkcd.utilities.deserializers.WsContractDeserializer;
 import io.hawkcd.ws.WSSocket;
-import org.eclipse.jetty.websocket.api.RemoteEndpoint;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -51,6 +58,7 @@ public class SessionManager implements ISessionManager {
     private SessionService sessionService;
     private UserService userService;
     private Gson jsonConverter;
+    private PipelineUpdateChannels pipelineUpdateChannels;
 
     public SessionManager() {
         this.sessionPool = WsSessionPool.getInstance();
@@ -61,16 +69,13 @@ public class SessionManager implements ISessionManager {
                 .registerTypeAdapter(TaskDefinition.class, new TaskDefinitionAdapter())
                 .registerTypeAdapter(MaterialDefinition.class, new MaterialDefinitionAdapter())
                 .create();
+        this.pipelineUpdateChannels = new PipelineUpdateChannels(this.jsonConverter);
     }
 
     @Override
     public void closeSessionById(String sessionId) {
 
-        WSSocket session = this.sessionPool.getSessions()
-                .stream()
-                .filter(s -> s.getId().equals(sessionId))
-                .findFirst()
-                .orElse(null);
+        WSSocket session = this.sessionPool.getSessionByID(sessionId);
 
         this.sessionPool.removeSession(session);
     }
@@ -78,20 +83,82 @@ public class SessionManager implements ISessionManager {
     @Override
     public void closeSessionByUserEmail(String email) {
 
-        WSSocket session = this.sessionPool.getSessions()
-                .stream()
-                .filter(s -> s.getLoggedUser().getEmail().equals(email))
-                .findFirst()
-                .orElse(null);
+        WSSocket session = this.sessionPool.getSessionByUserEmail(email);
 
         this.sessionPool.removeSession(session);
     }
 
     @Override
     public void sendToAllSessions(WsContractDto contract) {
-        Set<WSSocket> sessions = this.sessionPool.getSessions();
-        for (WSSocket s : sessions) {
-            this.send(s, contract);
+        this.sendToSessions(contract, new ArrayList<>(this.sessionPool.getSessions()));
+    }
+
+    /**
+     * Sends the contract to the sessions subscribed to the topics of its result, or to all sessions when it has none.
+     *
+     * @param contract
+     */
+    @Override
+    public void sendToSubscribers(WsContractDto contract) {
+        List<String> topics = Topics.of(contract.getResult());
+        if (topics.isEmpty()) {
+            this.sendToAllSessions(contract);
+        } else {
+            this.sendToSessions(contract, this.sessionPool.getTopicSubscriptions().getSubscribers(topics));
+        }
+    }
+
+    /**
+     * Sends the contract to the sessions of the given users with the permission type of each user set on its result.
+     * The contract is serialized once per distinct permission type and the same JSON is sent to all of its sessions.
+     * Pipeline updates are sent as patches against the last version sent with the same permission type.
+     *
+     * @param contract
+     * @param permissionTypeByUser
+     */
+    @Override
+    public void sendToUsers(WsContractDto contract, Map<String, PermissionType> permissionTypeByUser) {
+        this.sendToUsers(contract, permissionTypeByUser, null);
+    }
+
+    /**
+     * Sends the contract to the sessions of the given users as above, limited to the sessions it is delivered to
+     * when it is received for the given topic, or to all of them when the topic is null.
+     *
+     * @param contract
+     * @param permissionTypeByUser
+     * @param topic
+     */
+    @Override
+    public void sendToUsers(WsContractDto contract, Map<String, PermissionType> permissionTypeByUser, String topic) {
+        Set<WSSocket> subscribers = topic == null ? null : this.sessionPool.getTopicSubscriptions().getSubscribers(Topics.of(contract.getResult()), topic);
+        Map<PermissionType, List<String>> usersByPermissionType = new LinkedHashMap<>();
+        Map<PermissionType, List<WSSocket>> sessionsByPermissionType = new HashMap<>();
+        for (Map.Entry<String, PermissionType> entry : permissionTypeByUser.entrySet()) {
+            usersByPermissionType.computeIfAbsent(entry.getValue(), p -> new ArrayList<>()).add(entry.getKey());
+            WSSocket session = this.sessionPool.getSessionByUserId(entry.getKey());
+            if (session != null && (subscribers == null || subscribers.contains(session))) {
+                sessionsByPermissionType.computeIfAbsent(entry.getValue(), p -> new ArrayList<>()).add(session);
+            }
+        }
+
+        for (Map.Entry<PermissionType, List<String>> entry : usersByPermissionType.entrySet()) {
+            List<WSSocket> sessions = sessionsByPermissionType.getOrDefault(entry.getKey(), Collections.emptyList());
+            ((Entity) contract.getResult()).setPermissionType(entry.getKey());
+            if (this.pipelineUpdateChannels.isPipelineUpdate(contract)) {
+                this.pipelineUpdateChannels.send(contract, sessions, entry.getValue());
+                continue;
+            }
+
+            if (sessions.isEmpty()) {
+                continue;
+            }
+
+            String jsonResult = this.jsonConverter.toJson(contract);
+            String key = this.getCoalescingKey(contract);
+            for (WSSocket session : sessions) {
+                this.sendJson(session, key, jsonResult);
+            }
         }
     }
 
@@ -140,11 +207,7 @@ public class SessionManager implements ISessionManager {
     @Override
     public SessionDetails getSessionDetailsBySessionId(String sessionId) {
         SessionDetails result = null;
-        WSSocket session = this.sessionPool.getSessions()
-                .stream()
-                .filter(s -> s.getId() == sessionId)
-                .findFirst()
-                .orElse(null);
+        WSSocket session = this.sessionPool.getSessionByID(sessionId);
 
         if (session != null) {
             result = session.getSessionDetails();
@@ -167,12 +230,23 @@ public class SessionManager implements ISessionManager {
 
     }
 
+    @Override
+    public void subscribe(WSSocket session, List<String> topics) {
+        List<String> validTopics = topics.stream()
+                .filter(Topics::isValid)
+                .distinct()
+                .collect(Collectors.toList());
+        this.sessionPool.getTopicSubscriptions().subscribe(session, validTopics);
+    }
+
+    @Override
+    public void resyncPipeline(WSSocket session, String pipelineId) {
+        this.pipelineUpdateChannels.resync(session, pipelineId);
+    }
+
     @Override
     public WSSocket getSessionByUserId(String id) {
-        return this.sessionPool.getSessions()
-                .stream().filter(s -> s.getLoggedUser().getId().equals(id))
-                .findFirst()
-                .orElse(null);
+        return this.sessionPool.getSessionByUserId(id);
     }
 
     /**
@@ -184,10 +258,7 @@ public class SessionManager implements ISessionManager {
     public void send(WSSocket session, WsContractDto contract) {
 
         if (session != null && session.isConnected()) {
-            RemoteEndpoint remoteEndpoint = session.getRemote();
-            String jsonResult = this.jsonConverter.toJson(contract);
-
-            remoteEndpoint.sendStringByFuture(jsonResult);
+            this.sendJson(session, this.jsonConverter.toJson(contract));
         }
     }
 
@@ -205,10 +276,56 @@ public class SessionManager implements ISessionManager {
                 continue;
             }
 
-            session.setLoggedUser(user);
+            this.sessionPool.updateLoggedUser(session, user);
             WsContractDto wsContractDto = session.extractUserDetails(user);
 
             this.send(session, wsContractDto);
         }
     }
+
+    private void sendToSessions(WsContractDto contract, Collection<WSSocket> sessions) {
+        if (this.pipelineUpdateChannels.isPipelineUpdate(contract)) {
+            List<String> recipientUserIds = this.sessionPool.getSessions()
+                    .stream()
+                    .map(s -> s.getLoggedUser().getId())
+                    .collect(Collectors.toList());
+            this.pipelineUpdateChannels.send(contract, sessions, recipientUserIds);
+            return;
+        }
+
+        String jsonResult = this.jsonConverter.toJson(contract);
+        String key = this.getCoalescingKey(contract);
+        for (WSSocket session : sessions) {
+            this.sendJson(session, key, jsonResult);
+        }
+    }
+
+    /**
+     * Broadcasts of the same call on the same entity replace each other while queued for a session,
+     * other results are always sent
+     *
+     * @param contract
+     * @return
+     */
+    private String getCoalescingKey(WsContractDto contract) {
+        if (!(contract.getResult() instanceof Entity) || ((Entity) contract.getResult()).getId() == null) {
+            return null;
+        }
+
+        return contract.getClassName() + "." + contract.getMethodName() + ":" + ((Entity) contract.getResult()).getId();
+    }
+
+    private void sendJson(WSSocket session, String jsonResult) {
+        this.sendJson(session, null, jsonResult);
+    }
+
+    private void sendJson(WSSocket session, String key, String jsonResult) {
+        if (session != null && session.isConnected()) {
+            if (key == null) {
+                session.getOutbox().send(jsonResult);
+            } else {
+                session.getOutbox().send(key, jsonResult);
+            }
+        }
+    }
 }
@@ -0,0 +1,254 @@
+/*
+ *   Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ *
+ */
+
+package io.hawkcd.core.session;
+
+import com.google.gson.JsonArray;
+import io.hawkcd.model.payload.EntityPatch;
+import org.apache.log4j.Logger;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The @SessionOutbox class queues the frames sent to a WS session.
+ * Updates of the same entity that are queued within the coalescing window, or while the client has not yet received the
+ * earlier frames, collapse into the latest one, and consecutive patches of the same entity are merged into one patch.
+ * Frames without a key, such as responses to requests, are not held back for the window.
+ * At most maxInFlightFrames frames are handed to Jetty before their writes complete. When a slow client lets more than
+ * maxQueuedFrames frames queue up, the oldest patches are dropped, since the client resyncs a pipeline when it misses one.
+ * Any other frame cannot be recovered, so if no patch is left to drop the outbox is closed and onOverflow is run.
+ */
+public class SessionOutbox {
+    private static final Logger LOGGER = Logger.getLogger(SessionOutbox.class);
+    private static final String PATCH_KEY_PREFIX = "patch:";
+    private static final AtomicInteger FLUSH_THREAD_COUNT = new AtomicInteger();
+    // a flush only hands frames to the asynchronous writes of Jetty, so a pool with a thread per core is enough for all sessions
+    private static final ScheduledExecutorService FLUSH_EXECUTOR = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+        Thread thread = new Thread(r, "SessionOutbox-" + FLUSH_THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Supplier<RemoteEndpoint> remoteEndpoint;
+    private final long coalesceWindow;
+    private final int maxInFlightFrames;
+    private final int maxQueuedFrames;
+    private final Runnable onOverflow;
+    private final Map<String, Frame> queuedFrames;
+    private final WriteCallback writeCallback;
+    private long frameCount;
+    private int inFlightFrames;
+    private boolean isFlushScheduled;
+    private long droppedFrames;
+    private boolean isClosed;
+
+    public SessionOutbox(Supplier<RemoteEndpoint> remoteEndpoint, long coalesceWindow, int maxInFlightFrames, int maxQueuedFrames, Runnable onOverflow) {
+        this.remoteEndpoint = remoteEndpoint;
+        this.coalesceWindow = coalesceWindow;
+        this.maxInFlightFrames = maxInFlightFrames;
+        this.maxQueuedFrames = maxQueuedFrames;
+        this.onOverflow = onOverflow;
+        this.queuedFrames = new LinkedHashMap<>();
+        this.writeCallback = new FrameWriteCallback();
+    }
+
+    /**
+     * Queues a frame that is always sent, in order with the other frames
+     *
+     * @param json
+     */
+    public void send(String json) {
+        this.enqueue(null, new Frame(json, null, null));
+    }
+
+    /**
+     * Queues a frame that replaces a queued frame with the same key
+     *
+     * @param key
+     * @param json
+     */
+    public void send(String key, String json) {
+        this.enqueue(key, new Frame(json, null, null));
+    }
+
+    /**
+     * Queues an entity patch. A queued patch of the same entity is merged with it when it is based on that patch's version,
+     * otherwise it is replaced.
+     *
+     * @param patch
+     * @param json the patch encoded as a frame
+     * @param encoder encodes a merged patch as a frame
+     */
+    public void sendPatch(EntityPatch patch, String json, Function<EntityPatch, String> encoder) {
+        this.enqueue(PATCH_KEY_PREFIX + patch.getId(), new Frame(json, patch, encoder));
+    }
+
+    public synchronized int getQueuedFrames() {
+        return this.queuedFrames.size();
+    }
+
+    public synchronized int getInFlightFrames() {
+        return this.inFlightFrames;
+    }
+
+    public synchronized long getDroppedFrames() {
+        return this.droppedFrames;
+    }
+
+    public synchronized boolean isClosed() {
+        return this.isClosed;
+    }
+
+    private void enqueue(String key, Frame frame) {
+        boolean isOverflowed = false;
+        synchronized (this) {
+            if (this.isClosed) {
+                return;
+            }
+
+            boolean isCoalescible = key != null;
+            if (key == null) {
+                key = String.valueOf(this.frameCount++);
+            } else {
+                Frame queuedFrame = this.queuedFrames.get(key);
+                if (queuedFrame != null && queuedFrame.patch != null && frame.patch != null) {
+                    frame = this.merge(queuedFrame, frame);
+                }
+            }
+
+            this.queuedFrames.put(key, frame);
+            if (!this.dropOldestPatches()) {
+                this.queuedFrames.clear();
+                this.isClosed = true;
+                isOverflowed = true;
+            } else if (isCoalescible && this.coalesceWindow > 0) {
+                this.scheduleFlush(this.coalesceWindow);
+                return;
+            }
+        }
+
+        if (isOverflowed) {
+            LOGGER.warn("Closing the outbox of a slow WS client with " + this.maxQueuedFrames + " queued frames.");
+            this.onOverflow.run();
+            return;
+        }
+
+        // the frames queued before this one are flushed with it, so the order is kept
+        this.flush();
+    }
+
+    private Frame merge(Frame queuedFrame, Frame frame) {
+        EntityPatch queuedPatch = queuedFrame.patch;
+        EntityPatch patch = frame.patch;
+        if (patch.getBaseVersion() == 0 || patch.getBaseVersion() != queuedPatch.getVersion()) {
+            return frame;
+        }
+
+        JsonArray operations = new JsonArray();
+        operations.addAll(queuedPatch.getOperations());
+        operations.addAll(patch.getOperations());
+        EntityPatch mergedPatch = new EntityPatch(patch.getId(), queuedPatch.getBaseVersion(), patch.getVersion(), operations);
+
+        return new Frame(frame.encoder.apply(mergedPatch), mergedPatch, frame.encoder);
+    }
+
+    // returns false when the queue is still over its limit because no patch is left to drop
+    private boolean dropOldestPatches() {
+        Iterator<Frame> frames = this.queuedFrames.values().iterator();
+        while (this.queuedFrames.size() > this.maxQueuedFrames && frames.hasNext()) {
+            if (frames.next().patch == null) {
+                continue;
+            }
+
+            frames.remove();
+            if (this.droppedFrames++ == 0) {
+                LOGGER.warn("Dropping queued patches of a slow WS client.");
+            }
+        }
+
+        return this.queuedFrames.size() <= this.maxQueuedFrames;
+    }
+
+    private void scheduleFlush(long delay) {
+        if (!this.isFlushScheduled) {
+            this.isFlushScheduled = true;
+            FLUSH_EXECUTOR.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // frames are handed to Jetty under the lock, so they are written in the order they were queued in
+    private synchronized void flush() {
+        this.isFlushScheduled = false;
+        Iterator<Frame> frames = this.queuedFrames.values().iterator();
+        while (frames.hasNext() && this.inFlightFrames < this.maxInFlightFrames) {
+            Frame frame = frames.next();
+            frames.remove();
+            this.inFlightFrames++;
+            try {
+                this.remoteEndpoint.get().sendString(frame.json, this.writeCallback);
+            } catch (RuntimeException e) {
+                LOGGER.error(e);
+                this.inFlightFrames--;
+                this.queuedFrames.clear();
+            }
+        }
+    }
+
+    private class FrameWriteCallback implements WriteCallback {
+        @Override
+        public void writeFailed(Throwable x) {
+            this.onWriteCompleted();
+        }
+
+        @Override
+        public void writeSuccess() {
+            this.onWriteCompleted();
+        }
+
+        private void onWriteCompleted() {
+            synchronized (SessionOutbox.this) {
+                SessionOutbox.this.inFlightFrames--;
+                if (!SessionOutbox.this.queuedFrames.isEmpty()) {
+                    SessionOutbox.this.scheduleFlush(0);
+                }
+            }
+        }
+    }
+
+    private static class Frame {
+        private final String json;
+        private final EntityPatch patch;
+        private final Function<EntityPatch, String> encoder;
+
+        private Frame(String json, EntityPatch patch, Function<EntityPatch, String> encoder) {
+            this.json = json;
+            this.patch = patch;
+            this.encoder = encoder;
+        }
+    }
+}
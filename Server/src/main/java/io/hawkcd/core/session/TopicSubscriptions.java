@@ -0,0 +1,167 @@
+/*
+ *   Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ *
+ */
+
+package io.hawkcd.core.session;
+
+import io.hawkcd.ws.WSSocket;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * The @TopicSubscriptions class indexes sessions by the topics they subscribed to, so the sessions an update is sent to
+ * are looked up by its topics instead of filtering all sessions.
+ * Listeners are told about the topics that have subscribers whenever they change, which is how a node follows only the
+ * Redis channels its own sessions need.
+ */
+public class TopicSubscriptions {
+    private final Map<String, Set<WSSocket>> sessionsByTopic;
+    private final Map<WSSocket, List<String>> topicsBySession;
+    private final List<Consumer<Set<String>>> listeners;
+
+    public TopicSubscriptions() {
+        this.sessionsByTopic = new HashMap<>();
+        this.topicsBySession = new HashMap<>();
+        this.listeners = new ArrayList<>();
+    }
+
+    /**
+     * Replaces the topics of a session. Topics.ALL subscribes the session to every update.
+     *
+     * @param session
+     * @param topics
+     */
+    public void subscribe(WSSocket session, List<String> topics) {
+        boolean areTopicsChanged;
+        synchronized (this) {
+            Set<String> previousTopics = new HashSet<>(this.sessionsByTopic.keySet());
+            this.removeSession(session);
+            this.topicsBySession.put(session, new ArrayList<>(topics));
+            for (String topic : topics) {
+                this.sessionsByTopic.computeIfAbsent(topic, t -> new LinkedHashSet<>()).add(session);
+            }
+
+            areTopicsChanged = !previousTopics.equals(this.sessionsByTopic.keySet());
+        }
+
+        if (areTopicsChanged) {
+            this.notifyListeners();
+        }
+    }
+
+    public void unsubscribe(WSSocket session) {
+        boolean areTopicsChanged;
+        synchronized (this) {
+            Set<String> previousTopics = new HashSet<>(this.sessionsByTopic.keySet());
+            this.removeSession(session);
+            areTopicsChanged = !previousTopics.equals(this.sessionsByTopic.keySet());
+        }
+
+        if (areTopicsChanged) {
+            this.notifyListeners();
+        }
+    }
+
+    /**
+     * Returns the sessions subscribed to any of the topics, each session once
+     *
+     * @param topics
+     * @return
+     */
+    public synchronized Set<WSSocket> getSubscribers(List<String> topics) {
+        Set<WSSocket> subscribers = new LinkedHashSet<>(this.sessionsByTopic.getOrDefault(Topics.ALL, Collections.emptySet()));
+        for (String topic : topics) {
+            subscribers.addAll(this.sessionsByTopic.getOrDefault(topic, Collections.emptySet()));
+        }
+
+        return subscribers;
+    }
+
+    /**
+     * Returns the sessions an update with the given topics is delivered to when it is received for one of them.
+     * An update published under several topics is received once for each of them, so a session gets it only for the
+     * first of its topics it subscribed to, and sessions subscribed to all updates get it for the first topic.
+     *
+     * @param topics
+     * @param topic
+     * @return
+     */
+    public synchronized Set<WSSocket> getSubscribers(List<String> topics, String topic) {
+        int topicIndex = topics.indexOf(topic);
+        if (topicIndex < 0) {
+            return Collections.emptySet();
+        }
+
+        Set<WSSocket> subscribers = new LinkedHashSet<>();
+        if (topicIndex == 0) {
+            subscribers.addAll(this.sessionsByTopic.getOrDefault(Topics.ALL, Collections.emptySet()));
+        }
+
+        List<String> previousTopics = topics.subList(0, topicIndex);
+        for (WSSocket session : this.sessionsByTopic.getOrDefault(topic, Collections.emptySet())) {
+            if (Collections.disjoint(this.topicsBySession.get(session), previousTopics)) {
+                subscribers.add(session);
+            }
+        }
+
+        return subscribers;
+    }
+
+    public synchronized Set<String> getTopics() {
+        return new HashSet<>(this.sessionsByTopic.keySet());
+    }
+
+    public void addListener(Consumer<Set<String>> listener) {
+        synchronized (this.listeners) {
+            this.listeners.add(listener);
+            listener.accept(this.getTopics());
+        }
+    }
+
+    private void removeSession(WSSocket session) {
+        List<String> topics = this.topicsBySession.remove(session);
+        if (topics == null) {
+            return;
+        }
+
+        for (String topic : topics) {
+            Set<WSSocket> sessions = this.sessionsByTopic.get(topic);
+            sessions.remove(session);
+            if (sessions.isEmpty()) {
+                this.sessionsByTopic.remove(topic);
+            }
+        }
+    }
+
+    // the topics are read again under the listeners lock, so the last notification always carries the current topics
+    private void notifyListeners() {
+        synchronized (this.listeners) {
+            Set<String> topics = this.getTopics();
+            for (Consumer<Set<String>> listener : this.listeners) {
+                listener.accept(topics);
+            }
+        }
+    }
+}
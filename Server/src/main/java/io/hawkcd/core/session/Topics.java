@@ -0,0 +1,93 @@
+/*
+ *   Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ *
+ */
+
+package io.hawkcd.core.session;
+
+import io.hawkcd.model.Agent;
+import io.hawkcd.model.Pipeline;
+import io.hawkcd.model.PipelineDefinition;
+import io.hawkcd.model.PipelineGroup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The @Topics class names what an update is about, so that it reaches only the sessions that subscribed to it.
+ * Agents share a single topic, pipeline groups have one each, and pipelines and pipeline definitions are published
+ * under both their pipeline definition and their pipeline group.
+ * Between nodes every topic is published on its own Redis channel.
+ */
+public final class Topics {
+    public static final String ALL = "*";
+    public static final String AGENTS = "agents";
+    public static final String PIPELINE_DEFINITION_PREFIX = "pipelineDefinition:";
+    public static final String PIPELINE_GROUP_PREFIX = "pipelineGroup:";
+    public static final String CHANNEL_PREFIX = "topic:";
+    public static final String CHANNEL_PATTERN = CHANNEL_PREFIX + ALL;
+
+    private Topics() {
+    }
+
+    /**
+     * Returns the topics of an updated entity, most specific first, or an empty list for updates that are sent to all sessions
+     *
+     * @param entity
+     * @return
+     */
+    public static List<String> of(Object entity) {
+        List<String> topics = new ArrayList<>();
+        if (entity instanceof Agent) {
+            topics.add(AGENTS);
+        } else if (entity instanceof PipelineGroup) {
+            addTopic(topics, PIPELINE_GROUP_PREFIX, ((PipelineGroup) entity).getId());
+        } else if (entity instanceof PipelineDefinition) {
+            addTopic(topics, PIPELINE_DEFINITION_PREFIX, ((PipelineDefinition) entity).getId());
+            addTopic(topics, PIPELINE_GROUP_PREFIX, ((PipelineDefinition) entity).getPipelineGroupId());
+        } else if (entity instanceof Pipeline) {
+            addTopic(topics, PIPELINE_DEFINITION_PREFIX, ((Pipeline) entity).getPipelineDefinitionId());
+            addTopic(topics, PIPELINE_GROUP_PREFIX, ((Pipeline) entity).getPipelineGroupId());
+        }
+
+        return topics;
+    }
+
+    public static boolean isValid(String topic) {
+        if (topic == null) {
+            return false;
+        }
+
+        return topic.equals(ALL)
+                || topic.equals(AGENTS)
+                || (topic.startsWith(PIPELINE_DEFINITION_PREFIX) && topic.length() > PIPELINE_DEFINITION_PREFIX.length())
+                || (topic.startsWith(PIPELINE_GROUP_PREFIX) && topic.length() > PIPELINE_GROUP_PREFIX.length());
+    }
+
+    public static String toChannel(String topic) {
+        return CHANNEL_PREFIX + topic;
+    }
+
+    public static String fromChannel(String channel) {
+        return channel.startsWith(CHANNEL_PREFIX) ? channel.substring(CHANNEL_PREFIX.length()) : null;
+    }
+
+    private static void addTopic(List<String> topics, String prefix, String id) {
+        if (id != null && !id.isEmpty()) {
+            topics.add(prefix + id);
+        }
+    }
+}
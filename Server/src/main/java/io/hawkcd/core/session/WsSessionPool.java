@@ -20,29 +20,41 @@ package io.hawkcd.core.session;
 
 import io.hawkcd.model.ServiceResult;
 import io.hawkcd.model.SessionDetails;
+import io.hawkcd.model.User;
 import io.hawkcd.model.enums.NotificationType;
 import io.hawkcd.ws.WSSocket;
 import org.apache.log4j.Logger;
 import org.eclipse.jetty.websocket.api.CloseStatus;
 
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Created by rado on 13.11.16.
  * A singleton class that keep track of all user WS sessions
+ * Sessions are indexed by session id, user id and user email, so looking one up does not scan all sessions.
+ * The indexes are changed only through addSession, removeSession and updateLoggedUser, which keeps them consistent.
  */
 public class WsSessionPool implements ISessionsPool {
 
     private Set<WSSocket> sessions;
+    private Map<String, WSSocket> sessionsById;
+    private Map<String, WSSocket> sessionsByUserId;
+    private Map<String, WSSocket> sessionsByUserEmail;
     private static final Logger LOGGER = Logger.getLogger(WsSessionPool.class);
     private static WsSessionPool instance;
     private SessionService sessionService = new SessionService();
+    private TopicSubscriptions topicSubscriptions;
 
     private WsSessionPool() {
-        this.sessions = Collections.synchronizedSet(new HashSet<WSSocket>());
+        this.sessions = ConcurrentHashMap.newKeySet();
+        this.sessionsById = new ConcurrentHashMap<>();
+        this.sessionsByUserId = new ConcurrentHashMap<>();
+        this.sessionsByUserEmail = new ConcurrentHashMap<>();
         this.sessionService = new SessionService();
+        this.topicSubscriptions = new TopicSubscriptions();
     }
 
     public static synchronized WsSessionPool getInstance() {
@@ -54,24 +66,24 @@ public class WsSessionPool implements ISessionsPool {
 
     @Override
     public Set<WSSocket> getSessions() {
-        return this.sessions;
+        return Collections.unmodifiableSet(this.sessions);
     }
 
     @Override
-    public WSSocket getSessionByID(String id) {
+    public TopicSubscriptions getTopicSubscriptions() {
+        return this.topicSubscriptions;
+    }
 
-         WSSocket session = this.sessions.stream()
-                .filter(s -> s.getId().equals(id) )
-                .reduce((a, b) -> {
-                    throw new IllegalStateException("Multiple elements: " + a + ", " + b);
-                }).get();
-        return session;
+    @Override
+    public WSSocket getSessionByID(String id) {
+        return id == null ? null : this.sessionsById.get(id);
     }
 
     @Override
     public void addSession(WSSocket session) {
 
-        this.sessions.add(session);
+        this.index(session);
+        this.topicSubscriptions.subscribe(session, Collections.singletonList(Topics.ALL));
         SessionDetails sessionDetails = session.getSessionDetails();
         try {
             ServiceResult result = this.sessionService.add(sessionDetails);
@@ -86,6 +98,10 @@ public class WsSessionPool implements ISessionsPool {
     @Override
     public void removeSession(WSSocket session) {
 
+        if (session != null) {
+            this.topicSubscriptions.unsubscribe(session);
+        }
+
         try {
             if (session == null){
                 throw new NullPointerException("session object is null");
@@ -93,16 +109,35 @@ public class WsSessionPool implements ISessionsPool {
             if (session.getSession()!= null){
                 if (session.getSession().isOpen()){
                     session.getSession().close(new CloseStatus(1000,"User Logged out"));
-                    this.sessions.remove(session);
+                    this.unindex(session);
                 }
             }
 
             sessionService.delete(session.getSessionDetails());
-            this.sessions.remove(session);
+            this.unindex(session);
 
         } catch (RuntimeException ex) {
             LOGGER.error(ex);
-            this.sessions.remove(session);
+            this.unindex(session);
+        }
+    }
+
+    /**
+     * Sets the logged user of a session and moves the session to the index entries of that user
+     *
+     * @param session
+     * @param user
+     */
+    @Override
+    public synchronized void updateLoggedUser(WSSocket session, User user) {
+        boolean isIndexed = this.sessions.contains(session);
+        if (isIndexed) {
+            this.unindex(session);
+        }
+
+        session.setLoggedUser(user);
+        if (isIndexed) {
+            this.index(session);
         }
     }
 
@@ -111,36 +146,53 @@ public class WsSessionPool implements ISessionsPool {
 
         String email = session.getLoggedUser().getEmail();
 
-        WSSocket ses = this.sessions
-                .stream()
-                .filter(s -> s.getLoggedUser().getEmail().equals(email) )
-                .findFirst()
-                .orElse(null);
-
-        if (ses != null ){
-            return  true;
-        }else {
-            return false;
-        }
+        return email != null && this.sessionsByUserEmail.containsKey(email);
     }
 
     @Override
     public WSSocket getSessionByUserId(String userId) {
-
-        return this.getSessions()
-                .stream()
-                .filter(s -> s.getLoggedUser().getId().equals(userId))
-                .findFirst()
-                .orElse(null);
+        return userId == null ? null : this.sessionsByUserId.get(userId);
     }
 
     @Override
     public WSSocket getSessionByUserEmail(String email) {
+        return email == null ? null : this.sessionsByUserEmail.get(email);
+    }
+
+    private synchronized void index(WSSocket session) {
+        this.sessions.add(session);
+        putIfNotNull(this.sessionsById, session.getId(), session);
+        User user = session.getLoggedUser();
+        if (user != null) {
+            putIfNotNull(this.sessionsByUserId, user.getId(), session);
+            putIfNotNull(this.sessionsByUserEmail, user.getEmail(), session);
+        }
+    }
+
+    // index entries are removed only while they point to this session, as a newer session of the same user may have replaced them
+    private synchronized void unindex(WSSocket session) {
+        if (session == null) {
+            return;
+        }
 
-        return this.getSessions()
-                .stream()
-                .filter(s -> s.getLoggedUser().getEmail().equals(email))
-                .findFirst()
-                .orElse(null);
+        this.sessions.remove(session);
+        removeIfNotNull(this.sessionsById, session.getId(), session);
+        User user = session.getLoggedUser();
+        if (user != null) {
+            removeIfNotNull(this.sessionsByUserId, user.getId(), session);
+            removeIfNotNull(this.sessionsByUserEmail, user.getEmail(), session);
+        }
+    }
+
+    private static void putIfNotNull(Map<String, WSSocket> index, String key, WSSocket session) {
+        if (key != null) {
+            index.put(key, session);
+        }
+    }
+
+    private static void removeIfNotNull(Map<String, WSSocket> index, String key, WSSocket session) {
+        if (key != null) {
+            index.remove(key, session);
+        }
     }
 }
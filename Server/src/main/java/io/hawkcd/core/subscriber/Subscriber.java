@@ -22,13 +22,19 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import io.hawkcd.core.Message;
 import io.hawkcd.core.MessageDispatcher;
+import io.hawkcd.core.session.Topics;
+import io.hawkcd.db.cache.EntityCacheInvalidator;
 import io.hawkcd.model.MaterialDefinition;
 import io.hawkcd.model.TaskDefinition;
+import io.hawkcd.scheduler.AgentWorkNotifier;
 import io.hawkcd.utilities.deserializers.MaterialDefinitionAdapter;
 import io.hawkcd.utilities.deserializers.TaskDefinitionAdapter;
 import org.apache.log4j.Logger;
 import redis.clients.jedis.JedisPubSub;
 
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * Represents an application process(when running in separate VM)
  * or thread ( when running in the same VM) that receives messages broadcast by Publishers.
@@ -36,9 +42,17 @@ import redis.clients.jedis.JedisPubSub;
 public class Subscriber extends JedisPubSub {
     private static final Logger LOGGER = Logger.getLogger(Subscriber.class);
 
+    public static final String GLOBAL_CHANNEL = "global";
+
     private Gson jsonConverter;
+    private Set<String> topics;
+    private Set<String> followedChannels;
+    private boolean isFollowingPattern;
+    private boolean isReady;
 
     public Subscriber() {
+        this.topics = new HashSet<>();
+        this.followedChannels = new HashSet<>();
         this.jsonConverter = new GsonBuilder()
                 .registerTypeAdapter(Envelope.class, new EnvelopeAdapter())
                 .registerTypeAdapter(TaskDefinition.class, new TaskDefinitionAdapter())
@@ -49,7 +63,77 @@ public class Subscriber extends JedisPubSub {
     @Override
     public void onMessage(String channel, String msg) {
         LOGGER.debug(msg);
+        if (EntityCacheInvalidator.CHANNEL.equals(channel)) {
+            EntityCacheInvalidator.onMessage(msg);
+            return;
+        }
+
+        if (AgentWorkNotifier.CHANNEL.equals(channel)) {
+            AgentWorkNotifier.onMessage(msg);
+            return;
+        }
+
         Message message = this.jsonConverter.fromJson(msg, Message.class);
-        MessageDispatcher.dispatchOutgoingMessage(message);
+        MessageDispatcher.dispatchOutgoingMessage(message, Topics.fromChannel(channel));
+    }
+
+    @Override
+    public void onPMessage(String pattern, String channel, String msg) {
+        this.onMessage(channel, msg);
+    }
+
+    @Override
+    public void onSubscribe(String channel, int subscribedChannels) {
+        if (GLOBAL_CHANNEL.equals(channel)) {
+            synchronized (this) {
+                this.isReady = true;
+                this.followTopics();
+            }
+        }
+    }
+
+    /**
+     * Follows the Redis channels of the topics the sessions of this node subscribed to.
+     * All topic channels are followed through a pattern while a session subscribed to all topics.
+     *
+     * @param topics
+     */
+    public synchronized void updateTopics(Set<String> topics) {
+        this.topics = new HashSet<>(topics);
+        if (this.isReady) {
+            this.followTopics();
+        }
+    }
+
+    private void followTopics() {
+        boolean shouldFollowPattern = this.topics.contains(Topics.ALL);
+        Set<String> channels = new HashSet<>();
+        if (!shouldFollowPattern) {
+            for (String topic : this.topics) {
+                channels.add(Topics.toChannel(topic));
+            }
+        }
+
+        if (shouldFollowPattern && !this.isFollowingPattern) {
+            this.psubscribe(Topics.CHANNEL_PATTERN);
+        } else if (!shouldFollowPattern && this.isFollowingPattern) {
+            this.punsubscribe(Topics.CHANNEL_PATTERN);
+        }
+
+        this.isFollowingPattern = shouldFollowPattern;
+
+        Set<String> removedChannels = new HashSet<>(this.followedChannels);
+        removedChannels.removeAll(channels);
+        Set<String> addedChannels = new HashSet<>(channels);
+        addedChannels.removeAll(this.followedChannels);
+        if (!removedChannels.isEmpty()) {
+            this.unsubscribe(removedChannels.toArray(new String[removedChannels.size()]));
+        }
+
+        if (!addedChannels.isEmpty()) {
+            this.subscribe(addedChannels.toArray(new String[addedChannels.size()]));
+        }
+
+        this.followedChannels = channels;
     }
 }
@@ -18,7 +18,10 @@
 
 package io.hawkcd.core.subscriber;
 
+import io.hawkcd.core.session.WsSessionPool;
+import io.hawkcd.db.cache.EntityCacheInvalidator;
 import io.hawkcd.db.redis.RedisManager;
+import io.hawkcd.scheduler.AgentWorkNotifier;
 import redis.clients.jedis.Jedis;
 
 import java.util.List;
@@ -31,6 +34,8 @@ public class SubscriberComponent implements Runnable {
         int g =5;
         Jedis jedisSubscriber = RedisManager.getJedisPool().getResource();
         //this.list.add("");
-        jedisSubscriber.subscribe(new Subscriber(), "global" /*MessagingSystem.DEFAULT_CHANNEL*/);
+        Subscriber subscriber = new Subscriber();
+        WsSessionPool.getInstance().getTopicSubscriptions().addListener(subscriber::updateTopics);
+        jedisSubscriber.subscribe(subscriber, Subscriber.GLOBAL_CHANNEL /*MessagingSystem.DEFAULT_CHANNEL*/, EntityCacheInvalidator.CHANNEL, AgentWorkNotifier.CHANNEL);
     }
 }
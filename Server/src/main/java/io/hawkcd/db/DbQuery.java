@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.db;
+
+import java.lang.reflect.Field;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+* The DbQuery @class describes a filtered, sorted and limited read that IDbRepository.getAllByQuery pushes down
+* to the database. Equality filters must be on fields listed in @Indexed, range filters and sorting on fields
+* listed in @Indexed.sortedBy. Field names are the serialized (Java) field names of the entity.
+* A page continues after the last entry already read by passing that entry's values of the sort fields to after().
+*/
+public class DbQuery {
+    private Map<String, Object> filters;
+    private Map<String, Comparable<?>> upperBounds;
+    private List<String> sortFields;
+    private List<Object> afterValues;
+    private boolean isDescending;
+    private int limit;
+
+    public DbQuery() {
+        this.filters = new LinkedHashMap<>();
+        this.upperBounds = new LinkedHashMap<>();
+        this.sortFields = new ArrayList<>();
+        this.afterValues = new ArrayList<>();
+    }
+
+    public DbQuery where(String field, Object value) {
+        this.filters.put(field, value);
+        return this;
+    }
+
+    public DbQuery before(String field, Comparable<?> value) {
+        this.upperBounds.put(field, value);
+        return this;
+    }
+
+    public DbQuery sortAscending(String... fields) {
+        this.sortFields = Arrays.asList(fields);
+        this.isDescending = false;
+        return this;
+    }
+
+    public DbQuery sortDescending(String... fields) {
+        this.sortFields = Arrays.asList(fields);
+        this.isDescending = true;
+        return this;
+    }
+
+    /*
+    * Keeps the entries that come after the given values of the sort fields in the sort order. Ties on a field are
+    * broken by the next one, so entries sharing a value with the last entry read are not skipped.
+    */
+    public DbQuery after(Object... sortValues) {
+        this.afterValues = Arrays.asList(sortValues);
+        return this;
+    }
+
+    public DbQuery limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    public Map<String, Object> getFilters() {
+        return this.filters;
+    }
+
+    public Map<String, Comparable<?>> getUpperBounds() {
+        return this.upperBounds;
+    }
+
+    public List<String> getSortFields() {
+        return this.sortFields;
+    }
+
+    public List<Object> getAfterValues() {
+        return this.afterValues;
+    }
+
+    public boolean isDescending() {
+        return this.isDescending;
+    }
+
+    public int getLimit() {
+        return this.limit;
+    }
+
+    /*
+    * Evaluates the query in memory, for repositories that can only narrow down the candidates by index.
+    */
+    public <T> List<T> applyTo(Collection<T> entries) {
+        Stream<T> result = entries.stream().filter(this::matches);
+        if (!this.sortFields.isEmpty()) {
+            Comparator<Map.Entry<T, List<Object>>> comparator = Comparator.comparing(Map.Entry::getValue, DbQuery::compareSortValues);
+            if (this.isDescending) {
+                comparator = comparator.reversed();
+            }
+
+            result = result
+                    .map(e -> new AbstractMap.SimpleImmutableEntry<>(e, this.getSortValues(e)))
+                    .filter(e -> this.isAfterCursor(e.getValue()))
+                    .sorted(comparator)
+                    .map(Map.Entry::getKey);
+        }
+
+        if (this.limit > 0) {
+            result = result.limit(this.limit);
+        }
+
+        return result.collect(Collectors.toList());
+    }
+
+    private boolean matches(Object entry) {
+        for (Map.Entry<String, Object> filter : this.filters.entrySet()) {
+            if (!Objects.equals(getFieldValue(entry, filter.getKey()), filter.getValue())) {
+                return false;
+            }
+        }
+
+        for (Map.Entry<String, Comparable<?>> upperBound : this.upperBounds.entrySet()) {
+            Object value = getFieldValue(entry, upperBound.getKey());
+            if (value == null || compareValues(value, upperBound.getValue()) >= 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private List<Object> getSortValues(Object entry) {
+        List<Object> sortValues = new ArrayList<>();
+        for (String sortField : this.sortFields) {
+            sortValues.add(getFieldValue(entry, sortField));
+        }
+
+        return sortValues;
+    }
+
+    private boolean isAfterCursor(List<Object> sortValues) {
+        if (this.afterValues.isEmpty()) {
+            return true;
+        }
+
+        int comparison = compareSortValues(sortValues.subList(0, this.afterValues.size()), this.afterValues);
+        return this.isDescending ? comparison < 0 : comparison > 0;
+    }
+
+    // compares field by field
+    private static int compareSortValues(List<Object> first, List<Object> second) {
+        for (int i = 0; i < first.size(); i++) {
+            int comparison = compareValues(first.get(i), second.get(i));
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+
+        return 0;
+    }
+
+    // null comes before any value. Both values belong to the same sorted field, whose type is Comparable to itself,
+    // so the unchecked cast holds.
+    @SuppressWarnings("unchecked")
+    private static int compareValues(Object first, Object second) {
+        if (first == null || second == null) {
+            return first == null ? (second == null ? 0 : -1) : 1;
+        }
+
+        return ((Comparable<Object>) first).compareTo(second);
+    }
+
+    private static Object getFieldValue(Object entry, String fieldName) {
+        Class<?> type = entry.getClass();
+        while (type != null) {
+            try {
+                Field field = type.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                return field.get(entry);
+            } catch (NoSuchFieldException e) {
+                type = type.getSuperclass();
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        throw new IllegalArgumentException(String.format("%s has no field %s.", entry.getClass().getSimpleName(), fieldName));
+    }
+}
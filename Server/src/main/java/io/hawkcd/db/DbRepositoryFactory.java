@@ -16,19 +16,41 @@
 
 package io.hawkcd.db;
 
+import io.hawkcd.core.config.Config;
+import io.hawkcd.db.cache.CachingDbRepository;
 import io.hawkcd.db.mongodb.MongoDbRepository;
 import io.hawkcd.db.redis.RedisRepository;
 import io.hawkcd.model.enums.DatabaseType;
 
 public class DbRepositoryFactory {
+    private static final int DEFAULT_ENTITY_CACHE_SIZE = 1000;
+
+    // the services hand in their entity class untyped, so the repositories are created untyped as well
+    @SuppressWarnings({"rawtypes", "unchecked"})
     public static IDbRepository create(DatabaseType databaseType, Class classType) {
+        IDbRepository repository;
         switch (databaseType) {
             case REDIS:
-                return new RedisRepository(classType);
+                repository = new RedisRepository(classType);
+                break;
             case MONGODB:
-                return new MongoDbRepository(classType);
+                repository = new MongoDbRepository(classType);
+                break;
             default:
                 return null;
         }
+
+        int entityCacheSize = getEntityCacheSize();
+        if (entityCacheSize > 0) {
+            repository = new CachingDbRepository(classType, repository, entityCacheSize);
+        }
+
+        return repository;
+    }
+
+    // the cache is on by default, setting entityCacheSize to 0 in the config turns it off
+    private static int getEntityCacheSize() {
+        Integer entityCacheSize = Config.getConfiguration().getEntityCacheSize();
+        return entityCacheSize == null ? DEFAULT_ENTITY_CACHE_SIZE : entityCacheSize;
     }
 }
@@ -18,13 +18,23 @@ package io.hawkcd.db;
 
 import io.hawkcd.model.Entity;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface IDbRepository<T extends Entity> {
     T getById(String id);
 
+    List<T> getByIds(Collection<String> ids);
+
     List<T> getAll();
 
+    List<T> getAllByIndex(String field, Object value);
+
+    List<T> getAllByIndexes(Map<String, Object> fieldValues);
+
+    List<T> getAllByQuery(DbQuery query);
+
     T add(T entry);
 
     T update(T entry);
@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.db;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/*
+* Marks the serialized fields of an Entity that the repositories keep secondary indexes for,
+* so that they can be queried through IDbRepository.getAllByIndex without loading every entry.
+* A dotted field path indexes the values nested in collections, e.g. "stages.jobs.id" finds the Pipeline that owns a Job.
+* The sortedBy fields are indexed only where the database can use them for range queries and sorting (MongoDB).
+*/
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Indexed {
+    String[] value();
+
+    String[] sortedBy() default {};
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.db.cache;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import io.hawkcd.db.DbQuery;
+import io.hawkcd.db.IDbRepository;
+import io.hawkcd.model.Entity;
+import io.hawkcd.model.MaterialDefinition;
+import io.hawkcd.model.TaskDefinition;
+import io.hawkcd.utilities.deserializers.MaterialDefinitionAdapter;
+import io.hawkcd.utilities.deserializers.TaskDefinitionAdapter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+* The CachingDbRepository @class is a write-through cache in front of another IDbRepository. Lookups by id are served
+* from the EntityCache of the type, everything else is read from the database. Every successful write updates the
+* cache and, in multi-node mode, evicts the entry on the other nodes.
+*/
+public class CachingDbRepository<T extends Entity> implements IDbRepository<T> {
+    private Class<T> type;
+    private IDbRepository<T> repository;
+    private EntityCache cache;
+    private Gson jsonConverter;
+
+    public CachingDbRepository(Class<T> type, IDbRepository<T> repository, int maxSize) {
+        this.type = type;
+        this.repository = repository;
+        this.cache = EntityCache.getInstance(type, maxSize);
+        this.jsonConverter = new GsonBuilder()
+                .registerTypeAdapter(TaskDefinition.class, new TaskDefinitionAdapter())
+                .registerTypeAdapter(MaterialDefinition.class, new MaterialDefinitionAdapter())
+                .create();
+    }
+
+    @Override
+    public T getById(String id) {
+        if (id == null) {
+            return null;
+        }
+
+        JsonElement cachedEntry = this.cache.get(id);
+        if (cachedEntry != null) {
+            return this.jsonConverter.fromJson(cachedEntry, this.type);
+        }
+
+        long generation = this.cache.getGeneration();
+        T entry = this.repository.getById(id);
+        if (entry != null) {
+            this.cache.putIfUnchanged(id, this.jsonConverter.toJsonTree(entry), generation);
+        }
+
+        return entry;
+    }
+
+    @Override
+    public List<T> getByIds(Collection<String> ids) {
+        List<T> result = new ArrayList<>();
+        if (ids == null || ids.isEmpty()) {
+            return result;
+        }
+
+        Map<String, T> entriesById = new HashMap<>();
+        List<String> missingIds = new ArrayList<>();
+        for (String id : ids) {
+            JsonElement cachedEntry = this.cache.get(id);
+            if (cachedEntry != null) {
+                entriesById.put(id, this.jsonConverter.fromJson(cachedEntry, this.type));
+            } else {
+                missingIds.add(id);
+            }
+        }
+
+        if (!missingIds.isEmpty()) {
+            long generation = this.cache.getGeneration();
+            for (T entry : this.repository.getByIds(missingIds)) {
+                entriesById.put(entry.getId(), entry);
+                this.cache.putIfUnchanged(entry.getId(), this.jsonConverter.toJsonTree(entry), generation);
+            }
+        }
+
+        for (String id : ids) {
+            T entry = entriesById.get(id);
+            if (entry != null) {
+                result.add(entry);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public List<T> getAll() {
+        return this.repository.getAll();
+    }
+
+    @Override
+    public List<T> getAllByIndex(String field, Object value) {
+        return this.repository.getAllByIndex(field, value);
+    }
+
+    @Override
+    public List<T> getAllByIndexes(Map<String, Object> fieldValues) {
+        return this.repository.getAllByIndexes(fieldValues);
+    }
+
+    @Override
+    public List<T> getAllByQuery(DbQuery query) {
+        return this.repository.getAllByQuery(query);
+    }
+
+    @Override
+    public T add(T entry) {
+        T result = this.repository.add(entry);
+        if (result != null) {
+            this.cache.put(result.getId(), this.jsonConverter.toJsonTree(result));
+            EntityCacheInvalidator.publish(this.type.getSimpleName(), result.getId());
+        }
+
+        return result;
+    }
+
+    @Override
+    public T update(T entry) {
+        T result = this.repository.update(entry);
+        if (result != null) {
+            this.cache.put(result.getId(), this.jsonConverter.toJsonTree(result));
+            EntityCacheInvalidator.publish(this.type.getSimpleName(), result.getId());
+        } else if (entry != null) {
+            this.cache.remove(entry.getId());
+        }
+
+        return result;
+    }
+
+    @Override
+    public T delete(String id) {
+        T result = this.repository.delete(id);
+        if (id != null) {
+            this.cache.remove(id);
+            EntityCacheInvalidator.publish(this.type.getSimpleName(), id);
+        }
+
+        return result;
+    }
+}
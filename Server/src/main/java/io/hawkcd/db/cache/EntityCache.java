@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.db.cache;
+
+import com.google.gson.JsonElement;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+* The EntityCache @class keeps the most recently used entries of one entity type, shared by all of the
+* CachingDbRepository instances created for that type. Entries are stored as Gson trees, so every read hands out
+* a new object and callers cannot change the cached state by mutating what they got back.
+*/
+public class EntityCache {
+    private static final Map<String, EntityCache> CACHES = new ConcurrentHashMap<>();
+
+    private Map<String, JsonElement> entries;
+    private long generation;
+
+    EntityCache(int maxSize) {
+        this.entries = new LinkedHashMap<String, JsonElement>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, JsonElement> eldest) {
+                return this.size() > maxSize;
+            }
+        };
+    }
+
+    public static EntityCache getInstance(Class<?> type, int maxSize) {
+        return CACHES.computeIfAbsent(type.getSimpleName(), t -> new EntityCache(maxSize));
+    }
+
+    public static void invalidate(String typeName, String id) {
+        EntityCache cache = CACHES.get(typeName);
+        if (cache != null) {
+            cache.remove(id);
+        }
+    }
+
+    public synchronized JsonElement get(String id) {
+        return this.entries.get(id);
+    }
+
+    /*
+    * Changes with every write, so that an entry read from the database before a concurrent write can be told apart
+    * from the newer state and is not put back into the cache.
+    */
+    public synchronized long getGeneration() {
+        return this.generation;
+    }
+
+    public synchronized void put(String id, JsonElement entry) {
+        this.generation++;
+        this.entries.put(id, entry);
+    }
+
+    public synchronized void putIfUnchanged(String id, JsonElement entry, long generation) {
+        if (this.generation == generation) {
+            this.entries.put(id, entry);
+        }
+    }
+
+    public synchronized void remove(String id) {
+        this.generation++;
+        this.entries.remove(id);
+    }
+
+    public synchronized void clear() {
+        this.generation++;
+        this.entries.clear();
+    }
+}
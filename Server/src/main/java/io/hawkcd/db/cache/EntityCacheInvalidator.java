@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.db.cache;
+
+import com.google.gson.Gson;
+import io.hawkcd.core.config.Config;
+import io.hawkcd.db.redis.RedisManager;
+import org.apache.log4j.Logger;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.util.UUID;
+
+/*
+* The EntityCacheInvalidator @class tells the other nodes of a multi-node setup which cached entries a write made stale.
+* Messages go over their own Redis channel, which the SubscriberComponent listens on next to the global one.
+*/
+public final class EntityCacheInvalidator {
+    public static final String CHANNEL = "entity-cache";
+
+    private static final Logger LOGGER = Logger.getLogger(EntityCacheInvalidator.class);
+    private static final String NODE_ID = UUID.randomUUID().toString();
+    private static final Gson JSON_CONVERTER = new Gson();
+
+    private EntityCacheInvalidator() {
+    }
+
+    public static void publish(String typeName, String id) {
+        if (Config.getConfiguration().getIsSingleNode()) {
+            return;
+        }
+
+        String message = JSON_CONVERTER.toJson(new Invalidation(NODE_ID, typeName, id));
+        try (Jedis jedis = RedisManager.getJedisPool().getResource()) {
+            jedis.publish(CHANNEL, message);
+        } catch (JedisException e) {
+            LOGGER.error(e);
+        }
+    }
+
+    public static void onMessage(String message) {
+        Invalidation invalidation = JSON_CONVERTER.fromJson(message, Invalidation.class);
+        if (!NODE_ID.equals(invalidation.nodeId)) {
+            EntityCache.invalidate(invalidation.typeName, invalidation.id);
+        }
+    }
+
+    private static class Invalidation {
+        private String nodeId;
+        private String typeName;
+        private String id;
+
+        Invalidation(String nodeId, String typeName, String id) {
+            this.nodeId = nodeId;
+            this.typeName = typeName;
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.db.mongodb;
+
+import com.google.gson.stream.JsonWriter;
+import org.bson.BsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+
+/*
+* The BsonJsonWriter @class lets Gson serialize straight into a BsonWriter. Numbers are written with the same
+* BSON types that Document.parse picks for the equivalent JSON, so documents written either way compare equally.
+*/
+public class BsonJsonWriter extends JsonWriter {
+    private static final Writer UNWRITABLE_WRITER = new Writer() {
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void flush() {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void close() {
+            throw new AssertionError();
+        }
+    };
+
+    private BsonWriter writer;
+    private String deferredName;
+
+    public BsonJsonWriter(BsonWriter writer) {
+        super(UNWRITABLE_WRITER);
+        this.writer = writer;
+    }
+
+    @Override
+    public JsonWriter beginArray() throws IOException {
+        this.writeDeferredName();
+        this.writer.writeStartArray();
+        return this;
+    }
+
+    @Override
+    public JsonWriter endArray() throws IOException {
+        this.writer.writeEndArray();
+        return this;
+    }
+
+    @Override
+    public JsonWriter beginObject() throws IOException {
+        this.writeDeferredName();
+        this.writer.writeStartDocument();
+        return this;
+    }
+
+    @Override
+    public JsonWriter endObject() throws IOException {
+        this.writer.writeEndDocument();
+        return this;
+    }
+
+    @Override
+    public JsonWriter name(String name) throws IOException {
+        if (name == null) {
+            throw new NullPointerException("name == null");
+        }
+
+        this.deferredName = name;
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) {
+            return this.nullValue();
+        }
+
+        this.writeDeferredName();
+        this.writer.writeString(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter jsonValue(String value) throws IOException {
+        throw new UnsupportedOperationException("Raw JSON values cannot be written as BSON.");
+    }
+
+    @Override
+    public JsonWriter nullValue() throws IOException {
+        if ((this.deferredName != null) && !this.getSerializeNulls()) {
+            // the same as JsonWriter, a null field is left out together with its name
+            this.deferredName = null;
+            return this;
+        }
+
+        this.writeDeferredName();
+        this.writer.writeNull();
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(boolean value) throws IOException {
+        this.writeDeferredName();
+        this.writer.writeBoolean(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(double value) throws IOException {
+        this.writeDeferredName();
+        this.writer.writeDouble(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(long value) throws IOException {
+        this.writeDeferredName();
+        this.writeIntegral(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Number value) throws IOException {
+        if (value == null) {
+            return this.nullValue();
+        }
+
+        this.writeDeferredName();
+        if ((value instanceof Integer) || (value instanceof Long) || (value instanceof Short) || (value instanceof Byte)) {
+            this.writeIntegral(value.longValue());
+        } else if ((value instanceof Double) || (value instanceof Float)) {
+            this.writer.writeDouble(value.doubleValue());
+        } else {
+            BigDecimal decimal = new BigDecimal(value.toString());
+            if ((decimal.scale() <= 0) && (decimal.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) >= 0) && (decimal.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) <= 0)) {
+                this.writeIntegral(decimal.longValue());
+            } else {
+                this.writer.writeDouble(decimal.doubleValue());
+            }
+        }
+
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+
+    private void writeIntegral(long value) {
+        if ((value >= Integer.MIN_VALUE) && (value <= Integer.MAX_VALUE)) {
+            this.writer.writeInt32((int) value);
+        } else {
+            this.writer.writeInt64(value);
+        }
+    }
+
+    private void writeDeferredName() {
+        if (this.deferredName != null) {
+            this.writer.writeName(this.deferredName);
+            this.deferredName = null;
+        }
+    }
+}
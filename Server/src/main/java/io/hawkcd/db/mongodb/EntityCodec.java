@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.db.mongodb;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import io.hawkcd.model.Entity;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+/*
+* The EntityCodec @class converts an Entity to and from BSON with the repository's Gson configuration,
+* so the polymorphic TaskDefinition and MaterialDefinition adapters keep working without a JSON string in between.
+* Writes stream straight into the BsonWriter. Reads build a JsonElement tree, because Gson's map adapter relies on
+* reader internals that only its own readers expose.
+*/
+public class EntityCodec<T extends Entity> implements Codec<T> {
+    private static final String MONGO_ID = "_id";
+
+    private Class<T> type;
+    private Gson jsonConverter;
+
+    public EntityCodec(Class<T> type, Gson jsonConverter) {
+        this.type = type;
+        this.jsonConverter = jsonConverter;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, T value, EncoderContext encoderContext) {
+        this.jsonConverter.toJson(value, value.getClass(), new BsonJsonWriter(writer));
+    }
+
+    @Override
+    public T decode(BsonReader reader, DecoderContext decoderContext) {
+        JsonObject document = new JsonObject();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            if (MONGO_ID.equals(name)) {
+                reader.skipValue();
+            } else {
+                document.add(name, this.readValue(reader));
+            }
+        }
+
+        reader.readEndDocument();
+
+        return this.jsonConverter.fromJson(document, this.type);
+    }
+
+    @Override
+    public Class<T> getEncoderClass() {
+        return this.type;
+    }
+
+    private JsonElement readValue(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case DOCUMENT:
+                JsonObject document = new JsonObject();
+                reader.readStartDocument();
+                while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                    document.add(reader.readName(), this.readValue(reader));
+                }
+
+                reader.readEndDocument();
+                return document;
+            case ARRAY:
+                JsonArray array = new JsonArray();
+                reader.readStartArray();
+                while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                    array.add(this.readValue(reader));
+                }
+
+                reader.readEndArray();
+                return array;
+            case STRING:
+                return new JsonPrimitive(reader.readString());
+            case INT32:
+                return new JsonPrimitive(reader.readInt32());
+            case INT64:
+                return new JsonPrimitive(reader.readInt64());
+            case DOUBLE:
+                return new JsonPrimitive(reader.readDouble());
+            case BOOLEAN:
+                return new JsonPrimitive(reader.readBoolean());
+            case OBJECT_ID:
+                return new JsonPrimitive(reader.readObjectId().toHexString());
+            case DATE_TIME:
+                return new JsonPrimitive(reader.readDateTime());
+            case NULL:
+                reader.readNull();
+                return JsonNull.INSTANCE;
+            default:
+                reader.skipValue();
+                return JsonNull.INSTANCE;
+        }
+    }
+}
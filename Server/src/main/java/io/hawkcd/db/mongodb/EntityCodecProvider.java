@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.db.mongodb;
+
+import com.google.gson.Gson;
+import io.hawkcd.model.Entity;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecProvider;
+import org.bson.codecs.configuration.CodecRegistry;
+
+public class EntityCodecProvider implements CodecProvider {
+    private Gson jsonConverter;
+
+    public EntityCodecProvider(Gson jsonConverter) {
+        this.jsonConverter = jsonConverter;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Codec<T> get(Class<T> type, CodecRegistry registry) {
+        if (Entity.class.isAssignableFrom(type)) {
+            // type is the Entity subclass checked above, so the codec created for it is a Codec<T>
+            return (Codec<T>) this.createCodec(type.asSubclass(Entity.class));
+        }
+
+        return null;
+    }
+
+    private <E extends Entity> EntityCodec<E> createCodec(Class<E> type) {
+        return new EntityCodec<>(type, this.jsonConverter);
+    }
+}
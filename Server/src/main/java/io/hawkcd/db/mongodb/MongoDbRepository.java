@@ -3,12 +3,15 @@ package io.hawkcd.db.mongodb;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.mongodb.BasicDBObject;
+import com.mongodb.MongoClient;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Indexes;
 import com.mongodb.client.result.UpdateResult;
-import com.mongodb.util.JSON;
+import io.hawkcd.db.DbQuery;
 import io.hawkcd.db.IDbRepository;
+import io.hawkcd.db.Indexed;
 import io.hawkcd.model.Entity;
 import io.hawkcd.model.MaterialDefinition;
 import io.hawkcd.model.TaskDefinition;
@@ -16,19 +19,35 @@ import io.hawkcd.utilities.deserializers.MaterialDefinitionAdapter;
 import io.hawkcd.utilities.deserializers.TaskDefinitionAdapter;
 import org.apache.log4j.Logger;
 import org.bson.Document;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
 
 import javax.ws.rs.NotFoundException;
-import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
+import static com.mongodb.client.model.Filters.and;
 import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.gt;
+import static com.mongodb.client.model.Filters.in;
+import static com.mongodb.client.model.Filters.lt;
+import static com.mongodb.client.model.Filters.or;
+import static com.mongodb.client.model.Sorts.ascending;
+import static com.mongodb.client.model.Sorts.descending;
 
 public class MongoDbRepository<T extends Entity> implements IDbRepository<T> {
     private static final Logger LOGGER = Logger.getLogger(MongoDbRepository.class);
-    private MongoCollection collection;
-    private Type entryType;
+    private static final Set<String> INDEXED_NAMESPACES = ConcurrentHashMap.newKeySet();
+    private MongoCollection<T> collection;
+    private Class<T> entryType;
     private Gson jsonConverter;
     private MongoDatabase mongoDatabase;
 
@@ -40,13 +59,19 @@ public class MongoDbRepository<T extends Entity> implements IDbRepository<T> {
                 .create();
 
         this.mongoDatabase = MongoDbManager.getInstance().getDb();
-        this.collection = this.mongoDatabase.getCollection(this.entryType.getTypeName());
+        this.collection = this.mongoDatabase
+                .getCollection(this.entryType.getTypeName(), this.entryType)
+                .withCodecRegistry(this.createCodecRegistry());
+        this.ensureIndexes(this.collection.getNamespace().getFullName());
     }
 
-    public MongoDbRepository(Class entry, MongoCollection mockedMongoCollection) {
+    public MongoDbRepository(Class<T> entry, MongoCollection<?> mockedMongoCollection) {
         this.entryType = entry;
         this.jsonConverter = new GsonBuilder().create();
-        this.collection = mockedMongoCollection;
+        this.collection = mockedMongoCollection
+                .withDocumentClass(this.entryType)
+                .withCodecRegistry(this.createCodecRegistry());
+        this.ensureIndexes(null);
     }
 
     @Override
@@ -62,31 +87,88 @@ public class MongoDbRepository<T extends Entity> implements IDbRepository<T> {
             BasicDBObject bObj = new BasicDBObject("id", uuid);
 
             //execute the query against the db
-            Document document = (Document) collection.find(eq("id", id)).first();
-            if (document != null) {
-                String json = document.toJson();
-                result = this.jsonConverter.fromJson(json, this.entryType);
-                return result;
-            }
-
-            return null;
+            result = this.collection.find(eq("id", id)).first();
+            return result;
         } catch (NotFoundException e) {
             LOGGER.error(e);
             throw e;
         }
     }
 
+    @Override
+    public List<T> getByIds(Collection<String> ids) {
+        List<T> result = new ArrayList<>();
+        if (ids == null || ids.isEmpty()) {
+            return result;
+        }
+
+        try {
+            this.collection.find(in("id", ids)).into(result);
+        } catch (RuntimeException e) {
+            LOGGER.error(e);
+        }
+
+        return result;
+    }
+
     @Override
     public List<T> getAll() {
-        T resultElement;
         List<T> result = new ArrayList<>();
         try {
-            FindIterable documents = this.collection.find();
-            for (Object document : documents) {
-                String documentToJson = JSON.serialize(document);
-                resultElement = this.jsonConverter.fromJson(documentToJson, this.entryType);
-                result.add(resultElement);
+            this.collection.find().into(result);
+        } catch (RuntimeException e) {
+            LOGGER.error(e);
+        }
+
+        return result;
+    }
+
+    @Override
+    public List<T> getAllByIndex(String field, Object value) {
+        return this.getAllByIndexes(Collections.singletonMap(field, value));
+    }
+
+    @Override
+    public List<T> getAllByIndexes(Map<String, Object> fieldValues) {
+        if (fieldValues == null || fieldValues.isEmpty()) {
+            return this.getAll();
+        }
+
+        DbQuery query = new DbQuery();
+        for (Map.Entry<String, Object> fieldValue : fieldValues.entrySet()) {
+            query.where(fieldValue.getKey(), fieldValue.getValue());
+        }
+
+        return this.getAllByQuery(query);
+    }
+
+    @Override
+    public List<T> getAllByQuery(DbQuery query) {
+        List<Bson> filters = new ArrayList<>();
+        for (Map.Entry<String, Object> filter : query.getFilters().entrySet()) {
+            filters.add(eq(filter.getKey(), this.toDocumentValue(filter.getValue())));
+        }
+
+        for (Map.Entry<String, Comparable<?>> upperBound : query.getUpperBounds().entrySet()) {
+            filters.add(lt(upperBound.getKey(), this.toDocumentValue(upperBound.getValue())));
+        }
+
+        if (!query.getAfterValues().isEmpty()) {
+            filters.add(this.createAfterFilter(query));
+        }
+
+        List<T> result = new ArrayList<>();
+        try {
+            FindIterable<T> documents = this.collection.find(filters.isEmpty() ? new Document() : and(filters));
+            if (!query.getSortFields().isEmpty()) {
+                documents = documents.sort(query.isDescending() ? descending(query.getSortFields()) : ascending(query.getSortFields()));
             }
+
+            if (query.getLimit() > 0) {
+                documents = documents.limit(query.getLimit());
+            }
+
+            documents.into(result);
         } catch (RuntimeException e) {
             LOGGER.error(e);
         }
@@ -102,9 +184,7 @@ public class MongoDbRepository<T extends Entity> implements IDbRepository<T> {
 
         if (this.getById(entry.getId()) == null) {
             try {
-                String entryToJson = this.jsonConverter.toJson(entry);
-                Document document = Document.parse(entryToJson);
-                this.collection.insertOne(document);
+                this.collection.insertOne(entry);
                 return entry;
             } catch (RuntimeException e) {
                 LOGGER.error(e);
@@ -123,10 +203,7 @@ public class MongoDbRepository<T extends Entity> implements IDbRepository<T> {
         }
 
         try {
-            String entryToJson = this.jsonConverter.toJson(entry);
-            Document document = Document.parse(entryToJson);
-
-            UpdateResult updateResult = this.collection.replaceOne(eq("id", document.get("id")), document);
+            UpdateResult updateResult = this.collection.replaceOne(eq("id", entry.getId()), entry);
 
             if (updateResult.getMatchedCount() == 1) { // means one record updated
                 return entry;
@@ -151,18 +228,75 @@ public class MongoDbRepository<T extends Entity> implements IDbRepository<T> {
             UUID uuid = UUID.fromString(id);
             BasicDBObject query = new BasicDBObject("id", uuid);
 
-            Document document = (Document) this.collection.findOneAndDelete(eq("id", id));
-            if (document != null) {
-                String dd = document.toJson();
-                result = this.jsonConverter.fromJson(dd, this.entryType);
-                return result;
-            } else {
-                return null;
-            }
+            result = this.collection.findOneAndDelete(eq("id", id));
+            return result;
         } catch (RuntimeException e) {
             LOGGER.error(e);
             return null;
         }
     }
 
-}
\ No newline at end of file
+    // Entries are stored the way Gson serializes them, so non-primitive values are compared as embedded documents
+    private Object toDocumentValue(Object value) {
+        if (value instanceof Enum) {
+            return ((Enum) value).name();
+        }
+
+        if ((value == null) || (value instanceof String) || (value instanceof Number) || (value instanceof Boolean)) {
+            return value;
+        }
+
+        return Document.parse(this.jsonConverter.toJson(value));
+    }
+
+    // an entry comes after the cursor when it equals it on the first sort fields and comes after it on the next one
+    private Bson createAfterFilter(DbQuery query) {
+        List<Bson> keysetFilters = new ArrayList<>();
+        for (int i = 0; i < query.getAfterValues().size(); i++) {
+            List<Bson> fieldFilters = new ArrayList<>();
+            for (int j = 0; j < i; j++) {
+                fieldFilters.add(eq(query.getSortFields().get(j), this.toDocumentValue(query.getAfterValues().get(j))));
+            }
+
+            String field = query.getSortFields().get(i);
+            Object value = this.toDocumentValue(query.getAfterValues().get(i));
+            fieldFilters.add(query.isDescending() ? lt(field, value) : gt(field, value));
+            keysetFilters.add(and(fieldFilters));
+        }
+
+        return or(keysetFilters);
+    }
+
+    private CodecRegistry createCodecRegistry() {
+        return CodecRegistries.fromRegistries(
+                CodecRegistries.fromProviders(new EntityCodecProvider(this.jsonConverter)),
+                MongoClient.getDefaultCodecRegistry());
+    }
+
+    // Repositories are created per service instance, so the indexes of a shared collection are created once, by the first
+    // of them. A collection passed in from outside has no namespace to share and is always indexed.
+    private void ensureIndexes(String indexNamespace) {
+        if (indexNamespace != null && !INDEXED_NAMESPACES.add(indexNamespace)) {
+            return;
+        }
+
+        Set<String> indexedFields = new LinkedHashSet<>();
+        indexedFields.add("id");
+        Indexed indexed = ((Class<?>) this.entryType).getAnnotation(Indexed.class);
+        if (indexed != null) {
+            Collections.addAll(indexedFields, indexed.value());
+            Collections.addAll(indexedFields, indexed.sortedBy());
+        }
+
+        try {
+            for (String indexedField : indexedFields) {
+                this.collection.createIndex(Indexes.ascending(indexedField));
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error(e);
+            if (indexNamespace != null) {
+                INDEXED_NAMESPACES.remove(indexNamespace);
+            }
+        }
+    }
+}
@@ -23,17 +23,27 @@ import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
 
 public class RedisManager {
+    private static final int DEFAULT_BULK_READ_SIZE = 500;
+
     private static JedisPool jedisPool;
+    private static int bulkReadSize = DEFAULT_BULK_READ_SIZE;
 
     public static JedisPool getJedisPool() {
         return jedisPool;
     }
 
+    public static int getBulkReadSize() {
+        return bulkReadSize;
+    }
+
     public static void connect() {
         DatabaseConfig config = Config.getConfiguration().getDatabaseConfigs().get(DatabaseType.REDIS);
         String host = config.getHost();
         int port = config.getPort();
         String password = config.getPassword();
+        if (config.getBulkReadSize() > 0) {
+            bulkReadSize = config.getBulkReadSize();
+        }
 
         JedisPoolConfig poolConfig = new JedisPoolConfig();
         poolConfig.setMaxTotal(100);
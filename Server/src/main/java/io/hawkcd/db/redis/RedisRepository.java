@@ -18,6 +18,11 @@ package io.hawkcd.db.redis;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.hawkcd.db.DbQuery;
+import io.hawkcd.db.Indexed;
 import io.hawkcd.utilities.deserializers.MaterialDefinitionAdapter;
 import io.hawkcd.utilities.deserializers.TaskDefinitionAdapter;
 import io.hawkcd.db.IDbRepository;
@@ -29,26 +34,115 @@ import redis.clients.jedis.JedisPool;
 
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class RedisRepository<T extends Entity> implements IDbRepository<T> {
+    private static final Set<String> BUILT_INDEX_NAMESPACES = ConcurrentHashMap.newKeySet();
+
+    // Index values are stored per field as JSON arrays, so that fields nested in collections can hold several values.
+    private static final String UPDATE_INDEXES_FUNCTION =
+            "local function update_indexes(valuesKey, id, namespace, firstArgument)\n" +
+            "    local previous = {}\n" +
+            "    local stored = redis.call('HGETALL', valuesKey)\n" +
+            "    for i = 1, #stored, 2 do\n" +
+            "        previous[stored[i]] = stored[i + 1]\n" +
+            "    end\n" +
+            "    for i = firstArgument, #ARGV, 2 do\n" +
+            "        local field, values = ARGV[i], ARGV[i + 1]\n" +
+            "        if previous[field] ~= values then\n" +
+            "            local removed = {}\n" +
+            "            if previous[field] then\n" +
+            "                for _, value in ipairs(cjson.decode(previous[field])) do\n" +
+            "                    removed[value] = true\n" +
+            "                end\n" +
+            "            end\n" +
+            "            for _, value in ipairs(cjson.decode(values)) do\n" +
+            "                if removed[value] then\n" +
+            "                    removed[value] = nil\n" +
+            "                else\n" +
+            "                    redis.call('SADD', namespace .. ':' .. field .. ':' .. value, id)\n" +
+            "                end\n" +
+            "            end\n" +
+            "            for value in pairs(removed) do\n" +
+            "                redis.call('SREM', namespace .. ':' .. field .. ':' .. value, id)\n" +
+            "            end\n" +
+            "            redis.call('HSET', valuesKey, field, values)\n" +
+            "        end\n" +
+            "        previous[field] = nil\n" +
+            "    end\n" +
+            "    for field, values in pairs(previous) do\n" +
+            "        for _, value in ipairs(cjson.decode(values)) do\n" +
+            "            redis.call('SREM', namespace .. ':' .. field .. ':' .. value, id)\n" +
+            "        end\n" +
+            "        redis.call('HDEL', valuesKey, field)\n" +
+            "    end\n" +
+            "end\n";
+
+    // KEYS: entry, ids, index values; ARGV: id, json, 1 for update or 0 for add, index namespace, field/values pairs
+    private static final RedisScript WRITE_SCRIPT = new RedisScript(UPDATE_INDEXES_FUNCTION +
+            "if redis.call('EXISTS', KEYS[1]) ~= tonumber(ARGV[3]) then\n" +
+            "    return 0\n" +
+            "end\n" +
+            "redis.call('SET', KEYS[1], ARGV[2])\n" +
+            "redis.call('SADD', KEYS[2], ARGV[1])\n" +
+            "update_indexes(KEYS[3], ARGV[1], ARGV[4], 5)\n" +
+            "return 1\n");
+
+    // KEYS: entry, ids, index values; ARGV: id, index namespace
+    private static final RedisScript DELETE_SCRIPT = new RedisScript(
+            "local value = redis.call('GET', KEYS[1])\n" +
+            "if not value then\n" +
+            "    return false\n" +
+            "end\n" +
+            "redis.call('DEL', KEYS[1])\n" +
+            "redis.call('SREM', KEYS[2], ARGV[1])\n" +
+            "local stored = redis.call('HGETALL', KEYS[3])\n" +
+            "for i = 1, #stored, 2 do\n" +
+            "    for _, indexValue in ipairs(cjson.decode(stored[i + 1])) do\n" +
+            "        redis.call('SREM', ARGV[2] .. ':' .. stored[i] .. ':' .. indexValue, ARGV[1])\n" +
+            "    end\n" +
+            "end\n" +
+            "redis.call('DEL', KEYS[3])\n" +
+            "return value\n");
+
+    // KEYS: index values; ARGV: id, index namespace, field/values pairs
+    private static final RedisScript INDEX_SCRIPT = new RedisScript(UPDATE_INDEXES_FUNCTION +
+            "update_indexes(KEYS[1], ARGV[1], ARGV[2], 3)\n" +
+            "return 1\n");
+
     private Type type;
     private String entryNamespace;
     private String idNamespace;
+    private String indexNamespace;
+    private String indexValuesNamespace;
+    private List<String> indexedFields;
     private Gson jsonConverter;
+    private JsonParser jsonParser;
     private JedisPool jedisPool;
+    private int bulkReadSize;
 
     public RedisRepository(Class<T> type) {
         this.type = type;
         this.entryNamespace = String.format("%s:%s", "Entries", type.getSimpleName());
         this.idNamespace = String.format("%s:%s", "Ids", type.getSimpleName());
+        this.indexNamespace = String.format("%s:%s", "Indexes", type.getSimpleName());
+        this.indexValuesNamespace = String.format("%s:%s", "IndexValues", type.getSimpleName());
+        Indexed indexed = type.getAnnotation(Indexed.class);
+        this.indexedFields = indexed == null ? Collections.emptyList() : Arrays.asList(indexed.value());
+        this.jsonParser = new JsonParser();
         this.jsonConverter = new GsonBuilder()
                 .registerTypeAdapter(TaskDefinition.class, new TaskDefinitionAdapter())
                 .registerTypeAdapter(MaterialDefinition.class, new MaterialDefinitionAdapter())
                 .create();
         this.jedisPool = RedisManager.getJedisPool();
-
+        this.bulkReadSize = RedisManager.getBulkReadSize();
     }
 
     public RedisRepository(Class<T> entry, JedisPool pool) {
@@ -76,14 +170,12 @@ public class RedisRepository<T extends Entity> implements IDbRepository<T> {
 
     @Override
     public List<T> getAll() {
-        List<T> result;
+        List<T> result = new ArrayList<>();
         try (Jedis jedis = this.jedisPool.getResource()) {
             Set<String> entitiesIds = jedis.smembers(this.idNamespace);
 
-            result = new ArrayList<>();
-            for (String id : entitiesIds) {
-                T entry = this.getById(id);
-                result.add(entry);
+            for (String entryValue : this.getEntryValues(jedis, entitiesIds)) {
+                result.add(this.jsonConverter.fromJson(entryValue, this.type));
             }
         }
 
@@ -91,19 +183,15 @@ public class RedisRepository<T extends Entity> implements IDbRepository<T> {
     }
 
     @Override
-    public T add(T entry) {
-        if (entry == null) {
-            return null;
+    public List<T> getByIds(Collection<String> ids) {
+        List<T> result = new ArrayList<>();
+        if (ids == null || ids.isEmpty()) {
+            return result;
         }
 
-        T result = null;
         try (Jedis jedis = this.jedisPool.getResource()) {
-            T existingObject = this.getById(entry.getId());
-            if (existingObject == null) {
-                String entryKey = String.format("%s:%s", this.entryNamespace, entry.getId());
-                String entryValue = jedis.set(entryKey, this.jsonConverter.toJson(entry));
-                Long entryId = jedis.sadd(this.idNamespace, entry.getId());
-                result = this.getById(entry.getId());
+            for (String entryValue : this.getEntryValues(jedis, ids)) {
+                result.add(this.jsonConverter.fromJson(entryValue, this.type));
             }
         }
 
@@ -111,25 +199,76 @@ public class RedisRepository<T extends Entity> implements IDbRepository<T> {
     }
 
     @Override
-    public T update(T entry) {
-        if (entry == null) {
-            return null;
+    public List<T> getAllByIndex(String field, Object value) {
+        return this.getAllByIndexes(Collections.singletonMap(field, value));
+    }
+
+    @Override
+    public List<T> getAllByIndexes(Map<String, Object> fieldValues) {
+        if (fieldValues == null || fieldValues.isEmpty()) {
+            return this.getAll();
+        }
+
+        Map<String, String> expectedValues = new HashMap<>();
+        for (Map.Entry<String, Object> fieldValue : fieldValues.entrySet()) {
+            if (!this.indexedFields.contains(fieldValue.getKey())) {
+                throw new IllegalArgumentException(String.format("%s is not indexed by %s.", fieldValue.getKey(), this.indexNamespace));
+            }
+
+            expectedValues.put(fieldValue.getKey(), toIndexValue(fieldValue.getValue()));
         }
 
-        T result = null;
+        List<T> result = new ArrayList<>();
         try (Jedis jedis = this.jedisPool.getResource()) {
-            T existingObject = this.getById(entry.getId());
-            if (existingObject != null) {
-                String entryKey = String.format("%s:%s", this.entryNamespace, entry.getId());
-                String entryValue = jedis.set(entryKey, this.jsonConverter.toJson(entry));
-                Long entryId = jedis.sadd(this.idNamespace, entry.getId());
-                result = this.getById(entry.getId());
+            this.ensureIndexesBuilt(jedis);
+
+            String[] indexKeys = expectedValues.entrySet()
+                    .stream()
+                    .map(e -> this.getIndexKey(e.getKey(), e.getValue()))
+                    .toArray(String[]::new);
+            Set<String> entitiesIds = indexKeys.length == 1 ? jedis.smembers(indexKeys[0]) : jedis.sinter(indexKeys);
+
+            for (String entryValue : this.getEntryValues(jedis, entitiesIds)) {
+                // an index entry may be stale if a previous write did not complete, so the stored values are checked again
+                JsonObject entryJson = this.jsonParser.parse(entryValue).getAsJsonObject();
+                Map<String, List<String>> indexValues = this.getIndexValues(entryJson);
+                boolean isMatching = expectedValues.entrySet()
+                        .stream()
+                        .allMatch(e -> indexValues.containsKey(e.getKey()) && indexValues.get(e.getKey()).contains(e.getValue()));
+                if (isMatching) {
+                    result.add(this.jsonConverter.fromJson(entryJson, this.type));
+                }
             }
         }
 
         return result;
     }
 
+    @Override
+    public List<T> getAllByQuery(DbQuery query) {
+        List<T> candidates = this.getAllByIndexes(query.getFilters());
+
+        return query.applyTo(candidates);
+    }
+
+    @Override
+    public T add(T entry) {
+        if (entry == null) {
+            return null;
+        }
+
+        return this.write(entry, false) ? entry : null;
+    }
+
+    @Override
+    public T update(T entry) {
+        if (entry == null) {
+            return null;
+        }
+
+        return this.write(entry, true) ? entry : null;
+    }
+
     @Override
     public T delete(String id) {
         if (id == null) {
@@ -138,14 +277,145 @@ public class RedisRepository<T extends Entity> implements IDbRepository<T> {
 
         T result;
         try (Jedis jedis = this.jedisPool.getResource()) {
-            result = this.getById(id);
-            if (result != null) {
-                String entryKey = String.format("%s:%s", this.entryNamespace, id);
-                jedis.del(entryKey);
-                jedis.srem(this.idNamespace, id);
-            }
+            List<String> keys = this.getEntryKeys(id);
+            List<String> arguments = Arrays.asList(id, this.indexNamespace);
+            String existingValue = (String) DELETE_SCRIPT.execute(jedis, keys, arguments);
+
+            result = this.jsonConverter.fromJson(existingValue, this.type);
         }
 
         return result;
     }
+
+    // The existence check, the write and the index update run as one script, so they cost a single round-trip
+    // and cannot interleave with a write for the same entry from another server node.
+    private boolean write(T entry, boolean shouldExist) {
+        JsonObject entryJson = this.jsonConverter.toJsonTree(entry).getAsJsonObject();
+
+        List<String> arguments = new ArrayList<>();
+        arguments.add(entry.getId());
+        arguments.add(this.jsonConverter.toJson(entryJson));
+        arguments.add(shouldExist ? "1" : "0");
+        arguments.add(this.indexNamespace);
+        for (Map.Entry<String, List<String>> indexValues : this.getIndexValues(entryJson).entrySet()) {
+            arguments.add(indexValues.getKey());
+            arguments.add(this.jsonConverter.toJson(indexValues.getValue()));
+        }
+
+        Long isWritten;
+        try (Jedis jedis = this.jedisPool.getResource()) {
+            isWritten = (Long) WRITE_SCRIPT.execute(jedis, this.getEntryKeys(entry.getId()), arguments);
+        }
+
+        return isWritten == 1;
+    }
+
+    private List<String> getEntryKeys(String id) {
+        String entryKey = String.format("%s:%s", this.entryNamespace, id);
+        String indexValuesKey = String.format("%s:%s", this.indexValuesNamespace, id);
+
+        return Arrays.asList(entryKey, this.idNamespace, indexValuesKey);
+    }
+
+    // Reads the stored values with MGET in chunks of bulkReadSize keys, skipping ids that have no entry.
+    private List<String> getEntryValues(Jedis jedis, Collection<String> ids) {
+        List<String> entryValues = new ArrayList<>();
+        List<String> entryKeys = new ArrayList<>();
+        for (String id : ids) {
+            entryKeys.add(String.format("%s:%s", this.entryNamespace, id));
+            if (entryKeys.size() == this.bulkReadSize) {
+                this.readEntryValues(jedis, entryKeys, entryValues);
+                entryKeys.clear();
+            }
+        }
+
+        if (!entryKeys.isEmpty()) {
+            this.readEntryValues(jedis, entryKeys, entryValues);
+        }
+
+        return entryValues;
+    }
+
+    private void readEntryValues(Jedis jedis, List<String> entryKeys, List<String> entryValues) {
+        for (String entryValue : jedis.mget(entryKeys.toArray(new String[entryKeys.size()]))) {
+            if (entryValue != null) {
+                entryValues.add(entryValue);
+            }
+        }
+    }
+
+    private Map<String, List<String>> getIndexValues(JsonObject entryJson) {
+        Map<String, List<String>> indexValues = new HashMap<>();
+        for (String field : this.indexedFields) {
+            List<String> fieldValues = new ArrayList<>();
+            collectFieldValues(entryJson, field.split("\\."), 0, fieldValues);
+            if (!fieldValues.isEmpty()) {
+                indexValues.put(field, fieldValues);
+            }
+        }
+
+        return indexValues;
+    }
+
+    // Follows a dotted field path through nested objects and collections, e.g. "stages.jobs.id".
+    private static void collectFieldValues(JsonElement element, String[] path, int depth, List<String> fieldValues) {
+        if (element == null || element.isJsonNull()) {
+            return;
+        }
+
+        if (element.isJsonArray()) {
+            for (JsonElement item : element.getAsJsonArray()) {
+                collectFieldValues(item, path, depth, fieldValues);
+            }
+        } else if (depth == path.length) {
+            if (element.isJsonPrimitive()) {
+                fieldValues.add(element.getAsString());
+            }
+        } else if (element.isJsonObject()) {
+            collectFieldValues(element.getAsJsonObject().get(path[depth]), path, depth + 1, fieldValues);
+        }
+    }
+
+    // Entries written before the indexes existed, or before the indexed fields last changed,
+    // are indexed once, the first time the type is queried by index.
+    private void ensureIndexesBuilt(Jedis jedis) {
+        if (BUILT_INDEX_NAMESPACES.contains(this.indexNamespace)) {
+            return;
+        }
+
+        String builtFields = String.join(",", this.indexedFields);
+        if (!builtFields.equals(jedis.get(this.indexNamespace))) {
+            for (String entryValue : this.getEntryValues(jedis, jedis.smembers(this.idNamespace))) {
+                JsonObject entryJson = this.jsonParser.parse(entryValue).getAsJsonObject();
+                String id = entryJson.get("id").getAsString();
+
+                List<String> arguments = new ArrayList<>();
+                arguments.add(id);
+                arguments.add(this.indexNamespace);
+                for (Map.Entry<String, List<String>> indexValues : this.getIndexValues(entryJson).entrySet()) {
+                    arguments.add(indexValues.getKey());
+                    arguments.add(this.jsonConverter.toJson(indexValues.getValue()));
+                }
+
+                String indexValuesKey = String.format("%s:%s", this.indexValuesNamespace, id);
+                INDEX_SCRIPT.execute(jedis, Collections.singletonList(indexValuesKey), arguments);
+            }
+
+            jedis.set(this.indexNamespace, builtFields);
+        }
+
+        BUILT_INDEX_NAMESPACES.add(this.indexNamespace);
+    }
+
+    private String getIndexKey(String field, String value) {
+        return String.format("%s:%s:%s", this.indexNamespace, field, value);
+    }
+
+    private static String toIndexValue(Object value) {
+        if (value instanceof Enum) {
+            return ((Enum) value).name();
+        }
+
+        return String.valueOf(value);
+    }
 }
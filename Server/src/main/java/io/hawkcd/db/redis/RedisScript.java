@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.db.redis;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+/*
+* A Lua script that is executed with EVALSHA and sent in full with EVAL only when the server has not cached it yet.
+*/
+public class RedisScript {
+    private static final String NO_SCRIPT_ERROR = "NOSCRIPT";
+
+    private String source;
+    private String sha;
+
+    public RedisScript(String source) {
+        this.source = source;
+        this.sha = calculateSha(source);
+    }
+
+    public Object execute(Jedis jedis, List<String> keys, List<String> arguments) {
+        try {
+            return jedis.evalsha(this.sha, keys, arguments);
+        } catch (JedisDataException e) {
+            if (e.getMessage() == null || !e.getMessage().startsWith(NO_SCRIPT_ERROR)) {
+                throw e;
+            }
+
+            return jedis.eval(this.source, keys, arguments);
+        }
+    }
+
+    private static String calculateSha(String source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            StringBuilder sha = new StringBuilder();
+            for (byte b : digest.digest(source.getBytes(StandardCharsets.UTF_8))) {
+                sha.append(String.format("%02x", b));
+            }
+
+            return sha.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -20,11 +20,18 @@ import io.hawkcd.model.*;
 import io.hawkcd.model.enums.JobStatus;
 import io.hawkcd.model.enums.NotificationType;
 import io.hawkcd.model.enums.TaskType;
+import io.hawkcd.model.payload.AgentHeartbeat;
 import io.hawkcd.model.payload.JsTreeFile;
+import io.hawkcd.scheduler.AgentLastSeen;
+import io.hawkcd.scheduler.AgentWorkNotifier;
+import io.hawkcd.scheduler.SchedulerEvent;
+import io.hawkcd.scheduler.SchedulerEventQueue;
 import io.hawkcd.services.AgentService;
 import io.hawkcd.services.FileManagementService;
 import io.hawkcd.services.PipelineService;
+import io.hawkcd.services.JobLogService;
 import io.hawkcd.services.interfaces.IFileManagementService;
+import io.hawkcd.services.interfaces.IJobLogService;
 import io.hawkcd.services.interfaces.IPipelineService;
 import io.hawkcd.utilities.SchemaValidator;
 import io.hawkcd.utilities.constants.ConfigurationConstants;
@@ -32,31 +39,45 @@ import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 
 import javax.ws.rs.*;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
 
 @Consumes(MediaType.APPLICATION_JSON)
 @Produces(MediaType.APPLICATION_JSON)
 @Path("/agents")
 @Api(value = "/agents", description = "Web Services to browse entities")
 public class AgentController {
+    private static final int MAX_WORK_WAIT = 60;
+    private static final String NO_WORK_MESSAGE = "This agent has no job assigned.";
+    private static final String AGENT_INFO_REQUIRED_MESSAGE = "Agent not found, its info is required.";
+    private static final String HEARTBEAT_REQUIRED_MESSAGE = "Heartbeat is required.";
+
     private AgentService agentService;
     private IFileManagementService fileManagementService;
     private SchemaValidator schemaValidator;
     private IPipelineService pipelineService;
+    private IJobLogService jobLogService;
 
     public AgentController() {
         this.agentService = new AgentService();
         this.schemaValidator = new SchemaValidator();
         this.pipelineService = new PipelineService();
         this.fileManagementService = new FileManagementService();
+        this.jobLogService = new JobLogService();
     }
 
     public AgentController(AgentService agentService) {
@@ -64,6 +85,7 @@ public class AgentController {
         this.schemaValidator = new SchemaValidator();
         this.pipelineService = new PipelineService();
         this.fileManagementService = new FileManagementService();
+        this.jobLogService = new JobLogService();
     }
 
     @GET
@@ -97,7 +119,46 @@ public class AgentController {
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     @Path("/{agentId}/work")
-    public Response getWork(@PathParam("agentId") String agentId) {
+    public void getWork(@PathParam("agentId") String agentId,
+                        @QueryParam("wait") @DefaultValue("0") int wait,
+                        @Suspended AsyncResponse asyncResponse) {
+        if (wait <= 0) {
+            asyncResponse.resume(this.getWorkResponse(agentId));
+            return;
+        }
+
+        Agent agent = (Agent) this.agentService.getById(agentId).getEntity();
+        if ((agent == null) || agent.isAssigned()) {
+            asyncResponse.resume(this.getWorkResponse(agentId));
+            return;
+        }
+
+        // the request waits until the agent is assigned a job or the wait runs out, and is answered only once
+        AtomicBoolean isAnswered = new AtomicBoolean();
+        Runnable onAssigned = () -> {
+            if (isAnswered.compareAndSet(false, true)) {
+                asyncResponse.resume(this.getWorkResponse(agentId));
+            }
+        };
+        asyncResponse.setTimeoutHandler(response -> {
+            if (AgentWorkNotifier.cancel(agentId, onAssigned)) {
+                onAssigned.run();
+            } else if (isAnswered.compareAndSet(false, true)) {
+                // replaced by a newer request of the agent, which is the one to receive the work
+                response.resume(Response.status(Status.BAD_REQUEST).entity(NO_WORK_MESSAGE).build());
+            }
+        });
+        asyncResponse.setTimeout(Math.min(wait, MAX_WORK_WAIT), TimeUnit.SECONDS);
+        AgentWorkNotifier.await(agentId, onAssigned);
+
+        // a job assigned before the request started waiting would not wake it up
+        agent = (Agent) this.agentService.getById(agentId).getEntity();
+        if ((agent != null) && agent.isAssigned() && AgentWorkNotifier.cancel(agentId, onAssigned)) {
+            onAssigned.run();
+        }
+    }
+
+    private Response getWorkResponse(String agentId) {
         ServiceResult result = this.agentService.getWorkInfo(agentId);
         if (result.getNotificationType() == NotificationType.ERROR) {
             return Response.status(Status.BAD_REQUEST)
@@ -144,67 +205,105 @@ public class AgentController {
             return Response.status(Status.OK).build();
         }
 
-        PipelineService.lock.lock();
-        Pipeline pipeline = (Pipeline) this.pipelineService.getById(job.getPipelineId()).getEntity();
-
-        Stage stage = pipeline.getStages()
-                    .stream()
-                    .filter(s -> s.getId().equals(job.getStageId()))
-                    .findFirst()
-                    .orElse(null);
-
-        List<Job> jobs = stage.getJobs();
-        int lengthOfJobs = jobs.size();
-        for (int i = 0; i < lengthOfJobs; i++) {
-            Job currentJob = jobs.get(i);
-            if (currentJob.getId().equals(job.getId())) {
-                if (currentJob.getStatus() != JobStatus.CANCELED) {
-                    jobs.set(i, job);
-                    stage.setJobs(jobs);
-                    break;
-                }
-            }
+        // the output of agents that still send it with the Job is moved to the log store, which skips what it already has
+        StringBuilder report = job.getReport();
+        if ((report != null) && (report.length() > 0)) {
+            this.jobLogService.append(job.getId(), 0, report.toString().getBytes(StandardCharsets.UTF_8));
+            job.setReport(null);
         }
 
-        List<Stage> stages = pipeline.getStages();
-        int lengthOfStages = stages.size();
-        for (int i = 0; i < lengthOfStages; i++) {
-            Stage currentStage = stages.get(i);
-            if (currentStage.getId().equals(stage.getId())) {
-                stages.set(i, stage);
-                pipeline.setStages(stages);
-                break;
+        job.setLogReference(this.jobLogService.getReference(job.getId()));
+        job.setLogLength(this.jobLogService.getLength(job.getId()));
+
+        Lock lock = PipelineService.getLock(job.getPipelineId());
+        lock.lock();
+        try {
+            Pipeline pipeline = (Pipeline) this.pipelineService.getById(job.getPipelineId()).getEntity();
+
+            Stage stage = pipeline.getStages()
+                        .stream()
+                        .filter(s -> s.getId().equals(job.getStageId()))
+                        .findFirst()
+                        .orElse(null);
+
+            List<Job> jobs = stage.getJobs();
+            int lengthOfJobs = jobs.size();
+            for (int i = 0; i < lengthOfJobs; i++) {
+                Job currentJob = jobs.get(i);
+                if (currentJob.getId().equals(job.getId())) {
+                    if (currentJob.getStatus() != JobStatus.CANCELED) {
+                        jobs.set(i, job);
+                        stage.setJobs(jobs);
+                        break;
+                    }
+                }
             }
-        }
 
-        if ((job.getStatus() == JobStatus.PASSED) || (job.getStatus() == JobStatus.FAILED)) {
-            boolean hasUploadArtifact = false;
-            for (Task task : job.getTasks()) {
-                if (task.getType() == TaskType.UPLOAD_ARTIFACT) {
-                    hasUploadArtifact = true;
+            List<Stage> stages = pipeline.getStages();
+            int lengthOfStages = stages.size();
+            for (int i = 0; i < lengthOfStages; i++) {
+                Stage currentStage = stages.get(i);
+                if (currentStage.getId().equals(stage.getId())) {
+                    stages.set(i, stage);
+                    pipeline.setStages(stages);
                     break;
                 }
             }
 
-            if (hasUploadArtifact) {
-                String artifactsDirectory = System.getProperty("user.dir") + File.separator +
-                        ConfigurationConstants.PROPERTY_ARTIFACTS_DESTINATION + File.separator +
-                        pipeline.getPipelineDefinitionName() + File.separator + pipeline.getExecutionId();
-                JsTreeFile artifactDirectory = this.fileManagementService.getFileNames(new File(artifactsDirectory));
-                pipeline.setArtifactsFileStructure(new ArrayList<>(Arrays.asList(artifactDirectory)));
+            if ((job.getStatus() == JobStatus.PASSED) || (job.getStatus() == JobStatus.FAILED)) {
+                boolean hasUploadArtifact = false;
+                for (Task task : job.getTasks()) {
+                    if (task.getType() == TaskType.UPLOAD_ARTIFACT) {
+                        hasUploadArtifact = true;
+                        break;
+                    }
+                }
+
+                if (hasUploadArtifact) {
+                    String artifactsDirectory = System.getProperty("user.dir") + File.separator +
+                            ConfigurationConstants.PROPERTY_ARTIFACTS_DESTINATION + File.separator +
+                            pipeline.getPipelineDefinitionName() + File.separator + pipeline.getExecutionId();
+                    JsTreeFile artifactDirectory = this.fileManagementService.getFileNames(new File(artifactsDirectory));
+                    pipeline.setArtifactsFileStructure(new ArrayList<>(Arrays.asList(artifactDirectory)));
+                }
+
+                Agent agent = (Agent) this.agentService.getById(job.getAssignedAgentId()).getEntity();
+                agent.setAssigned(false);
+                ServiceResult result = this.agentService.update(agent);
             }
 
-            Agent agent = (Agent) this.agentService.getById(job.getAssignedAgentId()).getEntity();
-            agent.setAssigned(false);
-            ServiceResult result = this.agentService.update(agent);
+            this.pipelineService.update(pipeline);
+        } finally {
+            lock.unlock();
         }
 
-        this.pipelineService.update(pipeline);
-        PipelineService.lock.unlock();
+        SchedulerEventQueue.publish(SchedulerEvent.WORK_REPORTED);
 
         return Response.status(Status.OK).build();
     }
 
+    @PUT
+    @Consumes(MediaType.APPLICATION_OCTET_STREAM)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/work/{jobId}/log")
+    public Response appendJobLog(@PathParam("jobId") String jobId, @QueryParam("offset") long offset, byte[] content) {
+        long length;
+        try {
+            length = this.jobLogService.append(jobId, offset, content == null ? new byte[0] : content);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Status.BAD_REQUEST)
+                    .entity(e.getMessage())
+                    .type(MediaType.TEXT_HTML)
+                    .build();
+        }
+
+        // the agent starts over from the stored length when an earlier chunk never arrived
+        Status status = length < offset ? Status.CONFLICT : Status.OK;
+        return Response.status(status)
+                .entity(length)
+                .build();
+    }
+
     @PUT
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
@@ -237,6 +336,7 @@ public class AgentController {
     public Response reportAgent(Agent agent) {
         String isValid = this.schemaValidator.validate(agent);
         if (isValid.equals("OK")) {
+            AgentLastSeen.markSeen(agent.getId());
             ServiceResult result = this.agentService.getById(agent.getId());
             Agent agentFromDb = (Agent) result.getEntity();
             if (result.getNotificationType() == NotificationType.ERROR) {
@@ -278,6 +378,92 @@ public class AgentController {
         }
     }
 
+    @PUT
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/{agentId}/heartbeat")
+    public Response reportHeartbeat(@PathParam("agentId") String agentId, AgentHeartbeat heartbeat) {
+        if (heartbeat == null) {
+            return Response.status(Status.BAD_REQUEST)
+                    .entity(HEARTBEAT_REQUIRED_MESSAGE)
+                    .type(MediaType.TEXT_HTML)
+                    .build();
+        }
+
+        Agent agent = heartbeat.getAgent();
+        if (agent != null) {
+            String isValid = this.schemaValidator.validate(agent);
+            if (!isValid.equals("OK")) {
+                return Response.status(Status.BAD_REQUEST)
+                        .entity(isValid)
+                        .type(MediaType.TEXT_HTML)
+                        .build();
+            }
+        }
+
+        Agent agentFromDb = (Agent) this.agentService.getById(agentId).getEntity();
+        if ((agentFromDb == null) && (agent == null)) {
+            // the agent sends its info in full with the next heartbeat
+            return Response.status(Status.CONFLICT)
+                    .entity(AGENT_INFO_REQUIRED_MESSAGE)
+                    .type(MediaType.TEXT_HTML)
+                    .build();
+        }
+
+        AgentLastSeen.markSeen(agentId);
+        ServiceResult result = null;
+        if (agentFromDb == null) {
+            agent.setLastReportedTime(ZonedDateTime.now(ZoneOffset.UTC).toLocalDateTime());
+            result = this.agentService.add(agent);
+        } else if (this.applyHeartbeat(agentFromDb, agent)) {
+            // the Agent is written and sent to the UI only when something other than its last reported time changed
+            agentFromDb.setLastReportedTime(ZonedDateTime.now(ZoneOffset.UTC).toLocalDateTime());
+            result = this.agentService.update(agentFromDb);
+        }
+
+        if ((result != null) && (result.getNotificationType() == NotificationType.ERROR)) {
+            return Response.status(Status.BAD_REQUEST)
+                    .entity(result.getMessage())
+                    .type(MediaType.TEXT_HTML)
+                    .build();
+        }
+
+        if (heartbeat.getJob() != null) {
+            return this.addWork(heartbeat.getJob());
+        }
+
+        return Response.status(Status.OK).build();
+    }
+
+    private boolean applyHeartbeat(Agent agentFromDb, Agent agent) {
+        boolean isChanged = false;
+        if (agent != null) {
+            isChanged = !Objects.equals(agentFromDb.getHostName(), agent.getHostName())
+                    || !Objects.equals(agentFromDb.getOperatingSystem(), agent.getOperatingSystem())
+                    || !Objects.equals(agentFromDb.getIpAddress(), agent.getIpAddress())
+                    || !Objects.equals(agentFromDb.getRootPath(), agent.getRootPath())
+                    || !Objects.equals(agentFromDb.getName(), agent.getName())
+                    || (agentFromDb.isRunning() != agent.isRunning())
+                    || (agentFromDb.isConnected() != agent.isConnected());
+
+            agentFromDb.setHostName(agent.getHostName());
+            agentFromDb.setOperatingSystem(agent.getOperatingSystem());
+            agentFromDb.setIpAddress(agent.getIpAddress());
+            agentFromDb.setRootPath(agent.getRootPath());
+            agentFromDb.setRunning(agent.isRunning());
+            agentFromDb.setConnected(agent.isConnected());
+            agentFromDb.setName(agent.getName());
+        }
+
+        // an agent that was marked as disconnected is back
+        if (!agentFromDb.isConnected()) {
+            agentFromDb.setConnected(true);
+            isChanged = true;
+        }
+
+        return isChanged;
+    }
+
 //    @DELETE
 //    @Consumes(MediaType.APPLICATION_JSON)
 //    @Produces(MediaType.APPLICATION_JSON)
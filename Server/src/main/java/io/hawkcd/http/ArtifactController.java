@@ -18,56 +18,69 @@ package io.hawkcd.http;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
 
 import io.hawkcd.core.config.Config;
 import io.hawkcd.utilities.deserializers.TaskDefinitionAdapter;
 import io.hawkcd.model.TaskDefinition;
+import io.hawkcd.model.payload.ArtifactManifestEntry;
+import io.hawkcd.services.ArtifactStoreService;
 import io.hawkcd.services.FileManagementService;
+import io.hawkcd.services.interfaces.IArtifactStoreService;
 import io.hawkcd.services.interfaces.IFileManagementService;
+import io.hawkcd.utilities.ByteRange;
 import io.swagger.annotations.Api;
 
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
 import java.util.List;
-import java.util.UUID;
 
 @Path("/Artifacts/{pipelineName}")
 @Api(value = "/Artifacts/{pipelineName}", description = "Web Services to browse entities")
 public class ArtifactController {
     private IFileManagementService fileManagementService;
+    private IArtifactStoreService artifactStoreService;
     private String basePath;
-    private String outputFolder;
     private Gson jsonConverter;
-    private File zipFile;
 
     public ArtifactController() {
         this.fileManagementService = new FileManagementService();
+        this.artifactStoreService = new ArtifactStoreService();
         this.basePath = System.getProperty("user.dir");
-        this.outputFolder = this.basePath + File.separator + "Temp" + File.separator;
         this.jsonConverter = new GsonBuilder()
                 .registerTypeAdapter(TaskDefinition.class, new TaskDefinitionAdapter())
                 .create();
-        File tempFolder = new File(this.outputFolder);
-        if (!tempFolder.exists()) {
-            tempFolder.mkdir();
-        }
     }
 
     public ArtifactController(IFileManagementService fileManagementService) {
+        this(fileManagementService, new ArtifactStoreService());
+    }
+
+    public ArtifactController(IFileManagementService fileManagementService, IArtifactStoreService artifactStoreService) {
         this.fileManagementService = fileManagementService;
+        this.artifactStoreService = artifactStoreService;
         this.jsonConverter = new GsonBuilder()
                 .registerTypeAdapter(TaskDefinition.class, new TaskDefinitionAdapter())
                 .create();
     }
 
-    protected void finalize() throws Throwable {
-        super.finalize();
-        this.zipFile.delete();
-    }
-
     @POST
     @Path("/{pipelineExecutionId}/upload-artifact")
     @Consumes(MediaType.MULTIPART_FORM_DATA)
@@ -76,21 +89,67 @@ public class ArtifactController {
                               @PathParam("pipelineExecutionId") String pipelineExecutionID,
                               @QueryParam("destination") String destination,
                               InputStream uploadedInputStream) {
-        this.zipFile = new File(this.basePath + File.separator + "Temp" + File.separator + UUID.randomUUID() + ".zip");
+        String artifactsFolder = Config.getConfiguration().getArtifactsDestination();
+        String outputFolder = this.basePath + File.separator + artifactsFolder + File.separator + pipelineName + File.separator + pipelineExecutionID + File.separator + destination;
 
-        String errorMessage = this.fileManagementService.streamToFile(uploadedInputStream, this.zipFile.getPath());
+        // the entries are extracted while the request body is still arriving, nothing is buffered in Temp
+        String errorMessage = this.fileManagementService.unzipStream(uploadedInputStream, outputFolder);
         if (errorMessage != null) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+            return Response.status(Response.Status.NOT_FOUND)
                     .type(MediaType.TEXT_HTML)
                     .build();
         }
 
-        String artifactsFolder = Config.getConfiguration().getArtifactsDestination();
-        this.outputFolder = this.basePath + File.separator + artifactsFolder + File.separator + pipelineName + File.separator + pipelineExecutionID + File.separator + destination;
+        return Response.status(Response.Status.OK)
+                .build();
+    }
+
+    @POST
+    @Path("/{pipelineExecutionId}/missing-blobs")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getMissingBlobs(String hashes) {
+        List<String> blobHashes = this.jsonConverter.fromJson(hashes, new TypeToken<List<String>>() {
+        }.getType());
+        List<String> missingHashes = this.artifactStoreService.getMissingBlobs(blobHashes);
 
-        errorMessage = this.fileManagementService.unzipFile(this.zipFile.getPath(), this.outputFolder);
+        return Response.status(Response.Status.OK)
+                .entity(this.jsonConverter.toJson(missingHashes))
+                .build();
+    }
+
+    @POST
+    @Path("/{pipelineExecutionId}/upload-blobs")
+    @Consumes(MediaType.APPLICATION_OCTET_STREAM)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response uploadBlobs(InputStream uploadedInputStream) {
+        String errorMessage = this.artifactStoreService.storeBlobs(uploadedInputStream);
         if (errorMessage != null) {
-            return Response.status(Response.Status.NOT_FOUND)
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(errorMessage)
+                    .type(MediaType.TEXT_HTML)
+                    .build();
+        }
+
+        return Response.status(Response.Status.OK)
+                .build();
+    }
+
+    @POST
+    @Path("/{pipelineExecutionId}/manifest")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response applyManifest(@PathParam("pipelineName") String pipelineName,
+                                  @PathParam("pipelineExecutionId") String pipelineExecutionID,
+                                  @QueryParam("destination") String destination,
+                                  String manifest) {
+        List<ArtifactManifestEntry> entries = this.jsonConverter.fromJson(manifest, new TypeToken<List<ArtifactManifestEntry>>() {
+        }.getType());
+
+        String errorMessage = this.artifactStoreService.applyManifest(pipelineName, pipelineExecutionID, destination, entries);
+        if (errorMessage != null) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(errorMessage)
                     .type(MediaType.TEXT_HTML)
                     .build();
         }
@@ -123,22 +182,16 @@ public class ArtifactController {
                     .build();
         }
 
-        this.outputFolder = this.basePath + File.separator + "Temp" + File.separator;
-
-        this.zipFile = this.fileManagementService.generateUniqueFile(this.outputFolder, "zip");
-
-        String errorMessage = this.fileManagementService.zipFiles(zipFile.getPath(), files, rootPath, false);
-
-        if (errorMessage != null) {
-            this.zipFile.delete();
-
-            return Response.status(Response.Status.BAD_REQUEST)
-                    .type(MediaType.TEXT_HTML)
-                    .build();
-        }
+        // the status is already sent once zipping starts, so a failure aborts the response and the agent sees a truncated archive
+        StreamingOutput zipStream = outputStream -> {
+            String errorMessage = this.fileManagementService.zipFilesToStream(outputStream, files, rootPath, false);
+            if (errorMessage != null) {
+                throw new IOException(errorMessage);
+            }
+        };
 
         return Response.status(Response.Status.OK)
-                .entity(zipFile)
+                .entity(zipStream)
                 .build();
     }
 
@@ -148,7 +201,10 @@ public class ArtifactController {
     @Produces("application/force-download")
     public Response getArtifact(@PathParam("pipelineName") String pipelineName,
                                 @PathParam("pipelineExecutionId") String pipelineExecutionID,
-                                @PathParam("artifactSource") String artifactSource) {
+                                @PathParam("artifactSource") String artifactSource,
+                                @HeaderParam("Range") String range,
+                                @HeaderParam("If-Range") String ifRange,
+                                @Context Request request) {
 
         artifactSource = this.fileManagementService.normalizePath(artifactSource);
 
@@ -156,13 +212,83 @@ public class ArtifactController {
 
         File fileToReturn = new File(directory);
 
-        if (!fileToReturn.exists()) {
+        if (!fileToReturn.isFile()) {
             return Response.status(Response.Status.NOT_FOUND)
                     .build();
         }
 
-        return Response.status(Response.Status.OK)
-                .entity(fileToReturn)
+        long length = fileToReturn.length();
+        Date lastModified = new Date(fileToReturn.lastModified() / 1000 * 1000);
+        EntityTag entityTag = new EntityTag(Long.toHexString(length) + "-" + Long.toHexString(lastModified.getTime()));
+
+        // answers If-None-Match and If-Modified-Since with 304, and If-Match and If-Unmodified-Since with 412
+        Response.ResponseBuilder preconditionResponse = request.evaluatePreconditions(lastModified, entityTag);
+        if (preconditionResponse != null) {
+            return preconditionResponse
+                    .tag(entityTag)
+                    .lastModified(lastModified)
+                    .build();
+        }
+
+        ByteRange byteRange = ByteRange.parse(range, length);
+        if (byteRange != null && ifRange != null && !this.isIfRangeMatching(ifRange, entityTag, lastModified)) {
+            byteRange = null;
+        }
+
+        if (byteRange != null && !byteRange.isSatisfiable()) {
+            return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header("Content-Range", "bytes */" + length)
+                    .build();
+        }
+
+        Response.ResponseBuilder response;
+        if (byteRange == null) {
+            response = Response.status(Response.Status.OK)
+                    .entity(this.transferFile(fileToReturn, 0, length))
+                    .header(HttpHeaders.CONTENT_LENGTH, length);
+        } else {
+            response = Response.status(Response.Status.PARTIAL_CONTENT)
+                    .entity(this.transferFile(fileToReturn, byteRange.getStart(), byteRange.getLength()))
+                    .header(HttpHeaders.CONTENT_LENGTH, byteRange.getLength())
+                    .header("Content-Range", byteRange.toContentRange(length));
+        }
+
+        return response
+                .header("Accept-Ranges", "bytes")
+                .tag(entityTag)
+                .lastModified(lastModified)
                 .build();
     }
-}
\ No newline at end of file
+
+    // The file is handed to the output with FileChannel.transferTo instead of being copied through a byte array,
+    // which lets the operating system move the bytes without staging them in the heap.
+    private StreamingOutput transferFile(File file, long position, long count) {
+        return outputStream -> {
+            try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                WritableByteChannel outputChannel = Channels.newChannel(outputStream);
+                long transferred = 0;
+                while (transferred < count) {
+                    long bytes = fileChannel.transferTo(position + transferred, count - transferred, outputChannel);
+                    if (bytes <= 0) {
+                        break;
+                    }
+
+                    transferred += bytes;
+                }
+            }
+        };
+    }
+
+    // A partial response is sent only while the client still has the same version of the file, otherwise the whole file is sent.
+    private boolean isIfRangeMatching(String ifRange, EntityTag entityTag, Date lastModified) {
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(entityTag.toString());
+        }
+
+        try {
+            return ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli() == lastModified.getTime();
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+}
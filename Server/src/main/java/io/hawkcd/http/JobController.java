@@ -18,14 +18,19 @@ package io.hawkcd.http;
 
 import io.hawkcd.model.ServiceResult;
 import io.hawkcd.model.enums.NotificationType;
+import io.hawkcd.model.payload.JobLogChunk;
+import io.hawkcd.services.JobLogService;
 import io.hawkcd.services.JobService;
+import io.hawkcd.services.interfaces.IJobLogService;
 import io.hawkcd.services.interfaces.IJobService;
 import io.swagger.annotations.Api;
 
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
@@ -33,14 +38,24 @@ import javax.ws.rs.core.Response.Status;
 @Path("/jobs")
 @Api(value = "/jobs", description = "Web Services to browse entities")
 public class JobController {
+    private static final String DEFAULT_LOG_CHUNK_SIZE = "1048576";
+
     private IJobService jobService;
+    private IJobLogService jobLogService;
 
     public JobController() {
         this.jobService = new JobService();
+        this.jobLogService = new JobLogService();
     }
 
     public JobController(IJobService jobService) {
         this.jobService = jobService;
+        this.jobLogService = new JobLogService();
+    }
+
+    public JobController(IJobService jobService, IJobLogService jobLogService) {
+        this.jobService = jobService;
+        this.jobLogService = jobLogService;
     }
 
     @GET
@@ -60,6 +75,24 @@ public class JobController {
         }
         return Response.status(Status.OK).entity(response.getEntity()).build();
     }
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/{jobId}/log")
+    public Response getJobLog(@PathParam("jobId") String jobId,
+                              @QueryParam("offset") @DefaultValue("0") long offset,
+                              @QueryParam("limit") @DefaultValue(DEFAULT_LOG_CHUNK_SIZE) int limit,
+                              @QueryParam("tail") @DefaultValue("false") boolean tail) {
+        JobLogChunk chunk;
+        try {
+            // the tail is the last chunk of at most limit bytes, the UI continues from its nextOffset
+            chunk = tail ? this.jobLogService.readTail(jobId, limit) : this.jobLogService.read(jobId, offset, limit);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+
+        return Response.status(Status.OK).entity(chunk).build();
+    }
 /*
     @GET
     @Produces(MediaType.APPLICATION_JSON)
@@ -20,8 +20,12 @@ import io.hawkcd.model.Material;
 import io.hawkcd.model.Pipeline;
 import io.hawkcd.model.PipelineDefinition;
 
+import java.util.List;
+
 public interface IMaterialHandlerService {
     String checkPipelineForTriggerMaterials(PipelineDefinition pipelineDefinition);
 
+    List<String> checkPipelinesForTriggerMaterials(List<PipelineDefinition> pipelineDefinitions);
+
     Material updateMaterial(Material material, Pipeline pipeline);
 }
@@ -29,35 +29,72 @@ import io.hawkcd.services.interfaces.IMaterialService;
 import java.io.File;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class MaterialHandlerService implements IMaterialHandlerService {
     private IMaterialDefinitionService materialDefinitionService;
     private IMaterialService materialService;
     private IMaterialUpdater materialUpdater;
+    private IMaterialPoller materialPoller;
 
     public MaterialHandlerService() {
         this.materialDefinitionService = new MaterialDefinitionService();
         this.materialService = new MaterialService();
+        this.materialPoller = new MaterialPoller();
     }
 
     public MaterialHandlerService(IMaterialDefinitionService materialDefinitionService, IMaterialService materialService, IMaterialUpdater materialUpdater) {
+        this(materialDefinitionService, materialService, materialUpdater, new MaterialPoller());
+    }
+
+    public MaterialHandlerService(IMaterialDefinitionService materialDefinitionService, IMaterialService materialService, IMaterialUpdater<?> materialUpdater, IMaterialPoller materialPoller) {
         this.materialDefinitionService = materialDefinitionService;
         this.materialService = materialService;
         this.materialUpdater = materialUpdater;
+        this.materialPoller = materialPoller;
     }
 
     @Override
     public String checkPipelineForTriggerMaterials(PipelineDefinition pipelineDefinition) {
-        List<String> triggerMaterials = new ArrayList<>();
-        List<MaterialDefinition> materialDefinitions =
-                (List<MaterialDefinition>) this.materialDefinitionService.getAllFromPipelineDefinition(pipelineDefinition.getId()).getEntity();
-        for (MaterialDefinition materialDefinition : materialDefinitions) {
-            if (materialDefinition.isPollingForChanges()) {
+        return this.checkPipelinesForTriggerMaterials(Collections.singletonList(pipelineDefinition)).get(0);
+    }
+
+    // All materials of the pipelines are polled together, so the cycle takes as long as the slowest repository
+    // instead of the sum of all of them.
+    @Override
+    public List<String> checkPipelinesForTriggerMaterials(List<PipelineDefinition> pipelineDefinitions) {
+        List<List<MaterialDefinition>> pollingMaterials = new ArrayList<>();
+        List<MaterialDefinition> allPollingMaterials = new ArrayList<>();
+        Map<MaterialDefinition, String> oldErrors = new IdentityHashMap<>();
+        for (PipelineDefinition pipelineDefinition : pipelineDefinitions) {
+            List<MaterialDefinition> materialDefinitions =
+                    (List<MaterialDefinition>) this.materialDefinitionService.getAllFromPipelineDefinition(pipelineDefinition.getId()).getEntity();
+            List<MaterialDefinition> pipelinePollingMaterials = new ArrayList<>();
+            for (MaterialDefinition materialDefinition : materialDefinitions) {
+                if (materialDefinition.isPollingForChanges()) {
+                    oldErrors.put(materialDefinition, materialDefinition.getErrorMessage());
+                    setDestinationOfGitMaterial(materialDefinition, pipelineDefinition.getName());
+                    pipelinePollingMaterials.add(materialDefinition);
+                }
+            }
+
+            pollingMaterials.add(pipelinePollingMaterials);
+            allPollingMaterials.addAll(pipelinePollingMaterials);
+        }
+
+        Map<MaterialDefinition, MaterialDefinition> latestVersions = this.materialPoller.getLatestVersions(allPollingMaterials);
+
+        List<String> pipelinesTriggerMaterials = new ArrayList<>();
+        for (int i = 0; i < pipelineDefinitions.size(); i++) {
+            PipelineDefinition pipelineDefinition = pipelineDefinitions.get(i);
+            List<String> triggerMaterials = new ArrayList<>();
+            for (MaterialDefinition materialDefinition : pollingMaterials.get(i)) {
                 this.materialUpdater = MaterialUpdaterFactory.create(materialDefinition.getType());
-                String oldError = materialDefinition.getErrorMessage();
-                setDestinationOfGitMaterial(materialDefinition, pipelineDefinition.getName());
-                MaterialDefinition latestVersion = materialUpdater.getLatestMaterialVersion(materialDefinition);
+                String oldError = oldErrors.get(materialDefinition);
+                MaterialDefinition latestVersion = latestVersions.get(materialDefinition);
                 String newError = materialDefinition.getErrorMessage();
                 if (!oldError.equals(newError)) {
                     ServiceResult result = this.materialDefinitionService.update(latestVersion);
@@ -78,9 +115,11 @@ public class MaterialHandlerService implements IMaterialHandlerService {
                     triggerMaterials.add(materialDefinition.getName());
                 }
             }
+
+            pipelinesTriggerMaterials.add(String.join(", ", triggerMaterials));
         }
 
-        return String.join(", ", triggerMaterials);
+        return pipelinesTriggerMaterials;
     }
 
     @Override
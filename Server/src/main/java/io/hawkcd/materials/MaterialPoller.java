@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.materials;
+
+import io.hawkcd.core.config.Config;
+import io.hawkcd.materials.materialupdaters.MaterialUpdater;
+import io.hawkcd.materials.materialupdaters.MaterialUpdaterFactory;
+import io.hawkcd.model.MaterialDefinition;
+import io.hawkcd.model.configuration.Configuration;
+import io.hawkcd.utilities.constants.ConfigurationConstants;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+* The MaterialPoller @class polls the latest versions of materials on a bounded pool of workers. Materials that share
+* a repository are polled once per cycle, a poll that does not finish in time is left behind instead of holding up
+* the rest, and a repository that keeps failing is polled after an exponentially growing delay.
+*/
+public class MaterialPoller implements IMaterialPoller {
+    private static final Logger LOGGER = Logger.getLogger(MaterialPoller.class.getName());
+    private static final long MAX_BACKOFF = TimeUnit.MINUTES.toMillis(30);
+    private static final int MAX_BACKOFF_SHIFT = 16;
+
+    private ExecutorService workers;
+    private int threads;
+    private long timeout;
+    private long backoff;
+    private Map<String, Future<MaterialDefinition>> runningPolls;
+    private Map<String, FailedPoll> failedPolls;
+
+    public MaterialPoller() {
+        Configuration configuration = Config.getConfiguration();
+        Integer threads = configuration.getMaterialPollerThreads();
+        Integer timeout = configuration.getMaterialPollTimeout();
+        this.initialize(
+                threads == null ? ConfigurationConstants.DEFAULT_MATERIAL_POLLER_THREADS : threads,
+                TimeUnit.SECONDS.toMillis(timeout == null ? ConfigurationConstants.DEFAULT_MATERIAL_POLL_TIMEOUT : timeout),
+                TimeUnit.SECONDS.toMillis(configuration.getMaterialTrackerPollInterval()));
+    }
+
+    public MaterialPoller(int threads, long timeout, long backoff) {
+        this.initialize(threads, timeout, backoff);
+    }
+
+    @Override
+    public Map<MaterialDefinition, MaterialDefinition> getLatestVersions(List<MaterialDefinition> materialDefinitions) {
+        Map<String, List<MaterialDefinition>> repositories = new LinkedHashMap<>();
+        Map<String, MaterialUpdater<?>> updaters = new LinkedHashMap<>();
+        for (MaterialDefinition materialDefinition : materialDefinitions) {
+            MaterialUpdater<?> updater = MaterialUpdaterFactory.create(materialDefinition.getType());
+            String key = materialDefinition.getType() + ":" + getRepositoryKey(updater, materialDefinition);
+            repositories.computeIfAbsent(key, k -> new ArrayList<>()).add(materialDefinition);
+            updaters.putIfAbsent(key, updater);
+        }
+
+        long now = System.currentTimeMillis();
+        Map<String, Future<MaterialDefinition>> polls = new LinkedHashMap<>();
+        Map<String, String> skippedPolls = new LinkedHashMap<>();
+        for (Map.Entry<String, List<MaterialDefinition>> repository : repositories.entrySet()) {
+            String key = repository.getKey();
+            Future<MaterialDefinition> runningPoll = this.runningPolls.get(key);
+            FailedPoll failedPoll = this.failedPolls.get(key);
+            if (runningPoll != null && !runningPoll.isDone()) {
+                skippedPolls.put(key, failedPoll == null ? "Previous poll has not finished yet." : failedPoll.errorMessage);
+            } else if (failedPoll != null && now < failedPoll.nextPollTime) {
+                skippedPolls.put(key, failedPoll.errorMessage);
+            } else {
+                MaterialUpdater<?> updater = updaters.get(key);
+                MaterialDefinition materialDefinition = repository.getValue().get(0);
+                Future<MaterialDefinition> poll = this.workers.submit(() -> getLatestMaterialVersion(updater, materialDefinition));
+                this.runningPolls.put(key, poll);
+                polls.put(key, poll);
+            }
+        }
+
+        // the polls run in waves of the pool size, so each wave gets the full timeout
+        long waves = (polls.size() + this.threads - 1) / this.threads;
+        long deadline = now + waves * this.timeout;
+        Map<MaterialDefinition, MaterialDefinition> latestVersions = new IdentityHashMap<>();
+        for (Map.Entry<String, List<MaterialDefinition>> repository : repositories.entrySet()) {
+            String key = repository.getKey();
+            List<MaterialDefinition> group = repository.getValue();
+            MaterialDefinition latestVersion;
+            if (skippedPolls.containsKey(key)) {
+                latestVersion = group.get(0);
+                latestVersion.setErrorMessage(skippedPolls.get(key));
+            } else {
+                latestVersion = this.awaitPoll(key, polls.get(key), group.get(0), deadline);
+            }
+
+            latestVersions.put(group.get(0), latestVersion);
+            for (MaterialDefinition materialDefinition : group.subList(1, group.size())) {
+                copyLatestVersion(updaters.get(key), latestVersion, materialDefinition);
+                latestVersions.put(materialDefinition, materialDefinition);
+            }
+        }
+
+        return latestVersions;
+    }
+
+    private static <T extends MaterialDefinition> String getRepositoryKey(MaterialUpdater<T> updater, MaterialDefinition materialDefinition) {
+        return updater.getRepositoryKey(updater.getDefinitionType().cast(materialDefinition));
+    }
+
+    private static <T extends MaterialDefinition> MaterialDefinition getLatestMaterialVersion(MaterialUpdater<T> updater, MaterialDefinition materialDefinition) {
+        return updater.getLatestMaterialVersion(updater.getDefinitionType().cast(materialDefinition));
+    }
+
+    private static <T extends MaterialDefinition> void copyLatestVersion(MaterialUpdater<T> updater, MaterialDefinition latestVersion, MaterialDefinition materialDefinition) {
+        updater.copyLatestVersion(updater.getDefinitionType().cast(latestVersion), updater.getDefinitionType().cast(materialDefinition));
+    }
+
+    private MaterialDefinition awaitPoll(String key, Future<MaterialDefinition> poll, MaterialDefinition materialDefinition, long deadline) {
+        MaterialDefinition latestVersion;
+        try {
+            latestVersion = poll.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            this.runningPolls.remove(key);
+        } catch (TimeoutException e) {
+            // a hung remote keeps its worker until the transport timeout; it is not polled again until then
+            latestVersion = materialDefinition;
+            latestVersion.setErrorMessage(String.format("Polling did not finish within %d seconds.", TimeUnit.MILLISECONDS.toSeconds(this.timeout)));
+        } catch (ExecutionException e) {
+            this.runningPolls.remove(key);
+            latestVersion = materialDefinition;
+            latestVersion.setErrorMessage(String.valueOf(e.getCause().getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            latestVersion = materialDefinition;
+            latestVersion.setErrorMessage("Polling was interrupted.");
+        }
+
+        String errorMessage = latestVersion.getErrorMessage();
+        if (errorMessage == null || errorMessage.isEmpty()) {
+            this.failedPolls.remove(key);
+        } else {
+            FailedPoll failedPoll = this.failedPolls.computeIfAbsent(key, k -> new FailedPoll());
+            long delay = Math.min(this.backoff << Math.min(failedPoll.failures, MAX_BACKOFF_SHIFT), MAX_BACKOFF);
+            failedPoll.failures++;
+            failedPoll.nextPollTime = System.currentTimeMillis() + delay;
+            failedPoll.errorMessage = errorMessage;
+            LOGGER.info(String.format("Polling %s failed %d times, next poll in %d seconds: %s", key, failedPoll.failures, TimeUnit.MILLISECONDS.toSeconds(delay), errorMessage));
+        }
+
+        return latestVersion;
+    }
+
+    private void initialize(int threads, long timeout, long backoff) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "MaterialPoller-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.threads = threads;
+        this.timeout = timeout;
+        this.backoff = backoff;
+        this.runningPolls = new ConcurrentHashMap<>();
+        this.failedPolls = new ConcurrentHashMap<>();
+    }
+
+    private static class FailedPoll {
+        private int failures;
+        private long nextPollTime;
+        private String errorMessage;
+    }
+}
@@ -22,6 +22,8 @@ import io.hawkcd.model.Material;
 import io.hawkcd.model.Pipeline;
 import io.hawkcd.model.PipelineDefinition;
 import io.hawkcd.model.ServiceResult;
+import io.hawkcd.scheduler.SchedulerEvent;
+import io.hawkcd.scheduler.SchedulerEventQueue;
 import io.hawkcd.services.MaterialService;
 import io.hawkcd.services.PipelineDefinitionService;
 import io.hawkcd.services.PipelineService;
@@ -51,12 +53,15 @@ public class MaterialTracker implements Runnable {
     @Override
     public void run() {
         LOGGER.info(String.format(LoggerMessages.WORKER_STARTED, this.getClass().getSimpleName()));
+        SchedulerEventQueue events = SchedulerEventQueue.subscribe(SchedulerEvent.PIPELINE_ADDED);
         try {
             while (true) {
                 // MaterialTracker
                 List<PipelineDefinition> pipelineDefinitions = (List<PipelineDefinition>) this.pipelineDefinitionService.getAllAutomaticallyScheduledPipelines().getEntity();
-                for (PipelineDefinition pipelineDefinition : pipelineDefinitions) {
-                    String triggerMaterials = this.materialHandlerService.checkPipelineForTriggerMaterials(pipelineDefinition);
+                List<String> pipelinesTriggerMaterials = this.materialHandlerService.checkPipelinesForTriggerMaterials(pipelineDefinitions);
+                for (int i = 0; i < pipelineDefinitions.size(); i++) {
+                    PipelineDefinition pipelineDefinition = pipelineDefinitions.get(i);
+                    String triggerMaterials = pipelinesTriggerMaterials.get(i);
                     if (!triggerMaterials.isEmpty()) {
                         Pipeline pipeline = new Pipeline();
                         pipeline.setPipelineDefinitionId(pipelineDefinition.getId());
@@ -91,7 +96,7 @@ public class MaterialTracker implements Runnable {
                     }
                 }
 
-                Thread.sleep(Config.getConfiguration().getMaterialTrackerPollInterval() * 1000);
+                events.awaitNextOrPoll(Config.getConfiguration().getMaterialTrackerPollInterval());
             }
         } catch (InterruptedException e) {
             e.printStackTrace();
@@ -18,11 +18,14 @@ package io.hawkcd.materials.materialservices;
 
 import io.hawkcd.core.config.Config;
 import io.hawkcd.model.GitMaterial;
+import io.hawkcd.utilities.constants.ConfigurationConstants;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.api.errors.JGitInternalException;
-import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.transport.CredentialsProvider;
@@ -32,16 +35,33 @@ import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
 import java.io.File;
 import java.io.IOException;
 
+/*
+* The GitService @class polls Git materials without a working copy. The head of the branch is resolved from the refs
+* advertised by the remote, which costs one round trip when nothing changed. Only a head that is not in the local
+* bare repository yet is fetched, for its author and message.
+*/
 public class GitService implements IGitService {
     private static final String MATERIALS_FOLDER = Config.getConfiguration().getMaterialsDestination();
+    private static final String REMOTE_NAME = "origin";
+
+    private int timeout;
+
+    public GitService() {
+        Integer timeout = Config.getConfiguration().getMaterialPollTimeout();
+        this.timeout = timeout == null ? ConfigurationConstants.DEFAULT_MATERIAL_POLL_TIMEOUT : timeout;
+    }
 
     @Override
     public boolean repositoryExists(GitMaterial gitMaterial) {
-        try {
-            Repository repository = Git.open(new File(gitMaterial.getDestination())).getRepository();
-            org.eclipse.jgit.lib.Config config = repository.getConfig();
-            String repositoryUrl = config.getString("remote", "origin", "url");
-            if (!repositoryUrl.equals(gitMaterial.getRepositoryUrl())) {
+        try (Git git = Git.open(new File(gitMaterial.getDestination()))) {
+            Repository repository = git.getRepository();
+            // working copies cloned by earlier versions are replaced with a bare repository
+            if (!repository.isBare()) {
+                return false;
+            }
+
+            String repositoryUrl = repository.getConfig().getString("remote", REMOTE_NAME, "url");
+            if (!gitMaterial.getRepositoryUrl().equals(repositoryUrl)) {
                 return false;
             }
         } catch (IOException e) {
@@ -52,20 +72,16 @@ public class GitService implements IGitService {
     }
 
     @Override
-    public GitMaterial cloneRepository(GitMaterial gitMaterial) {
-        try {
-            CredentialsProvider credentials = this.handleCredentials(gitMaterial);
-            Git.cloneRepository()
-                    .setURI(gitMaterial.getRepositoryUrl())
-                    .setCredentialsProvider(credentials)
-                    .setDirectory(new File(gitMaterial.getDestination()))
-                    .setCloneSubmodules(true)
-                    .call();
+    public GitMaterial createRepository(GitMaterial gitMaterial) {
+        try (Git git = Git.init().setDirectory(new File(gitMaterial.getDestination())).setBare(true).call()) {
+            StoredConfig config = git.getRepository().getConfig();
+            config.setString("remote", REMOTE_NAME, "url", gitMaterial.getRepositoryUrl());
+            config.save();
 
             gitMaterial.setErrorMessage("");
 
             return null;
-        } catch (GitAPIException | JGitInternalException e) {
+        } catch (GitAPIException | JGitInternalException | IOException e) {
             gitMaterial.setErrorMessage(e.getMessage());
             return gitMaterial;
         }
@@ -73,27 +89,44 @@ public class GitService implements IGitService {
 
     @Override
     public GitMaterial fetchLatestCommit(GitMaterial gitMaterial) {
-        try {
-            Git git = Git.open(new File(gitMaterial.getDestination() + File.separator + ".git"));
+        String branchRef = Constants.R_HEADS + gitMaterial.getBranch();
+        try (Git git = Git.open(new File(gitMaterial.getDestination()))) {
             CredentialsProvider credentials = this.handleCredentials(gitMaterial);
-            git.fetch()
+            Ref head = git.lsRemote()
+                    .setRemote(REMOTE_NAME)
                     .setCredentialsProvider(credentials)
-                    .setCheckFetchedObjects(true)
-                    .setRefSpecs(new RefSpec("refs/heads/" + gitMaterial.getBranch() + ":refs/heads/" + gitMaterial.getBranch()))
-                    .call();
-            ObjectId objectId = git.getRepository().getRef(gitMaterial.getBranch()).getObjectId();
-            RevWalk revWalk = new RevWalk(git.getRepository());
-            RevCommit commit = revWalk.parseCommit(objectId);
-
-            gitMaterial.setCommitId(commit.getId().getName());
-            gitMaterial.setAuthorName(commit.getAuthorIdent().getName());
-            gitMaterial.setAuthorEmail(commit.getAuthorIdent().getEmailAddress());
-            gitMaterial.setComments(commit.getFullMessage());
-            gitMaterial.setErrorMessage("");
-            git.close();
+                    .setTimeout(this.timeout)
+                    .setHeads(true)
+                    .callAsMap()
+                    .get(branchRef);
+            if (head == null) {
+                gitMaterial.setErrorMessage(String.format("Branch %s not found in %s", gitMaterial.getBranch(), gitMaterial.getRepositoryUrl()));
+                return gitMaterial;
+            }
+
+            Repository repository = git.getRepository();
+            if (!repository.hasObject(head.getObjectId())) {
+                git.fetch()
+                        .setRemote(REMOTE_NAME)
+                        .setCredentialsProvider(credentials)
+                        .setTimeout(this.timeout)
+                        .setCheckFetchedObjects(true)
+                        .setRefSpecs(new RefSpec("+" + branchRef + ":" + branchRef))
+                        .call();
+            }
+
+            try (RevWalk revWalk = new RevWalk(repository)) {
+                RevCommit commit = revWalk.parseCommit(head.getObjectId());
+
+                gitMaterial.setCommitId(commit.getId().getName());
+                gitMaterial.setAuthorName(commit.getAuthorIdent().getName());
+                gitMaterial.setAuthorEmail(commit.getAuthorIdent().getEmailAddress());
+                gitMaterial.setComments(commit.getFullMessage());
+                gitMaterial.setErrorMessage("");
+            }
 
             return gitMaterial;
-        } catch (IOException | GitAPIException e) {
+        } catch (IOException | GitAPIException | JGitInternalException e) {
             gitMaterial.setErrorMessage(e.getMessage());
             return gitMaterial;
         }
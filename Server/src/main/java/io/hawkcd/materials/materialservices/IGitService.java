@@ -21,7 +21,7 @@ import io.hawkcd.model.GitMaterial;
 public interface IGitService {
     boolean repositoryExists(GitMaterial gitMaterial);
 
-    GitMaterial cloneRepository(GitMaterial gitMaterial);
+    GitMaterial createRepository(GitMaterial gitMaterial);
 
     GitMaterial fetchLatestCommit(GitMaterial gitMaterial);
 }
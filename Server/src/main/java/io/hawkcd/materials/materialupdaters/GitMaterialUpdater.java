@@ -36,13 +36,18 @@ public class GitMaterialUpdater extends MaterialUpdater<GitMaterial> {
         this.fileManagementService = fileManagementService;
     }
 
+    @Override
+    public Class<GitMaterial> getDefinitionType() {
+        return GitMaterial.class;
+    }
+
     @Override
     public GitMaterial getLatestMaterialVersion(GitMaterial gitMaterial) {
         boolean repositoryExists = this.gitService.repositoryExists(gitMaterial);
         if (!repositoryExists) {
 //            String directoryToDelete = config.getConfiguration().getMaterialsDestination() + File.separator + gitMaterial.getName();
             this.fileManagementService.deleteDirectoryRecursively(gitMaterial.getDestination());
-            this.gitService.cloneRepository(gitMaterial);
+            this.gitService.createRepository(gitMaterial);
 
             if (!gitMaterial.getErrorMessage().isEmpty()) {
                 this.fileManagementService.deleteDirectoryRecursively(gitMaterial.getDestination());
@@ -64,4 +69,18 @@ public class GitMaterialUpdater extends MaterialUpdater<GitMaterial> {
 
         return areSameVersion;
     }
+
+    @Override
+    public String getRepositoryKey(GitMaterial gitMaterial) {
+        return gitMaterial.getRepositoryUrl() + "#" + gitMaterial.getBranch();
+    }
+
+    @Override
+    public void copyLatestVersion(GitMaterial latestMaterial, GitMaterial gitMaterial) {
+        gitMaterial.setCommitId(latestMaterial.getCommitId());
+        gitMaterial.setAuthorName(latestMaterial.getAuthorName());
+        gitMaterial.setAuthorEmail(latestMaterial.getAuthorEmail());
+        gitMaterial.setComments(latestMaterial.getComments());
+        gitMaterial.setErrorMessage(latestMaterial.getErrorMessage());
+    }
 }
@@ -22,4 +22,8 @@ public interface IMaterialUpdater<T extends MaterialDefinition> {
     T getLatestMaterialVersion(T materialDefinition);
 
     boolean areMaterialsSameVersion(T latestMaterial, T dbMaterial);
+
+    String getRepositoryKey(T materialDefinition);
+
+    void copyLatestVersion(T latestMaterial, T materialDefinition);
 }
@@ -19,9 +19,18 @@ package io.hawkcd.materials.materialupdaters;
 import io.hawkcd.model.MaterialDefinition;
 
 public abstract class MaterialUpdater<T extends MaterialDefinition> implements IMaterialUpdater<T> {
+    // lets callers that hold a plain MaterialDefinition hand it to the updater with a checked cast
+    public abstract Class<T> getDefinitionType();
+
     @Override
     public abstract T getLatestMaterialVersion(T materialDefinition);
 
     @Override
     public abstract boolean areMaterialsSameVersion(T latestMaterial, T dbMaterial);
+
+    @Override
+    public abstract String getRepositoryKey(T materialDefinition);
+
+    @Override
+    public abstract void copyLatestVersion(T latestMaterial, T materialDefinition);
 }
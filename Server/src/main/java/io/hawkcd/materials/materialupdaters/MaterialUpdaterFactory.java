@@ -19,7 +19,7 @@ package io.hawkcd.materials.materialupdaters;
 import io.hawkcd.model.enums.MaterialType;
 
 public final class MaterialUpdaterFactory {
-    public static MaterialUpdater create(MaterialType materialType) {
+    public static MaterialUpdater<?> create(MaterialType materialType) {
         switch (materialType) {
             case GIT:
                 return new GitMaterialUpdater();
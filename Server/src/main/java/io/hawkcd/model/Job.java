@@ -36,6 +36,8 @@ public class Job extends Entity {
     private List<Task> tasks;
     private JobStatus status;
     private StringBuilder report;
+    private String logReference;
+    private long logLength;
     private LocalDateTime startTime;
     private LocalDateTime endTime;
     private Duration duration;
@@ -46,7 +48,6 @@ public class Job extends Entity {
         this.setResources(new HashSet<>());
         this.setTasks(new ArrayList<>());
         this.setStatus(JobStatus.UNASSIGNED);
-        this.setReport(new StringBuilder());
     }
 
     public String getJobDefinitionId() {
@@ -153,6 +154,8 @@ public class Job extends Entity {
         this.assignedAgentId = assignedAgentId;
     }
 
+    // The console output is kept by the JobLogService, the report is read only from Jobs stored before that
+    // and from agents that still send their whole output with the Job.
     public StringBuilder getReport() {
         return this.report;
     }
@@ -160,4 +163,20 @@ public class Job extends Entity {
     public void setReport(StringBuilder report) {
         this.report = report;
     }
+
+    public String getLogReference() {
+        return this.logReference;
+    }
+
+    public void setLogReference(String logReference) {
+        this.logReference = logReference;
+    }
+
+    public long getLogLength() {
+        return this.logLength;
+    }
+
+    public void setLogLength(long logLength) {
+        this.logLength = logLength;
+    }
 }
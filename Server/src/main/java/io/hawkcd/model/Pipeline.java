@@ -17,6 +17,7 @@
 package io.hawkcd.model;
 
 import io.hawkcd.core.security.Authorization;
+import io.hawkcd.db.Indexed;
 import io.hawkcd.model.payload.JsTreeFile;
 import io.hawkcd.model.enums.PermissionScope;
 import io.hawkcd.model.enums.PermissionType;
@@ -30,6 +31,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Authorization(scope = PermissionScope.PIPELINE, type = PermissionType.VIEWER)
+@Indexed(value = {"pipelineDefinitionId", "status", "isPrepared", "areMaterialsUpdated", "stages.id", "stages.jobs.id"}, sortedBy = {"startTime", "executionId"})
 public class Pipeline extends PipelineFamily {
     private String pipelineDefinitionName;
     private int executionId;
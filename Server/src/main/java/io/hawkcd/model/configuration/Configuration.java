@@ -33,6 +33,18 @@ public final class Configuration {
     private String artifactsDestination;
     private int pipelineSchedulerPollInterval;
     private int materialTrackerPollInterval;
+    private Integer entityCacheSize;
+    private Boolean isEventDrivenScheduling;
+    private Integer schedulerMinPassInterval;
+    private String jobLogsDestination;
+    private Integer jobLogSegmentSizeInKb;
+    private Integer jobLogMaxAgeInDays;
+    private Integer jobLogMaxSizeInMb;
+    private Integer materialPollerThreads;
+    private Integer materialPollTimeout;
+    private Integer wsCoalesceWindow;
+    private Integer wsMaxInFlightFrames;
+    private Integer wsMaxQueuedFrames;
 
     public String getServerHost() {
         return serverHost;
@@ -114,6 +126,102 @@ public final class Configuration {
         this.materialTrackerPollInterval = materialTrackerPollInterval;
     }
 
+    public Integer getEntityCacheSize() {
+        return entityCacheSize;
+    }
+
+    public void setEntityCacheSize(Integer entityCacheSize) {
+        this.entityCacheSize = entityCacheSize;
+    }
+
+    public Boolean getIsEventDrivenScheduling() {
+        return isEventDrivenScheduling;
+    }
+
+    public void setIsEventDrivenScheduling(Boolean eventDrivenScheduling) {
+        isEventDrivenScheduling = eventDrivenScheduling;
+    }
+
+    public Integer getSchedulerMinPassInterval() {
+        return schedulerMinPassInterval;
+    }
+
+    public void setSchedulerMinPassInterval(Integer schedulerMinPassInterval) {
+        this.schedulerMinPassInterval = schedulerMinPassInterval;
+    }
+
+    public String getJobLogsDestination() {
+        return jobLogsDestination;
+    }
+
+    public void setJobLogsDestination(String jobLogsDestination) {
+        this.jobLogsDestination = jobLogsDestination;
+    }
+
+    public Integer getJobLogSegmentSizeInKb() {
+        return jobLogSegmentSizeInKb;
+    }
+
+    public void setJobLogSegmentSizeInKb(Integer jobLogSegmentSizeInKb) {
+        this.jobLogSegmentSizeInKb = jobLogSegmentSizeInKb;
+    }
+
+    public Integer getJobLogMaxAgeInDays() {
+        return jobLogMaxAgeInDays;
+    }
+
+    public void setJobLogMaxAgeInDays(Integer jobLogMaxAgeInDays) {
+        this.jobLogMaxAgeInDays = jobLogMaxAgeInDays;
+    }
+
+    public Integer getJobLogMaxSizeInMb() {
+        return jobLogMaxSizeInMb;
+    }
+
+    public void setJobLogMaxSizeInMb(Integer jobLogMaxSizeInMb) {
+        this.jobLogMaxSizeInMb = jobLogMaxSizeInMb;
+    }
+
+    public Integer getMaterialPollerThreads() {
+        return materialPollerThreads;
+    }
+
+    public void setMaterialPollerThreads(Integer materialPollerThreads) {
+        this.materialPollerThreads = materialPollerThreads;
+    }
+
+    public Integer getMaterialPollTimeout() {
+        return materialPollTimeout;
+    }
+
+    public void setMaterialPollTimeout(Integer materialPollTimeout) {
+        this.materialPollTimeout = materialPollTimeout;
+    }
+
+    public Integer getWsCoalesceWindow() {
+        return wsCoalesceWindow;
+    }
+
+    public void setWsCoalesceWindow(Integer wsCoalesceWindow) {
+        this.wsCoalesceWindow = wsCoalesceWindow;
+    }
+
+    public Integer getWsMaxInFlightFrames() {
+        return wsMaxInFlightFrames;
+    }
+
+    public void setWsMaxInFlightFrames(Integer wsMaxInFlightFrames) {
+        this.wsMaxInFlightFrames = wsMaxInFlightFrames;
+    }
+
+    public Integer getWsMaxQueuedFrames() {
+        return wsMaxQueuedFrames;
+    }
+
+    public void setWsMaxQueuedFrames(Integer wsMaxQueuedFrames) {
+        this.wsMaxQueuedFrames = wsMaxQueuedFrames;
+    }
+
     public String getServerId() {
         return serverId;
     }
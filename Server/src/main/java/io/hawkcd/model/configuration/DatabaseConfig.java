@@ -22,6 +22,7 @@ public class DatabaseConfig {
     private int port;
     private String username;
     private String password;
+    private int bulkReadSize;
 
     public String getName() {
         return name;
@@ -62,4 +63,12 @@ public class DatabaseConfig {
     public void setPassword(String password) {
         this.password = password;
     }
+
+    public int getBulkReadSize() {
+        return bulkReadSize;
+    }
+
+    public void setBulkReadSize(int bulkReadSize) {
+        this.bulkReadSize = bulkReadSize;
+    }
 }
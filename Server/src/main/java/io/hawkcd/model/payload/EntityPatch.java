@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.model.payload;
+
+import com.google.gson.JsonArray;
+
+public class EntityPatch {
+    private String id;
+    private long baseVersion;
+    private long version;
+    private JsonArray operations;
+
+    public EntityPatch(String id, long baseVersion, long version, JsonArray operations) {
+        this.id = id;
+        this.baseVersion = baseVersion;
+        this.version = version;
+        this.operations = operations;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getBaseVersion() {
+        return this.baseVersion;
+    }
+
+    public void setBaseVersion(long baseVersion) {
+        this.baseVersion = baseVersion;
+    }
+
+    public long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public JsonArray getOperations() {
+        return this.operations;
+    }
+
+    public void setOperations(JsonArray operations) {
+        this.operations = operations;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.hawkcd.scheduler;
+
+import io.hawkcd.core.config.Config;
+import io.hawkcd.db.redis.RedisManager;
+import io.hawkcd.model.Agent;
+import org.apache.log4j.Logger;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+* The AgentLastSeen @class keeps the time each agent last reported, so that a heartbeat does not have to write the Agent.
+* A single node keeps the times in memory, while a multi-node setup shares them through a Redis sorted set.
+*/
+public final class AgentLastSeen {
+    private static final String LAST_SEEN_KEY = "AgentLastSeen";
+    private static final Logger LOGGER = Logger.getLogger(AgentLastSeen.class);
+    private static final Map<String, Long> LAST_SEEN = new ConcurrentHashMap<>();
+
+    private AgentLastSeen() {
+    }
+
+    public static void markSeen(String agentId) {
+        long currentTime = System.currentTimeMillis();
+        if (Config.getConfiguration().getIsSingleNode()) {
+            LAST_SEEN.put(agentId, currentTime);
+            return;
+        }
+
+        try (Jedis jedis = RedisManager.getJedisPool().getResource()) {
+            jedis.zadd(LAST_SEEN_KEY, currentTime, agentId);
+        } catch (JedisException e) {
+            LOGGER.error(e);
+        }
+    }
+
+    // The last reported time stored with the Agent still counts, e.g. right after a restart or for agents that report in full.
+    public static LocalDateTime getLastSeen(Agent agent) {
+        Long lastSeen = null;
+        if (Config.getConfiguration().getIsSingleNode()) {
+            lastSeen = LAST_SEEN.get(agent.getId());
+        } else {
+            try (Jedis jedis = RedisManager.getJedisPool().getResource()) {
+                Double score = jedis.zscore(LAST_SEEN_KEY, agent.getId());
+                lastSeen = score == null ? null : score.longValue();
+            } catch (JedisException e) {
+                LOGGER.error(e);
+            }
+        }
+
+        LocalDateTime lastReportedTime = agent.getLastReportedTime();
+        if (lastSeen == null) {
+            return lastReportedTime;
+        }
+
+        LocalDateTime lastSeenTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(lastSeen), ZoneOffset.UTC);
+        return (lastReportedTime == null) || lastSeenTime.isAfter(lastReportedTime) ? lastSeenTime : lastReportedTime;
+    }
+
+    public static void remove(String agentId) {
+        if (Config.getConfiguration().getIsSingleNode()) {
+            LAST_SEEN.remove(agentId);
+            return;
+        }
+
+        try (Jedis jedis = RedisManager.getJedisPool().getResource()) {
+            jedis.zrem(LAST_SEEN_KEY, agentId);
+        } catch (JedisException e) {
+            LOGGER.error(e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.scheduler;
+
+import io.hawkcd.core.config.Config;
+import io.hawkcd.db.redis.RedisManager;
+import org.apache.log4j.Logger;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+* The AgentWorkNotifier @class holds the work requests of the agents that wait for a job, so that a request is answered
+* as soon as the JobAssignerService assigns one instead of on the agent's next poll.
+* In a multi-node setup the assignment is sent over a Redis channel of its own, since the agent may wait on another node.
+*/
+public final class AgentWorkNotifier {
+    public static final String CHANNEL = "agent-work";
+
+    private static final Logger LOGGER = Logger.getLogger(AgentWorkNotifier.class);
+    private static final ConcurrentMap<String, Runnable> WAITING_AGENTS = new ConcurrentHashMap<>();
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool();
+
+    private AgentWorkNotifier() {
+    }
+
+    // An agent has at most one request waiting, a request it sent again replaces the one it no longer listens to.
+    public static void await(String agentId, Runnable onAssigned) {
+        WAITING_AGENTS.put(agentId, onAssigned);
+    }
+
+    public static boolean cancel(String agentId, Runnable onAssigned) {
+        return WAITING_AGENTS.remove(agentId, onAssigned);
+    }
+
+    public static void notifyAssigned(String agentId) {
+        wake(agentId);
+        if (Config.getConfiguration().getIsSingleNode()) {
+            return;
+        }
+
+        try (Jedis jedis = RedisManager.getJedisPool().getResource()) {
+            jedis.publish(CHANNEL, agentId);
+        } catch (JedisException e) {
+            LOGGER.error(e);
+        }
+    }
+
+    public static void onMessage(String agentId) {
+        wake(agentId);
+    }
+
+    // The request is answered on a thread of its own, since answering it reads and updates pipelines
+    // that the assigning thread may hold the locks of.
+    private static void wake(String agentId) {
+        Runnable onAssigned = WAITING_AGENTS.remove(agentId);
+        if (onAssigned != null) {
+            EXECUTOR.execute(onAssigned);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.scheduler;
+
+import io.hawkcd.services.ArtifactStoreService;
+import io.hawkcd.services.interfaces.IArtifactStoreService;
+import io.hawkcd.utilities.constants.LoggerMessages;
+import org.apache.log4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+* The ArtifactBlobCleaner @class deletes the artifact blobs that no pipeline execution refers to anymore.
+*/
+public class ArtifactBlobCleaner implements Runnable {
+    private static final Logger LOGGER = Logger.getLogger(ArtifactBlobCleaner.class.getName());
+    private static final long CLEAN_UP_INTERVAL = TimeUnit.HOURS.toMillis(6);
+
+    private IArtifactStoreService artifactStoreService;
+
+    public ArtifactBlobCleaner() {
+        this.artifactStoreService = new ArtifactStoreService();
+    }
+
+    @Override
+    public void run() {
+        LOGGER.info(String.format(LoggerMessages.WORKER_STARTED, this.getClass().getSimpleName()));
+        try {
+            while (true) {
+                try {
+                    int deletedBlobs = this.artifactStoreService.deleteUnreferencedBlobs();
+                    if (deletedBlobs > 0) {
+                        LOGGER.info(String.format("Deleted %d unreferenced artifact blobs.", deletedBlobs));
+                    }
+                } catch (RuntimeException e) {
+                    LOGGER.error(e);
+                }
+
+                Thread.sleep(CLEAN_UP_INTERVAL);
+            }
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+}
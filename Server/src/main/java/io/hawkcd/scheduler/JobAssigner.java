@@ -20,7 +20,6 @@ import io.hawkcd.core.config.Config;
 import io.hawkcd.utilities.constants.LoggerMessages;
 import io.hawkcd.model.Agent;
 import io.hawkcd.services.AgentService;
-import io.hawkcd.services.PipelineService;
 import io.hawkcd.services.interfaces.IAgentService;
 import org.apache.log4j.Logger;
 
@@ -28,7 +27,7 @@ import java.util.List;
 
 public class JobAssigner implements Runnable {
     private static final Logger LOGGER = Logger.getLogger(PipelinePreparer.class.getName());
-    private static final int POLL_INTERVAL = Config.getConfiguration().getPipelineSchedulerPollInterval() * 1000;
+    private static final int POLL_INTERVAL = Config.getConfiguration().getPipelineSchedulerPollInterval();
 
     private JobAssignerService jobAssignerService;
     private StatusUpdaterService statusUpdaterService;
@@ -43,18 +42,17 @@ public class JobAssigner implements Runnable {
     @Override
     public void run() {
         LOGGER.info(String.format(LoggerMessages.WORKER_STARTED, this.getClass().getSimpleName()));
+        SchedulerEventQueue events = SchedulerEventQueue.subscribe(SchedulerEvent.PIPELINE_UPDATED, SchedulerEvent.AGENT_UPDATED, SchedulerEvent.WORK_REPORTED);
         try {
             while (true) {
                 List<Agent> agents = (List<Agent>) this.agentService.getAll().getEntity();
 
-                PipelineService.lock.lock();
                 this.statusUpdaterService.updateStatuses();
                 this.jobAssignerService.checkUnassignedJobs(agents);
                 this.jobAssignerService.checkAwaitingJobs(agents);
                 this.jobAssignerService.assignJobs(agents);
-                PipelineService.lock.unlock();
 
-                Thread.sleep(POLL_INTERVAL);
+                events.awaitNext(POLL_INTERVAL);
             }
         } catch (InterruptedException e) {
             e.printStackTrace();
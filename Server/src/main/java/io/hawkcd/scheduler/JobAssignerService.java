@@ -30,6 +30,7 @@ import io.hawkcd.services.interfaces.IPipelineService;
 import org.apache.log4j.Logger;
 
 import java.util.List;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 
 public class JobAssignerService {
@@ -47,34 +48,53 @@ public class JobAssignerService {
         this.jobAssignerUtilities = new JobAssignerUtilities();
     }
 
+    public JobAssignerService(IAgentService agentService, IPipelineService pipelineService, IJobService jobService) {
+        this.agentService = agentService;
+        this.pipelineService = pipelineService;
+        this.jobService = jobService;
+        this.jobAssignerUtilities = new JobAssignerUtilities();
+    }
+
     public void checkUnassignedJobs(List<Agent> agents) {
         List<Agent> filteredAgents = agents.stream().filter(a -> a.isConnected() && a.isEnabled()).collect(Collectors.toList());
         List<Pipeline> pipelinesInProgress = (List<Pipeline>) this.pipelineService.getAllPreparedPipelinesInProgress().getEntity();
-        for (Pipeline pipeline : pipelinesInProgress) {
-            boolean isSetToAwaiting = false;
-            Stage stageInProgress = pipeline.getStages().stream().filter(s -> (s.getStatus() == StageStatus.IN_PROGRESS) && !s.isTriggeredManually()).findFirst().orElse(null);
-            if (stageInProgress == null) {
-                continue;
-            }
+        for (Pipeline candidate : pipelinesInProgress) {
+            Lock lock = PipelineService.getLock(candidate.getId());
+            lock.lock();
+            try {
+                // read again under the lock, since an agent may have reported its work after the query
+                Pipeline pipeline = (Pipeline) this.pipelineService.getById(candidate.getId()).getEntity();
+                if (pipeline == null) {
+                    continue;
+                }
 
-            for (Job job : stageInProgress.getJobs()) {
-                if (job.getStatus() == JobStatus.UNASSIGNED) {
-                    boolean hasAssignableAgent = this.jobAssignerUtilities.hasAssignableAgent(job, filteredAgents);
-                    if (!hasAssignableAgent) {
-                        job.setStatus(JobStatus.AWAITING);
-                        isSetToAwaiting = true;
-                        LOGGER.info(String.format("Job %s has no assignable Agents.", job.getJobDefinitionName()));
+                boolean isSetToAwaiting = false;
+                Stage stageInProgress = pipeline.getStages().stream().filter(s -> (s.getStatus() == StageStatus.IN_PROGRESS) && !s.isTriggeredManually()).findFirst().orElse(null);
+                if (stageInProgress == null) {
+                    continue;
+                }
+
+                for (Job job : stageInProgress.getJobs()) {
+                    if (job.getStatus() == JobStatus.UNASSIGNED) {
+                        boolean hasAssignableAgent = this.jobAssignerUtilities.hasAssignableAgent(job, filteredAgents);
+                        if (!hasAssignableAgent) {
+                            job.setStatus(JobStatus.AWAITING);
+                            isSetToAwaiting = true;
+                            LOGGER.info(String.format("Job %s has no assignable Agents.", job.getJobDefinitionName()));
+                        }
                     }
                 }
-            }
 
-            if (isSetToAwaiting) {
-                stageInProgress.setStatus(StageStatus.AWAITING);
-                pipeline.setStatus(PipelineStatus.AWAITING);
-                this.pipelineService.update(pipeline);
-                String message = String.format("Pipeline %s set to AWAITING.", pipeline.getPipelineDefinitionName());
-                LOGGER.info(message);
-                ServiceResult notification = new ServiceResult(null, NotificationType.WARNING, message);
+                if (isSetToAwaiting) {
+                    stageInProgress.setStatus(StageStatus.AWAITING);
+                    pipeline.setStatus(PipelineStatus.AWAITING);
+                    this.pipelineService.update(pipeline);
+                    String message = String.format("Pipeline %s set to AWAITING.", pipeline.getPipelineDefinitionName());
+                    LOGGER.info(message);
+                    ServiceResult notification = new ServiceResult(null, NotificationType.WARNING, message);
+                }
+            } finally {
+                lock.unlock();
             }
         }
     }
@@ -82,28 +102,39 @@ public class JobAssignerService {
     public void checkAwaitingJobs(List<Agent> agents) {
         List<Agent> filteredAgents = agents.stream().filter(a -> a.isConnected() && a.isEnabled()).collect(Collectors.toList());
         List<Pipeline> awaitingPipelines = (List<Pipeline>) this.pipelineService.getAllPreparedAwaitingPipelines().getEntity();
-        for (Pipeline pipeline : awaitingPipelines) {
-            Stage awaitingStage = pipeline.getStages().stream().filter(s -> s.getStatus() == StageStatus.AWAITING).findFirst().orElse(null);
-            if (awaitingStage == null) {
-                continue;
-            }
+        for (Pipeline candidate : awaitingPipelines) {
+            Lock lock = PipelineService.getLock(candidate.getId());
+            lock.lock();
+            try {
+                Pipeline pipeline = (Pipeline) this.pipelineService.getById(candidate.getId()).getEntity();
+                if (pipeline == null) {
+                    continue;
+                }
 
-            for (Job job : awaitingStage.getJobs()) {
-                if (job.getStatus() == JobStatus.AWAITING) {
-                    boolean hasAssignableAgent = this.jobAssignerUtilities.hasAssignableAgent(job, filteredAgents);
-                    if (hasAssignableAgent) {
-                        job.setStatus(JobStatus.UNASSIGNED);
-                        LOGGER.info(String.format("Job %s set back to IN_PROGRESS.", job.getJobDefinitionName()));
+                Stage awaitingStage = pipeline.getStages().stream().filter(s -> s.getStatus() == StageStatus.AWAITING).findFirst().orElse(null);
+                if (awaitingStage == null) {
+                    continue;
+                }
+
+                for (Job job : awaitingStage.getJobs()) {
+                    if (job.getStatus() == JobStatus.AWAITING) {
+                        boolean hasAssignableAgent = this.jobAssignerUtilities.hasAssignableAgent(job, filteredAgents);
+                        if (hasAssignableAgent) {
+                            job.setStatus(JobStatus.UNASSIGNED);
+                            LOGGER.info(String.format("Job %s set back to IN_PROGRESS.", job.getJobDefinitionName()));
+                        }
                     }
                 }
-            }
 
-            boolean hasAwaitingJobs = awaitingStage.getJobs().stream().anyMatch(j -> j.getStatus() == JobStatus.AWAITING);
-            if (!hasAwaitingJobs) {
-                awaitingStage.setStatus(StageStatus.IN_PROGRESS);
-                pipeline.setStatus(PipelineStatus.IN_PROGRESS);
-                this.pipelineService.update(pipeline);
-                LOGGER.info(String.format("Pipeline %s set back to IN_PROGRESS.", pipeline.getPipelineDefinitionName()));
+                boolean hasAwaitingJobs = awaitingStage.getJobs().stream().anyMatch(j -> j.getStatus() == JobStatus.AWAITING);
+                if (!hasAwaitingJobs) {
+                    awaitingStage.setStatus(StageStatus.IN_PROGRESS);
+                    pipeline.setStatus(PipelineStatus.IN_PROGRESS);
+                    this.pipelineService.update(pipeline);
+                    LOGGER.info(String.format("Pipeline %s set back to IN_PROGRESS.", pipeline.getPipelineDefinitionName()));
+                }
+            } finally {
+                lock.unlock();
             }
         }
     }
@@ -111,21 +142,33 @@ public class JobAssignerService {
     public void assignJobs(List<Agent> agents) {
         List<Agent> filteredAgents = agents.stream().filter(a -> a.isConnected() && a.isEnabled() && !a.isRunning()).collect(Collectors.toList());
         List<Pipeline> pipelines = (List<Pipeline>) this.pipelineService.getAllPreparedPipelinesInProgress().getEntity();
-        for (Pipeline pipeline : pipelines) {
-            for (Stage stage : pipeline.getStages()) {
-                if ((stage.getStatus() == StageStatus.IN_PROGRESS) && !stage.isTriggeredManually()) {
-                    for (Job job : stage.getJobs()) {
-                        if (filteredAgents.size() != 0) {
-                            Agent agent = this.jobAssignerUtilities.assignAgentToJob(job, filteredAgents);
-                            if (agent != null) {
-                                this.jobService.update(job);
-                                ServiceResult result = this.agentService.update(agent);
+        for (Pipeline candidate : pipelines) {
+            Lock lock = PipelineService.getLock(candidate.getId());
+            lock.lock();
+            try {
+                Pipeline pipeline = (Pipeline) this.pipelineService.getById(candidate.getId()).getEntity();
+                if (pipeline == null) {
+                    continue;
+                }
+
+                for (Stage stage : pipeline.getStages()) {
+                    if ((stage.getStatus() == StageStatus.IN_PROGRESS) && !stage.isTriggeredManually()) {
+                        for (Job job : stage.getJobs()) {
+                            if (filteredAgents.size() != 0) {
+                                Agent agent = this.jobAssignerUtilities.assignAgentToJob(job, filteredAgents);
+                                if (agent != null) {
+                                    this.jobService.update(job);
+                                    ServiceResult result = this.agentService.update(agent);
+                                    AgentWorkNotifier.notifyAssigned(agent.getId());
+                                }
                             }
                         }
                     }
                 }
+    //            EndpointConnector.passResultToEndpoint(PipelineService.class.getSimpleName(), "update", result);
+            } finally {
+                lock.unlock();
             }
-//            EndpointConnector.passResultToEndpoint(PipelineService.class.getSimpleName(), "update", result);
         }
     }
 }
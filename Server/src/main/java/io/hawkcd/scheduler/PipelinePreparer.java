@@ -66,6 +66,7 @@ public class PipelinePreparer implements Runnable {
     @Override
     public void run() {
         LOGGER.info(String.format(LoggerMessages.WORKER_STARTED, PipelinePreparer.class.getSimpleName()));
+        SchedulerEventQueue events = SchedulerEventQueue.subscribe(SchedulerEvent.PIPELINE_UPDATED);
         try {
             while (true) {
                 List<Pipeline> filteredPipelines = (List<Pipeline>) this.pipelineService.getAllUpdatedUnpreparedPipelinesInProgress().getEntity();
@@ -77,7 +78,7 @@ public class PipelinePreparer implements Runnable {
                     LOGGER.info(pipeline.getPipelineDefinitionName() + " prepared.");
                 }
 
-                Thread.sleep(Config.getConfiguration().getPipelineSchedulerPollInterval() * 1000);
+                events.awaitNext(Config.getConfiguration().getPipelineSchedulerPollInterval());
             }
         } catch (InterruptedException e) {
             e.printStackTrace();
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.scheduler;
+
+import io.hawkcd.core.config.Config;
+import io.hawkcd.utilities.constants.ConfigurationConstants;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/*
+* The SchedulerEventQueue @class wakes a scheduler worker as soon as one of the events it subscribed to is published,
+* instead of letting it sleep a full poll interval between passes. Polling is kept only as a slow sweep that reconciles
+* changes made on other nodes, since events are published within the current node only. Workers whose inputs also
+* change outside of the server, like the MaterialTracker, keep polling at their configured interval.
+* Events keep arriving while agents report work, so passes woken by events start at least schedulerMinPassInterval
+* milliseconds apart, and the events published in between are handled by a single pass.
+*/
+public class SchedulerEventQueue {
+    private static final List<SchedulerEventQueue> QUEUES = new CopyOnWriteArrayList<>();
+
+    private Thread worker;
+    private Set<SchedulerEvent> events;
+    // a single slot is enough, every pass handles all the changes made since the previous one
+    private BlockingQueue<SchedulerEvent> pendingEvents;
+    private long lastPassTime;
+
+    private SchedulerEventQueue(Thread worker, Set<SchedulerEvent> events) {
+        this.worker = worker;
+        this.events = events;
+        this.pendingEvents = new ArrayBlockingQueue<>(1);
+    }
+
+    public static SchedulerEventQueue subscribe(SchedulerEvent... events) {
+        SchedulerEventQueue queue = new SchedulerEventQueue(Thread.currentThread(), EnumSet.copyOf(Arrays.asList(events)));
+        QUEUES.add(queue);
+
+        return queue;
+    }
+
+    public static void publish(SchedulerEvent event) {
+        for (SchedulerEventQueue queue : QUEUES) {
+            // a worker is not woken by its own writes, otherwise it would never stop rescanning
+            if (queue.worker != Thread.currentThread() && queue.events.contains(event)) {
+                queue.pendingEvents.offer(event);
+            }
+        }
+    }
+
+    // Returns true when the worker was woken by an event rather than by the sweep interval running out.
+    public boolean awaitNext(int pollInterval) throws InterruptedException {
+        return this.awaitNext(pollInterval, getSweepInterval(pollInterval));
+    }
+
+    // Waits at most the poll interval even in single-node mode, for workers whose inputs also change without any event,
+    // such as new commits in the repository of a material.
+    public boolean awaitNextOrPoll(int pollInterval) throws InterruptedException {
+        return this.awaitNext(pollInterval, pollInterval);
+    }
+
+    private boolean awaitNext(int pollInterval, int sweepInterval) throws InterruptedException {
+        if (!isEventDriven()) {
+            Thread.sleep(pollInterval * 1000);
+            return false;
+        }
+
+        boolean isWoken = this.pendingEvents.poll(sweepInterval, TimeUnit.SECONDS) != null;
+        if (isWoken) {
+            long delay = this.lastPassTime + getMinPassInterval() - System.currentTimeMillis();
+            if (delay > 0) {
+                Thread.sleep(delay);
+                // the pass about to start handles the events published while waiting
+                this.pendingEvents.clear();
+            }
+        }
+
+        this.lastPassTime = System.currentTimeMillis();
+        return isWoken;
+    }
+
+    public void unsubscribe() {
+        QUEUES.remove(this);
+    }
+
+    private static boolean isEventDriven() {
+        Boolean isEventDrivenScheduling = Config.getConfiguration().getIsEventDrivenScheduling();
+        return isEventDrivenScheduling == null || isEventDrivenScheduling;
+    }
+
+    private static int getMinPassInterval() {
+        Integer minPassInterval = Config.getConfiguration().getSchedulerMinPassInterval();
+        return minPassInterval == null ? ConfigurationConstants.DEFAULT_SCHEDULER_MIN_PASS_INTERVAL : minPassInterval;
+    }
+
+    private static int getSweepInterval(int pollInterval) {
+        return Config.getConfiguration().getIsSingleNode() ? ConfigurationConstants.MAX_WORKER_POLL_INTERVAL : pollInterval;
+    }
+}
@@ -33,6 +33,7 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.locks.Lock;
 
 public class StatusUpdaterService {
     private static final Logger LOGGER = Logger.getLogger(StatusUpdaterService.class.getName());
@@ -56,24 +57,36 @@ public class StatusUpdaterService {
         }
 
         List<Pipeline> pipelinesInProgress = (List<Pipeline>) this.pipelineService.getAllPreparedPipelinesInProgress().getEntity();
-        for (Pipeline pipeline : pipelinesInProgress) {
-            if (pipeline.shouldBeCanceled()) {
-                this.cancelPipeline(pipeline);
-                LOGGER.info(String.format(LoggerMessages.PIPELINE_CANCELED, pipeline.getExecutionId(), pipeline.getPipelineDefinitionName()));
-                ServiceResult result = new ServiceResult(null, NotificationType.WARNING, "Pipeline " + pipeline.getPipelineDefinitionName() + " was successfully canceled");
-            } else if (pipeline.getStatus() == PipelineStatus.PAUSED) {
-                this.pausePipeline(pipeline);
-            } else {
-                this.updateAllStatuses(pipeline);
-            }
+        for (Pipeline candidate : pipelinesInProgress) {
+            Lock lock = PipelineService.getLock(candidate.getId());
+            lock.lock();
+            try {
+                // read again under the lock, since an agent may have reported its work after the query
+                Pipeline pipeline = (Pipeline) this.pipelineService.getById(candidate.getId()).getEntity();
+                if (pipeline == null) {
+                    continue;
+                }
 
-            this.pipelineService.update(pipeline);
+                if (pipeline.shouldBeCanceled()) {
+                    this.cancelPipeline(pipeline);
+                    LOGGER.info(String.format(LoggerMessages.PIPELINE_CANCELED, pipeline.getExecutionId(), pipeline.getPipelineDefinitionName()));
+                    ServiceResult result = new ServiceResult(null, NotificationType.WARNING, "Pipeline " + pipeline.getPipelineDefinitionName() + " was successfully canceled");
+                } else if (pipeline.getStatus() == PipelineStatus.PAUSED) {
+                    this.pausePipeline(pipeline);
+                } else {
+                    this.updateAllStatuses(pipeline);
+                }
+
+                this.pipelineService.update(pipeline);
+            } finally {
+                lock.unlock();
+            }
         }
     }
 
     public Agent updateAgentStatus(Agent agent) {
         if (agent != null) {
-            LocalDateTime lastReportedTime = agent.getLastReportedTime();
+            LocalDateTime lastReportedTime = AgentLastSeen.getLastSeen(agent);
             LocalDateTime currentTime = ZonedDateTime.now(ZoneOffset.UTC).toLocalDateTime();
             long timeBetweenReports = ChronoUnit.SECONDS.between(lastReportedTime, currentTime);
 
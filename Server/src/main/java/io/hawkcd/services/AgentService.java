@@ -28,12 +28,16 @@ import io.hawkcd.model.Pipeline;
 import io.hawkcd.model.ServiceResult;
 import io.hawkcd.model.Stage;
 import io.hawkcd.model.enums.*;
+import io.hawkcd.scheduler.AgentLastSeen;
+import io.hawkcd.scheduler.SchedulerEvent;
+import io.hawkcd.scheduler.SchedulerEventQueue;
 import io.hawkcd.model.payload.WorkInfo;
 import io.hawkcd.services.interfaces.IAgentService;
 import io.hawkcd.services.interfaces.IJobService;
 import io.hawkcd.services.interfaces.IPipelineService;
 
 import java.util.List;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 
 public class AgentService extends CrudService<Agent> implements IAgentService {
@@ -72,6 +76,10 @@ public class AgentService extends CrudService<Agent> implements IAgentService {
     @Authorization( scope = PermissionScope.SERVER, type = PermissionType.ADMIN )
     public ServiceResult add(Agent agent) {
         ServiceResult result = super.add(agent);
+        if (result.getNotificationType() == NotificationType.SUCCESS) {
+            SchedulerEventQueue.publish(SchedulerEvent.AGENT_UPDATED);
+        }
+
         return result;
     }
 
@@ -79,6 +87,9 @@ public class AgentService extends CrudService<Agent> implements IAgentService {
     @Authorization( scope = PermissionScope.SERVER, type = PermissionType.ADMIN )
     public ServiceResult update(Agent agent) {
         ServiceResult result = super.update(agent);
+        if (result.getNotificationType() == NotificationType.SUCCESS) {
+            SchedulerEventQueue.publish(SchedulerEvent.AGENT_UPDATED);
+        }
 
         final StackTraceElement[] ste = Thread.currentThread().getStackTrace();
         String methodName = ste[1].getMethodName();
@@ -94,7 +105,12 @@ public class AgentService extends CrudService<Agent> implements IAgentService {
     @Override
     @Authorization( scope = PermissionScope.SERVER, type = PermissionType.ADMIN )
     public ServiceResult delete(Agent agent) {
-        return super.delete(agent);
+        ServiceResult result = super.delete(agent);
+        if (result.getNotificationType() == NotificationType.SUCCESS) {
+            AgentLastSeen.remove(agent.getId());
+        }
+
+        return result;
     }
 
     @Override
@@ -118,38 +134,52 @@ public class AgentService extends CrudService<Agent> implements IAgentService {
             result = createResult(null, NotificationType.ERROR, "This agent has no job assigned.");
         } else if (agent.isAssigned()) {
             List<Pipeline> pipelines = (List<Pipeline>) this.pipelineService.getAllPreparedPipelinesInProgress().getEntity();
-            for (Pipeline pipeline : pipelines) {
-                WorkInfo workInfo = new WorkInfo();
-                Stage stageInProgress = pipeline.getStages()
-                        .stream()
-                        .filter(s -> s.getStatus() == StageStatus.IN_PROGRESS)
-                        .findFirst()
-                        .orElse(null);
-                if (stageInProgress == null) {
-                    continue;
-                }
-
-                Job scheduledJob = stageInProgress
-                        .getJobs()
-                        .stream()
-                        .filter(j -> j.getStatus() == JobStatus.ASSIGNED)
-                        .filter(j -> j.getAssignedAgentId().equals(agentId))
-                        .findFirst()
-                        .orElse(null);
-                if (scheduledJob == null) {
-                    continue;
+            for (Pipeline candidate : pipelines) {
+                Lock lock = PipelineService.getLock(candidate.getId());
+                lock.lock();
+                try {
+                    // read again under the lock, since the scheduler may have reassigned the job after the query
+                    Pipeline pipeline = (Pipeline) this.pipelineService.getById(candidate.getId()).getEntity();
+                    if (pipeline == null) {
+                        continue;
+                    }
+
+                    WorkInfo workInfo = new WorkInfo();
+                    Stage stageInProgress = pipeline.getStages()
+                            .stream()
+                            .filter(s -> s.getStatus() == StageStatus.IN_PROGRESS)
+                            .findFirst()
+                            .orElse(null);
+                    if (stageInProgress == null) {
+                        continue;
+                    }
+
+                    Job scheduledJob = stageInProgress
+                            .getJobs()
+                            .stream()
+                            .filter(j -> j.getStatus() == JobStatus.ASSIGNED)
+                            .filter(j -> j.getAssignedAgentId().equals(agentId))
+                            .findFirst()
+                            .orElse(null);
+                    if (scheduledJob == null) {
+                        continue;
+                    }
+
+                    workInfo.setPipelineDefinitionName(pipeline.getPipelineDefinitionName());
+                    workInfo.setPipelineExecutionID(pipeline.getExecutionId());
+                    workInfo.setStageDefinitionName(stageInProgress.getStageDefinitionName());
+                    workInfo.setStageExecutionID(stageInProgress.getExecutionId());
+                    workInfo.setJobDefinitionName(scheduledJob.getJobDefinitionName());
+                    scheduledJob.setStatus(JobStatus.RUNNING);
+                    workInfo.setJob(scheduledJob);
+                    this.jobService.update(scheduledJob);
+
+                    result = createResult(workInfo, NotificationType.SUCCESS, "WorkInfo retrieved successfully");
+                } finally {
+                    lock.unlock();
                 }
 
-                workInfo.setPipelineDefinitionName(pipeline.getPipelineDefinitionName());
-                workInfo.setPipelineExecutionID(pipeline.getExecutionId());
-                workInfo.setStageDefinitionName(stageInProgress.getStageDefinitionName());
-                workInfo.setStageExecutionID(stageInProgress.getExecutionId());
-                workInfo.setJobDefinitionName(scheduledJob.getJobDefinitionName());
-                scheduledJob.setStatus(JobStatus.RUNNING);
-                workInfo.setJob(scheduledJob);
-                this.jobService.update(scheduledJob);
-
-                result = createResult(workInfo, NotificationType.SUCCESS, "WorkInfo retrieved successfully");
+                break;
             }
         }
 
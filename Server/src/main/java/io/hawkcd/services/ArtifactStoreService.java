@@ -0,0 +1,316 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.services;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import io.hawkcd.core.config.Config;
+import io.hawkcd.model.payload.ArtifactManifestEntry;
+import io.hawkcd.services.interfaces.IArtifactStoreService;
+import io.hawkcd.utilities.StripedLock;
+import org.apache.commons.codec.binary.Hex;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/*
+* The ArtifactStoreService @class keeps every uploaded artifact file once, as a blob named by the SHA-256 of its content
+* in the .blobs directory under the configured artifactsDestination. The files of a pipeline execution are hard links to
+* those blobs (or copies where the file system has no hard links), so the artifacts are still browsed and downloaded
+* from <artifactsDestination>/<pipelineName>/<executionId>, and the manifest of each execution in the .manifests directory
+* records which blob every file was made from. An agent asks for the blobs that are missing and uploads only those.
+* The blobs asked for are marked in the .blobRequests directory, since the modification time of a blob is shared by the
+* artifact files linked to it and is served as their Last-Modified.
+*/
+public class ArtifactStoreService implements IArtifactStoreService {
+    private static final String BLOBS_DIRECTORY = ".blobs";
+    private static final String MANIFESTS_DIRECTORY = ".manifests";
+    private static final String BLOB_REQUESTS_DIRECTORY = ".blobRequests";
+    private static final String TEMP_EXTENSION = ".tmp";
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final Duration UNREFERENCED_BLOB_AGE = Duration.ofDays(1);
+    private static final Type MANIFEST_TYPE = new TypeToken<List<ArtifactManifestEntry>>() {
+    }.getType();
+    private static final StripedLock LOCKS = new StripedLock(64);
+
+    private Path artifactsDirectory;
+    private Path blobsDirectory;
+    private Path manifestsDirectory;
+    private Path blobRequestsDirectory;
+    private Gson jsonConverter;
+
+    public ArtifactStoreService() {
+        this(Paths.get(System.getProperty("user.dir"), Config.getConfiguration().getArtifactsDestination()).toString());
+    }
+
+    public ArtifactStoreService(String artifactsDirectory) {
+        this.artifactsDirectory = Paths.get(artifactsDirectory).toAbsolutePath().normalize();
+        this.blobsDirectory = this.artifactsDirectory.resolve(BLOBS_DIRECTORY);
+        this.manifestsDirectory = this.artifactsDirectory.resolve(MANIFESTS_DIRECTORY);
+        this.blobRequestsDirectory = this.artifactsDirectory.resolve(BLOB_REQUESTS_DIRECTORY);
+        this.jsonConverter = new Gson();
+    }
+
+    @Override
+    public List<String> getMissingBlobs(List<String> hashes) {
+        List<String> missingHashes = new ArrayList<>();
+        for (String hash : hashes) {
+            if (!HASH_PATTERN.matcher(hash).matches()) {
+                missingHashes.add(hash);
+                continue;
+            }
+
+            if (!Files.isRegularFile(this.getBlobPath(hash))) {
+                missingHashes.add(hash);
+                continue;
+            }
+
+            try {
+                // a blob about to be referenced again must not look unreferenced to deleteUnreferencedBlobs
+                this.markRequested(hash);
+            } catch (IOException e) {
+                missingHashes.add(hash);
+            }
+        }
+
+        return missingHashes;
+    }
+
+    @Override
+    public String storeBlobs(InputStream stream) {
+        String errorMessage = null;
+        try {
+            Files.createDirectories(this.blobsDirectory);
+            ZipInputStream zipInputStream = new ZipInputStream(stream);
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                errorMessage = this.storeBlob(entry.getName(), zipInputStream);
+                if (errorMessage != null) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            errorMessage = e.getMessage();
+        }
+
+        return errorMessage;
+    }
+
+    @Override
+    public String applyManifest(String pipelineName, String pipelineExecutionId, String destination, List<ArtifactManifestEntry> entries) {
+        Path executionDirectory = this.artifactsDirectory.resolve(pipelineName).resolve(pipelineExecutionId).normalize();
+        Path destinationDirectory = executionDirectory.resolve(destination == null ? "" : destination).normalize();
+        if (!executionDirectory.startsWith(this.artifactsDirectory) || !destinationDirectory.startsWith(executionDirectory)) {
+            return String.format("Destination %s is outside of the artifacts of %s", destination, pipelineName);
+        }
+
+        Lock lock = LOCKS.get(pipelineName + "/" + pipelineExecutionId);
+        lock.lock();
+        try {
+            Map<String, ArtifactManifestEntry> manifest = new TreeMap<>();
+            for (ArtifactManifestEntry entry : this.getManifest(pipelineName, pipelineExecutionId)) {
+                manifest.put(entry.getPath(), entry);
+            }
+
+            for (ArtifactManifestEntry entry : entries) {
+                Path file = destinationDirectory.resolve(entry.getPath()).normalize();
+                if (!file.startsWith(destinationDirectory) || file.equals(destinationDirectory)) {
+                    return String.format("Artifact file %s is outside of %s", entry.getPath(), destination);
+                }
+
+                if (entry.getHash() == null) {
+                    Files.createDirectories(file);
+                } else {
+                    String errorMessage = this.linkBlob(entry, file);
+                    if (errorMessage != null) {
+                        return errorMessage;
+                    }
+                }
+
+                String path = executionDirectory.relativize(file).toString().replace(File.separatorChar, '/');
+                manifest.put(path, new ArtifactManifestEntry(path, entry.getHash(), entry.getSize()));
+            }
+
+            this.saveManifest(pipelineName, pipelineExecutionId, new ArrayList<>(manifest.values()));
+        } catch (IOException e) {
+            return e.getMessage();
+        } finally {
+            lock.unlock();
+        }
+
+        return null;
+    }
+
+    @Override
+    public List<ArtifactManifestEntry> getManifest(String pipelineName, String pipelineExecutionId) {
+        Path manifestFile = this.getManifestPath(pipelineName, pipelineExecutionId);
+        if (!Files.exists(manifestFile)) {
+            return new ArrayList<>();
+        }
+
+        try {
+            String manifest = new String(Files.readAllBytes(manifestFile), StandardCharsets.UTF_8);
+            return this.jsonConverter.fromJson(manifest, MANIFEST_TYPE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // A blob is referenced by the hard links of the artifact files made from it, so one that is left with the link
+    // of the store alone, and was neither stored nor asked for recently, belongs to artifacts that were deleted or
+    // never completed.
+    @Override
+    public int deleteUnreferencedBlobs() {
+        if (!Files.isDirectory(this.blobsDirectory)) {
+            return 0;
+        }
+
+        long expirationTime = System.currentTimeMillis() - UNREFERENCED_BLOB_AGE.toMillis();
+        int deletedBlobs = 0;
+        try (Stream<Path> paths = Files.walk(this.blobsDirectory)) {
+            for (Path path : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+                if (Files.getLastModifiedTime(path).toMillis() > expirationTime) {
+                    continue;
+                }
+
+                boolean isTempFile = path.getFileName().toString().endsWith(TEMP_EXTENSION);
+                Path request = isTempFile ? null : this.getBlobRequestPath(path.getFileName().toString());
+                if (request != null && Files.exists(request) && Files.getLastModifiedTime(request).toMillis() > expirationTime) {
+                    continue;
+                }
+
+                if (isTempFile || (int) Files.getAttribute(path, "unix:nlink") <= 1) {
+                    Files.deleteIfExists(path);
+                    if (request != null) {
+                        Files.deleteIfExists(request);
+                    }
+
+                    deletedBlobs++;
+                }
+            }
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            // the links of a file cannot be counted on this file system, so no blob is known to be unreferenced
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return deletedBlobs;
+    }
+
+    private String storeBlob(String hash, InputStream stream) throws IOException {
+        if (!HASH_PATTERN.matcher(hash).matches()) {
+            return String.format("%s is not a SHA-256 hash", hash);
+        }
+
+        Path tempFile = this.blobsDirectory.resolve(UUID.randomUUID() + TEMP_EXTENSION);
+        try {
+            DigestInputStream digestStream = new DigestInputStream(stream, MessageDigest.getInstance("SHA-256"));
+            Files.copy(digestStream, tempFile);
+            String actualHash = Hex.encodeHexString(digestStream.getMessageDigest().digest());
+            if (!actualHash.equals(hash)) {
+                return String.format("The content of blob %s has hash %s", hash, actualHash);
+            }
+
+            Path blob = this.getBlobPath(hash);
+            Files.createDirectories(blob.getParent());
+            Files.move(tempFile, blob, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+
+        return null;
+    }
+
+    private String linkBlob(ArtifactManifestEntry entry, Path file) throws IOException {
+        if (!HASH_PATTERN.matcher(entry.getHash()).matches() || !Files.isRegularFile(this.getBlobPath(entry.getHash()))) {
+            return String.format("Blob %s of %s is missing", entry.getHash(), entry.getPath());
+        }
+
+        Path blob = this.getBlobPath(entry.getHash());
+
+        if (Files.size(blob) != entry.getSize()) {
+            return String.format("Blob %s of %s has a different size", entry.getHash(), entry.getPath());
+        }
+
+        Files.createDirectories(file.getParent());
+        Files.deleteIfExists(file);
+        try {
+            Files.createLink(file, blob);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            Files.copy(blob, file);
+        }
+
+        return null;
+    }
+
+    private void markRequested(String hash) throws IOException {
+        Path request = this.getBlobRequestPath(hash);
+        Files.createDirectories(request.getParent());
+        try {
+            Files.createFile(request);
+        } catch (FileAlreadyExistsException e) {
+            Files.setLastModifiedTime(request, FileTime.fromMillis(System.currentTimeMillis()));
+        }
+    }
+
+    private void saveManifest(String pipelineName, String pipelineExecutionId, List<ArtifactManifestEntry> entries) throws IOException {
+        Path manifestFile = this.getManifestPath(pipelineName, pipelineExecutionId);
+        Files.createDirectories(manifestFile.getParent());
+        Path tempFile = manifestFile.resolveSibling(UUID.randomUUID() + TEMP_EXTENSION);
+        Files.write(tempFile, this.jsonConverter.toJson(entries, MANIFEST_TYPE).getBytes(StandardCharsets.UTF_8));
+        Files.move(tempFile, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path getBlobPath(String hash) {
+        return this.blobsDirectory.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private Path getBlobRequestPath(String hash) {
+        return this.blobRequestsDirectory.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private Path getManifestPath(String pipelineName, String pipelineExecutionId) {
+        return this.manifestsDirectory.resolve(pipelineName).resolve(pipelineExecutionId + ".json");
+    }
+}
@@ -32,10 +32,20 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
 public class FileManagementService implements IFileManagementService {
 
@@ -101,6 +111,86 @@ public class FileManagementService implements IFileManagementService {
         return errorMessage;
     }
 
+    @Override
+    public String zipFilesToStream(OutputStream outputStream, List<File> files, String filesRootPath, boolean includeRootPath) {
+
+        String errorMessage = null;
+        try {
+            ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream);
+            zipOutputStream.setLevel(Deflater.BEST_SPEED);
+            for (File file : files) {
+                if (file.isFile()) {
+                    Path entryRoot = filesRootPath == null || filesRootPath.isEmpty() ? file.getAbsoluteFile().getParentFile().toPath() : Paths.get(filesRootPath).toAbsolutePath();
+                    this.addZipEntry(zipOutputStream, entryRoot, file.getAbsoluteFile().toPath());
+                }
+                if (file.isDirectory()) {
+                    File directory = file.getAbsoluteFile();
+                    Path entryRoot = includeRootPath && directory.getParentFile() != null ? directory.getParentFile().toPath() : directory.toPath();
+                    try (Stream<Path> paths = Files.walk(directory.toPath())) {
+                        for (Path path : (Iterable<Path>) paths::iterator) {
+                            this.addZipEntry(zipOutputStream, entryRoot, path);
+                        }
+                    }
+                }
+            }
+
+            zipOutputStream.finish();
+            zipOutputStream.flush();
+        } catch (IOException | UncheckedIOException e) {
+            errorMessage = e.getMessage();
+        }
+
+        return errorMessage;
+    }
+
+    @Override
+    public String unzipStream(InputStream stream, String destination) {
+
+        String errorMessage = null;
+        Path destinationPath = Paths.get(destination).toAbsolutePath().normalize();
+        try {
+            ZipInputStream zipInputStream = new ZipInputStream(stream);
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                Path entryPath = destinationPath.resolve(entry.getName()).normalize();
+                if (!entryPath.startsWith(destinationPath)) {
+                    return String.format("Zip entry %s is outside of %s", entry.getName(), destination);
+                }
+
+                if (entry.isDirectory()) {
+                    Files.createDirectories(entryPath);
+                } else {
+                    Files.createDirectories(entryPath.getParent());
+                    Files.copy(zipInputStream, entryPath, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        } catch (IOException e) {
+            errorMessage = e.getMessage();
+        }
+
+        return errorMessage;
+    }
+
+    private void addZipEntry(ZipOutputStream zipOutputStream, Path entryRoot, Path path) throws IOException {
+        if (path.equals(entryRoot)) {
+            return;
+        }
+
+        String entryName = this.normalizePath(entryRoot.relativize(path).toString());
+        if (entryName.startsWith("..")) {
+            entryName = path.getFileName().toString();
+        }
+
+        if (Files.isDirectory(path)) {
+            zipOutputStream.putNextEntry(new ZipEntry(entryName + "/"));
+            zipOutputStream.closeEntry();
+        } else {
+            zipOutputStream.putNextEntry(new ZipEntry(entryName));
+            Files.copy(path, zipOutputStream);
+            zipOutputStream.closeEntry();
+        }
+    }
+
     @Override
     public String streamToFile(InputStream stream, String filePath) {
 
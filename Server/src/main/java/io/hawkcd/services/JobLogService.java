@@ -0,0 +1,485 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.services;
+
+import io.hawkcd.core.config.Config;
+import io.hawkcd.model.configuration.Configuration;
+import io.hawkcd.model.payload.JobLogChunk;
+import io.hawkcd.services.interfaces.IJobLogService;
+import io.hawkcd.utilities.StripedLock;
+import org.apache.commons.io.FileUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/*
+* The JobLogService @class keeps the console output of each Job outside of the Pipeline, as append-only gzip segments
+* in a directory of the job under the configured jobLogsDestination. Every appended chunk is compressed into a block of its own
+* and recorded in the index file of its segment, so a read at any offset inflates only the blocks it covers.
+* A new segment is started once the current one reaches jobLogSegmentSize, and whole job logs are deleted by deleteExpiredLogs
+* once they are older than jobLogMaxAge or the logs directory grows over jobLogMaxSize.
+*/
+public class JobLogService implements IJobLogService {
+    private static final String LOGS_DESTINATION = "Logs";
+    private static final String SEGMENT_EXTENSION = ".log.gz";
+    private static final String INDEX_EXTENSION = ".idx";
+    private static final String SEGMENT_NAME_FORMAT = "%020d";
+    private static final int INDEX_ENTRY_SIZE = 24;
+    private static final int DEFAULT_SEGMENT_SIZE_IN_KB = 1024;
+    private static final int DEFAULT_MAX_AGE_IN_DAYS = 30;
+    private static final int DEFAULT_MAX_SIZE_IN_MB = 10240;
+    private static final StripedLock LOCKS = new StripedLock(64);
+
+    private Path logsDirectory;
+    private long segmentSize;
+    private Duration maxAge;
+    private long maxSize;
+
+    public JobLogService() {
+        Configuration configuration = Config.getConfiguration();
+        String logsDestination = configuration.getJobLogsDestination();
+        this.logsDirectory = Paths.get(System.getProperty("user.dir"))
+                .resolve(logsDestination == null || logsDestination.isEmpty() ? LOGS_DESTINATION : logsDestination);
+        this.segmentSize = getOrDefault(configuration.getJobLogSegmentSizeInKb(), DEFAULT_SEGMENT_SIZE_IN_KB) * 1024L;
+        this.maxAge = Duration.ofDays(getOrDefault(configuration.getJobLogMaxAgeInDays(), DEFAULT_MAX_AGE_IN_DAYS));
+        this.maxSize = getOrDefault(configuration.getJobLogMaxSizeInMb(), DEFAULT_MAX_SIZE_IN_MB) * 1024L * 1024L;
+    }
+
+    public JobLogService(String logsDirectory) {
+        this(logsDirectory, DEFAULT_SEGMENT_SIZE_IN_KB * 1024L, Duration.ofDays(DEFAULT_MAX_AGE_IN_DAYS), DEFAULT_MAX_SIZE_IN_MB * 1024L * 1024L);
+    }
+
+    public JobLogService(String logsDirectory, long segmentSize, Duration maxAge, long maxSize) {
+        this.logsDirectory = Paths.get(logsDirectory);
+        this.segmentSize = segmentSize;
+        this.maxAge = maxAge;
+        this.maxSize = maxSize;
+    }
+
+    // Appends only the part of the content that the log does not have yet, so a chunk sent again after a lost response
+    // is not duplicated. The returned length is less than the offset when an earlier chunk is missing and nothing was appended.
+    @Override
+    public long append(String jobId, long offset, byte[] content) {
+        Path jobDirectory = this.getJobDirectory(jobId);
+        Lock lock = LOCKS.get(jobId);
+        lock.lock();
+        try {
+            NavigableSet<Long> segments = getSegments(jobDirectory);
+            Block lastBlock = segments.isEmpty() ? null : getLastBlock(jobDirectory, segments.last());
+            long length = getLength(segments, lastBlock);
+            if ((offset > length) || (offset + content.length <= length)) {
+                return length;
+            }
+
+            int alreadyAppended = (int) (length - offset);
+            byte[] compressedContent = compress(content, alreadyAppended, content.length - alreadyAppended);
+
+            long segment;
+            long position;
+            if (segments.isEmpty() || ((lastBlock != null) && (lastBlock.getPosition() + lastBlock.getCompressedLength() >= this.segmentSize))) {
+                segment = length;
+                position = 0;
+                Files.createDirectories(jobDirectory);
+            } else {
+                segment = segments.last();
+                position = lastBlock == null ? 0 : lastBlock.getPosition() + lastBlock.getCompressedLength();
+            }
+
+            Block block = new Block(length, position, compressedContent.length, content.length - alreadyAppended);
+            writeBlock(jobDirectory, segment, block, compressedContent);
+
+            return block.getEnd();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public JobLogChunk read(String jobId, long offset, int limit) {
+        Path jobDirectory = this.getJobDirectory(jobId);
+        try {
+            NavigableSet<Long> segments = getSegments(jobDirectory);
+            long length = segments.isEmpty() ? 0 : getLength(segments, getLastBlock(jobDirectory, segments.last()));
+            long start = Math.max(0, Math.min(offset, length));
+            byte[] bytes = readRange(jobDirectory, segments, start, (int) Math.min(limit, length - start));
+
+            int end = getCompleteLength(bytes, bytes.length);
+            return new JobLogChunk(jobId, start, start + end, new String(bytes, 0, end, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public JobLogChunk readTail(String jobId, int limit) {
+        Path jobDirectory = this.getJobDirectory(jobId);
+        try {
+            NavigableSet<Long> segments = getSegments(jobDirectory);
+            long length = segments.isEmpty() ? 0 : getLength(segments, getLastBlock(jobDirectory, segments.last()));
+            long start = Math.max(0, length - limit);
+            byte[] bytes = readRange(jobDirectory, segments, start, (int) (length - start));
+
+            // the tail may start in the middle of a multi-byte character, which is skipped as a whole
+            int begin = 0;
+            while ((begin < bytes.length) && (begin < 3) && ((bytes[begin] & 0xC0) == 0x80)) {
+                begin++;
+            }
+
+            int end = getCompleteLength(bytes, bytes.length);
+            return new JobLogChunk(jobId, start + begin, start + end, new String(bytes, begin, end - begin, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public long getLength(String jobId) {
+        Path jobDirectory = this.getJobDirectory(jobId);
+        try {
+            NavigableSet<Long> segments = getSegments(jobDirectory);
+            return segments.isEmpty() ? 0 : getLength(segments, getLastBlock(jobDirectory, segments.last()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String getReference(String jobId) {
+        return this.logsDirectory.relativize(this.getJobDirectory(jobId)).toString();
+    }
+
+    // Deletes the logs that were not written to within jobLogMaxAge, then the least recently written ones
+    // for as long as all logs together take more than jobLogMaxSize.
+    @Override
+    public int deleteExpiredLogs() {
+        if (!Files.isDirectory(this.logsDirectory)) {
+            return 0;
+        }
+
+        List<JobLogUsage> usages = new ArrayList<>();
+        long totalSize = 0;
+        try (DirectoryStream<Path> jobDirectories = Files.newDirectoryStream(this.logsDirectory, Files::isDirectory)) {
+            for (Path jobDirectory : jobDirectories) {
+                JobLogUsage usage = getUsage(jobDirectory);
+                usages.add(usage);
+                totalSize += usage.getSize();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        usages.sort(Comparator.comparingLong(JobLogUsage::getLastModified));
+        long expiryTime = System.currentTimeMillis() - this.maxAge.toMillis();
+        int deletedLogs = 0;
+        for (JobLogUsage usage : usages) {
+            if ((usage.getLastModified() >= expiryTime) && (totalSize <= this.maxSize)) {
+                break;
+            }
+
+            Lock lock = LOCKS.get(usage.getJobDirectory().getFileName().toString());
+            lock.lock();
+            try {
+                FileUtils.deleteDirectory(usage.getJobDirectory().toFile());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                lock.unlock();
+            }
+
+            totalSize -= usage.getSize();
+            deletedLogs++;
+        }
+
+        return deletedLogs;
+    }
+
+    // Job ids are UUIDs, parsing them also keeps a request from reaching files outside of the logs directory.
+    private Path getJobDirectory(String jobId) {
+        return this.logsDirectory.resolve(UUID.fromString(jobId).toString());
+    }
+
+    private static byte[] readRange(Path jobDirectory, NavigableSet<Long> segments, long start, int size) throws IOException {
+        byte[] bytes = new byte[Math.max(0, size)];
+        int read = 0;
+        Long firstSegment = segments.floor(start);
+        if (firstSegment == null) {
+            return bytes;
+        }
+
+        for (long segment : segments.tailSet(firstSegment, true)) {
+            if (read == bytes.length) {
+                break;
+            }
+
+            List<Block> blocks = readIndex(getIndexFile(jobDirectory, segment));
+            try (FileChannel channel = FileChannel.open(getSegmentFile(jobDirectory, segment), StandardOpenOption.READ)) {
+                for (int i = findBlock(blocks, start + read); (i < blocks.size()) && (read < bytes.length); i++) {
+                    Block block = blocks.get(i);
+                    byte[] content = decompress(readFully(channel, block.getPosition(), block.getCompressedLength()), block.getLength());
+                    int from = (int) (start + read - block.getOffset());
+                    int count = Math.min(content.length - from, bytes.length - read);
+                    System.arraycopy(content, from, bytes, read, count);
+                    read += count;
+                }
+            }
+        }
+
+        return bytes;
+    }
+
+    // Binary search for the block that holds the offset, the blocks of a segment are ordered and contiguous.
+    private static int findBlock(List<Block> blocks, long offset) {
+        int low = 0;
+        int high = blocks.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (blocks.get(middle).getOffset() <= offset) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        return low;
+    }
+
+    // The block is written before its index entry, and anything past the last indexed block is left over from an append
+    // that did not complete, so it is overwritten.
+    private static void writeBlock(Path jobDirectory, long segment, Block block, byte[] compressedContent) throws IOException {
+        try (FileChannel channel = FileChannel.open(getSegmentFile(jobDirectory, segment), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.truncate(block.getPosition());
+            writeFully(channel, block.getPosition(), ByteBuffer.wrap(compressedContent));
+            channel.force(false);
+        }
+
+        try (FileChannel channel = FileChannel.open(getIndexFile(jobDirectory, segment), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long indexLength = channel.size() - (channel.size() % INDEX_ENTRY_SIZE);
+            channel.truncate(indexLength);
+            ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_SIZE)
+                    .putLong(block.getOffset())
+                    .putLong(block.getPosition())
+                    .putInt(block.getCompressedLength())
+                    .putInt(block.getLength());
+            entry.flip();
+            writeFully(channel, indexLength, entry);
+        }
+    }
+
+    private static NavigableSet<Long> getSegments(Path jobDirectory) throws IOException {
+        NavigableSet<Long> segments = new TreeSet<>();
+        if (!Files.isDirectory(jobDirectory)) {
+            return segments;
+        }
+
+        try (DirectoryStream<Path> segmentFiles = Files.newDirectoryStream(jobDirectory, "*" + SEGMENT_EXTENSION)) {
+            for (Path segmentFile : segmentFiles) {
+                String fileName = segmentFile.getFileName().toString();
+                segments.add(Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_EXTENSION.length())));
+            }
+        }
+
+        return segments;
+    }
+
+    private static long getLength(NavigableSet<Long> segments, Block lastBlock) {
+        if (segments.isEmpty()) {
+            return 0;
+        }
+
+        return lastBlock == null ? segments.last() : lastBlock.getEnd();
+    }
+
+    private static Block getLastBlock(Path jobDirectory, long segment) throws IOException {
+        List<Block> blocks = readIndex(getIndexFile(jobDirectory, segment));
+        return blocks.isEmpty() ? null : blocks.get(blocks.size() - 1);
+    }
+
+    // An entry that is only partly written belongs to an append that did not complete, so it is ignored.
+    private static List<Block> readIndex(Path indexFile) throws IOException {
+        List<Block> blocks = new ArrayList<>();
+        if (!Files.exists(indexFile)) {
+            return blocks;
+        }
+
+        ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+        while (index.remaining() >= INDEX_ENTRY_SIZE) {
+            blocks.add(new Block(index.getLong(), index.getLong(), index.getInt(), index.getInt()));
+        }
+
+        return blocks;
+    }
+
+    private static JobLogUsage getUsage(Path jobDirectory) throws IOException {
+        long size = 0;
+        long lastModified = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(jobDirectory)) {
+            for (Path file : files) {
+                size += Files.size(file);
+                lastModified = Math.max(lastModified, Files.getLastModifiedTime(file).toMillis());
+            }
+        }
+
+        return new JobLogUsage(jobDirectory, size, lastModified);
+    }
+
+    private static Path getSegmentFile(Path jobDirectory, long segment) {
+        return jobDirectory.resolve(String.format(SEGMENT_NAME_FORMAT, segment) + SEGMENT_EXTENSION);
+    }
+
+    private static Path getIndexFile(Path jobDirectory, long segment) {
+        return jobDirectory.resolve(String.format(SEGMENT_NAME_FORMAT, segment) + INDEX_EXTENSION);
+    }
+
+    private static byte[] compress(byte[] content, int offset, int length) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+            gzipOutputStream.write(content, offset, length);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] compressedContent, int length) throws IOException {
+        byte[] content = new byte[length];
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(compressedContent))) {
+            int read = 0;
+            while (read < length) {
+                int count = inputStream.read(content, read, length - read);
+                if (count < 0) {
+                    break;
+                }
+
+                read += count;
+            }
+        }
+
+        return content;
+    }
+
+    private static byte[] readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining() && (channel.read(buffer, position + buffer.position()) > 0)) {
+            // keep reading until the buffer is full
+        }
+
+        return buffer.array();
+    }
+
+    private static void writeFully(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private static int getOrDefault(Integer value, int defaultValue) {
+        return value == null ? defaultValue : value;
+    }
+
+    // A chunk must not end in the middle of a multi-byte UTF-8 character, since the character could not be decoded.
+    private static int getCompleteLength(byte[] bytes, int length) {
+        for (int i = length - 1; i >= Math.max(0, length - 3); i--) {
+            int currentByte = bytes[i] & 0xFF;
+            if ((currentByte & 0xC0) != 0x80) {
+                int characterLength = currentByte >= 0xF0 ? 4 : currentByte >= 0xE0 ? 3 : currentByte >= 0xC0 ? 2 : 1;
+                return i + characterLength <= length ? length : i;
+            }
+        }
+
+        return length;
+    }
+
+    private static final class Block {
+        private final long offset;
+        private final long position;
+        private final int compressedLength;
+        private final int length;
+
+        private Block(long offset, long position, int compressedLength, int length) {
+            this.offset = offset;
+            this.position = position;
+            this.compressedLength = compressedLength;
+            this.length = length;
+        }
+
+        private long getOffset() {
+            return this.offset;
+        }
+
+        private long getPosition() {
+            return this.position;
+        }
+
+        private int getCompressedLength() {
+            return this.compressedLength;
+        }
+
+        private int getLength() {
+            return this.length;
+        }
+
+        private long getEnd() {
+            return this.offset + this.length;
+        }
+    }
+
+    private static final class JobLogUsage {
+        private final Path jobDirectory;
+        private final long size;
+        private final long lastModified;
+
+        private JobLogUsage(Path jobDirectory, long size, long lastModified) {
+            this.jobDirectory = jobDirectory;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        private Path getJobDirectory() {
+            return this.jobDirectory;
+        }
+
+        private long getSize() {
+            return this.size;
+        }
+
+        private long getLastModified() {
+            return this.lastModified;
+        }
+    }
+}
@@ -49,19 +49,13 @@ public class JobService extends CrudService<Job> implements IJobService {
     @Override
     @Authorization( scope = PermissionScope.PIPELINE, type = PermissionType.VIEWER )
     public ServiceResult getById(String jobId) {
-        List<Stage> allStages = (List<Stage>) this.stageService.getAll().getEntity();
-        Job result = null;
-        for (Stage stage : allStages) {
-            List<Job> jobs = stage.getJobs();
-            for (Job job : jobs) {
-                if (job.getId().equals(jobId)) {
-                    result = job;
-                    return super.createServiceResult(result, NotificationType.SUCCESS, this.successMessage);
-                }
-            }
+        Stage stage = (Stage) this.stageService.getByJobId(jobId).getEntity();
+        Job result = stage == null ? null : this.extractJobFromStage(stage, jobId);
+        if (result == null) {
+            return super.createServiceResult(result, NotificationType.ERROR, this.failureMessage);
         }
 
-        return super.createServiceResult(result, NotificationType.ERROR, this.failureMessage);
+        return super.createServiceResult(result, NotificationType.SUCCESS, this.successMessage);
     }
 
     @Override
@@ -135,19 +129,8 @@ public class JobService extends CrudService<Job> implements IJobService {
     @Override
     @Authorization( scope = PermissionScope.PIPELINE, type = PermissionType.ADMIN )
     public ServiceResult delete(Job job) {
-        Stage stageToUpdate = new Stage();
-        Job jobToDelete = null;
-        List<Stage> stages = (List<Stage>) this.stageService.getAll().getEntity();
-
-        for (Stage stage : stages) {
-            List<Job> jobs = stage.getJobs();
-            for (Job j : jobs) {
-                if (j.getId().equals(j)) {
-                    stageToUpdate = stage;
-                    jobToDelete = j;
-                }
-            }
-        }
+        Stage stageToUpdate = (Stage) this.stageService.getByJobId(job.getId()).getEntity();
+        Job jobToDelete = stageToUpdate == null ? null : this.extractJobFromStage(stageToUpdate, job.getId());
 
         if (jobToDelete == null) {
             return super.createServiceResult(jobToDelete, NotificationType.ERROR, "not found");
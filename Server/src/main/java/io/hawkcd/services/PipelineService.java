@@ -20,20 +20,23 @@ import io.hawkcd.core.Message;
 import io.hawkcd.core.MessageDispatcher;
 import io.hawkcd.core.security.Authorization;
 import io.hawkcd.core.security.AuthorizationFactory;
+import io.hawkcd.db.DbQuery;
 import io.hawkcd.db.DbRepositoryFactory;
 import io.hawkcd.db.IDbRepository;
 import io.hawkcd.model.*;
 import io.hawkcd.model.dto.PipelineDto;
 import io.hawkcd.model.enums.*;
+import io.hawkcd.scheduler.SchedulerEvent;
+import io.hawkcd.scheduler.SchedulerEventQueue;
 import io.hawkcd.services.interfaces.IMaterialDefinitionService;
 import io.hawkcd.services.interfaces.IPipelineDefinitionService;
 import io.hawkcd.services.interfaces.IPipelineService;
+import io.hawkcd.utilities.StripedLock;
 import org.apache.log4j.Logger;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 
@@ -44,7 +47,7 @@ public class PipelineService extends CrudService<Pipeline> implements IPipelineS
     private static final Class CLASS_TYPE = Pipeline.class;
     private static final Logger LOGGER = Logger.getLogger(PipelineService.class.getName());
 
-    public static Lock lock = new ReentrantLock();
+    private static final StripedLock LOCKS = new StripedLock(64);
 
     private IPipelineDefinitionService pipelineDefinitionService;
     private IMaterialDefinitionService materialDefinitionService;
@@ -64,6 +67,12 @@ public class PipelineService extends CrudService<Pipeline> implements IPipelineS
         this.materialDefinitionService = materialDefinitionService;
     }
 
+    // Guards the read-modify-write cycles of a single Pipeline run, so that runs of different pipelines
+    // can be updated in parallel by the scheduler and by the agents reporting their work.
+    public static Lock getLock(String pipelineId) {
+        return LOCKS.get(pipelineId);
+    }
+
     @Override
     @Authorization( scope = PermissionScope.PIPELINE, type = PermissionType.VIEWER )
     public ServiceResult getById(String pipelineId) {
@@ -81,13 +90,8 @@ public class PipelineService extends CrudService<Pipeline> implements IPipelineS
     public ServiceResult add(Pipeline pipeline) {
         PipelineDefinition pipelineDefinition = (PipelineDefinition) this.pipelineDefinitionService.getById(pipeline.getPipelineDefinitionId()).getEntity();
         pipeline.setPipelineDefinitionName(pipelineDefinition.getName());
-        List<Pipeline> pipelines = (List<Pipeline>) this.getAll().getEntity();
-        Pipeline lastPipeline = pipelines
-                .stream()
-                .filter(p -> p.getPipelineDefinitionId().equals(pipeline.getPipelineDefinitionId()))
-                .sorted((p1, p2) -> Integer.compare(p2.getExecutionId(), p1.getExecutionId()))
-                .findFirst()
-                .orElse(null);
+        pipeline.setPipelineGroupId(pipelineDefinition.getPipelineGroupId());
+        Pipeline lastPipeline = this.getLastPipeline(pipeline.getPipelineDefinitionId());
         if (lastPipeline == null) {
             pipeline.setExecutionId(1);
         } else {
@@ -109,13 +113,21 @@ public class PipelineService extends CrudService<Pipeline> implements IPipelineS
         this.addMaterialsToPipeline(pipeline);
         this.addStagesToPipeline(pipeline);
 
-        return super.add(pipeline);
+        ServiceResult result = super.add(pipeline);
+        if (result.getNotificationType() == NotificationType.SUCCESS) {
+            SchedulerEventQueue.publish(SchedulerEvent.PIPELINE_ADDED);
+        }
+
+        return result;
     }
 
     @Override
     @Authorization( scope = PermissionScope.PIPELINE, type = PermissionType.ADMIN )
     public ServiceResult update(Pipeline pipeline) {
         ServiceResult result = super.update(pipeline);
+        if (result.getNotificationType() == NotificationType.SUCCESS) {
+            SchedulerEventQueue.publish(SchedulerEvent.PIPELINE_UPDATED);
+        }
 
         final StackTraceElement[] ste = Thread.currentThread().getStackTrace();
         String methodName = ste[1].getMethodName();
@@ -151,106 +163,78 @@ public class PipelineService extends CrudService<Pipeline> implements IPipelineS
 
     @Override
     @Authorization( scope = PermissionScope.PIPELINE, type = PermissionType.VIEWER )
-    public ServiceResult getAllByDefinitionId(String pipelineDefinitionId) {
-        ServiceResult result = this.getAll();
-        List<Pipeline> pipelines = (List<Pipeline>) result.getEntity();
+    public ServiceResult getByStageId(String stageId) {
+        return this.getByNestedId("stages.id", stageId);
+    }
 
-        List<Pipeline> filteredPipelines = pipelines
-                .stream()
-                .filter(p -> p.getPipelineDefinitionId().equals(pipelineDefinitionId))
-                .collect(Collectors.toList());
+    @Override
+    @Authorization( scope = PermissionScope.PIPELINE, type = PermissionType.VIEWER )
+    public ServiceResult getByJobId(String jobId) {
+        return this.getByNestedId("stages.jobs.id", jobId);
+    }
 
-        result.setEntity(filteredPipelines);
+    @Override
+    @Authorization( scope = PermissionScope.PIPELINE, type = PermissionType.VIEWER )
+    public ServiceResult getAllByDefinitionId(String pipelineDefinitionId) {
+        List<Pipeline> pipelines = super.getRepository().getAllByIndex("pipelineDefinitionId", pipelineDefinitionId);
 
-        return result;
+        return super.createServiceResultArray(pipelines, NotificationType.SUCCESS, "retrieved successfully");
     }
 
     @Override
     @Authorization( scope = PermissionScope.PIPELINE, type = PermissionType.VIEWER )
     public ServiceResult getAllNonupdatedPipelines() {
-        ServiceResult result = this.getAll();
-        List<Pipeline> pipelines = (List<Pipeline>) result.getEntity();
-
-        List<Pipeline> updatedPipelines = pipelines
-                .stream()
-                .filter(p -> !p.areMaterialsUpdated())
-                .sorted((p1, p2) -> p1.getStartTime().compareTo(p2.getStartTime()))
-                .collect(Collectors.toList());
+        DbQuery query = new DbQuery()
+                .where("areMaterialsUpdated", false)
+                .sortAscending("startTime");
+        List<Pipeline> pipelines = super.getRepository().getAllByQuery(query);
 
-        result.setEntity(updatedPipelines);
-
-        return result;
+        return super.createServiceResultArray(pipelines, NotificationType.SUCCESS, "retrieved successfully");
     }
 
     @Override
     @Authorization( scope = PermissionScope.PIPELINE, type = PermissionType.VIEWER )
     public ServiceResult getAllUpdatedUnpreparedPipelinesInProgress() {
-        ServiceResult result = this.getAll();
-        List<Pipeline> pipelines = (List<Pipeline>) result.getEntity();
-
-        List<Pipeline> updatedPipelines = pipelines
-                .stream()
-                .filter(p -> p.areMaterialsUpdated() && !p.isPrepared() && (p.getStatus() == PipelineStatus.IN_PROGRESS))
-                .sorted((p1, p2) -> p1.getStartTime().compareTo(p2.getStartTime()))
-                .collect(Collectors.toList());
-
-        result.setEntity(updatedPipelines);
-
-        return result;
+        DbQuery query = new DbQuery()
+                .where("areMaterialsUpdated", true)
+                .where("isPrepared", false)
+                .where("status", PipelineStatus.IN_PROGRESS)
+                .sortAscending("startTime");
+        List<Pipeline> pipelines = super.getRepository().getAllByQuery(query);
+
+        return super.createServiceResultArray(pipelines, NotificationType.SUCCESS, "retrieved successfully");
     }
 
     @Override
     @Authorization( scope = PermissionScope.PIPELINE, type = PermissionType.VIEWER )
     public ServiceResult getAllPreparedPipelinesInProgress() {
-        ServiceResult result = this.getAll();
-        List<Pipeline> pipelines = (List<Pipeline>) result.getEntity();
-
-        List<Pipeline> updatedPipelines = pipelines
-                .stream()
-                .filter(p -> p.isPrepared() && (p.getStatus() == PipelineStatus.IN_PROGRESS))
-                .sorted((p1, p2) -> p1.getStartTime().compareTo(p2.getStartTime()))
-                .collect(Collectors.toList());
+        DbQuery query = new DbQuery()
+                .where("isPrepared", true)
+                .where("status", PipelineStatus.IN_PROGRESS)
+                .sortAscending("startTime");
+        List<Pipeline> pipelines = super.getRepository().getAllByQuery(query);
 
-        result.setEntity(updatedPipelines);
-
-        return result;
+        return super.createServiceResultArray(pipelines, NotificationType.SUCCESS, "retrieved successfully");
     }
 
     @Override
     @Authorization( scope = PermissionScope.PIPELINE, type = PermissionType.VIEWER )
     public ServiceResult getAllPreparedAwaitingPipelines() {
-        ServiceResult result = this.getAll();
-        List<Pipeline> pipelines = (List<Pipeline>) result.getEntity();
+        DbQuery query = new DbQuery()
+                .where("isPrepared", true)
+                .where("status", PipelineStatus.AWAITING)
+                .sortAscending("startTime");
+        List<Pipeline> pipelines = super.getRepository().getAllByQuery(query);
 
-        List<Pipeline> updatedPipelines = pipelines
-                .stream()
-                .filter(p -> p.isPrepared() && (p.getStatus() == PipelineStatus.AWAITING))
-                .sorted((p1, p2) -> p1.getStartTime().compareTo(p2.getStartTime()))
-                .collect(Collectors.toList());
-
-        result.setEntity(updatedPipelines);
-
-        return result;
+        return super.createServiceResultArray(pipelines, NotificationType.SUCCESS, "retrieved successfully");
     }
 
     @Override
     @Authorization( scope = PermissionScope.PIPELINE, type = PermissionType.VIEWER )
     public ServiceResult getLastRun(String pipelineDefinitionId) {
-        ServiceResult result = this.getAllByDefinitionId(pipelineDefinitionId);
-        List<Pipeline> pipelines = (List<Pipeline>) result.getEntity();
+        Pipeline lastRun = this.getLastPipeline(pipelineDefinitionId);
 
-        Pipeline lastRun = null;
-        int lastExecutionId = 0;
-        for (Pipeline pipeline : pipelines) {
-            if (pipeline.getExecutionId() > lastExecutionId) {
-                lastRun = pipeline;
-                lastExecutionId = pipeline.getExecutionId();
-            }
-        }
-
-        result.setEntity(lastRun);
-
-        return result;
+        return super.createServiceResult(lastRun, NotificationType.SUCCESS, "retrieved successfully");
     }
 
 //    @Override
@@ -278,27 +262,21 @@ public class PipelineService extends CrudService<Pipeline> implements IPipelineS
     @Override
     @Authorization( scope = PermissionScope.PIPELINE, type = PermissionType.NONE )
     public ServiceResult getAllPipelineHistoryDTOs(String pipelineDefinitionId, Integer numberOfPipelines, String pipelineId) {
-        ServiceResult result = this.getAllByDefinitionId(pipelineDefinitionId);
-        List<Pipeline> pipelines = (List<Pipeline>) result.getEntity();
-        List<Pipeline> filteredPipelines = pipelines
-                .stream()
-                .sorted((p1, p2) -> p2.getStartTime().compareTo(p1.getStartTime()))
-                .collect(Collectors.toList());
-
-        int indexOfPipeline = this.getIndexOfPipeline(filteredPipelines, pipelineId);
-        if (indexOfPipeline == -1) {
-            filteredPipelines = filteredPipelines
-                    .stream()
-                    .limit(numberOfPipelines)
-                    .collect(Collectors.toList());
-        } else {
-            filteredPipelines = filteredPipelines
-                    .stream()
-                    .skip(indexOfPipeline + 1)
-                    .limit(numberOfPipelines)
-                    .collect(Collectors.toList());
+        DbQuery query = new DbQuery()
+                .where("pipelineDefinitionId", pipelineDefinitionId)
+                .sortDescending("startTime", "executionId")
+                .limit(numberOfPipelines);
+
+        // when scrolling, the page continues after the last Pipeline the client already has,
+        // the executionId keeps Pipelines started at the same time as it from being skipped
+        Pipeline lastLoadedPipeline = pipelineId == null ? null : super.getRepository().getById(pipelineId);
+        if ((lastLoadedPipeline != null) && pipelineDefinitionId.equals(lastLoadedPipeline.getPipelineDefinitionId())) {
+            query.after(lastLoadedPipeline.getStartTime(), lastLoadedPipeline.getExecutionId());
         }
 
+        List<Pipeline> filteredPipelines = super.getRepository().getAllByQuery(query);
+        ServiceResult result = super.createServiceResultArray(filteredPipelines, NotificationType.SUCCESS, "retrieved successfully");
+
         List<PipelineDto> pipelineDtos = new ArrayList<>();
         for (Pipeline pipeline : filteredPipelines) {
             PipelineDto pipelineDto = new PipelineDto();
@@ -409,6 +387,25 @@ public class PipelineService extends CrudService<Pipeline> implements IPipelineS
         return this.update(pipelineToBeCanceled);
     }
 
+    private Pipeline getLastPipeline(String pipelineDefinitionId) {
+        DbQuery query = new DbQuery()
+                .where("pipelineDefinitionId", pipelineDefinitionId)
+                .sortDescending("executionId")
+                .limit(1);
+        List<Pipeline> pipelines = super.getRepository().getAllByQuery(query);
+
+        return pipelines.isEmpty() ? null : pipelines.get(0);
+    }
+
+    private ServiceResult getByNestedId(String field, String nestedId) {
+        List<Pipeline> pipelines = nestedId == null ? new ArrayList<>() : super.getRepository().getAllByIndex(field, nestedId);
+        if (pipelines.isEmpty()) {
+            return super.createServiceResult(null, NotificationType.ERROR, "not found");
+        }
+
+        return super.createServiceResult(pipelines.get(0), NotificationType.SUCCESS, "retrieved successfully");
+    }
+
     private void addMaterialsToPipeline(Pipeline pipeline) {
         PipelineDefinition pipelineDefinition = (PipelineDefinition) this.pipelineDefinitionService.getById(pipeline.getPipelineDefinitionId()).getEntity();
         List<MaterialDefinition> materialDefinitions =
@@ -53,19 +53,33 @@ public class StageService extends CrudService<Stage> implements IStageService {
     @Override
     @Authorization( scope = PermissionScope.PIPELINE, type = PermissionType.VIEWER )
     public ServiceResult getById(String stageId) {
-        List<Pipeline> allPipelines = (List<Pipeline>) this.pipelineService.getAll().getEntity();
+        Pipeline pipeline = (Pipeline) this.pipelineService.getByStageId(stageId).getEntity();
+        Stage result = pipeline == null ? null : this.extractStageFromPipeline(pipeline, stageId);
+        if (result == null) {
+            return super.createServiceResult(result, NotificationType.ERROR, this.failureMessage);
+        }
+
+        return super.createServiceResult(result, NotificationType.SUCCESS, this.successMessage);
+    }
+
+    @Override
+    @Authorization( scope = PermissionScope.PIPELINE, type = PermissionType.VIEWER )
+    public ServiceResult getByJobId(String jobId) {
+        Pipeline pipeline = (Pipeline) this.pipelineService.getByJobId(jobId).getEntity();
         Stage result = null;
-        for (Pipeline pipeline : allPipelines) {
-            List<Stage> stages = pipeline.getStages();
-            for (Stage stage : stages) {
-                if (stage.getId().equals(stageId)) {
-                    result = stage;
+        if (pipeline != null) {
+            result = pipeline.getStages()
+                    .stream()
+                    .filter(stage -> stage.getJobs().stream().anyMatch(job -> job.getId().equals(jobId)))
+                    .findFirst()
+                    .orElse(null);
+        }
 
-                    return super.createServiceResult(result, NotificationType.SUCCESS, this.successMessage);
-                }
-            }
+        if (result == null) {
+            return super.createServiceResult(result, NotificationType.ERROR, this.failureMessage);
         }
-        return super.createServiceResult(result, NotificationType.ERROR, this.failureMessage);
+
+        return super.createServiceResult(result, NotificationType.SUCCESS, this.successMessage);
     }
 
     @Override
@@ -141,16 +155,9 @@ public class StageService extends CrudService<Stage> implements IStageService {
     @Override
     @Authorization( scope = PermissionScope.PIPELINE, type = PermissionType.ADMIN )
     public ServiceResult delete(Stage stage) {
-        Pipeline pipelineToUpdate = new Pipeline();
-        List<Pipeline> pipelines = (List<Pipeline>) this.pipelineService.getAll().getEntity();
-        for (Pipeline pipeline : pipelines) {
-            List<Stage> stages = pipeline.getStages();
-
-            for (Stage s : stages) {
-                if (s.getId().equals(stage.getId())) {
-                    pipelineToUpdate = pipeline;
-                }
-            }
+        Pipeline pipelineToUpdate = (Pipeline) this.pipelineService.getByStageId(stage.getId()).getEntity();
+        if (pipelineToUpdate == null) {
+            return super.createServiceResult(null, NotificationType.ERROR, "not found");
         }
 
         boolean isRemoved = false;
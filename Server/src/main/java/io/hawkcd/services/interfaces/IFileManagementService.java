@@ -20,6 +20,7 @@ import io.hawkcd.model.payload.JsTreeFile;
 
 import java.io.File;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface IFileManagementService {
@@ -31,6 +32,10 @@ public interface IFileManagementService {
 
     String zipFiles(String zipFilePath, List<File> files, String filesRootPath, boolean includeRootPath);
 
+    String zipFilesToStream(OutputStream outputStream, List<File> files, String filesRootPath, boolean includeRootPath);
+
+    String unzipStream(InputStream stream, String destination);
+
     File generateUniqueFile(String filePath, String fileExtension);
 
     String deleteFile(String filePath);
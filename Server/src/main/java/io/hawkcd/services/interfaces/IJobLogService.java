@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.services.interfaces;
+
+import io.hawkcd.model.payload.JobLogChunk;
+
+public interface IJobLogService {
+    long append(String jobId, long offset, byte[] content);
+
+    JobLogChunk read(String jobId, long offset, int limit);
+
+    JobLogChunk readTail(String jobId, int limit);
+
+    long getLength(String jobId);
+
+    String getReference(String jobId);
+
+    int deleteExpiredLogs();
+}
@@ -20,6 +20,10 @@ import io.hawkcd.model.Pipeline;
 import io.hawkcd.model.ServiceResult;
 
 public interface IPipelineService extends ICrudService<Pipeline> {
+    ServiceResult getByStageId(String stageId);
+
+    ServiceResult getByJobId(String jobId);
+
     ServiceResult getAllByDefinitionId(String pipelineDefinitionId);
 
     ServiceResult getAllNonupdatedPipelines();
@@ -16,8 +16,9 @@
 
 package io.hawkcd.services.interfaces;
 
+import io.hawkcd.model.ServiceResult;
 import io.hawkcd.model.Stage;
 
 public interface IStageService extends ICrudService<Stage> {
-
+    ServiceResult getByJobId(String jobId);
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.utilities;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+* The ByteRange @class is the single range of a Range request header, e.g. "bytes=500-999", "bytes=500-" or "bytes=-500",
+* resolved against the length of the file it is requested from. Headers with several ranges or other units are not parsed,
+* so that the whole file is sent for them as a server that does not support ranges would.
+*/
+public class ByteRange {
+    private static final Pattern RANGE_PATTERN = Pattern.compile("^bytes=(\\d*)-(\\d*)$");
+
+    private long start;
+    private long end;
+
+    public ByteRange(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public static ByteRange parse(String rangeHeader, long length) {
+        if (rangeHeader == null) {
+            return null;
+        }
+
+        Matcher matcher = RANGE_PATTERN.matcher(rangeHeader.trim());
+        if (!matcher.matches() || (matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+            return null;
+        }
+
+        try {
+            if (matcher.group(1).isEmpty()) {
+                long suffixLength = Long.parseLong(matcher.group(2));
+                return new ByteRange(Math.max(0, length - suffixLength), length - 1);
+            }
+
+            long start = Long.parseLong(matcher.group(1));
+            if (matcher.group(2).isEmpty()) {
+                return new ByteRange(start, length - 1);
+            }
+
+            long end = Long.parseLong(matcher.group(2));
+            if (end < start) {
+                return null;
+            }
+
+            return new ByteRange(start, Math.min(end, length - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public long getStart() {
+        return this.start;
+    }
+
+    public long getEnd() {
+        return this.end;
+    }
+
+    public long getLength() {
+        return this.end - this.start + 1;
+    }
+
+    // A range starting after the end of the file, or a suffix of an empty file, cannot be sent.
+    public boolean isSatisfiable() {
+        return this.start <= this.end;
+    }
+
+    public String toContentRange(long length) {
+        return String.format("bytes %d-%d/%d", this.start, this.end, length);
+    }
+}
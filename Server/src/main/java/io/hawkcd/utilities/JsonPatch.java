@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.utilities;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.Map;
+
+/*
+* The JsonPatch @class computes the RFC 6902 operations that turn one JSON document into another. Objects are compared
+* field by field and arrays of the same size element by element, any other change replaces the value at its path.
+* Replacing the whole document is the operation with an empty path.
+*/
+public class JsonPatch {
+    public static final String ADD = "add";
+    public static final String REMOVE = "remove";
+    public static final String REPLACE = "replace";
+
+    private JsonPatch() {
+    }
+
+    public static JsonArray diff(JsonElement source, JsonElement target) {
+        JsonArray operations = new JsonArray();
+        diff("", source, target, operations);
+
+        return operations;
+    }
+
+    public static JsonArray replaceDocument(JsonElement target) {
+        JsonArray operations = new JsonArray();
+        operations.add(createOperation(REPLACE, "", target));
+
+        return operations;
+    }
+
+    private static void diff(String path, JsonElement source, JsonElement target, JsonArray operations) {
+        if (source.equals(target)) {
+            return;
+        }
+
+        if (source.isJsonObject() && target.isJsonObject()) {
+            JsonObject sourceObject = source.getAsJsonObject();
+            JsonObject targetObject = target.getAsJsonObject();
+            for (Map.Entry<String, JsonElement> field : sourceObject.entrySet()) {
+                if (!targetObject.has(field.getKey())) {
+                    operations.add(createOperation(REMOVE, path + "/" + escape(field.getKey()), null));
+                }
+            }
+
+            for (Map.Entry<String, JsonElement> field : targetObject.entrySet()) {
+                String fieldPath = path + "/" + escape(field.getKey());
+                if (sourceObject.has(field.getKey())) {
+                    diff(fieldPath, sourceObject.get(field.getKey()), field.getValue(), operations);
+                } else {
+                    operations.add(createOperation(ADD, fieldPath, field.getValue()));
+                }
+            }
+        } else if (source.isJsonArray() && target.isJsonArray() && source.getAsJsonArray().size() == target.getAsJsonArray().size()) {
+            JsonArray sourceArray = source.getAsJsonArray();
+            JsonArray targetArray = target.getAsJsonArray();
+            for (int i = 0; i < sourceArray.size(); i++) {
+                diff(path + "/" + i, sourceArray.get(i), targetArray.get(i), operations);
+            }
+        } else {
+            operations.add(createOperation(REPLACE, path, target));
+        }
+    }
+
+    private static JsonObject createOperation(String op, String path, JsonElement value) {
+        JsonObject operation = new JsonObject();
+        operation.addProperty("op", op);
+        operation.addProperty("path", path);
+        if (value != null) {
+            operation.add("value", value);
+        }
+
+        return operation;
+    }
+
+    private static String escape(String fieldName) {
+        return fieldName.replace("~", "~0").replace("/", "~1");
+    }
+}
@@ -34,5 +34,11 @@ public final class ConfigurationConstants {
 
     public static final int MIN_WORKER_POLL_INTERVAL = 1;
     public static final int MAX_WORKER_POLL_INTERVAL = 30;
+    public static final int DEFAULT_SCHEDULER_MIN_PASS_INTERVAL = 500;
+    public static final int DEFAULT_MATERIAL_POLLER_THREADS = 8;
+    public static final int DEFAULT_MATERIAL_POLL_TIMEOUT = 60;
+    public static final int DEFAULT_WS_COALESCE_WINDOW = 100;
+    public static final int DEFAULT_WS_MAX_IN_FLIGHT_FRAMES = 16;
+    public static final int DEFAULT_WS_MAX_QUEUED_FRAMES = 1000;
     public static final String WORKER_POLL_INTERVAL_ERROR = "Property '%s' must be set between %d and %d seconds." + System.getProperty("line.separator");
 }
@@ -19,26 +19,34 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonParseException;
 import io.hawkcd.core.RequestProcessor;
+import io.hawkcd.core.config.Config;
 import io.hawkcd.core.session.ISessionManager;
+import io.hawkcd.core.session.PipelineUpdateChannels;
 import io.hawkcd.core.session.SessionFactory;
+import io.hawkcd.core.session.SessionOutbox;
 import io.hawkcd.core.subscriber.Envelope;
 import io.hawkcd.core.subscriber.EnvelopeAdapter;
 import io.hawkcd.model.MaterialDefinition;
 import io.hawkcd.model.SessionDetails;
 import io.hawkcd.model.TaskDefinition;
 import io.hawkcd.model.User;
+import io.hawkcd.model.configuration.Configuration;
 import io.hawkcd.model.dto.UserDto;
 import io.hawkcd.model.dto.WsContractDto;
 import io.hawkcd.model.enums.NotificationType;
 import io.hawkcd.model.payload.TokenInfo;
+import io.hawkcd.utilities.constants.ConfigurationConstants;
 import io.hawkcd.utilities.deserializers.MaterialDefinitionAdapter;
 import io.hawkcd.utilities.deserializers.TaskDefinitionAdapter;
 import io.hawkcd.utilities.deserializers.TokenAdapter;
 import org.apache.log4j.Logger;
-import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.CloseStatus;
 import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.StatusCode;
 import org.eclipse.jetty.websocket.api.WebSocketAdapter;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -50,6 +58,7 @@ public class WSSocket extends WebSocketAdapter {
     private User loggedUser;
     private RequestProcessor requestProcessor;
     private SessionDetails sessionDetails;
+    private SessionOutbox outbox;
 
     public WSSocket() {
         this.id = UUID.randomUUID().toString();
@@ -60,6 +69,17 @@ public class WSSocket extends WebSocketAdapter {
                 .create();
         this.requestProcessor = new RequestProcessor();
         this.sessionDetails = new SessionDetails(this.getId());
+
+        Configuration configuration = Config.getConfiguration();
+        Integer coalesceWindow = configuration.getWsCoalesceWindow();
+        Integer maxInFlightFrames = configuration.getWsMaxInFlightFrames();
+        Integer maxQueuedFrames = configuration.getWsMaxQueuedFrames();
+        this.outbox = new SessionOutbox(
+                this::getRemote,
+                coalesceWindow == null ? ConfigurationConstants.DEFAULT_WS_COALESCE_WINDOW : coalesceWindow,
+                maxInFlightFrames == null ? ConfigurationConstants.DEFAULT_WS_MAX_IN_FLIGHT_FRAMES : maxInFlightFrames,
+                maxQueuedFrames == null ? ConfigurationConstants.DEFAULT_WS_MAX_QUEUED_FRAMES : maxQueuedFrames,
+                this::closeOverflowedSession);
     }
 
     public String getId() {
@@ -74,6 +94,10 @@ public class WSSocket extends WebSocketAdapter {
         this.loggedUser = loggedUser;
     }
 
+    public SessionOutbox getOutbox() {
+        return this.outbox;
+    }
+
     public SessionDetails getSessionDetails() {
         return this.sessionDetails;
     }
@@ -137,9 +161,8 @@ public class WSSocket extends WebSocketAdapter {
             return;
         }
 
-        RemoteEndpoint remoteEndpoint = this.getSession().getRemote();
         String jsonResult = this.jsonConverter.toJson(contract);
-        remoteEndpoint.sendStringByFuture(jsonResult);
+        this.outbox.send(jsonResult);
     }
 
     private void execute(String message) {
@@ -150,6 +173,21 @@ public class WSSocket extends WebSocketAdapter {
                     throw new RuntimeException("Resolution failed for object" + contract);
                 }
 
+                if (this.isPipelineResync(contract)) {
+                    SessionFactory.getSessionManager().resyncPipeline(this, (String) contract.getArgs().get(0).getObject());
+                    return;
+                }
+
+                if (this.isTopicSubscription(contract)) {
+                    List<String> topics = new ArrayList<>();
+                    for (Envelope arg : contract.getArgs()) {
+                        topics.add((String) arg.getObject());
+                    }
+
+                    SessionFactory.getSessionManager().subscribe(this, topics);
+                    return;
+                }
+
                 try {
                     this.requestProcessor.processRequest(contract, this.getLoggedUser());
 
@@ -172,6 +210,29 @@ public class WSSocket extends WebSocketAdapter {
         }
     }
 
+    // updates were lost, so the client is told to reload everything instead of showing stale data
+    private void closeOverflowedSession() {
+        Session session = this.getSession();
+        if (session != null && session.isOpen()) {
+            session.close(new CloseStatus(StatusCode.TRY_AGAIN_LATER, "Too many queued updates"));
+        }
+    }
+
+    private boolean isPipelineResync(WsContractDto contract) {
+        return "PipelineService".equals(contract.getClassName())
+                && PipelineUpdateChannels.RESYNC_METHOD.equals(contract.getMethodName())
+                && contract.getArgs() != null
+                && contract.getArgs().size() == 1
+                && contract.getArgs().get(0).getObject() instanceof String;
+    }
+
+    private boolean isTopicSubscription(WsContractDto contract) {
+        return "SubscriptionService".equals(contract.getClassName())
+                && "subscribe".equals(contract.getMethodName())
+                && contract.getArgs() != null
+                && contract.getArgs().stream().allMatch(a -> a.getObject() instanceof String);
+    }
+
     private void initialize(Session session) {
         String tokenQuery = session.getUpgradeRequest().getQueryString();
         if (!tokenQuery.equals("api_key=null")) {
@@ -0,0 +1,268 @@
+package io.hawkcd.core.session;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.hawkcd.core.config.Config;
+import io.hawkcd.model.Agent;
+import io.hawkcd.model.Pipeline;
+import io.hawkcd.model.User;
+import io.hawkcd.model.dto.WsContractDto;
+import io.hawkcd.model.enums.NotificationType;
+import io.hawkcd.model.enums.PermissionType;
+import io.hawkcd.model.enums.PipelineStatus;
+import io.hawkcd.ws.WSSocket;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class SessionManagerTests {
+    private ISessionManager sessionManager;
+    private List<WSSocket> sessions;
+    private List<RemoteEndpoint> remoteEndpoints;
+
+    @BeforeClass
+    public static void setUpClass() {
+        Config.configure();
+    }
+
+    @Before
+    public void setUp() {
+        this.sessionManager = new SessionManager();
+        this.sessions = new ArrayList<>();
+        this.remoteEndpoints = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            this.addSession("user" + i);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        for (WSSocket session : this.sessions) {
+            WsSessionPool.getInstance().removeSession(session);
+        }
+    }
+
+    @Test
+    public void sendToAllSessions_threeSessions_sameJsonSentToAll() {
+        //Arrange
+        WsContractDto contract = this.createContract();
+
+        //Act
+        this.sessionManager.sendToAllSessions(contract);
+
+        //Assert
+        List<String> sentJson = this.getSentJson();
+        Assert.assertEquals(3, sentJson.size());
+        Assert.assertSame(sentJson.get(0), sentJson.get(1));
+        Assert.assertSame(sentJson.get(0), sentJson.get(2));
+    }
+
+    @Test
+    public void sendToUsers_twoPermissionTypes_serializedOncePerPermissionType() {
+        //Arrange
+        WsContractDto contract = this.createContract();
+        Map<String, PermissionType> permissionTypeByUser = new LinkedHashMap<>();
+        permissionTypeByUser.put("user0", PermissionType.ADMIN);
+        permissionTypeByUser.put("user1", PermissionType.VIEWER);
+        permissionTypeByUser.put("user2", PermissionType.ADMIN);
+        permissionTypeByUser.put("disconnectedUser", PermissionType.ADMIN);
+
+        //Act
+        this.sessionManager.sendToUsers(contract, permissionTypeByUser);
+
+        //Assert
+        List<String> sentJson = this.getSentJson();
+        Assert.assertSame(sentJson.get(0), sentJson.get(2));
+        Assert.assertNotEquals(sentJson.get(0), sentJson.get(1));
+        Assert.assertTrue(sentJson.get(0).contains(PermissionType.ADMIN.name()));
+        Assert.assertTrue(sentJson.get(1).contains(PermissionType.VIEWER.name()));
+    }
+
+    @Test
+    public void sendToSubscribers_agentUpdate_sentToAgentsAndAllSubscribers() {
+        //Arrange
+        TopicSubscriptions topicSubscriptions = WsSessionPool.getInstance().getTopicSubscriptions();
+        topicSubscriptions.subscribe(this.sessions.get(0), Collections.singletonList(Topics.AGENTS));
+        topicSubscriptions.subscribe(this.sessions.get(1), Collections.singletonList(Topics.PIPELINE_GROUP_PREFIX + "group"));
+        topicSubscriptions.subscribe(this.sessions.get(2), Collections.singletonList(Topics.ALL));
+
+        //Act
+        this.sessionManager.sendToSubscribers(this.createContract());
+
+        //Assert
+        Mockito.verify(this.remoteEndpoints.get(0)).sendString(Mockito.anyString(), Mockito.any(WriteCallback.class));
+        Mockito.verify(this.remoteEndpoints.get(1), Mockito.never()).sendString(Mockito.anyString(), Mockito.any(WriteCallback.class));
+        Mockito.verify(this.remoteEndpoints.get(2)).sendString(Mockito.anyString(), Mockito.any(WriteCallback.class));
+    }
+
+    @Test
+    public void sendToUsers_receivedForTopic_onlySubscribersOfTopic() {
+        //Arrange
+        TopicSubscriptions topicSubscriptions = WsSessionPool.getInstance().getTopicSubscriptions();
+        topicSubscriptions.subscribe(this.sessions.get(0), Collections.singletonList(Topics.AGENTS));
+        topicSubscriptions.subscribe(this.sessions.get(1), Collections.singletonList(Topics.PIPELINE_GROUP_PREFIX + "group"));
+        Map<String, PermissionType> permissionTypeByUser = new LinkedHashMap<>();
+        permissionTypeByUser.put("user0", PermissionType.ADMIN);
+        permissionTypeByUser.put("user1", PermissionType.ADMIN);
+
+        //Act
+        this.sessionManager.sendToUsers(this.createContract(), permissionTypeByUser, Topics.AGENTS);
+
+        //Assert
+        Mockito.verify(this.remoteEndpoints.get(0)).sendString(Mockito.anyString(), Mockito.any(WriteCallback.class));
+        Mockito.verify(this.remoteEndpoints.get(1), Mockito.never()).sendString(Mockito.anyString(), Mockito.any(WriteCallback.class));
+    }
+
+    @Test
+    public void sendToAllSessions_pipelineUpdatedTwice_patchAgainstPreviousVersion() {
+        //Arrange
+        Pipeline pipeline = new Pipeline();
+        this.sessionManager.sendToAllSessions(this.createPipelineContract(pipeline));
+        pipeline.setStatus(PipelineStatus.PASSED);
+
+        //Act
+        this.sessionManager.sendToAllSessions(this.createPipelineContract(pipeline));
+
+        //Assert
+        List<JsonObject> sentPatches = this.getSentPatches(this.remoteEndpoints.get(0), 2);
+        JsonObject firstPatch = sentPatches.get(0);
+        JsonObject secondPatch = sentPatches.get(1);
+        Assert.assertEquals(0, firstPatch.get("baseVersion").getAsLong());
+        Assert.assertEquals("", firstPatch.getAsJsonArray("operations").get(0).getAsJsonObject().get("path").getAsString());
+        Assert.assertEquals(firstPatch.get("version").getAsLong(), secondPatch.get("baseVersion").getAsLong());
+        Assert.assertEquals(1, secondPatch.getAsJsonArray("operations").size());
+        Assert.assertEquals("/status", secondPatch.getAsJsonArray("operations").get(0).getAsJsonObject().get("path").getAsString());
+    }
+
+    @Test
+    public void sendToAllSessions_pipelineNotChanged_notSentAgain() {
+        //Arrange
+        Pipeline pipeline = new Pipeline();
+        this.sessionManager.sendToAllSessions(this.createPipelineContract(pipeline));
+
+        //Act
+        this.sessionManager.sendToAllSessions(this.createPipelineContract(pipeline));
+
+        //Assert
+        Assert.assertEquals(3, this.getSentJson().size());
+    }
+
+    @Test
+    public void sendToUsers_pipelineReceivedForBothTopics_sentOnceToSubscribersOfEachTopic() {
+        //Arrange
+        Pipeline pipeline = new Pipeline();
+        pipeline.setPipelineDefinitionId("definition");
+        pipeline.setPipelineGroupId("group");
+        TopicSubscriptions topicSubscriptions = WsSessionPool.getInstance().getTopicSubscriptions();
+        topicSubscriptions.subscribe(this.sessions.get(0), Collections.singletonList(Topics.ALL));
+        topicSubscriptions.subscribe(this.sessions.get(1), Collections.singletonList(Topics.PIPELINE_GROUP_PREFIX + "group"));
+        topicSubscriptions.subscribe(this.sessions.get(2), Arrays.asList(Topics.PIPELINE_DEFINITION_PREFIX + "definition", Topics.PIPELINE_GROUP_PREFIX + "group"));
+        Map<String, PermissionType> permissionTypeByUser = new LinkedHashMap<>();
+        permissionTypeByUser.put("user0", PermissionType.ADMIN);
+        permissionTypeByUser.put("user1", PermissionType.ADMIN);
+        permissionTypeByUser.put("user2", PermissionType.ADMIN);
+
+        //Act
+        this.sessionManager.sendToUsers(this.createPipelineContract(pipeline), permissionTypeByUser, Topics.PIPELINE_DEFINITION_PREFIX + "definition");
+        this.sessionManager.sendToUsers(this.createPipelineContract(pipeline), permissionTypeByUser, Topics.PIPELINE_GROUP_PREFIX + "group");
+
+        //Assert
+        List<JsonObject> firstPatches = this.getSentPatches(this.remoteEndpoints.get(0), 1);
+        List<JsonObject> groupPatches = this.getSentPatches(this.remoteEndpoints.get(1), 1);
+        this.getSentPatches(this.remoteEndpoints.get(2), 1);
+        Assert.assertEquals(firstPatches.get(0).get("version").getAsLong(), groupPatches.get(0).get("version").getAsLong());
+    }
+
+    @Test
+    public void resyncPipeline_pipelineSentToSession_lastVersionSentAsDocument() {
+        //Arrange
+        Pipeline pipeline = new Pipeline();
+        this.sessionManager.sendToAllSessions(this.createPipelineContract(pipeline));
+        pipeline.setStatus(PipelineStatus.PASSED);
+        this.sessionManager.sendToAllSessions(this.createPipelineContract(pipeline));
+
+        //Act
+        this.sessionManager.resyncPipeline(this.sessions.get(0), pipeline.getId());
+
+        //Assert
+        List<JsonObject> sentPatches = this.getSentPatches(this.remoteEndpoints.get(0), 3);
+        JsonObject resyncPatch = sentPatches.get(2);
+        JsonObject document = resyncPatch.getAsJsonArray("operations").get(0).getAsJsonObject().getAsJsonObject("value");
+        Assert.assertEquals(0, resyncPatch.get("baseVersion").getAsLong());
+        Assert.assertEquals(sentPatches.get(1).get("version").getAsLong(), resyncPatch.get("version").getAsLong());
+        Assert.assertEquals(PipelineStatus.PASSED.name(), document.get("status").getAsString());
+    }
+
+    private void addSession(String userId) {
+        User user = new User();
+        user.setId(userId);
+        RemoteEndpoint remoteEndpoint = Mockito.mock(RemoteEndpoint.class);
+        WSSocket session = Mockito.mock(WSSocket.class);
+        String sessionId = UUID.randomUUID().toString();
+        Mockito.when(session.getId()).thenReturn(sessionId);
+        Mockito.when(session.getLoggedUser()).thenReturn(user);
+        Mockito.when(session.isConnected()).thenReturn(true);
+        Mockito.when(session.getOutbox()).thenReturn(new SessionOutbox(() -> remoteEndpoint, 0, 16, 1000, () -> { }));
+
+        WsSessionPool.getInstance().addSession(session);
+        this.sessions.add(session);
+        this.remoteEndpoints.add(remoteEndpoint);
+    }
+
+    private List<String> getSentJson() {
+        List<String> sentJson = new ArrayList<>();
+        for (RemoteEndpoint remoteEndpoint : this.remoteEndpoints) {
+            ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+            Mockito.verify(remoteEndpoint, Mockito.times(1)).sendString(json.capture(), Mockito.any(WriteCallback.class));
+            sentJson.add(json.getValue());
+        }
+
+        return sentJson;
+    }
+
+    private List<JsonObject> getSentPatches(RemoteEndpoint remoteEndpoint, int count) {
+        ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(remoteEndpoint, Mockito.times(count)).sendString(json.capture(), Mockito.any(WriteCallback.class));
+        List<JsonObject> sentPatches = new ArrayList<>();
+        for (String sentJson : json.getAllValues()) {
+            JsonObject contract = new JsonParser().parse(sentJson).getAsJsonObject();
+            Assert.assertEquals("patch", contract.get("methodName").getAsString());
+            sentPatches.add(contract.getAsJsonObject("result"));
+        }
+
+        return sentPatches;
+    }
+
+    private WsContractDto createPipelineContract(Pipeline pipeline) {
+        WsContractDto contract = new WsContractDto();
+        contract.setClassName("PipelineService");
+        contract.setMethodName("update");
+        contract.setNotificationType(NotificationType.SUCCESS);
+        contract.setResult(pipeline);
+
+        return contract;
+    }
+
+    private WsContractDto createContract() {
+        WsContractDto contract = new WsContractDto();
+        contract.setClassName("AgentService");
+        contract.setMethodName("update");
+        contract.setResult(new Agent());
+
+        return contract;
+    }
+}
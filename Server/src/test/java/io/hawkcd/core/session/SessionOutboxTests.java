@@ -0,0 +1,153 @@
+package io.hawkcd.core.session;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonPrimitive;
+import io.hawkcd.model.payload.EntityPatch;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class SessionOutboxTests {
+    private RemoteEndpoint remoteEndpoint;
+    private int overflowCount;
+
+    @Before
+    public void setUp() {
+        this.remoteEndpoint = Mockito.mock(RemoteEndpoint.class);
+        this.overflowCount = 0;
+    }
+
+    @Test
+    public void send_sameKeyWhileFrameInFlight_onlyLatestSentAfterWrite() {
+        //Arrange
+        SessionOutbox outbox = new SessionOutbox(() -> this.remoteEndpoint, 0, 1, 100, this::onOverflow);
+        outbox.send("first");
+        outbox.send("pipeline", "update 1");
+        outbox.send("pipeline", "update 2");
+
+        //Act
+        this.completeWrites(1);
+
+        //Assert
+        Assert.assertEquals(Arrays.asList("first", "update 2"), this.getSentFrames(2));
+        Assert.assertEquals(0, outbox.getQueuedFrames());
+    }
+
+    @Test
+    public void send_withinCoalesceWindow_latestSentOnceAfterWindow() {
+        //Arrange
+        SessionOutbox outbox = new SessionOutbox(() -> this.remoteEndpoint, 200, 16, 100, this::onOverflow);
+
+        //Act
+        outbox.send("pipeline", "update 1");
+        outbox.send("agent", "agent update");
+        outbox.send("pipeline", "update 2");
+
+        //Assert
+        Mockito.verify(this.remoteEndpoint, Mockito.never()).sendString(Mockito.anyString(), Mockito.any(WriteCallback.class));
+        Assert.assertEquals(Arrays.asList("update 2", "agent update"), this.getSentFrames(2));
+    }
+
+    @Test
+    public void sendPatch_consecutivePatchesWhileInFlight_mergedPatchSent() {
+        //Arrange
+        SessionOutbox outbox = new SessionOutbox(() -> this.remoteEndpoint, 0, 1, 100, this::onOverflow);
+        outbox.send("first");
+        EntityPatch firstPatch = new EntityPatch("pipeline", 1, 2, this.createOperations("a"));
+        EntityPatch secondPatch = new EntityPatch("pipeline", 2, 3, this.createOperations("b"));
+        outbox.sendPatch(firstPatch, "patch 1-2", p -> "patch " + p.getBaseVersion() + "-" + p.getVersion() + " " + p.getOperations());
+        outbox.sendPatch(secondPatch, "patch 2-3", p -> "patch " + p.getBaseVersion() + "-" + p.getVersion() + " " + p.getOperations());
+
+        //Act
+        this.completeWrites(1);
+
+        //Assert
+        Assert.assertEquals(Arrays.asList("first", "patch 1-3 [\"a\",\"b\"]"), this.getSentFrames(2));
+    }
+
+    @Test
+    public void send_frameWithoutKeyWithinCoalesceWindow_sentWithQueuedFrames() {
+        //Arrange
+        SessionOutbox outbox = new SessionOutbox(() -> this.remoteEndpoint, 60000, 16, 100, this::onOverflow);
+        outbox.send("pipeline", "update");
+
+        //Act
+        outbox.send("response");
+
+        //Assert
+        Assert.assertEquals(Arrays.asList("update", "response"), this.getSentFrames(2));
+    }
+
+    @Test
+    public void send_moreFramesThanQueueLimit_oldestPatchDropped() {
+        //Arrange
+        SessionOutbox outbox = new SessionOutbox(() -> this.remoteEndpoint, 0, 1, 2, this::onOverflow);
+        outbox.send("in flight");
+        outbox.sendPatch(new EntityPatch("first", 1, 2, this.createOperations("a")), "first patch", p -> "merged");
+        outbox.sendPatch(new EntityPatch("second", 1, 2, this.createOperations("b")), "second patch", p -> "merged");
+
+        //Act
+        outbox.send("response");
+
+        //Assert
+        Assert.assertEquals(2, outbox.getQueuedFrames());
+        Assert.assertEquals(1, outbox.getDroppedFrames());
+        this.completeWrites(2);
+        Assert.assertEquals(Arrays.asList("in flight", "second patch", "response"), this.getSentFrames(3));
+        Assert.assertEquals(0, this.overflowCount);
+    }
+
+    @Test
+    public void send_moreFramesThanQueueLimitWithoutPatches_outboxClosed() {
+        //Arrange
+        SessionOutbox outbox = new SessionOutbox(() -> this.remoteEndpoint, 0, 1, 2, this::onOverflow);
+        outbox.send("in flight");
+        outbox.send("first");
+        outbox.send("second");
+
+        //Act
+        outbox.send("third");
+        outbox.send("fourth");
+
+        //Assert
+        Assert.assertTrue(outbox.isClosed());
+        Assert.assertEquals(0, outbox.getQueuedFrames());
+        Assert.assertEquals(1, this.overflowCount);
+        this.completeWrites(1);
+        Assert.assertEquals(Collections.singletonList("in flight"), this.getSentFrames(1));
+    }
+
+    private void onOverflow() {
+        this.overflowCount++;
+    }
+
+    private void completeWrites(int count) {
+        for (int i = 1; i <= count; i++) {
+            ArgumentCaptor<WriteCallback> callback = ArgumentCaptor.forClass(WriteCallback.class);
+            Mockito.verify(this.remoteEndpoint, Mockito.timeout(1000).times(i)).sendString(Mockito.anyString(), callback.capture());
+            callback.getValue().writeSuccess();
+        }
+    }
+
+    private List<String> getSentFrames(int count) {
+        ArgumentCaptor<String> frames = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(this.remoteEndpoint, Mockito.timeout(1000).times(count)).sendString(frames.capture(), Mockito.any(WriteCallback.class));
+
+        return frames.getAllValues();
+    }
+
+    private JsonArray createOperations(String operation) {
+        JsonArray operations = new JsonArray();
+        operations.add(new JsonPrimitive(operation));
+
+        return operations;
+    }
+}
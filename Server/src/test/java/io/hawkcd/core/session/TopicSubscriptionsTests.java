@@ -0,0 +1,91 @@
+package io.hawkcd.core.session;
+
+import io.hawkcd.ws.WSSocket;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class TopicSubscriptionsTests {
+    private static final String DEFINITION_TOPIC = Topics.PIPELINE_DEFINITION_PREFIX + "definition";
+    private static final String GROUP_TOPIC = Topics.PIPELINE_GROUP_PREFIX + "group";
+
+    private TopicSubscriptions topicSubscriptions;
+    private WSSocket allSession;
+    private WSSocket definitionSession;
+    private WSSocket groupSession;
+    private WSSocket definitionAndGroupSession;
+    private WSSocket agentsSession;
+
+    @Before
+    public void setUp() {
+        this.topicSubscriptions = new TopicSubscriptions();
+        this.allSession = this.subscribe(Topics.ALL);
+        this.definitionSession = this.subscribe(DEFINITION_TOPIC);
+        this.groupSession = this.subscribe(GROUP_TOPIC);
+        this.definitionAndGroupSession = this.subscribe(GROUP_TOPIC, DEFINITION_TOPIC);
+        this.agentsSession = this.subscribe(Topics.AGENTS);
+    }
+
+    @Test
+    public void getSubscribers_pipelineTopics_subscribersOfAnyTopicAndAll() {
+        //Act
+        Set<WSSocket> actualResult = this.topicSubscriptions.getSubscribers(Arrays.asList(DEFINITION_TOPIC, GROUP_TOPIC));
+
+        //Assert
+        Assert.assertEquals(new HashSet<>(Arrays.asList(this.allSession, this.definitionSession, this.groupSession, this.definitionAndGroupSession)), actualResult);
+    }
+
+    @Test
+    public void getSubscribers_receivedForEachTopic_eachSessionDeliveredOnce() {
+        //Arrange
+        List<String> topics = Arrays.asList(DEFINITION_TOPIC, GROUP_TOPIC);
+
+        //Act
+        Set<WSSocket> definitionSubscribers = this.topicSubscriptions.getSubscribers(topics, DEFINITION_TOPIC);
+        Set<WSSocket> groupSubscribers = this.topicSubscriptions.getSubscribers(topics, GROUP_TOPIC);
+
+        //Assert
+        Assert.assertEquals(new HashSet<>(Arrays.asList(this.allSession, this.definitionSession, this.definitionAndGroupSession)), definitionSubscribers);
+        Assert.assertEquals(Collections.singleton(this.groupSession), groupSubscribers);
+    }
+
+    @Test
+    public void subscribe_topicsChanged_listenerNotifiedWithCurrentTopics() {
+        //Arrange
+        List<Set<String>> notifiedTopics = new ArrayList<>();
+        this.topicSubscriptions.addListener(notifiedTopics::add);
+
+        //Act
+        this.topicSubscriptions.subscribe(this.agentsSession, Collections.singletonList(GROUP_TOPIC));
+        this.topicSubscriptions.subscribe(this.definitionSession, Collections.singletonList(DEFINITION_TOPIC));
+
+        //Assert
+        Assert.assertEquals(2, notifiedTopics.size());
+        Assert.assertEquals(new HashSet<>(Arrays.asList(Topics.ALL, DEFINITION_TOPIC, GROUP_TOPIC)), notifiedTopics.get(1));
+    }
+
+    @Test
+    public void unsubscribe_session_notDeliveredAnymore() {
+        //Act
+        this.topicSubscriptions.unsubscribe(this.agentsSession);
+
+        //Assert
+        Assert.assertEquals(Collections.singleton(this.allSession), this.topicSubscriptions.getSubscribers(Collections.singletonList(Topics.AGENTS)));
+        Assert.assertFalse(this.topicSubscriptions.getTopics().contains(Topics.AGENTS));
+    }
+
+    private WSSocket subscribe(String... topics) {
+        WSSocket session = Mockito.mock(WSSocket.class);
+        this.topicSubscriptions.subscribe(session, Arrays.asList(topics));
+
+        return session;
+    }
+}
@@ -0,0 +1,43 @@
+package io.hawkcd.core.session;
+
+import io.hawkcd.model.Agent;
+import io.hawkcd.model.Pipeline;
+import io.hawkcd.model.User;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class TopicsTests {
+    @Test
+    public void of_pipeline_definitionAndGroupTopics() {
+        //Arrange
+        Pipeline pipeline = new Pipeline();
+        pipeline.setPipelineDefinitionId("definition");
+        pipeline.setPipelineGroupId("group");
+
+        //Act
+        List<String> actualResult = Topics.of(pipeline);
+
+        //Assert
+        Assert.assertEquals(Arrays.asList("pipelineDefinition:definition", "pipelineGroup:group"), actualResult);
+    }
+
+    @Test
+    public void of_otherEntities_agentsOrNoTopics() {
+        //Assert
+        Assert.assertEquals(Collections.singletonList(Topics.AGENTS), Topics.of(new Agent()));
+        Assert.assertEquals(Collections.emptyList(), Topics.of(new User()));
+    }
+
+    @Test
+    public void isValid_topics_onlyKnownTopicsWithIds() {
+        //Assert
+        Assert.assertTrue(Topics.isValid("pipelineGroup:group"));
+        Assert.assertTrue(Topics.isValid(Topics.ALL));
+        Assert.assertFalse(Topics.isValid("pipelineGroup:"));
+        Assert.assertFalse(Topics.isValid("users"));
+    }
+}
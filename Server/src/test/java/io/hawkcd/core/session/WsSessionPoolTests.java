@@ -0,0 +1,122 @@
+package io.hawkcd.core.session;
+
+import io.hawkcd.core.config.Config;
+import io.hawkcd.model.User;
+import io.hawkcd.ws.WSSocket;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class WsSessionPoolTests {
+    private WsSessionPool sessionPool;
+    private List<WSSocket> sessions;
+
+    @BeforeClass
+    public static void setUpClass() {
+        Config.configure();
+    }
+
+    @Before
+    public void setUp() {
+        this.sessionPool = WsSessionPool.getInstance();
+        this.sessions = new ArrayList<>();
+    }
+
+    @After
+    public void tearDown() {
+        for (WSSocket session : this.sessions) {
+            this.sessionPool.removeSession(session);
+        }
+    }
+
+    @Test
+    public void addSession_session_foundByIdUserIdAndEmail() {
+        //Arrange
+        WSSocket session = this.createSession(this.createUser("user@hawkcd.io"));
+
+        //Act
+        this.sessionPool.addSession(session);
+
+        //Assert
+        Assert.assertSame(session, this.sessionPool.getSessionByID(session.getId()));
+        Assert.assertSame(session, this.sessionPool.getSessionByUserId(session.getLoggedUser().getId()));
+        Assert.assertSame(session, this.sessionPool.getSessionByUserEmail("user@hawkcd.io"));
+        Assert.assertTrue(this.sessionPool.contains(session));
+    }
+
+    @Test
+    public void removeSession_session_notFoundAnymore() {
+        //Arrange
+        WSSocket session = this.createSession(this.createUser("user@hawkcd.io"));
+        this.sessionPool.addSession(session);
+
+        //Act
+        this.sessionPool.removeSession(session);
+
+        //Assert
+        Assert.assertNull(this.sessionPool.getSessionByID(session.getId()));
+        Assert.assertNull(this.sessionPool.getSessionByUserId(session.getLoggedUser().getId()));
+        Assert.assertNull(this.sessionPool.getSessionByUserEmail("user@hawkcd.io"));
+        Assert.assertFalse(this.sessionPool.getSessions().contains(session));
+    }
+
+    @Test
+    public void removeSession_replacedByNewSessionOfUser_newSessionKept() {
+        //Arrange
+        User user = this.createUser("user@hawkcd.io");
+        WSSocket previousSession = this.createSession(user);
+        WSSocket newSession = this.createSession(user);
+        this.sessionPool.addSession(previousSession);
+        this.sessionPool.addSession(newSession);
+
+        //Act
+        this.sessionPool.removeSession(previousSession);
+
+        //Assert
+        Assert.assertSame(newSession, this.sessionPool.getSessionByUserId(user.getId()));
+        Assert.assertSame(newSession, this.sessionPool.getSessionByUserEmail("user@hawkcd.io"));
+    }
+
+    @Test
+    public void updateLoggedUser_changedEmail_foundByNewEmailOnly() {
+        //Arrange
+        User user = this.createUser("user@hawkcd.io");
+        WSSocket session = this.createSession(user);
+        this.sessionPool.addSession(session);
+        User updatedUser = this.createUser("updated@hawkcd.io");
+        updatedUser.setId(user.getId());
+        Mockito.doAnswer(invocation -> Mockito.when(session.getLoggedUser()).thenReturn(updatedUser)).when(session).setLoggedUser(updatedUser);
+
+        //Act
+        this.sessionPool.updateLoggedUser(session, updatedUser);
+
+        //Assert
+        Assert.assertNull(this.sessionPool.getSessionByUserEmail("user@hawkcd.io"));
+        Assert.assertSame(session, this.sessionPool.getSessionByUserEmail("updated@hawkcd.io"));
+        Assert.assertSame(session, this.sessionPool.getSessionByUserId(user.getId()));
+    }
+
+    private User createUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+
+        return user;
+    }
+
+    private WSSocket createSession(User user) {
+        String sessionId = UUID.randomUUID().toString();
+        WSSocket session = Mockito.mock(WSSocket.class);
+        Mockito.when(session.getId()).thenReturn(sessionId);
+        Mockito.when(session.getLoggedUser()).thenReturn(user);
+        this.sessions.add(session);
+
+        return session;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.db.cache;
+
+import com.google.gson.JsonObject;
+import io.hawkcd.core.config.Config;
+import io.hawkcd.db.IDbRepository;
+import io.hawkcd.db.redis.EmbeddedRedisPool;
+import io.hawkcd.db.redis.RedisRepository;
+import io.hawkcd.model.PipelineDefinition;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class CachingDbRepositoryTest {
+    private IDbRepository<PipelineDefinition> databaseRepository;
+    private IDbRepository<PipelineDefinition> cachingRepository;
+
+    @BeforeClass
+    public static void setUpClass() {
+        Config.configure();
+    }
+
+    @Before
+    public void setUp() {
+        this.databaseRepository = new RedisRepository(PipelineDefinition.class, EmbeddedRedisPool.getFlushedPool());
+        this.cachingRepository = new CachingDbRepository<>(PipelineDefinition.class, this.databaseRepository, 100);
+        EntityCache.getInstance(PipelineDefinition.class, 100).clear();
+    }
+
+    @Test
+    public void getById_addedEntry_servedFromCache() {
+        //Arrange
+        PipelineDefinition pipelineDefinition = new PipelineDefinition();
+        this.cachingRepository.add(pipelineDefinition);
+        this.databaseRepository.delete(pipelineDefinition.getId());
+
+        //Act
+        PipelineDefinition actualResult = this.cachingRepository.getById(pipelineDefinition.getId());
+
+        //Assert
+        Assert.assertEquals(pipelineDefinition.getId(), actualResult.getId());
+    }
+
+    @Test
+    public void getById_returnedEntryModified_cachedEntryUnchanged() {
+        //Arrange
+        PipelineDefinition pipelineDefinition = new PipelineDefinition();
+        pipelineDefinition.setName("pipeline");
+        this.cachingRepository.add(pipelineDefinition);
+        this.cachingRepository.getById(pipelineDefinition.getId()).setName("changed");
+
+        //Act
+        PipelineDefinition actualResult = this.cachingRepository.getById(pipelineDefinition.getId());
+
+        //Assert
+        Assert.assertEquals("pipeline", actualResult.getName());
+    }
+
+    @Test
+    public void update_existingEntry_cachedEntryUpdated() {
+        //Arrange
+        PipelineDefinition pipelineDefinition = new PipelineDefinition();
+        this.cachingRepository.add(pipelineDefinition);
+        pipelineDefinition.setName("updated");
+        this.cachingRepository.update(pipelineDefinition);
+        this.databaseRepository.delete(pipelineDefinition.getId());
+
+        //Act
+        PipelineDefinition actualResult = this.cachingRepository.getById(pipelineDefinition.getId());
+
+        //Assert
+        Assert.assertEquals("updated", actualResult.getName());
+    }
+
+    @Test
+    public void getById_invalidatedEntry_readFromDatabase() {
+        //Arrange
+        PipelineDefinition pipelineDefinition = new PipelineDefinition();
+        this.cachingRepository.add(pipelineDefinition);
+        pipelineDefinition.setName("changed on another node");
+        this.databaseRepository.update(pipelineDefinition);
+        EntityCache.invalidate(PipelineDefinition.class.getSimpleName(), pipelineDefinition.getId());
+
+        //Act
+        PipelineDefinition actualResult = this.cachingRepository.getById(pipelineDefinition.getId());
+
+        //Assert
+        Assert.assertEquals("changed on another node", actualResult.getName());
+    }
+
+    @Test
+    public void getByIds_cachedAndUncachedEntries_allEntriesInOrder() {
+        //Arrange
+        PipelineDefinition cachedPipelineDefinition = new PipelineDefinition();
+        PipelineDefinition uncachedPipelineDefinition = new PipelineDefinition();
+        this.cachingRepository.add(cachedPipelineDefinition);
+        this.databaseRepository.add(uncachedPipelineDefinition);
+
+        //Act
+        List<PipelineDefinition> actualResult = this.cachingRepository.getByIds(Arrays.asList(uncachedPipelineDefinition.getId(), "missing", cachedPipelineDefinition.getId()));
+
+        //Assert
+        Assert.assertEquals(2, actualResult.size());
+        Assert.assertEquals(uncachedPipelineDefinition.getId(), actualResult.get(0).getId());
+        Assert.assertEquals(cachedPipelineDefinition.getId(), actualResult.get(1).getId());
+    }
+
+    @Test
+    public void put_overMaxSize_leastRecentlyUsedEvicted() {
+        //Arrange
+        EntityCache cache = new EntityCache(2);
+        cache.put("first", new JsonObject());
+        cache.put("second", new JsonObject());
+        cache.get("first");
+
+        //Act
+        cache.put("third", new JsonObject());
+
+        //Assert
+        Assert.assertNotNull(cache.get("first"));
+        Assert.assertNull(cache.get("second"));
+        Assert.assertNotNull(cache.get("third"));
+    }
+
+    @Test
+    public void putIfUnchanged_writeInBetween_entryNotCached() {
+        //Arrange
+        EntityCache cache = new EntityCache(2);
+        long generation = cache.getGeneration();
+        cache.remove("entry");
+
+        //Act
+        cache.putIfUnchanged("entry", new JsonObject(), generation);
+
+        //Assert
+        Assert.assertNull(cache.get("entry"));
+    }
+}
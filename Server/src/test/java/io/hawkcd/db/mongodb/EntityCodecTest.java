@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.db.mongodb;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.mongodb.MongoClient;
+import io.hawkcd.model.ExecTask;
+import io.hawkcd.model.JobDefinition;
+import io.hawkcd.model.MaterialDefinition;
+import io.hawkcd.model.Pipeline;
+import io.hawkcd.model.PipelineDefinition;
+import io.hawkcd.model.StageDefinition;
+import io.hawkcd.model.TaskDefinition;
+import io.hawkcd.utilities.deserializers.MaterialDefinitionAdapter;
+import io.hawkcd.utilities.deserializers.TaskDefinitionAdapter;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class EntityCodecTest {
+    private Gson jsonConverter;
+
+    @Before
+    public void setUp() {
+        this.jsonConverter = new GsonBuilder()
+                .registerTypeAdapter(TaskDefinition.class, new TaskDefinitionAdapter())
+                .registerTypeAdapter(MaterialDefinition.class, new MaterialDefinitionAdapter())
+                .create();
+    }
+
+    @Test
+    public void encode_pipeline_sameDocumentAsParsedJson() {
+        //Arrange
+        Pipeline pipeline = new Pipeline();
+        pipeline.setPipelineDefinitionName("pipeline");
+        pipeline.setExecutionId(3);
+        EntityCodec<Pipeline> codec = new EntityCodec<>(Pipeline.class, this.jsonConverter);
+        BsonDocument expectedResult = Document.parse(this.jsonConverter.toJson(pipeline)).toBsonDocument(Document.class, MongoClient.getDefaultCodecRegistry());
+
+        //Act
+        BsonDocument actualResult = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(actualResult), pipeline, EncoderContext.builder().build());
+
+        //Assert
+        Assert.assertEquals(expectedResult, actualResult);
+    }
+
+    @Test
+    public void decode_pipelineDefinitionWithExecTask_polymorphicTaskDefinition() {
+        //Arrange
+        ExecTask execTask = new ExecTask();
+        execTask.setCommand("echo");
+        List<TaskDefinition> taskDefinitions = new ArrayList<>();
+        taskDefinitions.add(execTask);
+        JobDefinition jobDefinition = new JobDefinition();
+        jobDefinition.setTaskDefinitions(taskDefinitions);
+        List<JobDefinition> jobDefinitions = new ArrayList<>();
+        jobDefinitions.add(jobDefinition);
+        StageDefinition stageDefinition = new StageDefinition();
+        stageDefinition.setJobDefinitions(jobDefinitions);
+        List<StageDefinition> stageDefinitions = new ArrayList<>();
+        stageDefinitions.add(stageDefinition);
+        PipelineDefinition pipelineDefinition = new PipelineDefinition();
+        pipelineDefinition.setStageDefinitions(stageDefinitions);
+
+        EntityCodec<PipelineDefinition> codec = new EntityCodec<>(PipelineDefinition.class, this.jsonConverter);
+        BsonDocument document = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(document), pipelineDefinition, EncoderContext.builder().build());
+        document.put("_id", new BsonObjectId());
+
+        //Act
+        PipelineDefinition actualResult = codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+
+        //Assert
+        TaskDefinition actualTask = actualResult.getStageDefinitions().get(0).getJobDefinitions().get(0).getTaskDefinitions().get(0);
+        Assert.assertEquals(pipelineDefinition.getId(), actualResult.getId());
+        Assert.assertTrue(actualTask instanceof ExecTask);
+        Assert.assertEquals("echo", ((ExecTask) actualTask).getCommand());
+    }
+}
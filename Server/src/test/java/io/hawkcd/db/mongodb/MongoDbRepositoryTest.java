@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.db.mongodb;
+
+import com.github.fakemongo.Fongo;
+import com.mongodb.client.MongoCollection;
+import io.hawkcd.db.DbQuery;
+import io.hawkcd.db.IDbRepository;
+import io.hawkcd.model.Job;
+import io.hawkcd.model.Pipeline;
+import io.hawkcd.model.Stage;
+import io.hawkcd.model.enums.PipelineStatus;
+import org.bson.Document;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class MongoDbRepositoryTest {
+    private MongoCollection collection;
+    private IDbRepository<Pipeline> repository;
+    private LocalDateTime startTime;
+
+    @Before
+    public void setUp() {
+        Fongo fongo = new Fongo("hawkcd");
+        this.collection = fongo.getMongo().getDatabase("hawkcd").getCollection(Pipeline.class.getTypeName());
+        this.repository = new MongoDbRepository(Pipeline.class, this.collection);
+        this.startTime = LocalDateTime.of(2016, 10, 1, 12, 0);
+        for (int i = 1; i <= 5; i++) {
+            Pipeline pipeline = new Pipeline();
+            pipeline.setPipelineDefinitionId(i % 2 == 0 ? "other" : "definition");
+            pipeline.setExecutionId(i);
+            pipeline.setStartTime(this.startTime.plusMinutes(i));
+            this.repository.add(pipeline);
+        }
+    }
+
+    @Test
+    public void constructor_indexedEntity_indexesCreated() {
+        //Act
+        List<String> actualResult = new ArrayList<>();
+        for (Object index : this.collection.listIndexes()) {
+            actualResult.add(((Document) ((Document) index).get("key")).keySet().iterator().next());
+        }
+
+        //Assert
+        Assert.assertTrue(actualResult.contains("id"));
+        Assert.assertTrue(actualResult.contains("pipelineDefinitionId"));
+        Assert.assertTrue(actualResult.contains("status"));
+        Assert.assertTrue(actualResult.contains("startTime"));
+        Assert.assertTrue(actualResult.contains("stages.jobs.id"));
+    }
+
+    @Test
+    public void getAllByIndex_nestedJobId_owningEntry() {
+        //Arrange
+        Job job = new Job();
+        Stage stage = new Stage();
+        stage.setJobs(Arrays.asList(new Job(), job));
+        Pipeline pipeline = new Pipeline();
+        pipeline.setStages(Arrays.asList(new Stage(), stage));
+        this.repository.add(pipeline);
+
+        //Act
+        List<Pipeline> actualResult = this.repository.getAllByIndex("stages.jobs.id", job.getId());
+
+        //Assert
+        Assert.assertEquals(1, actualResult.size());
+        Assert.assertEquals(pipeline.getId(), actualResult.get(0).getId());
+    }
+
+    @Test
+    public void getAllByQuery_sortedAndLimited_latestMatchingEntries() {
+        //Arrange
+        DbQuery query = new DbQuery()
+                .where("pipelineDefinitionId", "definition")
+                .where("status", PipelineStatus.IN_PROGRESS)
+                .sortDescending("startTime")
+                .limit(2);
+
+        //Act
+        List<Pipeline> actualResult = this.repository.getAllByQuery(query);
+
+        //Assert
+        Assert.assertEquals(2, actualResult.size());
+        Assert.assertEquals(5, actualResult.get(0).getExecutionId());
+        Assert.assertEquals(3, actualResult.get(1).getExecutionId());
+    }
+
+    @Test
+    public void getAllByQuery_afterEntrySharingStartTime_tiedEntriesKept() {
+        //Arrange
+        for (int i = 6; i <= 7; i++) {
+            Pipeline pipeline = new Pipeline();
+            pipeline.setPipelineDefinitionId("definition");
+            pipeline.setExecutionId(i);
+            pipeline.setStartTime(this.startTime.plusMinutes(5));
+            this.repository.add(pipeline);
+        }
+
+        DbQuery query = new DbQuery()
+                .where("pipelineDefinitionId", "definition")
+                .sortDescending("startTime", "executionId")
+                .after(this.startTime.plusMinutes(5), 7)
+                .limit(3);
+
+        //Act
+        List<Pipeline> actualResult = this.repository.getAllByQuery(query);
+
+        //Assert
+        Assert.assertEquals(3, actualResult.size());
+        Assert.assertEquals(6, actualResult.get(0).getExecutionId());
+        Assert.assertEquals(5, actualResult.get(1).getExecutionId());
+        Assert.assertEquals(3, actualResult.get(2).getExecutionId());
+    }
+
+    @Test
+    public void getAllByQuery_upperBound_onlyEarlierEntries() {
+        //Arrange
+        DbQuery query = new DbQuery()
+                .before("startTime", this.startTime.plusMinutes(3))
+                .sortAscending("executionId");
+
+        //Act
+        List<Pipeline> actualResult = this.repository.getAllByQuery(query);
+
+        //Assert
+        Assert.assertEquals(2, actualResult.size());
+        Assert.assertEquals(1, actualResult.get(0).getExecutionId());
+        Assert.assertEquals(2, actualResult.get(1).getExecutionId());
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.hawkcd.db.redis;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+/*
+* Starts one embedded Redis server for the whole test run, since the repositories rely on Lua scripting
+* that an in-memory mock cannot execute.
+*/
+public final class EmbeddedRedisPool {
+    private static RedisServer redisServer;
+    private static JedisPool jedisPool;
+
+    private EmbeddedRedisPool() {
+    }
+
+    public static synchronized JedisPool getFlushedPool() {
+        if (jedisPool == null) {
+            int port = findFreePort();
+            try {
+                redisServer = new RedisServer(port);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+
+            redisServer.start();
+            jedisPool = new JedisPool(new JedisPoolConfig(), "localhost", port);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                jedisPool.destroy();
+                redisServer.stop();
+            }));
+        }
+
+        try (Jedis jedis = jedisPool.getResource()) {
+            jedis.flushDB();
+        }
+
+        return jedisPool;
+    }
+
+    private static int findFreePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
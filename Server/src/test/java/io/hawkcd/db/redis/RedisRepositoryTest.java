@@ -1,21 +1,32 @@
 package io.hawkcd.db.redis;
 
-import com.fiftyonred.mock_jedis.MockJedisPool;
+import io.hawkcd.db.DbQuery;
 import io.hawkcd.db.IDbRepository;
 import io.hawkcd.model.Entity;
+import io.hawkcd.model.Job;
+import io.hawkcd.model.Pipeline;
+import io.hawkcd.model.Stage;
+import io.hawkcd.model.enums.PipelineStatus;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
-import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.JedisPool;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class RedisRepositoryTest {
+    private JedisPool pool;
     private IDbRepository repository;
 
     @Before
     public void setUp() {
-        MockJedisPool mockedPool = new MockJedisPool(new JedisPoolConfig(), "test");
-        this.repository = new RedisRepository(Entity.class, mockedPool);
+        this.pool = EmbeddedRedisPool.getFlushedPool();
+        this.repository = new RedisRepository(Entity.class, this.pool);
     }
 
     @Test
@@ -45,6 +56,209 @@ public class RedisRepositoryTest {
         Assert.assertEquals(expectedResult, actualResult);
     }
 
+    @Test
+    public void add_existingEntry_null() {
+        //Arrange
+        Entity entry = new Entity();
+        this.repository.add(entry);
+
+        //Act
+        Object actualResult = this.repository.add(entry);
+
+        //Assert
+        Assert.assertNull(actualResult);
+    }
+
+    @Test
+    public void update_nonExistingEntry_null() {
+        //Act
+        Object actualResult = this.repository.update(new Entity());
+
+        //Assert
+        Assert.assertNull(actualResult);
+    }
+
+    @Test
+    public void delete_indexedEntry_removedFromIndex() {
+        //Arrange
+        IDbRepository<Pipeline> pipelineRepository = new RedisRepository(Pipeline.class, this.pool);
+        Pipeline pipeline = new Pipeline();
+        pipelineRepository.add(pipeline);
+
+        //Act
+        Pipeline deletedPipeline = pipelineRepository.delete(pipeline.getId());
+        List<Pipeline> actualResult = pipelineRepository.getAllByIndex("status", PipelineStatus.IN_PROGRESS);
+
+        //Assert
+        Assert.assertEquals(pipeline.getId(), deletedPipeline.getId());
+        Assert.assertTrue(actualResult.isEmpty());
+    }
+
+    @Test
+    public void getByIds_existingAndMissingIds_onlyExistingEntries() {
+        //Arrange
+        Entity firstEntry = new Entity();
+        Entity secondEntry = new Entity();
+        this.repository.add(firstEntry);
+        this.repository.add(secondEntry);
+        this.repository.add(new Entity());
+
+        //Act
+        List<Entity> actualResult = this.repository.getByIds(Arrays.asList(firstEntry.getId(), secondEntry.getId(), "missing"));
+
+        //Assert
+        Assert.assertEquals(2, actualResult.size());
+    }
+
+    @Test
+    public void getAllByIndexes_updatedStatus_onlyMatchingEntries() {
+        //Arrange
+        IDbRepository<Pipeline> pipelineRepository = new RedisRepository(Pipeline.class, this.pool);
+        Pipeline firstPipeline = new Pipeline();
+        firstPipeline.setPrepared(true);
+        Pipeline secondPipeline = new Pipeline();
+        secondPipeline.setPrepared(true);
+        pipelineRepository.add(firstPipeline);
+        pipelineRepository.add(secondPipeline);
+        secondPipeline.setStatus(PipelineStatus.PASSED);
+        pipelineRepository.update(secondPipeline);
+
+        Map<String, Object> indexValues = new HashMap<>();
+        indexValues.put("isPrepared", true);
+        indexValues.put("status", PipelineStatus.IN_PROGRESS);
+
+        //Act
+        List<Pipeline> actualResult = pipelineRepository.getAllByIndexes(indexValues);
+
+        //Assert
+        Assert.assertEquals(1, actualResult.size());
+        Assert.assertEquals(firstPipeline.getId(), actualResult.get(0).getId());
+    }
+
+    @Test
+    public void getAllByIndex_nestedJobId_owningEntry() {
+        //Arrange
+        IDbRepository<Pipeline> pipelineRepository = new RedisRepository(Pipeline.class, this.pool);
+        Job job = new Job();
+        Stage stage = new Stage();
+        stage.setJobs(Arrays.asList(new Job(), job));
+        Pipeline pipeline = new Pipeline();
+        pipeline.setStages(Arrays.asList(new Stage(), stage));
+        pipelineRepository.add(pipeline);
+        pipelineRepository.add(new Pipeline());
+
+        //Act
+        List<Pipeline> actualResult = pipelineRepository.getAllByIndex("stages.jobs.id", job.getId());
+
+        //Assert
+        Assert.assertEquals(1, actualResult.size());
+        Assert.assertEquals(pipeline.getId(), actualResult.get(0).getId());
+    }
+
+    @Test
+    public void getAllByIndex_removedNestedStage_noEntries() {
+        //Arrange
+        IDbRepository<Pipeline> pipelineRepository = new RedisRepository(Pipeline.class, this.pool);
+        Stage firstStage = new Stage();
+        Stage secondStage = new Stage();
+        Pipeline pipeline = new Pipeline();
+        pipeline.setStages(Arrays.asList(firstStage, secondStage));
+        pipelineRepository.add(pipeline);
+        pipeline.setStages(Arrays.asList(firstStage));
+        pipelineRepository.update(pipeline);
+
+        //Act
+        List<Pipeline> actualResult = pipelineRepository.getAllByIndex("stages.id", secondStage.getId());
+
+        //Assert
+        Assert.assertTrue(actualResult.isEmpty());
+        Assert.assertEquals(1, pipelineRepository.getAllByIndex("stages.id", firstStage.getId()).size());
+    }
+
+    @Test
+    public void getAllByQuery_sortedAndLimited_latestMatchingEntries() {
+        //Arrange
+        IDbRepository<Pipeline> pipelineRepository = new RedisRepository(Pipeline.class, this.pool);
+        LocalDateTime startTime = LocalDateTime.of(2016, 10, 1, 12, 0);
+        for (int i = 1; i <= 5; i++) {
+            Pipeline pipeline = new Pipeline();
+            pipeline.setPipelineDefinitionId(i % 2 == 0 ? "other" : "definition");
+            pipeline.setExecutionId(i);
+            pipeline.setStartTime(startTime.plusMinutes(i));
+            pipelineRepository.add(pipeline);
+        }
+
+        DbQuery query = new DbQuery()
+                .where("pipelineDefinitionId", "definition")
+                .sortDescending("startTime")
+                .limit(2);
+
+        //Act
+        List<Pipeline> actualResult = pipelineRepository.getAllByQuery(query);
+
+        //Assert
+        Assert.assertEquals(2, actualResult.size());
+        Assert.assertEquals(5, actualResult.get(0).getExecutionId());
+        Assert.assertEquals(3, actualResult.get(1).getExecutionId());
+    }
+
+    @Test
+    public void getAllByQuery_afterEntrySharingStartTime_tiedEntriesKept() {
+        //Arrange
+        IDbRepository<Pipeline> pipelineRepository = new RedisRepository(Pipeline.class, this.pool);
+        LocalDateTime startTime = LocalDateTime.of(2016, 10, 1, 12, 0);
+        for (int i = 1; i <= 4; i++) {
+            Pipeline pipeline = new Pipeline();
+            pipeline.setExecutionId(i);
+            pipeline.setStartTime(startTime.plusMinutes(i < 4 ? i : 3));
+            pipelineRepository.add(pipeline);
+        }
+
+        DbQuery query = new DbQuery()
+                .sortDescending("startTime", "executionId")
+                .after(startTime.plusMinutes(3), 4)
+                .limit(2);
+
+        //Act
+        List<Pipeline> actualResult = pipelineRepository.getAllByQuery(query);
+
+        //Assert
+        Assert.assertEquals(2, actualResult.size());
+        Assert.assertEquals(3, actualResult.get(0).getExecutionId());
+        Assert.assertEquals(2, actualResult.get(1).getExecutionId());
+    }
+
+    @Test
+    public void getAllByQuery_upperBound_onlyEarlierEntries() {
+        //Arrange
+        IDbRepository<Pipeline> pipelineRepository = new RedisRepository(Pipeline.class, this.pool);
+        LocalDateTime startTime = LocalDateTime.of(2016, 10, 1, 12, 0);
+        for (int i = 1; i <= 3; i++) {
+            Pipeline pipeline = new Pipeline();
+            pipeline.setExecutionId(i);
+            pipeline.setStartTime(startTime.plusMinutes(i));
+            pipelineRepository.add(pipeline);
+        }
+
+        DbQuery query = new DbQuery()
+                .before("startTime", startTime.plusMinutes(3))
+                .sortAscending("executionId");
+
+        //Act
+        List<Pipeline> actualResult = pipelineRepository.getAllByQuery(query);
+
+        //Assert
+        Assert.assertEquals(2, actualResult.size());
+        Assert.assertEquals(1, actualResult.get(0).getExecutionId());
+        Assert.assertEquals(2, actualResult.get(1).getExecutionId());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getAllByIndex_notIndexedField_exception() {
+        //Act
+        this.repository.getAllByIndex("name", "test");
+    }
+
 //	@Test
 //	public void update() throws Exception {
 //		//Arrange
@@ -6,6 +6,8 @@ import io.hawkcd.model.Agent;
 import io.hawkcd.model.Environment;
 import io.hawkcd.model.ServiceResult;
 import io.hawkcd.model.enums.NotificationType;
+import io.hawkcd.model.payload.AgentHeartbeat;
+import io.hawkcd.scheduler.AgentWorkNotifier;
 import io.hawkcd.services.AgentService;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.glassfish.jersey.test.JerseyTest;
@@ -19,9 +21,11 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 public class AgentControllerTests extends JerseyTest {
     private AgentService agentService;
@@ -137,6 +141,122 @@ public class AgentControllerTests extends JerseyTest {
         assertEquals(expectedResult, actualResult);
     }
 
+    @Test
+    public void getWork_jobAssignedWhileWaiting_workReturned() {
+        //Arrange
+        this.prepareAgent();
+        this.serviceResult.setEntity(this.agent);
+        Mockito.when(this.agentService.getById(this.agent.getId())).thenReturn(this.serviceResult);
+        ServiceResult workResult = new ServiceResult();
+        String expectedResult = "work";
+        workResult.setEntity(expectedResult);
+        Mockito.when(this.agentService.getWorkInfo(this.agent.getId())).thenReturn(workResult);
+        Thread jobAssigner = new Thread(() -> {
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            this.agent.setAssigned(true);
+            AgentWorkNotifier.notifyAssigned(this.agent.getId());
+        });
+        jobAssigner.start();
+
+        //Act
+        Response response = target("/agents/" + this.agent.getId() + "/work").queryParam("wait", 30).request().get();
+        String actualResult = response.readEntity(String.class);
+
+        //Assert
+        assertEquals(200, response.getStatus());
+        assertEquals(expectedResult, actualResult);
+        Mockito.verify(this.agentService, Mockito.times(1)).getWorkInfo(this.agent.getId());
+    }
+
+    @Test
+    public void getWork_noJobAssignedWithinWait_noJobAssigned() {
+        //Arrange
+        this.prepareAgent();
+        this.serviceResult.setEntity(this.agent);
+        Mockito.when(this.agentService.getById(this.agent.getId())).thenReturn(this.serviceResult);
+        ServiceResult workResult = new ServiceResult();
+        String expectedResult = "This agent has no job assigned.";
+        workResult.setNotificationType(NotificationType.ERROR);
+        workResult.setMessage(expectedResult);
+        Mockito.when(this.agentService.getWorkInfo(this.agent.getId())).thenReturn(workResult);
+
+        //Act
+        Response response = target("/agents/" + this.agent.getId() + "/work").queryParam("wait", 1).request().get();
+        String actualResult = response.readEntity(String.class);
+
+        //Assert
+        assertEquals(400, response.getStatus());
+        assertEquals(expectedResult, actualResult);
+    }
+
+    @Test
+    public void reportHeartbeat_unchangedAgent_notUpdated() {
+        //Arrange
+        this.prepareAgent();
+        this.agent.setConnected(true);
+        this.serviceResult.setEntity(this.agent);
+        Mockito.when(this.agentService.getById(this.agent.getId())).thenReturn(this.serviceResult);
+
+        //Act
+        Response response = this.agentController.reportHeartbeat(this.agent.getId(), new AgentHeartbeat());
+
+        //Assert
+        assertEquals(200, response.getStatus());
+        Mockito.verify(this.agentService, Mockito.never()).update(Mockito.any(Agent.class));
+    }
+
+    @Test
+    public void reportHeartbeat_disconnectedAgent_updatedAsConnected() {
+        //Arrange
+        this.prepareAgent();
+        this.agent.setConnected(false);
+        this.serviceResult.setEntity(this.agent);
+        Mockito.when(this.agentService.getById(this.agent.getId())).thenReturn(this.serviceResult);
+        Mockito.when(this.agentService.update(this.agent)).thenReturn(new ServiceResult(this.agent, NotificationType.SUCCESS, ""));
+
+        //Act
+        Response response = this.agentController.reportHeartbeat(this.agent.getId(), new AgentHeartbeat());
+
+        //Assert
+        assertEquals(200, response.getStatus());
+        assertTrue(this.agent.isConnected());
+        Mockito.verify(this.agentService, Mockito.times(1)).update(this.agent);
+    }
+
+    @Test
+    public void reportHeartbeat_unknownAgentWithoutInfo_conflict() {
+        //Arrange
+        String agentId = UUID.randomUUID().toString();
+        this.serviceResult.setNotificationType(NotificationType.ERROR);
+        this.serviceResult.setEntity(null);
+        Mockito.when(this.agentService.getById(agentId)).thenReturn(this.serviceResult);
+
+        //Act
+        Response response = this.agentController.reportHeartbeat(agentId, new AgentHeartbeat());
+
+        //Assert
+        assertEquals(409, response.getStatus());
+        Mockito.verify(this.agentService, Mockito.never()).add(Mockito.any(Agent.class));
+    }
+
+    @Test
+    public void reportHeartbeat_noHeartbeat_badRequest() {
+        //Arrange
+        String agentId = UUID.randomUUID().toString();
+
+        //Act
+        Response response = this.agentController.reportHeartbeat(agentId, null);
+
+        //Assert
+        assertEquals(400, response.getStatus());
+        Mockito.verify(this.agentService, Mockito.never()).getById(agentId);
+    }
+
     @Test
     public void addAgent_oneAgent_successMessage() {
         //Arrange
@@ -8,15 +8,25 @@ import io.hawkcd.core.config.Config;
 import io.hawkcd.utilities.deserializers.TaskDefinitionAdapter;
 import io.hawkcd.http.ArtifactController;
 import io.hawkcd.model.TaskDefinition;
+import io.hawkcd.model.payload.ArtifactManifestEntry;
 import io.hawkcd.services.FileManagementService;
+import io.hawkcd.services.interfaces.IArtifactStoreService;
 import io.hawkcd.services.interfaces.IFileManagementService;
 import org.junit.*;
 import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class ArtifactControllerTests {
@@ -64,7 +74,6 @@ public class ArtifactControllerTests {
         Mockito.when(this.mockedFileManagementService.getRootPath(Mockito.anyString())).thenReturn("rootPath");
         Mockito.when(this.mockedFileManagementService.getPattern(Mockito.anyString(), Mockito.anyString())).thenReturn("");
         Mockito.when(this.mockedFileManagementService.getFiles(Mockito.anyString(), Mockito.anyString())).thenReturn(this.mockedFileList);
-        Mockito.when(this.mockedFileManagementService.generateUniqueFile(Mockito.anyString(), Mockito.anyString())).thenReturn(this.mockedFile);
 
         String expectedDirectory = "testFileDirectory";
 
@@ -73,6 +82,23 @@ public class ArtifactControllerTests {
         Assert.assertEquals(200, actualResponse.getStatus());
     }
 
+    @Test
+    public void zipFile_validData_zipWrittenToResponse() throws IOException {
+        //Arrange
+        Mockito.when(this.mockedFileManagementService.getRootPath(Mockito.anyString())).thenReturn("rootPath");
+        Mockito.when(this.mockedFileManagementService.getPattern(Mockito.anyString(), Mockito.anyString())).thenReturn("");
+        Mockito.when(this.mockedFileManagementService.getFiles(Mockito.anyString(), Mockito.anyString())).thenReturn(this.mockedFileList);
+        ByteArrayOutputStream responseStream = new ByteArrayOutputStream();
+
+        //Act
+        Response actualResponse = this.artifactController.zipFile("testFileDirectory");
+        ((StreamingOutput) actualResponse.getEntity()).write(responseStream);
+
+        //Assert
+        Mockito.verify(this.mockedFileManagementService, Mockito.times(1)).zipFilesToStream(responseStream, this.mockedFileList, "rootPath", false);
+        Mockito.verify(this.mockedFileManagementService, Mockito.never()).generateUniqueFile(Mockito.anyString(), Mockito.anyString());
+    }
+
     @Test
     public void zipFile_noRootPath_statusNotFound() {
         //Arrange
@@ -99,19 +125,74 @@ public class ArtifactControllerTests {
         Assert.assertEquals(404, actualResponse.getStatus());
     }
 
-    @Test
-    public void zipFile_zipFilesErrorMessage_statusBadRequest() {
+    @Test(expected = IOException.class)
+    public void zipFile_zipFilesErrorMessage_responseAborted() throws IOException {
         //Arrange
         Mockito.when(this.mockedFileManagementService.getRootPath(Mockito.anyString())).thenReturn("rootPath");
         Mockito.when(this.mockedFileManagementService.getPattern(Mockito.anyString(), Mockito.anyString())).thenReturn("");
         Mockito.when(this.mockedFileManagementService.getFiles(Mockito.anyString(), Mockito.anyString())).thenReturn(this.mockedFileList);
-        Mockito.when(this.mockedFileManagementService.generateUniqueFile(Mockito.anyString(), Mockito.anyString())).thenReturn(this.mockedFile);
-        Mockito.when(this.mockedFileManagementService.zipFiles("pathToFile", this.mockedFileList, "rootPath", false)).thenReturn("errorMessage");
+        Mockito.when(this.mockedFileManagementService.zipFilesToStream(Mockito.any(OutputStream.class), Mockito.eq(this.mockedFileList), Mockito.eq("rootPath"), Mockito.eq(false))).thenReturn("errorMessage");
 
         String expectedDirectory = "testFileDirectory";
 
         Response actualResponse = this.artifactController.zipFile(expectedDirectory);
 
+        ((StreamingOutput) actualResponse.getEntity()).write(new ByteArrayOutputStream());
+    }
+
+    @Test
+    public void unzipFile_validData_statusOk() {
+        //Arrange
+        InputStream uploadedStream = new ByteArrayInputStream(new byte[0]);
+        Mockito.when(this.mockedFileManagementService.unzipStream(Mockito.eq(uploadedStream), Mockito.anyString())).thenReturn(null);
+
+        //Act
+        Response actualResponse = this.artifactController.unzipFile("testPipeline", "testPipelineExecutionId", "testDestination", uploadedStream);
+
+        //Assert
+        Mockito.verify(this.mockedFileManagementService, Mockito.never()).streamToFile(Mockito.any(InputStream.class), Mockito.anyString());
+        Assert.assertEquals(200, actualResponse.getStatus());
+    }
+
+    @Test
+    public void unzipFile_unzipErrorMessage_statusNotFound() {
+        //Arrange
+        InputStream uploadedStream = new ByteArrayInputStream(new byte[0]);
+        Mockito.when(this.mockedFileManagementService.unzipStream(Mockito.eq(uploadedStream), Mockito.anyString())).thenReturn("errorMessage");
+
+        //Act
+        Response actualResponse = this.artifactController.unzipFile("testPipeline", "testPipelineExecutionId", "testDestination", uploadedStream);
+
+        //Assert
+        Assert.assertEquals(404, actualResponse.getStatus());
+    }
+
+    @Test
+    public void getMissingBlobs_someBlobsStored_missingHashesReturned() {
+        //Arrange
+        IArtifactStoreService mockedArtifactStoreService = Mockito.mock(IArtifactStoreService.class);
+        this.artifactController = new ArtifactController(this.mockedFileManagementService, mockedArtifactStoreService);
+        Mockito.when(mockedArtifactStoreService.getMissingBlobs(Arrays.asList("first", "second"))).thenReturn(Collections.singletonList("second"));
+
+        //Act
+        Response actualResponse = this.artifactController.getMissingBlobs("[\"first\",\"second\"]");
+
+        //Assert
+        Assert.assertEquals(200, actualResponse.getStatus());
+        Assert.assertEquals("[\"second\"]", actualResponse.getEntity());
+    }
+
+    @Test
+    public void applyManifest_applyErrorMessage_statusBadRequest() {
+        //Arrange
+        IArtifactStoreService mockedArtifactStoreService = Mockito.mock(IArtifactStoreService.class);
+        this.artifactController = new ArtifactController(this.mockedFileManagementService, mockedArtifactStoreService);
+        Mockito.when(mockedArtifactStoreService.applyManifest(Mockito.eq("testPipeline"), Mockito.eq("testPipelineExecutionId"), Mockito.eq("testDestination"), Mockito.anyListOf(ArtifactManifestEntry.class))).thenReturn("errorMessage");
+
+        //Act
+        Response actualResponse = this.artifactController.applyManifest("testPipeline", "testPipelineExecutionId", "testDestination", "[{\"path\":\"app.jar\",\"hash\":\"hash\",\"size\":1}]");
+
+        //Assert
         Assert.assertEquals(400, actualResponse.getStatus());
     }
 
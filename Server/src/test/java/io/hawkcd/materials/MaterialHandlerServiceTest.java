@@ -55,6 +55,7 @@ public class MaterialHandlerServiceTest {
         PowerMockito.mockStatic(MaterialUpdaterFactory.class);
         Mockito.when(MaterialUpdaterFactory.create(Mockito.any(MaterialType.class)))
                 .thenReturn((MaterialUpdater) this.mockedMaterialUpdater);
+        Mockito.when(((MaterialUpdater) this.mockedMaterialUpdater).getDefinitionType()).thenReturn(GitMaterial.class);
 
         Mockito.when(this.mockedMaterialUpdater.getLatestMaterialVersion(Mockito.any(MaterialDefinition.class)))
                 .thenReturn(new GitMaterial());
@@ -0,0 +1,115 @@
+package io.hawkcd.materials;
+
+import io.hawkcd.core.config.Config;
+import io.hawkcd.materials.materialupdaters.MaterialUpdater;
+import io.hawkcd.materials.materialupdaters.MaterialUpdaterFactory;
+import io.hawkcd.model.GitMaterial;
+import io.hawkcd.model.MaterialDefinition;
+import io.hawkcd.model.enums.MaterialType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({MaterialUpdaterFactory.class})
+public class MaterialPollerTest {
+    private IMaterialPoller materialPoller;
+    private MaterialUpdater mockedMaterialUpdater;
+
+    @BeforeClass
+    public static void setUpClass() {
+        Config.configure();
+    }
+
+    @Before
+    public void setUp() {
+        this.materialPoller = new MaterialPoller(2, 500, 60000);
+        this.mockedMaterialUpdater = Mockito.mock(MaterialUpdater.class);
+
+        PowerMockito.mockStatic(MaterialUpdaterFactory.class);
+        Mockito.when(MaterialUpdaterFactory.create(Mockito.any(MaterialType.class))).thenReturn(this.mockedMaterialUpdater);
+        Mockito.when(this.mockedMaterialUpdater.getDefinitionType()).thenReturn(GitMaterial.class);
+        Mockito.when(this.mockedMaterialUpdater.getRepositoryKey(Mockito.any(MaterialDefinition.class)))
+                .thenAnswer(invocation -> ((GitMaterial) invocation.getArguments()[0]).getRepositoryUrl());
+    }
+
+    @Test
+    public void getLatestVersions_materialsOfSameRepository_polledOnce() {
+        //Arrange
+        GitMaterial firstMaterial = this.createMaterial("repository");
+        GitMaterial secondMaterial = this.createMaterial("repository");
+        GitMaterial latestVersion = this.createMaterial("repository");
+        latestVersion.setCommitId("commitId");
+        Mockito.when(this.mockedMaterialUpdater.getLatestMaterialVersion(firstMaterial)).thenReturn(latestVersion);
+
+        //Act
+        Map<MaterialDefinition, MaterialDefinition> actualResult = this.materialPoller.getLatestVersions(Arrays.asList(firstMaterial, secondMaterial));
+
+        //Assert
+        Mockito.verify(this.mockedMaterialUpdater, Mockito.times(1)).getLatestMaterialVersion(Mockito.any(MaterialDefinition.class));
+        Mockito.verify(this.mockedMaterialUpdater, Mockito.times(1)).copyLatestVersion(latestVersion, secondMaterial);
+        Assert.assertSame(latestVersion, actualResult.get(firstMaterial));
+        Assert.assertSame(secondMaterial, actualResult.get(secondMaterial));
+    }
+
+    @Test
+    public void getLatestVersions_hungRepository_otherRepositoriesNotDelayed() {
+        //Arrange
+        GitMaterial hungMaterial = this.createMaterial("hung");
+        GitMaterial material = this.createMaterial("repository");
+        Mockito.when(this.mockedMaterialUpdater.getLatestMaterialVersion(hungMaterial)).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return hungMaterial;
+        });
+        Mockito.when(this.mockedMaterialUpdater.getLatestMaterialVersion(material)).thenReturn(material);
+        long start = System.currentTimeMillis();
+
+        //Act
+        Map<MaterialDefinition, MaterialDefinition> actualResult = this.materialPoller.getLatestVersions(Arrays.asList(hungMaterial, material));
+
+        //Assert
+        Assert.assertTrue(System.currentTimeMillis() - start < 2000);
+        Assert.assertFalse(actualResult.get(hungMaterial).getErrorMessage().isEmpty());
+        Assert.assertTrue(actualResult.get(material).getErrorMessage().isEmpty());
+    }
+
+    @Test
+    public void getLatestVersions_failingRepository_notPolledUntilBackoffPassed() {
+        //Arrange
+        GitMaterial material = this.createMaterial("repository");
+        Mockito.when(this.mockedMaterialUpdater.getLatestMaterialVersion(material)).thenAnswer(invocation -> {
+            material.setErrorMessage("Connection refused");
+            return material;
+        });
+        List<MaterialDefinition> materialDefinitions = Collections.singletonList(material);
+        this.materialPoller.getLatestVersions(materialDefinitions);
+        material.setErrorMessage("");
+
+        //Act
+        Map<MaterialDefinition, MaterialDefinition> actualResult = this.materialPoller.getLatestVersions(materialDefinitions);
+
+        //Assert
+        Mockito.verify(this.mockedMaterialUpdater, Mockito.times(1)).getLatestMaterialVersion(Mockito.any(MaterialDefinition.class));
+        Assert.assertEquals("Connection refused", actualResult.get(material).getErrorMessage());
+    }
+
+    private GitMaterial createMaterial(String repositoryUrl) {
+        GitMaterial gitMaterial = new GitMaterial();
+        gitMaterial.setRepositoryUrl(repositoryUrl);
+        gitMaterial.setBranch("master");
+        gitMaterial.setErrorMessage("");
+
+        return gitMaterial;
+    }
+}
@@ -0,0 +1,133 @@
+package io.hawkcd.materials.materialservices;
+
+import io.hawkcd.core.config.Config;
+import io.hawkcd.model.GitMaterial;
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class GitServiceTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private IGitService gitService;
+    private Git origin;
+    private GitMaterial gitMaterial;
+
+    @BeforeClass
+    public static void setUpClass() {
+        Config.configure();
+    }
+
+    @Before
+    public void setUp() throws IOException, GitAPIException {
+        this.gitService = new GitService();
+        this.origin = Git.init().setDirectory(this.temporaryFolder.newFolder("origin")).call();
+        this.gitMaterial = new GitMaterial();
+        this.gitMaterial.setRepositoryUrl(this.origin.getRepository().getDirectory().toURI().toString());
+        this.gitMaterial.setBranch("master");
+        this.gitMaterial.setDestination(new File(this.temporaryFolder.getRoot(), "material").getPath());
+    }
+
+    @After
+    public void tearDown() {
+        this.origin.close();
+    }
+
+    @Test
+    public void fetchLatestCommit_createdRepository_headCommitWithoutWorkingCopy() throws IOException, GitAPIException {
+        //Arrange
+        RevCommit expectedCommit = this.commit("first");
+        this.gitService.createRepository(this.gitMaterial);
+
+        //Act
+        GitMaterial actualResult = this.gitService.fetchLatestCommit(this.gitMaterial);
+
+        //Assert
+        Assert.assertEquals("", actualResult.getErrorMessage());
+        Assert.assertEquals(expectedCommit.name(), actualResult.getCommitId());
+        Assert.assertEquals(expectedCommit.getAuthorIdent().getName(), actualResult.getAuthorName());
+        Assert.assertEquals("first", actualResult.getComments());
+        Assert.assertTrue(this.gitService.repositoryExists(this.gitMaterial));
+        Assert.assertFalse(new File(this.gitMaterial.getDestination(), "content.txt").exists());
+    }
+
+    @Test
+    public void fetchLatestCommit_headUnchanged_notFetchedAgain() throws IOException, GitAPIException {
+        //Arrange
+        this.commit("first");
+        this.gitService.createRepository(this.gitMaterial);
+        this.gitService.fetchLatestCommit(this.gitMaterial);
+        File fetchHead = new File(this.gitMaterial.getDestination(), "FETCH_HEAD");
+        Assert.assertTrue(fetchHead.delete());
+
+        //Act
+        GitMaterial actualResult = this.gitService.fetchLatestCommit(this.gitMaterial);
+
+        //Assert
+        Assert.assertEquals("", actualResult.getErrorMessage());
+        Assert.assertFalse(fetchHead.exists());
+    }
+
+    @Test
+    public void fetchLatestCommit_newCommit_newCommitFetched() throws IOException, GitAPIException {
+        //Arrange
+        this.commit("first");
+        this.gitService.createRepository(this.gitMaterial);
+        this.gitService.fetchLatestCommit(this.gitMaterial);
+        RevCommit expectedCommit = this.commit("second");
+
+        //Act
+        GitMaterial actualResult = this.gitService.fetchLatestCommit(this.gitMaterial);
+
+        //Assert
+        Assert.assertEquals(expectedCommit.name(), actualResult.getCommitId());
+        Assert.assertEquals("second", actualResult.getComments());
+    }
+
+    @Test
+    public void fetchLatestCommit_branchNotInRemote_errorMessage() throws IOException, GitAPIException {
+        //Arrange
+        this.commit("first");
+        this.gitMaterial.setBranch("missing");
+        this.gitService.createRepository(this.gitMaterial);
+
+        //Act
+        GitMaterial actualResult = this.gitService.fetchLatestCommit(this.gitMaterial);
+
+        //Assert
+        Assert.assertFalse(actualResult.getErrorMessage().isEmpty());
+        Assert.assertNull(actualResult.getCommitId());
+    }
+
+    @Test
+    public void repositoryExists_workingCopy_false() throws GitAPIException {
+        //Arrange
+        Git.cloneRepository().setURI(this.gitMaterial.getRepositoryUrl()).setDirectory(new File(this.gitMaterial.getDestination())).call().close();
+
+        //Act
+        boolean actualResult = this.gitService.repositoryExists(this.gitMaterial);
+
+        //Assert
+        Assert.assertFalse(actualResult);
+    }
+
+    private RevCommit commit(String content) throws IOException, GitAPIException {
+        FileUtils.writeStringToFile(new File(this.origin.getRepository().getWorkTree(), "content.txt"), content, StandardCharsets.UTF_8);
+        this.origin.add().addFilepattern("content.txt").call();
+
+        return this.origin.commit().setMessage(content).call();
+    }
+}
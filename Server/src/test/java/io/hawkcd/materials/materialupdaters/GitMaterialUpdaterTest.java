@@ -62,13 +62,13 @@ public class GitMaterialUpdaterTest {
     }
 
     @Test
-    public void getLatestMaterialVersion_couldNotCloneRepository_errorMessage() {
+    public void getLatestMaterialVersion_couldNotCreateRepository_errorMessage() {
         // Arrange
         GitMaterial gitMaterial = new GitMaterial();
         gitMaterial.setErrorMessage("errorMessage");
         Mockito.when(this.mockedGitService.repositoryExists(gitMaterial)).thenReturn(false);
         Mockito.when(this.mockedFileManagementService.deleteDirectoryRecursively(Mockito.anyString())).thenReturn(null);
-        Mockito.when(this.mockedGitService.cloneRepository(gitMaterial)).thenReturn(gitMaterial);
+        Mockito.when(this.mockedGitService.createRepository(gitMaterial)).thenReturn(gitMaterial);
         String expectedResult = "errorMessage";
 
         // Act
@@ -1,10 +1,10 @@
 package io.hawkcd.scheduler;
 
-import com.fiftyonred.mock_jedis.MockJedisPool;
 
 import io.hawkcd.core.config.Config;
 import io.hawkcd.utilities.constants.TestsConstants;
 import io.hawkcd.db.IDbRepository;
+import io.hawkcd.db.redis.EmbeddedRedisPool;
 import io.hawkcd.db.redis.RedisRepository;
 import io.hawkcd.model.ServiceResult;
 import io.hawkcd.model.enums.PipelineStatus;
@@ -30,7 +30,7 @@ import io.hawkcd.model.PipelineDefinition;
 import io.hawkcd.model.StageDefinition;
 import io.hawkcd.model.Task;
 import io.hawkcd.model.TaskDefinition;
-import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.JedisPool;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -51,7 +51,7 @@ public class PipelinePreparerTests {
 
     @Before
     public void setUp() {
-        MockJedisPool mockedPool = new MockJedisPool(new JedisPoolConfig(), "testPipelinePreparer");
+        JedisPool mockedPool = EmbeddedRedisPool.getFlushedPool();
         IDbRepository pipelineRepo = new RedisRepository(Pipeline.class, mockedPool);
         IDbRepository pipelineDefinitionRepo = new RedisRepository(PipelineDefinition.class, mockedPool);
         IDbRepository materialDefinitionRepo = new RedisRepository(MaterialDefinition.class, mockedPool);
@@ -0,0 +1,143 @@
+package io.hawkcd.scheduler;
+
+import io.hawkcd.core.config.Config;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class SchedulerEventQueueTests {
+    private SchedulerEventQueue events;
+    private boolean isSingleNode;
+    private Integer minPassInterval;
+
+    @BeforeClass
+    public static void setUpClass() {
+        Config.configure();
+    }
+
+    @Before
+    public void setUp() {
+        // outside of single-node mode the sweep runs at the poll interval, which keeps the waits in these tests short
+        this.isSingleNode = Config.getConfiguration().getIsSingleNode();
+        this.minPassInterval = Config.getConfiguration().getSchedulerMinPassInterval();
+        Config.getConfiguration().setIsSingleNode(false);
+        this.events = SchedulerEventQueue.subscribe(SchedulerEvent.PIPELINE_UPDATED);
+    }
+
+    @After
+    public void tearDown() {
+        this.events.unsubscribe();
+        Config.getConfiguration().setIsSingleNode(this.isSingleNode);
+        Config.getConfiguration().setSchedulerMinPassInterval(this.minPassInterval);
+    }
+
+    @Test
+    public void awaitNext_eventFromAnotherThread_woken() throws InterruptedException {
+        //Arrange
+        Thread publisher = new Thread(() -> SchedulerEventQueue.publish(SchedulerEvent.PIPELINE_UPDATED));
+        publisher.start();
+        publisher.join();
+
+        //Act
+        boolean actualResult = this.events.awaitNext(1);
+
+        //Assert
+        Assert.assertTrue(actualResult);
+    }
+
+    @Test
+    public void awaitNext_eventFromWorkerThread_notWoken() throws InterruptedException {
+        //Arrange
+        SchedulerEventQueue.publish(SchedulerEvent.PIPELINE_UPDATED);
+
+        //Act
+        boolean actualResult = this.events.awaitNext(1);
+
+        //Assert
+        Assert.assertFalse(actualResult);
+    }
+
+    @Test
+    public void awaitNext_notSubscribedEvent_notWoken() throws InterruptedException {
+        //Arrange
+        Thread publisher = new Thread(() -> SchedulerEventQueue.publish(SchedulerEvent.PIPELINE_ADDED));
+        publisher.start();
+        publisher.join();
+
+        //Act
+        boolean actualResult = this.events.awaitNext(1);
+
+        //Assert
+        Assert.assertFalse(actualResult);
+    }
+
+    @Test
+    public void awaitNext_burstOfEvents_wokenOnce() throws InterruptedException {
+        //Arrange
+        Thread publisher = new Thread(() -> {
+            for (int i = 0; i < 10; i++) {
+                SchedulerEventQueue.publish(SchedulerEvent.PIPELINE_UPDATED);
+            }
+        });
+        publisher.start();
+        publisher.join();
+
+        //Act
+        boolean isFirstWoken = this.events.awaitNext(1);
+        boolean isSecondWoken = this.events.awaitNext(1);
+
+        //Assert
+        Assert.assertTrue(isFirstWoken);
+        Assert.assertFalse(isSecondWoken);
+    }
+
+    @Test
+    public void awaitNext_eventsWithinMinPassInterval_onePassAfterInterval() throws InterruptedException {
+        //Arrange
+        Config.getConfiguration().setSchedulerMinPassInterval(300);
+        Thread publisher = new Thread(() -> SchedulerEventQueue.publish(SchedulerEvent.PIPELINE_UPDATED));
+        publisher.start();
+        publisher.join();
+        long previousPassTime = System.currentTimeMillis();
+        this.events.awaitNext(1);
+        publisher = new Thread(() -> {
+            try {
+                for (int i = 0; i < 3; i++) {
+                    SchedulerEventQueue.publish(SchedulerEvent.PIPELINE_UPDATED);
+                    Thread.sleep(50);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        publisher.start();
+
+        //Act
+        boolean isWoken = this.events.awaitNext(1);
+        long passInterval = System.currentTimeMillis() - previousPassTime;
+        publisher.join();
+        boolean isWokenAgain = this.events.awaitNext(1);
+
+        //Assert
+        Assert.assertTrue(isWoken);
+        Assert.assertTrue(passInterval >= 300);
+        Assert.assertFalse(isWokenAgain);
+    }
+
+    @Test
+    public void awaitNextOrPoll_singleNode_wokenAfterPollInterval() throws InterruptedException {
+        //Arrange
+        Config.getConfiguration().setIsSingleNode(true);
+        long startTime = System.currentTimeMillis();
+
+        //Act
+        boolean actualResult = this.events.awaitNextOrPoll(1);
+        long waitTime = System.currentTimeMillis() - startTime;
+
+        //Assert
+        Assert.assertFalse(actualResult);
+        Assert.assertTrue(waitTime < 5000);
+    }
+}
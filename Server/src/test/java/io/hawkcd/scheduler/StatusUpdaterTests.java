@@ -1,9 +1,9 @@
 package io.hawkcd.scheduler;
 
-import com.fiftyonred.mock_jedis.MockJedisPool;
 
 import io.hawkcd.core.config.Config;
 import io.hawkcd.db.IDbRepository;
+import io.hawkcd.db.redis.EmbeddedRedisPool;
 import io.hawkcd.db.redis.RedisRepository;
 import io.hawkcd.model.enums.JobStatus;
 import io.hawkcd.model.enums.PipelineStatus;
@@ -27,7 +27,7 @@ import io.hawkcd.model.Job;
 import io.hawkcd.model.MaterialDefinition;
 import io.hawkcd.model.Pipeline;
 import io.hawkcd.model.PipelineDefinition;
-import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.JedisPool;
 
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
@@ -50,7 +50,7 @@ public class StatusUpdaterTests {
 
     @Before
     public void setUp() {
-        MockJedisPool mockedPool = new MockJedisPool(new JedisPoolConfig(), "testStatusUpdater");
+        JedisPool mockedPool = EmbeddedRedisPool.getFlushedPool();
         IDbRepository pipelineRepo = new RedisRepository(Pipeline.class, mockedPool);
         IDbRepository agentRepo = new RedisRepository(Agent.class, mockedPool);
         IDbRepository pipelineDefintionRepo = new RedisRepository(PipelineDefinition.class, mockedPool);
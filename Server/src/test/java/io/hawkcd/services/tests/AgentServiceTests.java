@@ -1,9 +1,9 @@
 package io.hawkcd.services.tests;
 
-import com.fiftyonred.mock_jedis.MockJedisPool;
 
 import io.hawkcd.core.config.Config;
 import io.hawkcd.db.IDbRepository;
+import io.hawkcd.db.redis.EmbeddedRedisPool;
 import io.hawkcd.db.redis.RedisRepository;
 import io.hawkcd.model.Agent;
 import io.hawkcd.services.AgentService;
@@ -13,7 +13,7 @@ import org.junit.Before;
 
 import org.junit.BeforeClass;
 
-import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.JedisPool;
 
 public class AgentServiceTests {
     private IAgentService mockedAgentService;
@@ -25,7 +25,7 @@ public class AgentServiceTests {
 
     @Before
     public void setUp() {
-        MockJedisPool mockedPool = new MockJedisPool(new JedisPoolConfig(), "testAgentService");
+        JedisPool mockedPool = EmbeddedRedisPool.getFlushedPool();
         IDbRepository<Agent> mockedRepository = new RedisRepository(Agent.class, mockedPool);
         this.mockedAgentService = new AgentService();
     }
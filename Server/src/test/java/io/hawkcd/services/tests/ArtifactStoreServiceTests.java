@@ -0,0 +1,188 @@
+package io.hawkcd.services.tests;
+
+import io.hawkcd.model.payload.ArtifactManifestEntry;
+import io.hawkcd.services.ArtifactStoreService;
+import io.hawkcd.services.interfaces.IArtifactStoreService;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class ArtifactStoreServiceTests {
+    private static final byte[] CONTENT = "artifact content".getBytes(StandardCharsets.UTF_8);
+    private static final String HASH = DigestUtils.sha256Hex(CONTENT);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private IArtifactStoreService artifactStoreService;
+    private Path artifactsDirectory;
+
+    @Before
+    public void setUp() {
+        this.artifactsDirectory = this.temporaryFolder.getRoot().toPath();
+        this.artifactStoreService = new ArtifactStoreService(this.artifactsDirectory.toString());
+    }
+
+    @Test
+    public void getMissingBlobs_storedBlob_onlyUnknownMissing() throws IOException {
+        //Arrange
+        String unknownHash = DigestUtils.sha256Hex("unknown");
+        this.artifactStoreService.storeBlobs(this.zipBlobs(HASH, CONTENT));
+
+        //Act
+        List<String> actualResult = this.artifactStoreService.getMissingBlobs(Arrays.asList(HASH, unknownHash, "../invalid"));
+
+        //Assert
+        Assert.assertEquals(Arrays.asList(unknownHash, "../invalid"), actualResult);
+    }
+
+    @Test
+    public void storeBlobs_contentNotMatchingHash_errorMessage() throws IOException {
+        //Arrange
+        String otherHash = DigestUtils.sha256Hex("other content");
+
+        //Act
+        String actualResult = this.artifactStoreService.storeBlobs(this.zipBlobs(otherHash, CONTENT));
+
+        //Assert
+        Assert.assertNotNull(actualResult);
+        Assert.assertEquals(Collections.singletonList(otherHash), this.artifactStoreService.getMissingBlobs(Collections.singletonList(otherHash)));
+    }
+
+    @Test
+    public void applyManifest_sameBlobInTwoExecutions_storedOnce() throws IOException {
+        //Arrange
+        this.artifactStoreService.storeBlobs(this.zipBlobs(HASH, CONTENT));
+        List<ArtifactManifestEntry> entries = Arrays.asList(
+                new ArtifactManifestEntry("bin", null, 0),
+                new ArtifactManifestEntry("bin/app.jar", HASH, CONTENT.length));
+
+        //Act
+        String firstResult = this.artifactStoreService.applyManifest("pipeline", "1", "build", entries);
+        String secondResult = this.artifactStoreService.applyManifest("pipeline", "2", "build", entries);
+
+        //Assert
+        Path firstFile = this.artifactsDirectory.resolve("pipeline/1/build/bin/app.jar");
+        Path secondFile = this.artifactsDirectory.resolve("pipeline/2/build/bin/app.jar");
+        Assert.assertNull(firstResult);
+        Assert.assertNull(secondResult);
+        Assert.assertArrayEquals(CONTENT, Files.readAllBytes(secondFile));
+        Assert.assertTrue(Files.isSameFile(firstFile, secondFile));
+        Assert.assertEquals(HASH, this.artifactStoreService.getManifest("pipeline", "1").get(1).getHash());
+        Assert.assertEquals("build/bin/app.jar", this.artifactStoreService.getManifest("pipeline", "1").get(1).getPath());
+    }
+
+    @Test
+    public void applyManifest_missingBlob_errorMessage() {
+        //Arrange
+        List<ArtifactManifestEntry> entries = Collections.singletonList(new ArtifactManifestEntry("app.jar", HASH, CONTENT.length));
+
+        //Act
+        String actualResult = this.artifactStoreService.applyManifest("pipeline", "1", "build", entries);
+
+        //Assert
+        Assert.assertNotNull(actualResult);
+        Assert.assertFalse(Files.exists(this.artifactsDirectory.resolve("pipeline/1/build/app.jar")));
+    }
+
+    @Test
+    public void applyManifest_pathOutsideDestination_errorMessage() throws IOException {
+        //Arrange
+        this.artifactStoreService.storeBlobs(this.zipBlobs(HASH, CONTENT));
+        List<ArtifactManifestEntry> entries = Collections.singletonList(new ArtifactManifestEntry("../../escaped.jar", HASH, CONTENT.length));
+
+        //Act
+        String actualResult = this.artifactStoreService.applyManifest("pipeline", "1", "build", entries);
+
+        //Assert
+        Assert.assertNotNull(actualResult);
+        Assert.assertFalse(Files.exists(this.artifactsDirectory.resolve("pipeline/escaped.jar")));
+    }
+
+    @Test
+    public void deleteUnreferencedBlobs_artifactsDeleted_blobDeleted() throws IOException {
+        //Arrange
+        this.artifactStoreService.storeBlobs(this.zipBlobs(HASH, CONTENT));
+        this.artifactStoreService.applyManifest("pipeline", "1", "", Collections.singletonList(new ArtifactManifestEntry("app.jar", HASH, CONTENT.length)));
+        this.expireBlobs();
+        int blobsDeletedWhileReferenced = this.artifactStoreService.deleteUnreferencedBlobs();
+        Files.delete(this.artifactsDirectory.resolve("pipeline/1/app.jar"));
+
+        //Act
+        int actualResult = this.artifactStoreService.deleteUnreferencedBlobs();
+
+        //Assert
+        Assert.assertEquals(0, blobsDeletedWhileReferenced);
+        Assert.assertEquals(1, actualResult);
+        Assert.assertEquals(Collections.singletonList(HASH), this.artifactStoreService.getMissingBlobs(Collections.singletonList(HASH)));
+    }
+
+    @Test
+    public void getMissingBlobs_linkedBlob_artifactModifiedTimeKept() throws IOException {
+        //Arrange
+        this.artifactStoreService.storeBlobs(this.zipBlobs(HASH, CONTENT));
+        this.artifactStoreService.applyManifest("pipeline", "1", "", Collections.singletonList(new ArtifactManifestEntry("app.jar", HASH, CONTENT.length)));
+        this.expireBlobs();
+        Path artifactFile = this.artifactsDirectory.resolve("pipeline/1/app.jar");
+        FileTime expectedResult = Files.getLastModifiedTime(artifactFile);
+
+        //Act
+        this.artifactStoreService.getMissingBlobs(Collections.singletonList(HASH));
+
+        //Assert
+        Assert.assertEquals(expectedResult, Files.getLastModifiedTime(artifactFile));
+    }
+
+    @Test
+    public void deleteUnreferencedBlobs_blobAskedForRecently_blobKept() throws IOException {
+        //Arrange
+        this.artifactStoreService.storeBlobs(this.zipBlobs(HASH, CONTENT));
+        this.expireBlobs();
+        this.artifactStoreService.getMissingBlobs(Collections.singletonList(HASH));
+
+        //Act
+        int actualResult = this.artifactStoreService.deleteUnreferencedBlobs();
+
+        //Assert
+        Assert.assertEquals(0, actualResult);
+        Assert.assertTrue(this.artifactStoreService.getMissingBlobs(Collections.singletonList(HASH)).isEmpty());
+    }
+
+    private ByteArrayInputStream zipBlobs(String hash, byte[] content) throws IOException {
+        ByteArrayOutputStream zipStream = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(zipStream)) {
+            zipOutputStream.putNextEntry(new ZipEntry(hash));
+            zipOutputStream.write(content);
+            zipOutputStream.closeEntry();
+        }
+
+        return new ByteArrayInputStream(zipStream.toByteArray());
+    }
+
+    private void expireBlobs() throws IOException {
+        FileTime expiredTime = FileTime.fromMillis(System.currentTimeMillis() - Duration.ofDays(2).toMillis());
+        try (Stream<Path> paths = Files.walk(this.artifactsDirectory.resolve(".blobs"))) {
+            for (Path path : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+                Files.setLastModifiedTime(path, expiredTime);
+            }
+        }
+    }
+}
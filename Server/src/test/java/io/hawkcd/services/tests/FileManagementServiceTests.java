@@ -0,0 +1,123 @@
+package io.hawkcd.services.tests;
+
+import io.hawkcd.services.FileManagementService;
+import io.hawkcd.services.interfaces.IFileManagementService;
+import net.lingala.zip4j.core.ZipFile;
+import net.lingala.zip4j.exception.ZipException;
+import net.lingala.zip4j.model.FileHeader;
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+public class FileManagementServiceTests {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private IFileManagementService fileManagementService;
+    private File artifactFolder;
+
+    @Before
+    public void setUp() throws IOException {
+        this.fileManagementService = new FileManagementService();
+        this.artifactFolder = this.temporaryFolder.newFolder("artifact");
+        FileUtils.writeStringToFile(new File(this.artifactFolder, "first.txt"), "first", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(this.artifactFolder, "nested/second.txt"), "second", StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void zipFilesToStream_directoryWithRootFolder_extractedWithRootFolder() throws IOException {
+        //Arrange
+        ByteArrayOutputStream zipStream = new ByteArrayOutputStream();
+        File destination = this.temporaryFolder.newFolder("destination");
+
+        //Act
+        String zipErrorMessage = this.fileManagementService.zipFilesToStream(zipStream, Collections.singletonList(this.artifactFolder), this.artifactFolder.getPath(), true);
+        String unzipErrorMessage = this.fileManagementService.unzipStream(new ByteArrayInputStream(zipStream.toByteArray()), destination.getPath());
+
+        //Assert
+        Assert.assertNull(zipErrorMessage);
+        Assert.assertNull(unzipErrorMessage);
+        Assert.assertEquals("first", FileUtils.readFileToString(new File(destination, "artifact/first.txt"), StandardCharsets.UTF_8));
+        Assert.assertEquals("second", FileUtils.readFileToString(new File(destination, "artifact/nested/second.txt"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void zipFilesToStream_filesUnderRootPath_entriesRelativeToRootPath() throws IOException {
+        //Arrange
+        ByteArrayOutputStream zipStream = new ByteArrayOutputStream();
+        List<File> files = Arrays.asList(new File(this.artifactFolder, "first.txt"), new File(this.artifactFolder, "nested/second.txt"));
+
+        //Act
+        this.fileManagementService.zipFilesToStream(zipStream, files, this.artifactFolder.getPath(), false);
+
+        //Assert
+        Assert.assertEquals(new TreeSet<>(Arrays.asList("first.txt", "nested/second.txt")), this.getEntryNames(zipStream.toByteArray()));
+    }
+
+    @Test
+    public void zipFilesToStream_directory_sameEntriesAsZipFiles() throws IOException, ZipException {
+        //Arrange
+        ByteArrayOutputStream zipStream = new ByteArrayOutputStream();
+        File zipFile = new File(this.temporaryFolder.getRoot(), "artifact.zip");
+        List<File> files = Collections.singletonList(this.artifactFolder);
+        Set<String> expectedEntryNames = new TreeSet<>();
+
+        //Act
+        this.fileManagementService.zipFilesToStream(zipStream, files, this.artifactFolder.getPath(), true);
+        this.fileManagementService.zipFiles(zipFile.getPath(), files, this.artifactFolder.getPath(), true);
+        for (Object fileHeader : new ZipFile(zipFile).getFileHeaders()) {
+            expectedEntryNames.add(((FileHeader) fileHeader).getFileName());
+        }
+
+        //Assert
+        Assert.assertEquals(expectedEntryNames, this.getEntryNames(zipStream.toByteArray()));
+    }
+
+    @Test
+    public void unzipStream_entryOutsideDestination_errorMessage() throws IOException {
+        //Arrange
+        ByteArrayOutputStream zipStream = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(zipStream)) {
+            zipOutputStream.putNextEntry(new ZipEntry("../escaped.txt"));
+            zipOutputStream.write("escaped".getBytes(StandardCharsets.UTF_8));
+            zipOutputStream.closeEntry();
+        }
+        File destination = this.temporaryFolder.newFolder("destination");
+
+        //Act
+        String actualResult = this.fileManagementService.unzipStream(new ByteArrayInputStream(zipStream.toByteArray()), destination.getPath());
+
+        //Assert
+        Assert.assertNotNull(actualResult);
+        Assert.assertFalse(new File(this.temporaryFolder.getRoot(), "escaped.txt").exists());
+    }
+
+    private Set<String> getEntryNames(byte[] zip) throws IOException {
+        Set<String> entryNames = new TreeSet<>();
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                entryNames.add(entry.getName());
+            }
+        }
+
+        return entryNames;
+    }
+}
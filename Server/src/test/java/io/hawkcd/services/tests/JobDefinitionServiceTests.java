@@ -1,8 +1,8 @@
 package io.hawkcd.services.tests;
 
-import com.fiftyonred.mock_jedis.MockJedisPool;
 import io.hawkcd.core.config.Config;
 import io.hawkcd.db.IDbRepository;
+import io.hawkcd.db.redis.EmbeddedRedisPool;
 import io.hawkcd.db.redis.RedisRepository;
 import io.hawkcd.model.*;
 import io.hawkcd.model.enums.NotificationType;
@@ -16,7 +16,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
-import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.JedisPool;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -48,7 +48,7 @@ public class JobDefinitionServiceTests {
 
     @Before
     public void setUp() {
-        MockJedisPool mockedPool = new MockJedisPool(new JedisPoolConfig(), "testJobDefinitionService");
+        JedisPool mockedPool = EmbeddedRedisPool.getFlushedPool();
         IDbRepository pipelineRepo = new RedisRepository(PipelineDefinition.class, mockedPool);
         this.pipelineDefinitionService = new PipelineDefinitionService(pipelineRepo);
         this.stageDefinitionService = new StageDefinitionService(pipelineDefinitionService);
@@ -0,0 +1,235 @@
+package io.hawkcd.services.tests;
+
+import io.hawkcd.model.payload.JobLogChunk;
+import io.hawkcd.services.JobLogService;
+import io.hawkcd.services.interfaces.IJobLogService;
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public class JobLogServiceTests {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private IJobLogService jobLogService;
+    private String jobId;
+
+    @Before
+    public void setUp() {
+        this.jobLogService = new JobLogService(this.temporaryFolder.getRoot().getPath());
+        this.jobId = UUID.randomUUID().toString();
+    }
+
+    @Test
+    public void append_consecutiveChunks_wholeLogRead() {
+        //Arrange
+        this.jobLogService.append(this.jobId, 0, this.toBytes("first "));
+        this.jobLogService.append(this.jobId, 6, this.toBytes("second"));
+
+        //Act
+        JobLogChunk actualResult = this.jobLogService.read(this.jobId, 0, 1024);
+
+        //Assert
+        Assert.assertEquals("first second", actualResult.getContent());
+        Assert.assertEquals(12, actualResult.getNextOffset());
+    }
+
+    @Test
+    public void append_chunkSentAgain_notDuplicated() {
+        //Arrange
+        this.jobLogService.append(this.jobId, 0, this.toBytes("first "));
+
+        //Act
+        long actualResult = this.jobLogService.append(this.jobId, 0, this.toBytes("first second"));
+
+        //Assert
+        Assert.assertEquals(12, actualResult);
+        Assert.assertEquals("first second", this.jobLogService.read(this.jobId, 0, 1024).getContent());
+    }
+
+    @Test
+    public void append_missingChunk_nothingAppended() {
+        //Arrange
+        this.jobLogService.append(this.jobId, 0, this.toBytes("first "));
+
+        //Act
+        long actualResult = this.jobLogService.append(this.jobId, 20, this.toBytes("third"));
+
+        //Assert
+        Assert.assertEquals(6, actualResult);
+        Assert.assertEquals(6, this.jobLogService.getLength(this.jobId));
+    }
+
+    @Test
+    public void read_fromOffset_onlyNewOutput() {
+        //Arrange
+        this.jobLogService.append(this.jobId, 0, this.toBytes("first second"));
+
+        //Act
+        JobLogChunk actualResult = this.jobLogService.read(this.jobId, 6, 1024);
+
+        //Assert
+        Assert.assertEquals("second", actualResult.getContent());
+        Assert.assertEquals(6, actualResult.getOffset());
+    }
+
+    @Test
+    public void read_limitInsideMultiByteCharacter_wholeCharactersOnly() {
+        //Arrange
+        this.jobLogService.append(this.jobId, 0, this.toBytes("жаба"));
+
+        //Act
+        JobLogChunk firstChunk = this.jobLogService.read(this.jobId, 0, 3);
+        JobLogChunk secondChunk = this.jobLogService.read(this.jobId, firstChunk.getNextOffset(), 1024);
+
+        //Assert
+        Assert.assertEquals("ж", firstChunk.getContent());
+        Assert.assertEquals("аба", secondChunk.getContent());
+    }
+
+    @Test
+    public void read_missingLog_emptyChunk() {
+        //Act
+        JobLogChunk actualResult = this.jobLogService.read(this.jobId, 0, 1024);
+
+        //Assert
+        Assert.assertEquals("", actualResult.getContent());
+        Assert.assertEquals(0, actualResult.getNextOffset());
+    }
+
+    @Test
+    public void append_segmentSizeReached_newSegmentStarted() {
+        //Arrange
+        this.jobLogService = new JobLogService(this.temporaryFolder.getRoot().getPath(), 1, Duration.ofDays(1), Long.MAX_VALUE);
+
+        //Act
+        this.jobLogService.append(this.jobId, 0, this.toBytes("first "));
+        this.jobLogService.append(this.jobId, 6, this.toBytes("second "));
+        this.jobLogService.append(this.jobId, 13, this.toBytes("third"));
+
+        //Assert
+        Assert.assertEquals(3, this.getJobLogDirectory().list((directory, name) -> name.endsWith(".log.gz")).length);
+        Assert.assertEquals("second third", this.jobLogService.read(this.jobId, 6, 1024).getContent());
+        Assert.assertEquals("cond thi", this.jobLogService.read(this.jobId, 8, 8).getContent());
+    }
+
+    @Test
+    public void append_repetitiveOutput_storedCompressed() {
+        //Arrange
+        StringBuilder output = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            output.append("Downloading dependency ").append(i % 10).append(System.lineSeparator());
+        }
+
+        //Act
+        long actualResult = this.jobLogService.append(this.jobId, 0, this.toBytes(output.toString()));
+
+        //Assert
+        Assert.assertEquals(output.length(), actualResult);
+        Assert.assertTrue(FileUtils.sizeOfDirectory(this.getJobLogDirectory()) < output.length() / 10);
+        Assert.assertEquals(output.toString(), this.jobLogService.read(this.jobId, 0, output.length()).getContent());
+    }
+
+    @Test
+    public void append_incompleteBlockLeftOver_overwritten() throws IOException {
+        //Arrange
+        this.jobLogService.append(this.jobId, 0, this.toBytes("first "));
+        Path segment = this.getJobLogDirectory().toPath().resolve(String.format("%020d.log.gz", 0));
+        Files.write(segment, new byte[] {1, 2, 3}, StandardOpenOption.APPEND);
+
+        //Act
+        this.jobLogService.append(this.jobId, 6, this.toBytes("second"));
+
+        //Assert
+        Assert.assertEquals("first second", this.jobLogService.read(this.jobId, 0, 1024).getContent());
+    }
+
+    @Test
+    public void readTail_longLog_lastBytesOnly() {
+        //Arrange
+        this.jobLogService.append(this.jobId, 0, this.toBytes("first "));
+        this.jobLogService.append(this.jobId, 6, this.toBytes("второ"));
+
+        //Act
+        JobLogChunk actualResult = this.jobLogService.readTail(this.jobId, 7);
+
+        //Assert
+        Assert.assertEquals("оро", actualResult.getContent());
+        Assert.assertEquals(10, actualResult.getOffset());
+        Assert.assertEquals(16, actualResult.getNextOffset());
+    }
+
+    @Test
+    public void deleteExpiredLogs_logOlderThanMaxAge_deleted() throws IOException {
+        //Arrange
+        this.jobLogService = new JobLogService(this.temporaryFolder.getRoot().getPath(), 1024, Duration.ofDays(1), Long.MAX_VALUE);
+        String recentJobId = UUID.randomUUID().toString();
+        this.jobLogService.append(this.jobId, 0, this.toBytes("old"));
+        this.jobLogService.append(recentJobId, 0, this.toBytes("recent"));
+        this.setLastModified(this.jobId, Duration.ofDays(2));
+
+        //Act
+        int actualResult = this.jobLogService.deleteExpiredLogs();
+
+        //Assert
+        Assert.assertEquals(1, actualResult);
+        Assert.assertEquals(0, this.jobLogService.getLength(this.jobId));
+        Assert.assertEquals(6, this.jobLogService.getLength(recentJobId));
+    }
+
+    @Test
+    public void deleteExpiredLogs_logsOverMaxSize_leastRecentlyWrittenDeleted() throws IOException {
+        //Arrange
+        String recentJobId = UUID.randomUUID().toString();
+        this.jobLogService.append(this.jobId, 0, this.toBytes("old"));
+        this.jobLogService.append(recentJobId, 0, this.toBytes("recent"));
+        this.setLastModified(this.jobId, Duration.ofMinutes(1));
+        long maxSize = FileUtils.sizeOfDirectory(this.temporaryFolder.getRoot()) - 1;
+        this.jobLogService = new JobLogService(this.temporaryFolder.getRoot().getPath(), 1024, Duration.ofDays(1), maxSize);
+
+        //Act
+        int actualResult = this.jobLogService.deleteExpiredLogs();
+
+        //Assert
+        Assert.assertEquals(1, actualResult);
+        Assert.assertEquals(0, this.jobLogService.getLength(this.jobId));
+        Assert.assertEquals(6, this.jobLogService.getLength(recentJobId));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void read_jobIdOutsideLogsDirectory_exception() {
+        //Act
+        this.jobLogService.read("../config", 0, 1024);
+    }
+
+    private File getJobLogDirectory() {
+        return new File(this.temporaryFolder.getRoot(), this.jobId);
+    }
+
+    private void setLastModified(String jobId, Duration age) throws IOException {
+        FileTime lastModified = FileTime.fromMillis(System.currentTimeMillis() - age.toMillis());
+        try (Stream<Path> files = Files.list(new File(this.temporaryFolder.getRoot(), jobId).toPath())) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.setLastModifiedTime(file, lastModified);
+            }
+        }
+    }
+
+    private byte[] toBytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -1,10 +1,10 @@
 package io.hawkcd.services.tests;
 
-import com.fiftyonred.mock_jedis.MockJedisPool;
 
 import io.hawkcd.core.config.Config;
 import io.hawkcd.utilities.constants.TestsConstants;
 import io.hawkcd.db.IDbRepository;
+import io.hawkcd.db.redis.EmbeddedRedisPool;
 import io.hawkcd.db.redis.RedisRepository;
 import io.hawkcd.model.Job;
 import io.hawkcd.model.MaterialDefinition;
@@ -30,7 +30,7 @@ import io.hawkcd.services.interfaces.IMaterialDefinitionService;
 import io.hawkcd.services.interfaces.IPipelineDefinitionService;
 import io.hawkcd.services.interfaces.IPipelineService;
 import io.hawkcd.services.interfaces.IStageService;
-import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.JedisPool;
 
 import java.util.List;
 import java.util.UUID;
@@ -55,7 +55,7 @@ public class JobServiceTests {
 
     @Before
     public void setUp() {
-        MockJedisPool mockJedisPool = new MockJedisPool(new JedisPoolConfig(), "testJobService");
+        JedisPool mockJedisPool = EmbeddedRedisPool.getFlushedPool();
         IDbRepository pipelineRepository = new RedisRepository(Pipeline.class, mockJedisPool);
         IDbRepository pipelineDefinitionRepository = new RedisRepository(PipelineDefinition.class, mockJedisPool);
         IDbRepository materialDefinitionRepo = new RedisRepository(MaterialDefinition.class, mockJedisPool);
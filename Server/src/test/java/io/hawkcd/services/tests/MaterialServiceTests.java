@@ -1,10 +1,10 @@
 package io.hawkcd.services.tests;
 
-import com.fiftyonred.mock_jedis.MockJedisPool;
 
 import io.hawkcd.core.config.Config;
 import io.hawkcd.utilities.constants.TestsConstants;
 import io.hawkcd.db.IDbRepository;
+import io.hawkcd.db.redis.EmbeddedRedisPool;
 import io.hawkcd.db.redis.RedisRepository;
 import io.hawkcd.model.Material;
 import io.hawkcd.model.ServiceResult;
@@ -16,7 +16,7 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
-import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.JedisPool;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -34,7 +34,7 @@ public class MaterialServiceTests {
 
     @Before
     public void setUp() {
-        MockJedisPool mockedPool = new MockJedisPool(new JedisPoolConfig(), "testMaterialService");
+        JedisPool mockedPool = EmbeddedRedisPool.getFlushedPool();
         this.repository = new RedisRepository(Material.class, mockedPool);
         this.materialService = new MaterialService(this.repository);
     }
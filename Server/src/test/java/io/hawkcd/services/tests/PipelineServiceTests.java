@@ -1,10 +1,10 @@
 package io.hawkcd.services.tests;
 
-import com.fiftyonred.mock_jedis.MockJedisPool;
 
 import io.hawkcd.core.config.Config;
 import io.hawkcd.utilities.constants.TestsConstants;
 import io.hawkcd.db.IDbRepository;
+import io.hawkcd.db.redis.EmbeddedRedisPool;
 import io.hawkcd.db.redis.RedisRepository;
 import io.hawkcd.model.dto.PipelineDto;
 import io.hawkcd.model.enums.JobStatus;
@@ -32,7 +32,7 @@ import io.hawkcd.model.PipelineDefinition;
 import io.hawkcd.model.ServiceResult;
 import io.hawkcd.model.StageDefinition;
 import io.hawkcd.model.TaskDefinition;
-import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.JedisPool;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -53,7 +53,7 @@ public class PipelineServiceTests {
 
     @Before
     public void setUp() {
-        MockJedisPool mockedPool = new MockJedisPool(new JedisPoolConfig(), "testPipelineService");
+        JedisPool mockedPool = EmbeddedRedisPool.getFlushedPool();
         this.pipelineRepo = new RedisRepository(Pipeline.class, mockedPool);
         this.pipelineDefinitionRepository = new RedisRepository(PipelineDefinition.class, mockedPool);
         this.materialDefinitionIDbRepository = new RedisRepository(MaterialDefinition.class, mockedPool);
@@ -1,10 +1,10 @@
 package io.hawkcd.services.tests;
 
-import com.fiftyonred.mock_jedis.MockJedisPool;
 
 import io.hawkcd.core.config.Config;
 import io.hawkcd.utilities.constants.TestsConstants;
 import io.hawkcd.db.IDbRepository;
+import io.hawkcd.db.redis.EmbeddedRedisPool;
 import io.hawkcd.db.redis.RedisRepository;
 import io.hawkcd.model.PipelineDefinition;
 import io.hawkcd.model.ServiceResult;
@@ -19,7 +19,7 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
-import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.JedisPool;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -37,7 +37,7 @@ public class StageDefinitionServiceTests {
 
     @Before
     public void setUp() {
-        MockJedisPool mockedPool = new MockJedisPool(new JedisPoolConfig(), "testStageDefinitionService");
+        JedisPool mockedPool = EmbeddedRedisPool.getFlushedPool();
         IDbRepository mockedPipelineRepo = new RedisRepository(PipelineDefinition.class, mockedPool);
         this.mockedPipelineDefinitionService = new PipelineDefinitionService(mockedPipelineRepo);
         this.mockedStageDefinitionService = new StageDefinitionService(this.mockedPipelineDefinitionService);
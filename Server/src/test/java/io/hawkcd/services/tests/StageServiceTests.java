@@ -1,9 +1,9 @@
 package io.hawkcd.services.tests;
 
-import com.fiftyonred.mock_jedis.MockJedisPool;
 
 import io.hawkcd.core.config.Config;
 import io.hawkcd.db.IDbRepository;
+import io.hawkcd.db.redis.EmbeddedRedisPool;
 import io.hawkcd.db.redis.RedisRepository;
 import io.hawkcd.model.ServiceResult;
 import io.hawkcd.model.Stage;
@@ -25,7 +25,7 @@ import org.junit.Test;
 import io.hawkcd.model.MaterialDefinition;
 import io.hawkcd.model.Pipeline;
 import io.hawkcd.model.PipelineDefinition;
-import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.JedisPool;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -49,7 +49,7 @@ public class StageServiceTests {
 
     @Before
     public void setUp() {
-        MockJedisPool mockJedisPool = new MockJedisPool(new JedisPoolConfig(), "testStageService");
+        JedisPool mockJedisPool = EmbeddedRedisPool.getFlushedPool();
         IDbRepository pipelineRepo = new RedisRepository(Pipeline.class, mockJedisPool);
         IDbRepository pipelineDefinitionRepo = new RedisRepository(PipelineDefinition.class, mockJedisPool);
         IDbRepository materialDefinitionRepo = new RedisRepository(MaterialDefinition.class, mockJedisPool);
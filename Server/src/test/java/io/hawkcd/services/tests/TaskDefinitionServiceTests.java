@@ -1,9 +1,9 @@
 package io.hawkcd.services.tests;
 
-import com.fiftyonred.mock_jedis.MockJedisPool;
 
 import io.hawkcd.core.config.Config;
 import io.hawkcd.db.IDbRepository;
+import io.hawkcd.db.redis.EmbeddedRedisPool;
 import io.hawkcd.db.redis.RedisRepository;
 import io.hawkcd.model.ExecTask;
 import io.hawkcd.model.FetchArtifactTask;
@@ -30,7 +30,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.mockito.Mockito;
 
-import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.JedisPool;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -58,7 +58,7 @@ public class TaskDefinitionServiceTests {
 
     @Before
     public void setUp() {
-        MockJedisPool mockedPool = new MockJedisPool(new JedisPoolConfig(), "testJobDefinitionService");
+        JedisPool mockedPool = EmbeddedRedisPool.getFlushedPool();
         IDbRepository pipelineRepo = new RedisRepository(PipelineDefinition.class, mockedPool);
         this.pipelineDefinitionService = new PipelineDefinitionService(pipelineRepo);
         this.stageDefinitionService = new StageDefinitionService(this.pipelineDefinitionService);
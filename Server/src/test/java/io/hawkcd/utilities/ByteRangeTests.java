@@ -0,0 +1,67 @@
+package io.hawkcd.utilities;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ByteRangeTests {
+    @Test
+    public void parse_startAndEnd_rangeWithinFile() {
+        //Act
+        ByteRange actualResult = ByteRange.parse("bytes=100-199", 1000);
+
+        //Assert
+        Assert.assertEquals(100, actualResult.getStart());
+        Assert.assertEquals(199, actualResult.getEnd());
+        Assert.assertEquals(100, actualResult.getLength());
+        Assert.assertEquals("bytes 100-199/1000", actualResult.toContentRange(1000));
+    }
+
+    @Test
+    public void parse_openEnded_rangeToEndOfFile() {
+        //Act
+        ByteRange actualResult = ByteRange.parse("bytes=900-", 1000);
+
+        //Assert
+        Assert.assertEquals(900, actualResult.getStart());
+        Assert.assertEquals(999, actualResult.getEnd());
+    }
+
+    @Test
+    public void parse_suffix_lastBytesOfFile() {
+        //Act
+        ByteRange actualResult = ByteRange.parse("bytes=-300", 1000);
+
+        //Assert
+        Assert.assertEquals(700, actualResult.getStart());
+        Assert.assertEquals(999, actualResult.getEnd());
+    }
+
+    @Test
+    public void parse_endAfterEndOfFile_endOfFile() {
+        //Act
+        ByteRange actualResult = ByteRange.parse("bytes=500-5000", 1000);
+
+        //Assert
+        Assert.assertEquals(999, actualResult.getEnd());
+        Assert.assertTrue(actualResult.isSatisfiable());
+    }
+
+    @Test
+    public void parse_startAfterEndOfFile_notSatisfiable() {
+        //Act
+        ByteRange actualResult = ByteRange.parse("bytes=1000-", 1000);
+
+        //Assert
+        Assert.assertFalse(actualResult.isSatisfiable());
+    }
+
+    @Test
+    public void parse_unsupportedHeaders_null() {
+        //Assert
+        Assert.assertNull(ByteRange.parse(null, 1000));
+        Assert.assertNull(ByteRange.parse("bytes=0-99,200-299", 1000));
+        Assert.assertNull(ByteRange.parse("items=0-99", 1000));
+        Assert.assertNull(ByteRange.parse("bytes=-", 1000));
+        Assert.assertNull(ByteRange.parse("bytes=500-100", 1000));
+    }
+}
@@ -1,8 +1,8 @@
 package io.hawkcd.utilities;
 
-import com.fiftyonred.mock_jedis.MockJedisPool;
 import io.hawkcd.core.config.Config;
 import io.hawkcd.db.IDbRepository;
+import io.hawkcd.db.redis.EmbeddedRedisPool;
 import io.hawkcd.db.redis.RedisRepository;
 import io.hawkcd.model.PipelineGroup;
 import io.hawkcd.model.User;
@@ -14,7 +14,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
-import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.JedisPool;
 
 public class DataImporterTests {
     private IDbRepository<PipelineGroup> mockedPipelineGroupRepository;
@@ -30,7 +30,7 @@ public class DataImporterTests {
 
     @Before
     public void setUp() {
-        MockJedisPool mockedPool = new MockJedisPool(new JedisPoolConfig(), "testDataImporter");
+        JedisPool mockedPool = EmbeddedRedisPool.getFlushedPool();
         this.mockedPipelineGroupRepository = new RedisRepository(PipelineGroup.class, mockedPool);
         this.mockedUserRepository = new RedisRepository(User.class, mockedPool);
 
@@ -0,0 +1,80 @@
+package io.hawkcd.utilities;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JsonPatchTests {
+    private JsonParser jsonParser = new JsonParser();
+
+    @Test
+    public void diff_sameDocument_noOperations() {
+        //Arrange
+        JsonElement document = this.parse("{\"id\":\"1\",\"stages\":[{\"status\":\"PASSED\"}]}");
+
+        //Act
+        JsonArray actualResult = JsonPatch.diff(document, this.parse("{\"id\":\"1\",\"stages\":[{\"status\":\"PASSED\"}]}"));
+
+        //Assert
+        Assert.assertEquals(0, actualResult.size());
+    }
+
+    @Test
+    public void diff_changedNestedField_replaceOperationOnField() {
+        //Arrange
+        JsonElement source = this.parse("{\"id\":\"1\",\"stages\":[{\"status\":\"IN_PROGRESS\"},{\"status\":\"AWAITING\"}]}");
+        JsonElement target = this.parse("{\"id\":\"1\",\"stages\":[{\"status\":\"PASSED\"},{\"status\":\"AWAITING\"}]}");
+
+        //Act
+        JsonArray actualResult = JsonPatch.diff(source, target);
+
+        //Assert
+        Assert.assertEquals(this.parse("[{\"op\":\"replace\",\"path\":\"/stages/0/status\",\"value\":\"PASSED\"}]"), actualResult);
+    }
+
+    @Test
+    public void diff_addedAndRemovedFields_addAndRemoveOperations() {
+        //Arrange
+        JsonElement source = this.parse("{\"startTime\":\"10:00\",\"a/b~c\":1}");
+        JsonElement target = this.parse("{\"endTime\":\"11:00\",\"a/b~c\":2}");
+
+        //Act
+        JsonArray actualResult = JsonPatch.diff(source, target);
+
+        //Assert
+        Assert.assertEquals(this.parse("[{\"op\":\"remove\",\"path\":\"/startTime\"},"
+                + "{\"op\":\"add\",\"path\":\"/endTime\",\"value\":\"11:00\"},"
+                + "{\"op\":\"replace\",\"path\":\"/a~1b~0c\",\"value\":2}]"), actualResult);
+    }
+
+    @Test
+    public void diff_arrayOfDifferentSize_replaceOperationOnArray() {
+        //Arrange
+        JsonElement source = this.parse("{\"stages\":[1]}");
+        JsonElement target = this.parse("{\"stages\":[1,2]}");
+
+        //Act
+        JsonArray actualResult = JsonPatch.diff(source, target);
+
+        //Assert
+        Assert.assertEquals(this.parse("[{\"op\":\"replace\",\"path\":\"/stages\",\"value\":[1,2]}]"), actualResult);
+    }
+
+    @Test
+    public void replaceDocument_document_replaceOperationWithEmptyPath() {
+        //Arrange
+        JsonElement document = this.parse("{\"id\":\"1\"}");
+
+        //Act
+        JsonArray actualResult = JsonPatch.replaceDocument(document);
+
+        //Assert
+        Assert.assertEquals(this.parse("[{\"op\":\"replace\",\"path\":\"\",\"value\":{\"id\":\"1\"}}]"), actualResult);
+    }
+
+    private JsonElement parse(String json) {
+        return this.jsonParser.parse(json);
+    }
+}
@@ -0,0 +1,62 @@
+package io.hawkcd.utilities;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+
+public class StripedLockTests {
+    @Test
+    public void get_sameKey_sameLock() {
+        //Arrange
+        StripedLock stripedLock = new StripedLock(16);
+        String key = UUID.randomUUID().toString();
+
+        //Act
+        Lock firstLock = stripedLock.get(key);
+        Lock secondLock = stripedLock.get(new String(key));
+
+        //Assert
+        Assert.assertSame(firstLock, secondLock);
+    }
+
+    @Test
+    public void get_manyKeys_boundedAndSpreadLocks() {
+        //Arrange
+        StripedLock stripedLock = new StripedLock(16);
+        Set<Lock> locks = new HashSet<>();
+
+        //Act
+        for (int i = 0; i < 1000; i++) {
+            locks.add(stripedLock.get(UUID.randomUUID().toString()));
+        }
+
+        //Assert
+        Assert.assertEquals(16, locks.size());
+    }
+
+    @Test
+    public void get_keyLockedByAnotherThread_otherKeysAvailable() throws InterruptedException {
+        //Arrange
+        StripedLock stripedLock = new StripedLock(16);
+        Lock lockedStripe = stripedLock.get("pipeline");
+        Thread owner = new Thread(lockedStripe::lock);
+        owner.start();
+        owner.join();
+        String otherKey = "other";
+        for (int i = 0; stripedLock.get(otherKey) == lockedStripe; i++) {
+            otherKey = "other" + i;
+        }
+
+        //Act
+        boolean isOtherKeyLocked = stripedLock.get(otherKey).tryLock();
+        boolean isSameKeyLocked = stripedLock.get("pipeline").tryLock();
+
+        //Assert
+        Assert.assertTrue(isOtherKeyLocked);
+        Assert.assertFalse(isSameKeyLocked);
+    }
+}
@@ -20,6 +20,9 @@ angular
     .factory('pipelineUpdater', ['viewModel', 'commonUtitlites', 'moment', 'loggerService', function (viewModel, commonUtitlites, moment, loggerService) {
         var pipelineUpdater = this;
 
+        // last pipeline documents received as patches by id, with their versions
+        var pipelineSnapshots = {};
+
         pipelineUpdater.truncateGitFromUrl = function(repoUrl, commitId) {
             return commonUtitlites.truncateGitFromUrl(repoUrl,commitId);
         };
@@ -93,6 +96,52 @@ angular
             });
         };
 
+        // applies a patch sent by the server and updates the pipeline with the result,
+        // returns false when the patch is not based on the last version received so a resync has to be requested
+        pipelineUpdater.patchPipeline = function (patch) {
+            var snapshot = pipelineSnapshots[patch.id];
+            if (snapshot && patch.version <= snapshot.version) {
+                return true;
+            }
+
+            if (patch.baseVersion !== 0 && (!snapshot || snapshot.version !== patch.baseVersion)) {
+                delete pipelineSnapshots[patch.id];
+                return false;
+            }
+
+            var pipeline = patch.baseVersion === 0 ? {} : angular.copy(snapshot.pipeline);
+            patch.operations.forEach(function (operation) {
+                pipeline = applyPatchOperation(pipeline, operation);
+            });
+
+            pipelineSnapshots[patch.id] = {version: patch.version, pipeline: pipeline};
+            pipelineUpdater.updatePipeline(angular.copy(pipeline));
+            return true;
+        };
+
+        var applyPatchOperation = function (document, operation) {
+            if (operation.path === '') {
+                return angular.copy(operation.value);
+            }
+
+            var tokens = operation.path.substring(1).split('/').map(function (token) {
+                return token.replace(/~1/g, '/').replace(/~0/g, '~');
+            });
+            var parent = document;
+            for (var i = 0; i < tokens.length - 1; i++) {
+                parent = parent[tokens[i]];
+            }
+
+            var key = tokens[tokens.length - 1];
+            if (operation.op === 'remove') {
+                delete parent[key];
+            } else {
+                parent[key] = angular.copy(operation.value);
+            }
+
+            return document;
+        };
+
         pipelineUpdater.updatePipeline = function (pipeline) {
             // viewModel.allPipelineRuns.forEach(function (currentPipeline, index, array) {
             //     if(currentPipeline.id == pipeline.id) {
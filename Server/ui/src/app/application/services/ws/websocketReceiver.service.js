@@ -226,6 +226,13 @@ angular
                     update: function(object) {
                         validationService.dispatcherFlow(object, [pipelineUpdater.updatePipeline]);
                     },
+                    patch: function(object) {
+                        validationService.dispatcherFlow(object, [function(patch) {
+                            if (!pipelineUpdater.patchPipeline(patch)) {
+                                pipeExecService.resyncPipeline(patch.id);
+                            }
+                        }]);
+                    },
                     delete: function(object) {
 
                     }
@@ -0,0 +1,89 @@
+/* Copyright (C) 2016 R&D Solutions Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+'use strict';
+
+angular
+    .module('hawk.pipelinesManagement')
+    .factory('websocketSubscriptionService', ['$rootScope', 'jsonHandlerService', 'websocketSenderService', 'viewModel', 'viewModelUpdater', function ($rootScope, jsonHandlerService, websocketSenderService, viewModel, viewModelUpdater) {
+        var websocketSubscriptionService = this;
+
+        var ALL_TOPICS = ['*'];
+        var DASHBOARD_STATE = 'index.pipelines';
+        var currentTopics = ALL_TOPICS;
+        var currentState = null;
+        var currentParams = null;
+
+        var getDashboardGroupTopics = function () {
+            return (viewModel.allPipelineGroups || []).map(function (pipelineGroup) {
+                return 'pipelineGroup:' + pipelineGroup.id;
+            });
+        };
+
+        // the topics of the updates a state shows, states not listed here show updates of all topics
+        var getTopicsForState = function (state, params) {
+            if (state.name.indexOf('index.pipelineHistory') === 0) {
+                return ['pipelineDefinition:' + params.pipelineId];
+            } else if (state.name === 'index.agents') {
+                return ['agents'];
+            } else if (state.name === DASHBOARD_STATE) {
+                // the dashboard shows the pipeline groups of the user, until they are loaded it shows updates of all topics
+                var groupTopics = getDashboardGroupTopics();
+                return groupTopics.length > 0 ? groupTopics : ALL_TOPICS;
+            }
+
+            return ALL_TOPICS;
+        };
+
+        websocketSubscriptionService.subscribe = function (topics) {
+            var methodName = "subscribe";
+            var className = "SubscriptionService";
+            var packageName = "io.hawkcd.core.session";
+            var result = "";
+            var args = topics.map(function (topic) {
+                return "{\"packageName\": \"java.lang.String\", \"object\": \"" + topic + "\"}";
+            });
+            var error = "";
+            var json = jsonHandlerService.createJson(className, packageName, methodName, result, error, args);
+            websocketSenderService.call(json);
+        };
+
+        websocketSubscriptionService.subscribeForState = function (state, params) {
+            currentState = state;
+            currentParams = params;
+            var topics = getTopicsForState(state, params);
+            if (angular.equals(topics, currentTopics)) {
+                return;
+            }
+
+            var wasSubscribedToAll = angular.equals(currentTopics, ALL_TOPICS);
+            currentTopics = topics;
+            websocketSubscriptionService.subscribe(topics);
+
+            // updates of other topics were not received while the subscription was narrowed
+            if (!wasSubscribedToAll && angular.equals(topics, ALL_TOPICS)) {
+                viewModelUpdater.refreshViewModel();
+            }
+        };
+
+        // the groups of the dashboard are loaded after it is opened and can change while it is shown
+        $rootScope.$watchCollection(getDashboardGroupTopics, function () {
+            if (currentState && currentState.name === DASHBOARD_STATE) {
+                websocketSubscriptionService.subscribeForState(currentState, currentParams);
+            }
+        });
+
+        return websocketSubscriptionService;
+    }]);
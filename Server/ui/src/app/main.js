@@ -182,11 +182,15 @@ angular
 ])
 
 /* Init global settings and run the app */
-.run(["$rootScope", "settings", "$state", "websocketReceiverService", "agentService", "loggerService", "adminGroupService", "adminService", "adminMaterialService", "pipeConfigService", "pipeExecService", "authenticationService", "toaster", "$auth", "$location", "CONSTANTS", "notificationService", function($rootScope, settings, $state, websocketReceiverService, agentService, loggerService, adminGroupService, adminService, adminMaterialService, pipeConfigService, pipeExecService, authenticationService, toaster, $auth, $location, CONSTANTS, notificationService) {
+.run(["$rootScope", "settings", "$state", "websocketReceiverService", "websocketSubscriptionService", "agentService", "loggerService", "adminGroupService", "adminService", "adminMaterialService", "pipeConfigService", "pipeExecService", "authenticationService", "toaster", "$auth", "$location", "CONSTANTS", "notificationService", function($rootScope, settings, $state, websocketReceiverService, websocketSubscriptionService, agentService, loggerService, adminGroupService, adminService, adminMaterialService, pipeConfigService, pipeExecService, authenticationService, toaster, $auth, $location, CONSTANTS, notificationService) {
     $rootScope.$state = $state; // state to be accessed from view
     $rootScope.$settings = settings; // state to be accessed from view
     $rootScope.$on('$stateChange');
 
+    $rootScope.$on('$stateChangeSuccess', function(event, toState, toParams) {
+        websocketSubscriptionService.subscribeForState(toState, toParams);
+    });
+
     $rootScope.$on("$locationChangeSuccess", function(event, newUrl, oldUrl) {
         $rootScope.localStorageDebug = localStorage.getItem('hawkDebug');
 
@@ -239,6 +243,12 @@ angular
                 return;
             }
 
+            // 1013 (try again later) is sent when updates for this client were dropped, so everything is loaded again
+            if (event.code === 1013) {
+                window.location.reload();
+                return;
+            }
+
 //            if (!window.timerID) {
 //                window.timerID = setInterval(function() {
 //                    start(wsServerLocation)
@@ -19,9 +19,10 @@ angular
     .module('hawk.pipelinesManagement')
     .controller('PipelinesRunManagement', ['$state','$scope','$stateParams','$interval','pipeExecService','authDataService',
                                             'viewModel', 'pipelineUpdater','moment','ansi_up','$sce','commonUtitlites', 'loggerService',
+                                            'pipeRunManagementService',
                                             function ($state, $scope, $stateParams, $interval, pipeExecService,
                                                     authDataService, viewModel, pipelineUpdater, moment, ansi_up, $sce,
-                                                    commonUtilities, loggerService) {
+                                                    commonUtilities, loggerService, pipeRunManagementService) {
         var vm = this;
         vm.disabledBtn = false;
 
@@ -244,7 +245,7 @@ angular
                 });
                 vm.currentPipelineRun.stages.forEach(function (currentStage, stageIndex, stageArray) {
                     currentStage.jobs.forEach(function (currentJob, jobIndex, jobArray) {
-                        currentJob.processedReport = ansi_up.ansi_to_html(currentJob.report);
+                        currentJob.processedReport = ansi_up.ansi_to_html(currentJob.report || '');
                         currentJob.processedReport = $sce.trustAsHtml(currentJob.processedReport);
 
                     });
@@ -281,7 +282,7 @@ angular
                     });
                     currentPipelineRun.stages.forEach(function (currentStage, stageIndex, stageArray) {
                         currentStage.jobs.forEach(function (currentJob, jobIndex, jobArray) {
-                            currentJob.processedReport = ansi_up.ansi_to_html(currentJob.report);
+                            currentJob.processedReport = ansi_up.ansi_to_html(currentJob.report || '');
                             currentJob.processedReport = $sce.trustAsHtml(currentJob.processedReport);
 
                         });
@@ -357,9 +358,44 @@ angular
             vm.selectedJob = vm.currentPipelineRun.stages[vm.toggleRun].jobs[jobIndex];
             vm.selectedRunIndex = selectedRunIndex;
             vm.jobIndex = jobIndex;
+
+            vm.jobLog = {
+                jobId: vm.selectedJob.id,
+                offset: 0,
+                content: ''
+            };
+            //runs reported before the log was stored separately still carry it in the job
+            vm.processedJobLog = vm.selectedJob.report ? $sce.trustAsHtml(ansi_up.ansi_to_html(vm.selectedJob.report)) : '';
+            vm.loadJobLog();
         };
 
+        //The console output is read in chunks from the last offset instead of being sent with every pipeline update
+        vm.loadJobLog = function () {
+            var jobLog = vm.jobLog;
+            if (!jobLog || vm.isLoadingJobLog) {
+                return;
+            }
+
+            vm.isLoadingJobLog = true;
+            pipeRunManagementService.getJobLog(jobLog.jobId, jobLog.offset)
+                .then(function (chunk) {
+                    if (jobLog !== vm.jobLog || chunk.nextOffset === jobLog.offset) {
+                        return;
+                    }
+
+                    jobLog.content += chunk.content;
+                    jobLog.offset = chunk.nextOffset;
+                    vm.processedJobLog = $sce.trustAsHtml(ansi_up.ansi_to_html(jobLog.content));
+                })
+                .finally(function () {
+                    vm.isLoadingJobLog = false;
+                });
+        };
+
+        var jobLogInterval = $interval(vm.loadJobLog, 2000);
+
         $scope.$on("$destroy", function() {
+            $interval.cancel(jobLogInterval);
             pipelineUpdater.flushRunManagementPipeline();
         });
     }]);
@@ -77,6 +77,17 @@ angular
             websocketSenderService.call(json);
         };
 
+        pipeExecService.resyncPipeline = function (id) {
+            var methodName = "resync";
+            var className = "PipelineService";
+            var packageName = "io.hawkcd.services";
+            var result = "";
+            var args = ["{\"packageName\": \"java.lang.String\", \"object\": \"" + id + "\"}"];
+            var error = "";
+            var json = jsonHandlerService.createJson(className, packageName, methodName, result, error, args);
+            websocketSenderService.call(json);
+        };
+
         pipeExecService.update = function (pipeline) {
             var methodName = "update";
             var className = "PipelineService";
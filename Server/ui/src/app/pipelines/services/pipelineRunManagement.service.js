@@ -17,8 +17,29 @@
 
 angular
     .module('hawk.pipelinesManagement')
-    .factory('pipeRunManagementService', [function () {
+    .factory('pipeRunManagementService', ['$http', '$q', 'CONSTANTS', function ($http, $q, CONSTANTS) {
         var pipeRunManagementService = this;
 
+        var jobsEndPoint = CONSTANTS.SERVER_URL + '/jobs/';
+
+        //Reads the console output of a job from the given byte offset, the response holds the offset to continue from
+        pipeRunManagementService.getJobLog = function (jobId, offset) {
+            var defer = $q.defer();
+
+            $http.get(jobsEndPoint + jobId + '/log', {
+                    params: {
+                        offset: offset
+                    }
+                })
+                .success(function (res) {
+                    defer.resolve(res);
+                })
+                .error(function (err, status) {
+                    defer.reject(err);
+                });
+
+            return defer.promise;
+        };
+
         return pipeRunManagementService;
     }]);
\ No newline at end of file